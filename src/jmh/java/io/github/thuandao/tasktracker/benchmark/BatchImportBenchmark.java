@@ -0,0 +1,89 @@
+package io.github.thuandao.tasktracker.benchmark;
+
+import io.github.thuandao.tasktracker.TaskCliRunner;
+import io.github.thuandao.tasktracker.service.TaskService;
+import io.github.thuandao.tasktracker.store.JsonFileTaskStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks for importing tasks with the {@code batch} command into an empty
+ * JSON tasks file, which saves once for the whole batch. Each invocation
+ * starts from a new file, so it is measured as a single shot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BatchImportBenchmark {
+
+    /**
+     * The number of add commands in the batch file.
+     */
+    @Param({ "1000", "100000" })
+    private int commandCount;
+
+    private Path directory;
+    private Path batchFile;
+    private Path tasksFile;
+    private TaskCliRunner taskCliRunner;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("batch-import");
+        batchFile = directory.resolve("import.txt");
+        StringBuilder commands = new StringBuilder();
+        for (int i = 1; i <= commandCount; i++) {
+            commands.append("add \"Imported task ").append(i).append("\"\n");
+        }
+        Files.writeString(batchFile, commands);
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Setup(Level.Invocation)
+    public void createService() throws IOException {
+        tasksFile = directory.resolve("tasks.json");
+        Files.deleteIfExists(tasksFile);
+        taskCliRunner = new TaskCliRunner(new TaskService(new JsonFileTaskStore(tasksFile)));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void batchImport() {
+        taskCliRunner.run("batch", batchFile.toString());
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.thuandao.tasktracker.benchmark;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.util.BinaryUtil;
+import io.github.thuandao.tasktracker.util.JsonUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for saving and loading tasks in the binary format of
+ * {@link BinaryUtil}, against the same tasks as JSON through the streams the
+ * file stores use. Files are written to and read from memory; the setup
+ * prints the size of each format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class BinaryUtilBenchmark {
+
+    /**
+     * The number of tasks in the file.
+     */
+    @Param({ "1000", "100000", "1000000" })
+    private int taskCount;
+
+    private List<Task> tasks;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() throws IOException {
+        tasks = InMemoryTaskStore.createTasks(taskCount);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonUtil.writeJson(tasks, out);
+        json = out.toByteArray();
+        out = new ByteArrayOutputStream();
+        BinaryUtil.writeBinary(tasks, out);
+        binary = out.toByteArray();
+        System.out.printf("%n%d tasks: json %d bytes, binary %d bytes%n", taskCount, json.length, binary.length);
+    }
+
+    @Benchmark
+    public OutputStream saveJson() throws IOException {
+        OutputStream out = OutputStream.nullOutputStream();
+        JsonUtil.writeJson(tasks, out);
+        return out;
+    }
+
+    @Benchmark
+    public OutputStream saveBinary() throws IOException {
+        OutputStream out = OutputStream.nullOutputStream();
+        BinaryUtil.writeBinary(tasks, out);
+        return out;
+    }
+
+    @Benchmark
+    public List<Task> loadJson() throws IOException {
+        return JsonUtil.fromJson(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public List<Task> loadBinary() throws IOException {
+        return BinaryUtil.fromBinary(new ByteArrayInputStream(binary));
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.thuandao.tasktracker.benchmark;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.util.BinaryUtil;
+import io.github.thuandao.tasktracker.util.BlockCompression;
+import io.github.thuandao.tasktracker.util.JsonUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the CPU cost of saving and loading tasks compressed with
+ * {@link BlockCompression}, against the same format uncompressed. Files are
+ * written to and read from memory, so the results are the time a save or load
+ * spends besides disk I/O; the setup prints the size of each file, which sets
+ * the I/O that compression saves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    /**
+     * The number of tasks in the file.
+     */
+    @Param({ "10000", "1000000" })
+    private int taskCount;
+
+    /**
+     * The format of the tasks inside the file.
+     */
+    @Param({ "json", "binary" })
+    private String format;
+
+    /**
+     * The Deflate level, or 0 for an uncompressed file.
+     */
+    @Param({ "0", "1", "6" })
+    private int level;
+
+    private List<Task> tasks;
+    private byte[] file;
+
+    @Setup
+    public void setUp() throws IOException {
+        tasks = InMemoryTaskStore.createTasks(taskCount);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out);
+        file = out.toByteArray();
+        System.out.printf("%n%d tasks, %s, level %d: %d bytes%n", taskCount, format, level, file.length);
+    }
+
+    @Benchmark
+    public OutputStream save() throws IOException {
+        OutputStream out = OutputStream.nullOutputStream();
+        write(out);
+        return out;
+    }
+
+    @Benchmark
+    public List<Task> load() throws IOException {
+        InputStream in = new ByteArrayInputStream(file);
+        if (level > 0) {
+            in = BlockCompression.decompress(in);
+        }
+        return format.equals("binary")
+                ? BinaryUtil.fromBinary(in)
+                : JsonUtil.fromJson(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private void write(OutputStream out) throws IOException {
+        BlockCompression.CompressingOutputStream compressed = level > 0 ? BlockCompression.compress(out, level) : null;
+        OutputStream target = compressed != null ? compressed : out;
+        if (format.equals("binary")) {
+            BinaryUtil.writeBinary(tasks, target);
+        } else {
+            JsonUtil.writeJson(tasks, target);
+        }
+        if (compressed != null) {
+            compressed.finish();
+        }
+    }
+}
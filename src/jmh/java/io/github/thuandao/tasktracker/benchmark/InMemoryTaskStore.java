@@ -0,0 +1,57 @@
+package io.github.thuandao.tasktracker.benchmark;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.store.TaskChange;
+import io.github.thuandao.tasktracker.store.TaskStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Task store that keeps nothing, so benchmarks measure the task service
+ * rather than disk I/O. Loads a fixed set of tasks and drops every commit.
+ */
+class InMemoryTaskStore implements TaskStore {
+    private final List<Task> tasks;
+
+    /**
+     * Creates a store that loads the given tasks.
+     * 
+     * @param tasks The tasks to load
+     */
+    InMemoryTaskStore(List<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * Creates tasks with IDs 1 to count, spread evenly over the statuses.
+     * 
+     * @param count The number of tasks
+     * @return The tasks, in ID order
+     */
+    static List<Task> createTasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            Task task = new Task(id, "Benchmark task number " + id);
+            task.setStatus(TaskStatus.values()[(int) (id % 3)]);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    @Override
+    public List<Task> load() {
+        return new ArrayList<>(tasks);
+    }
+
+    @Override
+    public boolean isModified() {
+        return false;
+    }
+
+    @Override
+    public void commit(List<TaskChange> changes, Supplier<List<Task>> tasks) {
+    }
+}
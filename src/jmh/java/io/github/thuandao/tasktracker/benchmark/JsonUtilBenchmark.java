@@ -0,0 +1,93 @@
+package io.github.thuandao.tasktracker.benchmark;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.util.JsonUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmarks for converting tasks to and from JSON with {@link JsonUtil}.
+ * {@link #fromJsonRegex()} runs the regex-based parsing that {@code fromJson}
+ * used before the streaming parser, as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonUtilBenchmark {
+
+    /**
+     * The number of tasks in the converted list.
+     */
+    @Param({ "1000", "100000" })
+    private int taskCount;
+
+    private List<Task> tasks;
+    private String json;
+    private Task task;
+    private String taskJson;
+
+    @Setup
+    public void setUp() {
+        tasks = InMemoryTaskStore.createTasks(taskCount);
+        json = JsonUtil.toJson(tasks);
+        task = tasks.get(0);
+        taskJson = JsonUtil.toJson(task);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return JsonUtil.toJson(tasks);
+    }
+
+    @Benchmark
+    public List<Task> fromJson() {
+        return JsonUtil.fromJson(json);
+    }
+
+    @Benchmark
+    public int fromJsonRegex() {
+        int count = 0;
+        Matcher matcher = Pattern.compile("\\{[^}]+\\}").matcher(json);
+        while (matcher.find()) {
+            String taskJson = matcher.group();
+            Pattern.compile("\"id\":\\s*(\\d+)").matcher(taskJson).find();
+            Pattern.compile("\"description\":\\s*\"([^\"]*)\"").matcher(taskJson).find();
+            Pattern.compile("\"status\":\\s*\"([^\"]*)\"").matcher(taskJson).find();
+            Matcher dates = Pattern.compile("\"(createdAt|updatedAt)\":\\s*\"([^\"]*)\"").matcher(taskJson);
+            while (dates.find()) {
+                LocalDateTime.parse(dates.group(2));
+            }
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public String toJsonSingleTask() {
+        return JsonUtil.toJson(task);
+    }
+
+    @Benchmark
+    public Task fromJsonSingleTask() {
+        return JsonUtil.taskFromJson(taskJson);
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.thuandao.tasktracker.benchmark;
+
+import io.github.thuandao.tasktracker.util.LongIntHashMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for looking up random keys in a {@link LongIntHashMap} filled
+ * with sequential IDs, the way the task service indexes tasks. The cost per
+ * lookup should stay flat as the map grows, apart from cache misses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LongIntHashMapBenchmark {
+
+    /**
+     * The number of keys in the map.
+     */
+    @Param({ "1000", "100000", "10000000" })
+    private int size;
+
+    private LongIntHashMap map;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        map = new LongIntHashMap(size);
+        for (int i = 0; i < size; i++) {
+            map.put(i + 1L, i);
+        }
+        random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public int get() {
+        return map.get(random.nextLong(size) + 1);
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.thuandao.tasktracker.benchmark;
+
+import io.github.thuandao.tasktracker.TaskCliRunner;
+import io.github.thuandao.tasktracker.service.TaskService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for dispatching commands through {@link TaskCliRunner#run},
+ * without application startup. The output is discarded, and the service
+ * works on 1000 tasks in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskCliRunnerBenchmark {
+
+    private TaskCliRunner taskCliRunner;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() throws IOException {
+        TaskService taskService = new TaskService(new InMemoryTaskStore(InMemoryTaskStore.createTasks(1000)));
+        taskService.countTasks(null);
+        taskCliRunner = new TaskCliRunner(taskService);
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void markDone() {
+        taskCliRunner.run("mark-done", "500");
+    }
+
+    @Benchmark
+    public void update() {
+        taskCliRunner.run("update", "500", "Updated from the command line");
+    }
+
+    @Benchmark
+    public void listDone() {
+        taskCliRunner.run("list", "done");
+    }
+
+    @Benchmark
+    public void unknownCommand() {
+        taskCliRunner.run("unknown");
+    }
+}
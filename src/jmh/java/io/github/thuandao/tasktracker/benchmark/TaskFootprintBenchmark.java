@@ -0,0 +1,43 @@
+package io.github.thuandao.tasktracker.benchmark;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for the heap taken by one task. The description and timestamps
+ * are shared, so the {@code gc.alloc.rate.norm} reported by the GC profiler
+ * (which the benchmark profile enables) is the size of the task object
+ * itself, in bytes. A boxed ID, an enum reference and two
+ * {@link LocalDateTime} objects alone would take over 150 bytes; the compact
+ * fields should stay well under 100.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskFootprintBenchmark {
+
+    private final String description = "Shared description";
+    private final LocalDateTime now = LocalDateTime.now();
+    private long nextId;
+
+    @Benchmark
+    public Task newTask() {
+        return new Task(nextId++, description, TaskStatus.TODO, now, now);
+    }
+}
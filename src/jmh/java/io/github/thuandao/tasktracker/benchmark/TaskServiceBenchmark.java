@@ -0,0 +1,105 @@
+package io.github.thuandao.tasktracker.benchmark;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.service.TaskService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for each {@link TaskService} operation, over an in-memory store
+ * so that only the service's own work is measured. Operations on a single
+ * task pick a random existing ID; adding is paired with deleting, so the
+ * number of tasks stays the same.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TaskServiceBenchmark {
+
+    /**
+     * The number of tasks in the service.
+     */
+    @Param({ "1000", "100000", "1000000" })
+    private int taskCount;
+
+    private TaskService taskService;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() throws IOException {
+        taskService = new TaskService(new InMemoryTaskStore(InMemoryTaskStore.createTasks(taskCount)));
+        // Load the tasks before measuring
+        taskService.countTasks(null);
+        random = new SplittableRandom(42);
+    }
+
+    /**
+     * Picks a random existing task. Costs a few nanoseconds, which is cheaper
+     * to include in the score than a per-invocation setup method.
+     */
+    private long pickTask() {
+        return random.nextLong(taskCount) + 1;
+    }
+
+    @Benchmark
+    public Task addAndDeleteTask() throws IOException {
+        Task task = taskService.addTask("Added task");
+        taskService.deleteTask(task.getId());
+        return task;
+    }
+
+    @Benchmark
+    public Task updateTask() throws IOException {
+        return taskService.updateTask(pickTask(), "Updated task");
+    }
+
+    @Benchmark
+    public Task updateTaskStatus() throws IOException {
+        long id = pickTask();
+        return taskService.updateTaskStatus(id, TaskStatus.values()[(int) (id % 3)]);
+    }
+
+    @Benchmark
+    public Task getTask() throws IOException {
+        return taskService.getTask(pickTask());
+    }
+
+    @Benchmark
+    public List<Task> listTasks() throws IOException {
+        return taskService.listTasks(null);
+    }
+
+    @Benchmark
+    public List<Task> listTasksByStatus() throws IOException {
+        return taskService.listTasks(TaskStatus.DONE);
+    }
+
+    @Benchmark
+    public List<Task> listTasksAfter() throws IOException {
+        return taskService.listTasksAfter(pickTask(), null, 100);
+    }
+
+    @Benchmark
+    public int countTasks() throws IOException {
+        return taskService.countTasks(TaskStatus.IN_PROGRESS);
+    }
+}
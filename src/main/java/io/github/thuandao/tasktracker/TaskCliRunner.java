@@ -1,15 +1,35 @@
 package io.github.thuandao.tasktracker;
 
 import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskOrder;
 import io.github.thuandao.tasktracker.model.TaskStatus;
 import io.github.thuandao.tasktracker.service.TaskService;
+import io.github.thuandao.tasktracker.util.JsonUtil;
+import io.github.thuandao.tasktracker.util.TaskFileConverter;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Command-line runner that handles the task tracker CLI commands.
@@ -19,11 +39,102 @@ import java.util.List;
 @Component
 public class TaskCliRunner implements CommandLineRunner {
 
+    /**
+     * Size of the output buffer used while running a batch.
+     */
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The prompt printed by the interactive shell.
+     */
+    private static final String SHELL_PROMPT = "task-cli> ";
+
+    /**
+     * The number of tasks the "list" command reads from the service at a time.
+     */
+    private static final int LIST_PAGE_SIZE = 1024;
+
+    /**
+     * The line between tasks in the text output of the "list" command.
+     */
+    private static final String SEPARATOR = "-".repeat(40);
+
+    /**
+     * The output formats of the "list" command.
+     */
+    private enum ListFormat {
+        /**
+         * A title, then each task's details between separator lines.
+         */
+        TEXT,
+
+        /**
+         * Newline-delimited JSON, one task object per line.
+         */
+        NDJSON,
+
+        /**
+         * Tab-separated values with a header row.
+         */
+        TSV;
+
+        /**
+         * Gets the format with the given name, ignoring case.
+         * 
+         * @return The format, or null if there's none with that name
+         */
+        static ListFormat parse(String name) {
+            for (ListFormat format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * When the interactive shell saves the changes made by its commands.
+     */
+    public enum FlushPolicy {
+        /**
+         * Every command is saved before the next prompt.
+         */
+        ALWAYS,
+
+        /**
+         * Changes are saved when the shell exits, or on the "flush" command.
+         * Other processes can neither read nor change the tasks in between,
+         * and give up after the store's lock timeout.
+         */
+        ON_EXIT,
+
+        /**
+         * Changes are saved periodically in the background, and on exit.
+         */
+        INTERVAL
+    }
+
     /**
      * Service that handles all task operations.
      */
     private final TaskService taskService;
 
+    /**
+     * The line of the batch being run, or 0 when not running a batch.
+     */
+    private int batchLine;
+
+    /**
+     * When the interactive shell saves its changes.
+     */
+    private FlushPolicy shellFlushPolicy = FlushPolicy.INTERVAL;
+
+    /**
+     * The time between saves under the {@link FlushPolicy#INTERVAL} policy.
+     */
+    private Duration shellFlushInterval = Duration.ofSeconds(5);
+
     /**
      * Constructor that injects the TaskService dependency.
      * 
@@ -41,21 +152,57 @@ public class TaskCliRunner implements CommandLineRunner {
      */
     @Override
     public void run(String... args) {
-        try {
-            // If no arguments provided, show usage instructions
-            if (args.length == 0) {
-                printUsage();
-                return;
-            }
+        // If no arguments provided, show usage instructions
+        if (args.length == 0) {
+            printUsage();
+            return;
+        }
+
+        if (args[0].equalsIgnoreCase("batch")) {
+            runBatch(args);
+        } else if (args[0].equalsIgnoreCase("shell")) {
+            runShell(args);
+        } else {
+            runCommand(args);
+        }
+    }
+
+    /**
+     * Sets when the interactive shell saves the changes made by its commands.
+     * 
+     * @param shellFlushPolicy The flush policy
+     */
+    @Autowired
+    public void setShellFlushPolicy(@Value("${tasktracker.shell.flush:interval}") FlushPolicy shellFlushPolicy) {
+        this.shellFlushPolicy = shellFlushPolicy;
+    }
 
+    /**
+     * Sets how often the interactive shell saves its changes under the
+     * {@link FlushPolicy#INTERVAL} policy.
+     * 
+     * @param shellFlushInterval The time between saves
+     */
+    @Autowired
+    public void setShellFlushInterval(@Value("${tasktracker.shell.flush-interval:5s}") Duration shellFlushInterval) {
+        this.shellFlushInterval = shellFlushInterval;
+    }
+
+    /**
+     * Runs a single command and reports its outcome.
+     * 
+     * @param args The command and its arguments
+     * @return true if the command succeeded
+     */
+    private boolean runCommand(String... args) {
+        try {
             // Parse the command (first argument)
             String command = args[0].toLowerCase();
             switch (command) {
                 case "add":
                     // Check if the add command has the required description argument
                     if (args.length != 2) {
-                        System.out.println("Error: 'add' command requires a description");
-                        return;
+                        return printError("'add' command requires a description");
                     }
                     handleAdd(args[1]);
                     break;
@@ -63,8 +210,7 @@ public class TaskCliRunner implements CommandLineRunner {
                 case "update":
                     // Check if the update command has the required ID and description arguments
                     if (args.length != 3) {
-                        System.out.println("Error: 'update' command requires an ID and description");
-                        return;
+                        return printError("'update' command requires an ID and description");
                     }
                     handleUpdate(Long.parseLong(args[1]), args[2]);
                     break;
@@ -72,8 +218,7 @@ public class TaskCliRunner implements CommandLineRunner {
                 case "delete":
                     // Check if the delete command has the required ID argument
                     if (args.length != 2) {
-                        System.out.println("Error: 'delete' command requires an ID");
-                        return;
+                        return printError("'delete' command requires an ID");
                     }
                     handleDelete(Long.parseLong(args[1]));
                     break;
@@ -81,8 +226,7 @@ public class TaskCliRunner implements CommandLineRunner {
                 case "mark-in-progress":
                     // Check if the mark-in-progress command has the required ID argument
                     if (args.length != 2) {
-                        System.out.println("Error: 'mark-in-progress' command requires an ID");
-                        return;
+                        return printError("'mark-in-progress' command requires an ID");
                     }
                     handleMarkStatus(Long.parseLong(args[1]), TaskStatus.IN_PROGRESS);
                     break;
@@ -90,23 +234,69 @@ public class TaskCliRunner implements CommandLineRunner {
                 case "mark-done":
                     // Check if the mark-done command has the required ID argument
                     if (args.length != 2) {
-                        System.out.println("Error: 'mark-done' command requires an ID");
-                        return;
+                        return printError("'mark-done' command requires an ID");
                     }
                     handleMarkStatus(Long.parseLong(args[1]), TaskStatus.DONE);
                     break;
 
                 case "list":
-                    // Check if the list command has at most one argument (optional status filter)
-                    if (args.length > 2) {
-                        System.out.println("Error: 'list' command takes at most one argument");
-                        return;
-                    }
-
-                    // Parse the optional status filter
+                    // Parse the optional status filter and output options
                     TaskStatus filterStatus = null;
-                    if (args.length == 2) {
-                        switch (args[1].toLowerCase()) {
+                    boolean hasStatus = false;
+                    ListFormat format = ListFormat.TEXT;
+                    long offset = 0;
+                    long limit = Long.MAX_VALUE;
+                    TaskOrder sort = null;
+                    Boolean descending = null;
+                    for (int i = 1; i < args.length; i++) {
+                        String option = args[i].toLowerCase();
+                        if (option.startsWith("--")) {
+                            if (i + 1 == args.length) {
+                                return printError("'" + option + "' requires a value");
+                            }
+                            String value = args[++i];
+                            switch (option) {
+                                case "--format":
+                                    format = ListFormat.parse(value);
+                                    if (format == null) {
+                                        return printError("Invalid format. Use 'text', 'ndjson', or 'tsv'");
+                                    }
+                                    break;
+                                case "--limit":
+                                    limit = parseCount(value);
+                                    if (limit < 0) {
+                                        return printError("'--limit' must be a non-negative number");
+                                    }
+                                    break;
+                                case "--offset":
+                                    offset = parseCount(value);
+                                    if (offset < 0) {
+                                        return printError("'--offset' must be a non-negative number");
+                                    }
+                                    break;
+                                case "--sort":
+                                    sort = parseOrder(value);
+                                    if (sort == null) {
+                                        return printError("Invalid sort key. Use 'id', 'createdAt', or 'updatedAt'");
+                                    }
+                                    break;
+                                case "--order":
+                                    if (!value.equalsIgnoreCase("asc") && !value.equalsIgnoreCase("desc")) {
+                                        return printError("Invalid order. Use 'asc' or 'desc'");
+                                    }
+                                    descending = value.equalsIgnoreCase("desc");
+                                    break;
+                                default:
+                                    return printError("Unknown option '" + option + "' for 'list'");
+                            }
+                            continue;
+                        }
+                        // Only one status filter is allowed
+                        if (hasStatus) {
+                            return printError("'list' command takes at most one status filter");
+                        }
+                        hasStatus = true;
+                        switch (option) {
                             case "todo":
                                 filterStatus = TaskStatus.TODO;
                                 break;
@@ -117,34 +307,336 @@ public class TaskCliRunner implements CommandLineRunner {
                                 filterStatus = TaskStatus.DONE;
                                 break;
                             default:
-                                System.out
-                                        .println("Error: Invalid status filter. Use 'todo', 'in-progress', or 'done'");
-                                return;
+                                return printError("Invalid status filter. Use 'todo', 'in-progress', or 'done'");
                         }
                     }
-                    handleList(filterStatus);
+                    // Timestamps sort newest first unless told otherwise
+                    TaskOrder order = sort != null ? sort : TaskOrder.ID;
+                    boolean newestFirst = descending != null ? descending : order != TaskOrder.ID;
+                    if (order == TaskOrder.ID && !newestFirst) {
+                        handleList(filterStatus, format, offset, limit);
+                    } else {
+                        handleSortedList(filterStatus, format, order, newestFirst, offset, limit);
+                    }
+                    break;
+
+                case "show":
+                    // Check if the show command has the required ID argument
+                    if (args.length != 2) {
+                        return printError("'show' command requires an ID");
+                    }
+                    handleShow(Long.parseLong(args[1]));
+                    break;
+
+                case "search":
+                    // Check if the search command has at least one word to search for
+                    if (args.length < 2) {
+                        return printError("'search' command requires at least one word");
+                    }
+                    handleSearch(String.join(" ", List.of(args).subList(1, args.length)));
+                    break;
+
+                case "convert":
+                    // Check if the convert command has the required source and target arguments
+                    if (args.length != 3) {
+                        return printError("'convert' command requires a source and a target file");
+                    }
+                    handleConvert(args[1], args[2]);
                     break;
 
                 default:
                     // Unknown command, show usage instructions
-                    System.out.println("Error: Unknown command '" + command + "'");
-                    printUsage();
+                    printError("Unknown command '" + command + "'");
+                    if (batchLine == 0) {
+                        printUsage();
+                    }
+                    return false;
             }
+            return true;
         } catch (NumberFormatException e) {
             // Handle invalid task ID format (not a number)
-            System.out.println("Error: Invalid task ID format");
+            return printError("Invalid task ID format");
         } catch (IllegalArgumentException e) {
             // Handle business logic errors (e.g., task not found)
-            System.out.println("Error: " + e.getMessage());
+            return printError(e.getMessage());
         } catch (IOException e) {
             // Handle file I/O errors
-            System.out.println("Error: Failed to access tasks file - " + e.getMessage());
+            return printError("Failed to access tasks file - " + e.getMessage());
         } catch (Exception e) {
             // Handle any other unexpected errors
-            System.out.println("Error: An unexpected error occurred - " + e.getMessage());
+            return printError("An unexpected error occurred - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Handles the "batch" command: runs the commands read from a file, or from
+     * standard input if no file (or "-") is given, one command per line.
+     * Blank lines and lines starting with '#' are skipped. All commands work
+     * on the same tasks in memory, which are saved once at the end; the output
+     * of each command is prefixed with its line number.
+     * 
+     * @param args The "batch" command and its optional file argument
+     */
+    private void runBatch(String... args) {
+        if (args.length > 2) {
+            printError("'batch' command takes at most one argument");
+            return;
+        }
+
+        // Buffer the output, as a batch may print a line per command
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(new BufferedOutputStream(originalOut, OUTPUT_BUFFER_SIZE), false,
+                StandardCharsets.UTF_8));
+        int succeeded = 0;
+        int failed = 0;
+        taskService.setCommitsDeferred(true);
+        try (BufferedReader reader = openInput(args.length == 2 ? args[1] : "-")) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                batchLine++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                boolean ok;
+                try {
+                    String[] commandArgs = splitCommandLine(trimmed);
+                    ok = isSessionCommand(commandArgs[0])
+                            ? printError("'" + commandArgs[0] + "' cannot be run inside a batch")
+                            : runCommand(commandArgs);
+                } catch (IllegalArgumentException e) {
+                    ok = printError(e.getMessage());
+                }
+                if (ok) {
+                    succeeded++;
+                } else {
+                    failed++;
+                }
+            }
+            batchLine = 0;
+
+            // Persist everything the batch changed at once
+            taskService.flush();
+            System.out.println("Batch complete: " + succeeded + " succeeded, " + failed + " failed");
+        } catch (IOException e) {
+            printError("Failed to access tasks file - " + e.getMessage());
+        } finally {
+            batchLine = 0;
+            taskService.setCommitsDeferred(false);
+            System.out.flush();
+            System.setOut(originalOut);
+        }
+    }
+
+    /**
+     * Handles the "shell" command: an interactive session that reads commands
+     * from standard input until "exit", "quit" or the end of the input. The
+     * application context, the compiled code and the loaded tasks stay in
+     * memory between commands, so only the first command pays for startup.
+     * When changes are saved depends on the configured {@link FlushPolicy};
+     * the "flush" command saves them right away.
+     * 
+     * @param args The "shell" command
+     */
+    private void runShell(String... args) {
+        if (args.length > 1) {
+            printError("'shell' command takes no arguments");
+            return;
+        }
+
+        FlushPolicy policy = shellFlushPolicy;
+        taskService.setCommitsDeferred(policy != FlushPolicy.ALWAYS);
+        ScheduledExecutorService flusher = null;
+        if (policy == FlushPolicy.INTERVAL) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-shell-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = shellFlushInterval.toMillis();
+            flusher.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        }
+        // Save pending changes if the JVM is stopped while the shell is open
+        Thread shutdownHook = new Thread(this::flushQuietly, "task-shell-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        System.out.println("Task tracker shell. Type 'help' for commands, 'exit' to quit.");
+        try (BufferedReader reader = openInput("-")) {
+            while (true) {
+                System.out.print(SHELL_PROMPT);
+                System.out.flush();
+                String line = reader.readLine();
+                if (line == null) {
+                    System.out.println();
+                    break;
+                }
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                String[] commandArgs;
+                try {
+                    commandArgs = splitCommandLine(trimmed);
+                } catch (IllegalArgumentException e) {
+                    printError(e.getMessage());
+                    continue;
+                }
+
+                String command = commandArgs[0].toLowerCase();
+                if (command.equals("exit") || command.equals("quit")) {
+                    break;
+                } else if (command.equals("help")) {
+                    printUsage();
+                    System.out.println("  flush   (save changes now)");
+                    System.out.println("  exit    (save changes and leave the shell)");
+                } else if (command.equals("flush")) {
+                    try {
+                        taskService.flush();
+                        System.out.println("Changes saved");
+                    } catch (IOException e) {
+                        printError("Failed to save tasks - " + e.getMessage());
+                    }
+                } else if (isSessionCommand(command)) {
+                    printError("'" + command + "' cannot be run inside the shell");
+                } else {
+                    runCommand(commandArgs);
+                }
+            }
+        } catch (IOException e) {
+            printError("Failed to access tasks file - " + e.getMessage());
+        } finally {
+            if (flusher != null) {
+                flusher.shutdown();
+            }
+            try {
+                taskService.flush();
+            } catch (IOException e) {
+                printError("Failed to save tasks - " + e.getMessage());
+            }
+            taskService.setCommitsDeferred(false);
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // The JVM is already shutting down
+            }
         }
     }
 
+    /**
+     * Saves pending changes from a background thread, reporting failures on
+     * standard error so they don't interleave with command output.
+     */
+    private void flushQuietly() {
+        try {
+            taskService.flush();
+        } catch (IOException e) {
+            System.err.println("Error: Failed to save tasks - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether a command starts a session of other commands, which
+     * cannot be nested.
+     * 
+     * @param command The command
+     * @return true for "batch" and "shell"
+     */
+    private static boolean isSessionCommand(String command) {
+        return command.equalsIgnoreCase("batch") || command.equalsIgnoreCase("shell");
+    }
+
+    /**
+     * Opens the input of a batch or shell.
+     * 
+     * @param source The file to read, or "-" for standard input
+     * @return A reader over the commands
+     * @throws IOException If the file cannot be opened
+     */
+    private BufferedReader openInput(String source) throws IOException {
+        if (source.equals("-")) {
+            // Not closed along with the reader
+            return new BufferedReader(new InputStreamReader(new FilterInputStream(System.in) {
+                @Override
+                public void close() {
+                }
+            }, StandardCharsets.UTF_8));
+        }
+        return Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Splits a command line into arguments the way a shell would for the
+     * commands of this CLI: arguments are separated by whitespace, and
+     * single or double quotes group words into one argument. Inside double
+     * quotes, a backslash escapes the next character.
+     * 
+     * @param line The command line
+     * @return The arguments
+     * @throws IllegalArgumentException If a quote is not closed
+     */
+    static String[] splitCommandLine(String line) {
+        List<String> args = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inArgument = false;
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else if (c == '\\' && quote == '"' && i + 1 < line.length()) {
+                    current.append(line.charAt(++i));
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                inArgument = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inArgument) {
+                    args.add(current.toString());
+                    current.setLength(0);
+                    inArgument = false;
+                }
+            } else {
+                current.append(c);
+                inArgument = true;
+            }
+        }
+        if (quote != 0) {
+            throw new IllegalArgumentException("Unclosed quote in command: " + line);
+        }
+        if (inArgument) {
+            args.add(current.toString());
+        }
+        return args.toArray(new String[0]);
+    }
+
+    /**
+     * Prints a line of command output, prefixed with the line number when
+     * running a batch.
+     * 
+     * @param message The line to print
+     */
+    private void print(String message) {
+        if (batchLine > 0) {
+            System.out.println(batchLine + ": " + message);
+        } else {
+            System.out.println(message);
+        }
+    }
+
+    /**
+     * Prints an error message.
+     * 
+     * @param message The error message, without the "Error: " prefix
+     * @return false, so callers can return it as the command's outcome
+     */
+    private boolean printError(String message) {
+        print("Error: " + message);
+        return false;
+    }
+
     /**
      * Handles the "add" command to create a new task.
      * 
@@ -153,7 +645,7 @@ public class TaskCliRunner implements CommandLineRunner {
      */
     private void handleAdd(String description) throws IOException {
         Task task = taskService.addTask(description);
-        System.out.println("Task added successfully (ID: " + task.getId() + ")");
+        print("Task added successfully (ID: " + task.getId() + ")");
     }
 
     /**
@@ -165,7 +657,7 @@ public class TaskCliRunner implements CommandLineRunner {
      */
     private void handleUpdate(long id, String description) throws IOException {
         taskService.updateTask(id, description);
-        System.out.println("Task " + id + " updated successfully");
+        print("Task " + id + " updated successfully");
     }
 
     /**
@@ -176,7 +668,21 @@ public class TaskCliRunner implements CommandLineRunner {
      */
     private void handleDelete(long id) throws IOException {
         taskService.deleteTask(id);
-        System.out.println("Task " + id + " deleted successfully");
+        print("Task " + id + " deleted successfully");
+    }
+
+    /**
+     * Handles the "convert" command to migrate a tasks file between the JSON
+     * and binary formats.
+     * 
+     * @param source The file to convert
+     * @param target The file to write in the other format
+     * @throws IOException If there's an error reading or writing the files
+     */
+    private void handleConvert(String source, String target) throws IOException {
+        TaskFileConverter.Conversion conversion = TaskFileConverter.convert(Paths.get(source), Paths.get(target));
+        print("Converted " + conversion.tasks() + " tasks from " + conversion.from().name().toLowerCase() + " to "
+                + conversion.to().name().toLowerCase() + " (" + target + ")");
     }
 
     /**
@@ -189,31 +695,245 @@ public class TaskCliRunner implements CommandLineRunner {
      */
     private void handleMarkStatus(long id, TaskStatus status) throws IOException {
         taskService.updateTaskStatus(id, status);
-        System.out.println("Task " + id + " marked as " + status.toString().toLowerCase().replace('_', '-'));
+        print("Task " + id + " marked as " + statusName(status));
     }
 
     /**
      * Handles the "list" command to display tasks, optionally filtered by status.
+     * Tasks are read a page at a time and written through one large buffer, so
+     * memory use does not grow with the number of tasks and the store is not
+     * kept locked while the output is written. Listing stops early if the
+     * output was closed, e.g. by a pipe into {@code head}.
      * 
      * @param status The status to filter by, or null to list all tasks
+     * @param format The output format
+     * @param offset The number of matching tasks to skip
+     * @param limit  The maximum number of tasks to list
      * @throws IOException If there's an error accessing the tasks file
      */
-    private void handleList(TaskStatus status) throws IOException {
-        List<Task> tasks = taskService.listTasks(status);
+    private void handleList(TaskStatus status, ListFormat format, long offset, long limit) throws IOException {
+        PrintStream out = System.out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, out.charset()), OUTPUT_BUFFER_SIZE);
+        String prefix = batchLine > 0 ? batchLine + ": " : "";
+        String separator = prefix + SEPARATOR + System.lineSeparator();
+        long skipped = 0;
+        long listed = 0;
+        long afterId = 0;
+        while (listed < limit && !out.checkError()) {
+            List<Task> page = taskService.listTasksAfter(afterId, status, LIST_PAGE_SIZE);
+            if (page.isEmpty()) {
+                break;
+            }
+            afterId = page.get(page.size() - 1).getId();
 
-        // If no tasks found, display a message and return
+            // Skip whole pages, then the start of the first listed page
+            if (skipped + page.size() <= offset) {
+                skipped += page.size();
+                continue;
+            }
+            int from = (int) (offset - skipped);
+            skipped = offset;
+            int to = from + (int) Math.min(page.size() - from, limit - listed);
+            List<Task> listedTasks = page.subList(from, to);
+
+            if (listed == 0) {
+                writeListHeader(writer, format, status, prefix, separator);
+            }
+            writeTasks(writer, format, listedTasks, prefix, separator);
+            listed += listedTasks.size();
+            if (page.size() < LIST_PAGE_SIZE) {
+                break;
+            }
+        }
+
+        if (listed == 0 && format == ListFormat.TEXT) {
+            writer.write(prefix + "No tasks found" + System.lineSeparator());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Handles the "show" command to display a single task. With a binary
+     * store, the task is read through the offset index without loading the
+     * others.
+     * 
+     * @param id The ID of the task to show
+     * @throws IOException If there's an error accessing the tasks file
+     */
+    private void handleShow(long id) throws IOException {
+        print(taskService.getTask(id).toString());
+    }
+
+    /**
+     * Handles the "search" command to display the tasks whose description
+     * contains all the given words.
+     * 
+     * @param query The words to search for
+     * @throws IOException If there's an error accessing the tasks file
+     */
+    private void handleSearch(String query) throws IOException {
+        List<Task> tasks = taskService.searchTasks(query);
         if (tasks.isEmpty()) {
-            System.out.println("No tasks found");
+            print("No tasks found");
             return;
         }
-
-        // Display the tasks with appropriate header based on filter
-        String statusFilter = status != null ? " (" + status.toString().toLowerCase().replace('_', '-') + ")" : "";
-        System.out.println("Tasks" + statusFilter + ":");
-        System.out.println("-".repeat(40));
+        print("Tasks matching '" + query + "':");
+        print(SEPARATOR);
         for (Task task : tasks) {
-            System.out.println(task.toString());
-            System.out.println("-".repeat(40));
+            print(task.toString());
+            print(SEPARATOR);
+        }
+    }
+
+    /**
+     * Handles the "list" command with a sort order: displays the first tasks
+     * in that order, optionally filtered by status. The service finds them
+     * without sorting all tasks, so asking for the few most recent tasks is
+     * fast however many there are.
+     * 
+     * @param status     The status to filter by, or null to list all tasks
+     * @param format     The output format
+     * @param order      The property to sort by
+     * @param descending true to list the highest values first
+     * @param offset     The number of matching tasks to skip
+     * @param limit      The maximum number of tasks to list
+     * @throws IOException If there's an error accessing the tasks file
+     */
+    private void handleSortedList(TaskStatus status, ListFormat format, TaskOrder order, boolean descending,
+            long offset, long limit) throws IOException {
+        int wanted = (int) Math.min(Integer.MAX_VALUE, Math.min(limit, Long.MAX_VALUE - offset) + offset);
+        List<Task> tasks = taskService.listTasksSorted(status, order, descending, wanted);
+        List<Task> listedTasks = tasks.subList((int) Math.min(offset, tasks.size()), tasks.size());
+
+        PrintStream out = System.out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, out.charset()), OUTPUT_BUFFER_SIZE);
+        String prefix = batchLine > 0 ? batchLine + ": " : "";
+        String separator = prefix + SEPARATOR + System.lineSeparator();
+        if (!listedTasks.isEmpty()) {
+            writeListHeader(writer, format, status, prefix, separator);
+            writeTasks(writer, format, listedTasks, prefix, separator);
+        } else if (format == ListFormat.TEXT) {
+            writer.write(prefix + "No tasks found" + System.lineSeparator());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes listed tasks in the given format.
+     */
+    private static void writeTasks(Writer writer, ListFormat format, List<Task> tasks, String prefix,
+            String separator) throws IOException {
+        switch (format) {
+            case NDJSON -> JsonUtil.writeJsonLines(tasks, writer);
+            case TSV -> {
+                for (Task task : tasks) {
+                    writeTsvRow(writer, task);
+                }
+            }
+            default -> {
+                for (Task task : tasks) {
+                    writer.write(prefix);
+                    writer.write(task.toString());
+                    writer.write(System.lineSeparator());
+                    writer.write(separator);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes what comes before the first listed task: a title in the text
+     * format, the column names in TSV, and nothing in NDJSON.
+     */
+    private static void writeListHeader(Writer writer, ListFormat format, TaskStatus status, String prefix,
+            String separator) throws IOException {
+        if (format == ListFormat.TSV) {
+            writer.write("id\tstatus\tdescription\tcreatedAt\tupdatedAt\n");
+        } else if (format == ListFormat.TEXT) {
+            String statusFilter = status != null ? " (" + statusName(status) + ")" : "";
+            writer.write(prefix + "Tasks" + statusFilter + ":" + System.lineSeparator());
+            writer.write(separator);
+        }
+    }
+
+    /**
+     * Writes a task as a line of tab-separated values. Backslashes, tabs and
+     * line breaks in the description are escaped as {@code \\}, {@code \t},
+     * {@code \n} and {@code \r}, so every task stays on one line. A missing
+     * status, description or timestamp is written as an empty field.
+     */
+    private static void writeTsvRow(Writer writer, Task task) throws IOException {
+        writer.write(Long.toString(task.getId()));
+        writer.write('\t');
+        if (task.getStatus() != null) {
+            writer.write(statusName(task.getStatus()));
+        }
+        writer.write('\t');
+        // Write the description in runs between the characters to escape
+        String description = task.getDescription() != null ? task.getDescription() : "";
+        int start = 0;
+        for (int i = 0; i < description.length(); i++) {
+            String escape = switch (description.charAt(i)) {
+                case '\\' -> "\\\\";
+                case '\t' -> "\\t";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                default -> null;
+            };
+            if (escape != null) {
+                writer.write(description, start, i - start);
+                writer.write(escape);
+                start = i + 1;
+            }
+        }
+        writer.write(description, start, description.length() - start);
+        writer.write('\t');
+        writeTsvValue(writer, task.getCreatedAt());
+        writer.write('\t');
+        writeTsvValue(writer, task.getUpdatedAt());
+        writer.write('\n');
+    }
+
+    /**
+     * Writes a value as a tab-separated field, or nothing if it is null.
+     */
+    private static void writeTsvValue(Writer writer, Object value) throws IOException {
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+
+    /**
+     * Gets the name of a status as used on the command line, e.g. "in-progress".
+     */
+    private static String statusName(TaskStatus status) {
+        return status.toString().toLowerCase().replace('_', '-');
+    }
+
+    /**
+     * Parses the value of the sort option, ignoring case.
+     * 
+     * @return The order, or null if the value names no sortable property
+     */
+    private static TaskOrder parseOrder(String value) {
+        return switch (value.toLowerCase()) {
+            case "id" -> TaskOrder.ID;
+            case "createdat" -> TaskOrder.CREATED_AT;
+            case "updatedat" -> TaskOrder.UPDATED_AT;
+            default -> null;
+        };
+    }
+
+    /**
+     * Parses the value of a count option.
+     * 
+     * @return The count, or -1 if the value is not a non-negative number
+     */
+    private static long parseCount(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
         }
     }
 
@@ -231,5 +951,12 @@ public class TaskCliRunner implements CommandLineRunner {
         System.out.println("  task-cli list done");
         System.out.println("  task-cli list todo");
         System.out.println("  task-cli list in-progress");
+        System.out.println("  task-cli list [<status>] [--format text|ndjson|tsv] [--offset <n>] [--limit <n>]");
+        System.out.println("           [--sort id|createdAt|updatedAt] [--order asc|desc]");
+        System.out.println("  task-cli show <id>");
+        System.out.println("  task-cli search <words>   (tasks whose description contains all the words)");
+        System.out.println("  task-cli batch [<file>]   (one command per line, from the file or standard input)");
+        System.out.println("  task-cli shell            (interactive session)");
+        System.out.println("  task-cli convert <source> <target>   (JSON tasks file to binary, or back)");
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package io.github.thuandao.tasktracker.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+
+/**
+ * Security of the web application.
+ * Every request needs HTTP Basic authentication, with the user set by the
+ * {@code spring.security.user.*} properties. The REST API under
+ * {@code /api} is stateless: it creates no sessions and, as clients
+ * authenticate every request themselves, needs no CSRF token.
+ * Not used by the command-line interface, which runs without a web server.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SecurityConfig {
+
+    /**
+     * Creates the security filter chain.
+     * 
+     * @param http The security builder
+     * @return The filter chain
+     * @throws Exception If the chain cannot be built
+     */
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        return http
+                .authorizeHttpRequests(requests -> requests.anyRequest().authenticated())
+                .httpBasic(Customizer.withDefaults())
+                .csrf(csrf -> csrf.ignoringRequestMatchers("/api/**"))
+                .sessionManagement(sessions -> sessions.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .build();
+    }
+}
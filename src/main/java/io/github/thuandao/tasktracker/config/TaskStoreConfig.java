@@ -0,0 +1,104 @@
+package io.github.thuandao.tasktracker.config;
+
+import io.github.thuandao.tasktracker.store.BinaryFileTaskStore;
+import io.github.thuandao.tasktracker.store.CompressedTaskStore;
+import io.github.thuandao.tasktracker.store.JpaTaskStore;
+import io.github.thuandao.tasktracker.store.JsonFileTaskStore;
+import io.github.thuandao.tasktracker.store.LogTaskStore;
+import io.github.thuandao.tasktracker.store.MappedTaskStore;
+import io.github.thuandao.tasktracker.store.ShardedTaskStore;
+import io.github.thuandao.tasktracker.store.TaskStore;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Configuration that selects the task store used by the task service.
+ * The store is chosen with the {@code tasktracker.store.type} property:
+ * <ul>
+ * <li>{@code json} (default): a single JSON file rewritten on every change</li>
+ * <li>{@code binary}: a single file in the compact binary format, rewritten
+ * on every change</li>
+ * <li>{@code mapped}: a memory-mapped file in the binary format, where status
+ * changes are written in place</li>
+ * <li>{@code sharded}: a directory of JSON shard files by ID range, where
+ * a change rewrites only the shard owning the task</li>
+ * <li>{@code log}: a JSON snapshot plus an append-only change log that is
+ * compacted in the background</li>
+ * <li>{@code jpa}: a table in the database configured by the
+ * {@code spring.datasource.*} properties, e.g. PostgreSQL</li>
+ * </ul>
+ * The {@code json} and {@code binary} files are stored compressed (see
+ * {@link CompressedTaskStore}) if the path ends with
+ * {@link CompressedTaskStore#EXTENSION} or {@code tasktracker.store.compression}
+ * is {@code deflate}.
+ */
+@Configuration
+public class TaskStoreConfig {
+
+    /**
+     * Creates the task store configured by the application properties.
+     * 
+     * @param type                The kind of store to use
+     * @param path                The path to the tasks file, or the directory
+     *                            of the sharded store
+     * @param compactionThreshold Log size after which the log store compacts
+     * @param shardSize           Task IDs per shard of a new sharded store
+     * @param compression         {@code deflate} to compress the tasks file,
+     *                            or {@code none}
+     * @param compressionLevel    The Deflate level of a compressed file
+     * @param entityManagerFactory The JPA entity manager factory, only looked
+     *                            up for the JPA store
+     * @return The task store
+     */
+    @Bean
+    public TaskStore taskStore(@Value("${tasktracker.store.type:json}") String type,
+            @Value("${tasktracker.store.path:tasks.json}") String path,
+            @Value("${tasktracker.store.log.compaction-threshold:1MB}") DataSize compactionThreshold,
+            @Value("${tasktracker.store.sharded.shard-size:10000}") int shardSize,
+            @Value("${tasktracker.store.compression:none}") String compression,
+            @Value("${tasktracker.store.compression-level:1}") int compressionLevel,
+            ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        Path filePath = Paths.get(path);
+        boolean compressed = switch (compression.toLowerCase()) {
+            case "none" -> CompressedTaskStore.isCompressedPath(filePath);
+            case "deflate" -> true;
+            default -> throw new IllegalArgumentException("Unknown task store compression: " + compression);
+        };
+        String storeType = type.toLowerCase();
+        if (compressed && (storeType.equals("json") || storeType.equals("binary"))) {
+            return new CompressedTaskStore(filePath, storeType.equals("binary"), compressionLevel);
+        }
+        if (compressed) {
+            throw new IllegalArgumentException("Only the json and binary task stores can be compressed");
+        }
+        switch (storeType) {
+            case "json":
+                return new JsonFileTaskStore(filePath);
+            case "binary":
+                return new BinaryFileTaskStore(filePath);
+            case "mapped":
+                return new MappedTaskStore(filePath);
+            case "sharded":
+                return new ShardedTaskStore(filePath, shardSize);
+            case "log":
+                return new LogTaskStore(filePath, compactionThreshold.toBytes());
+            case "jpa":
+                EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+                if (factory == null) {
+                    throw new IllegalStateException("The jpa task store needs a configured database");
+                }
+                return new JpaTaskStore(factory);
+            default:
+                throw new IllegalArgumentException("Unknown task store type: " + type);
+        }
+    }
+}
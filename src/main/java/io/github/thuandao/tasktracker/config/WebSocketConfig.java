@@ -0,0 +1,60 @@
+package io.github.thuandao.tasktracker.config;
+
+import io.github.thuandao.tasktracker.service.TaskService;
+import io.github.thuandao.tasktracker.websocket.TaskFeedHandler;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Configuration of the WebSocket change feed at {@code /ws/tasks}.
+ * Not used by the command-line interface, which runs without a web server.
+ */
+@Configuration
+@EnableWebSocket
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    /**
+     * The service whose changes are pushed.
+     */
+    private final TaskService taskService;
+
+    /**
+     * The maximum number of distinct tasks buffered per client.
+     */
+    private final int bufferCapacity;
+
+    /**
+     * Creates the configuration.
+     * 
+     * @param taskService    The service whose changes are pushed
+     * @param bufferCapacity The maximum number of distinct tasks buffered per
+     *                       client
+     */
+    public WebSocketConfig(TaskService taskService,
+            @Value("${tasktracker.feed.buffer-capacity:1024}") int bufferCapacity) {
+        this.taskService = taskService;
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    /**
+     * Creates the change feed handler.
+     * 
+     * @return The handler
+     */
+    @Bean
+    public TaskFeedHandler taskFeedHandler() {
+        return new TaskFeedHandler(taskService, bufferCapacity);
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(taskFeedHandler(), "/ws/tasks");
+    }
+}
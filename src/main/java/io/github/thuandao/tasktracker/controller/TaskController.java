@@ -0,0 +1,218 @@
+package io.github.thuandao.tasktracker.controller;
+
+import io.github.thuandao.tasktracker.dto.ApiResponse;
+import io.github.thuandao.tasktracker.dto.StatusRequest;
+import io.github.thuandao.tasktracker.dto.TaskRequest;
+import io.github.thuandao.tasktracker.dto.TaskResponse;
+import io.github.thuandao.tasktracker.exception.GlobalExceptionHandler;
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.service.TaskService;
+import io.github.thuandao.tasktracker.util.JsonUtil;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * REST API for tasks, under {@code /api/tasks}.
+ * Every response is an {@link ApiResponse}. Listing uses keyset pagination:
+ * a page holds the tasks with an ID above {@code afterId}, in ascending ID
+ * order, and names the {@code afterId} of the next page.
+ */
+@RestController
+@RequestMapping("/api/tasks")
+public class TaskController {
+
+    /**
+     * The largest page a client can ask for.
+     */
+    static final int MAX_PAGE_SIZE = 10_000;
+
+    /**
+     * The number of tasks read from the service at a time while streaming a
+     * page, which bounds the memory a listing holds however large the page.
+     */
+    static final int CHUNK_SIZE = 256;
+
+    /**
+     * Size of the buffer between the JSON writer and the response.
+     */
+    private static final int BUFFER_SIZE = 1 << 13;
+
+    /**
+     * Service that handles all task operations.
+     */
+    @Autowired
+    private TaskService taskService;
+
+    /**
+     * Lists a page of tasks, optionally filtered by status. The page is
+     * streamed to the client a chunk at a time instead of being built in
+     * memory; its data holds the tasks and {@code nextAfterId}, the ID to
+     * pass as {@code afterId} for the next page, or null on the last page.
+     * 
+     * @param status  The status to filter by, or null for all tasks
+     * @param afterId The ID to start after, 0 for the first page
+     * @param limit   The maximum number of tasks in the page
+     * @return The streamed page
+     * @throws IOException If there's an error reading the first chunk; unlike
+     *                     the other methods, errors are left to the
+     *                     {@link GlobalExceptionHandler}, as the declared
+     *                     body type must be the stream for Spring to stream it
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> listTasks(@RequestParam(required = false) TaskStatus status,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "100") int limit) throws IOException {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        // Read the first chunk up front, so a failure still gets an error status
+        List<Task> firstChunk = taskService.listTasksAfter(afterId, status, Math.min(limit, CHUNK_SIZE));
+        StreamingResponseBody body = out -> writePage(out, firstChunk, status, limit);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Gets a task by ID.
+     * 
+     * @param id The task ID
+     * @return The task, or an error response
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<TaskResponse>> getTask(@PathVariable long id) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Task found", TaskResponse.from(taskService.getTask(id))));
+        } catch (Exception e) {
+            return GlobalExceptionHandler.errorResponseEntity(e);
+        }
+    }
+
+    /**
+     * Creates a task.
+     * 
+     * @param request The description of the new task
+     * @return The created task, or an error response
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<TaskResponse>> createTask(@RequestBody TaskRequest request) {
+        try {
+            Task task = taskService.addTask(request.description());
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Task added successfully", TaskResponse.from(task)));
+        } catch (Exception e) {
+            return GlobalExceptionHandler.errorResponseEntity(e);
+        }
+    }
+
+    /**
+     * Changes the description of a task.
+     * 
+     * @param id      The task ID
+     * @param request The new description
+     * @return The updated task, or an error response
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<ApiResponse<TaskResponse>> updateTask(@PathVariable long id,
+            @RequestBody TaskRequest request) {
+        try {
+            Task task = taskService.updateTask(id, request.description());
+            return ResponseEntity.ok(ApiResponse.success("Task updated successfully", TaskResponse.from(task)));
+        } catch (Exception e) {
+            return GlobalExceptionHandler.errorResponseEntity(e);
+        }
+    }
+
+    /**
+     * Changes the status of a task.
+     * 
+     * @param id      The task ID
+     * @param request The new status
+     * @return The updated task, or an error response
+     */
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<ApiResponse<TaskResponse>> updateTaskStatus(@PathVariable long id,
+            @RequestBody StatusRequest request) {
+        try {
+            Task task = taskService.updateTaskStatus(id, request.status());
+            return ResponseEntity.ok(ApiResponse.success("Task status updated successfully", TaskResponse.from(task)));
+        } catch (Exception e) {
+            return GlobalExceptionHandler.errorResponseEntity(e);
+        }
+    }
+
+    /**
+     * Deletes a task.
+     * 
+     * @param id The task ID
+     * @return An empty success response, or an error response
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Void>> deleteTask(@PathVariable long id) {
+        try {
+            taskService.deleteTask(id);
+            return ResponseEntity.ok(ApiResponse.success("Task deleted successfully", null));
+        } catch (Exception e) {
+            return GlobalExceptionHandler.errorResponseEntity(e);
+        }
+    }
+
+    /**
+     * Writes a page as an {@link ApiResponse}, reading the tasks from the
+     * service one chunk at a time after the first.
+     * 
+     * @param out        The response body
+     * @param firstChunk The first chunk of the page
+     * @param status     The status to filter by, or null for all tasks
+     * @param limit      The maximum number of tasks in the page
+     * @throws IOException If there's an error reading the tasks or writing
+     *                     the response
+     */
+    private void writePage(OutputStream out, List<Task> firstChunk, TaskStatus status, int limit)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write("{\"result\":\"" + ApiResponse.SUCCESS + "\",\"message\":\"Tasks listed\",\"data\":{\"tasks\":[");
+        List<Task> chunk = firstChunk;
+        int written = 0;
+        long lastId = 0;
+        while (true) {
+            for (Task task : chunk) {
+                if (written > 0) {
+                    writer.write(',');
+                }
+                writer.write(JsonUtil.toJson(task));
+                lastId = task.getId();
+                written++;
+            }
+            int requested = Math.min(limit - written, CHUNK_SIZE);
+            if (chunk.size() < CHUNK_SIZE || requested == 0) {
+                break;
+            }
+            chunk = taskService.listTasksAfter(lastId, status, requested);
+        }
+        boolean more = written == limit && !taskService.listTasksAfter(lastId, status, 1).isEmpty();
+        writer.write("],\"nextAfterId\":" + (more ? Long.toString(lastId) : "null") + "}}");
+        writer.flush();
+    }
+}
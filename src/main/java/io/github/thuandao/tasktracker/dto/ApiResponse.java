@@ -0,0 +1,63 @@
+package io.github.thuandao.tasktracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Envelope of every REST API response.
+ * 
+ * @param <T> The type of the data returned on success
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiResponse<T> {
+    /**
+     * Result of a successful request.
+     */
+    public static final String SUCCESS = "SUCCESS";
+
+    /**
+     * Result of a failed request.
+     */
+    public static final String ERROR = "ERROR";
+
+    /**
+     * SUCCESS or ERROR.
+     */
+    private String result;
+
+    /**
+     * Success or error message.
+     */
+    private String message;
+
+    /**
+     * The returned data if the request succeeded, otherwise null.
+     */
+    private T data;
+
+    /**
+     * Creates a successful response.
+     * 
+     * @param <T>     The type of the data
+     * @param message The success message
+     * @param data    The returned data
+     * @return The response
+     */
+    public static <T> ApiResponse<T> success(String message, T data) {
+        return new ApiResponse<>(SUCCESS, message, data);
+    }
+
+    /**
+     * Creates an error response.
+     * 
+     * @param <T>     The type of the data the request would have returned
+     * @param message The error message
+     * @return The response
+     */
+    public static <T> ApiResponse<T> error(String message) {
+        return new ApiResponse<>(ERROR, message, null);
+    }
+}
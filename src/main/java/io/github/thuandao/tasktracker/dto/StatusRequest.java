@@ -0,0 +1,21 @@
+package io.github.thuandao.tasktracker.dto;
+
+import io.github.thuandao.tasktracker.model.TaskStatus;
+
+/**
+ * Request body to change the status of a task.
+ * 
+ * @param status The new status; must not be null
+ */
+public record StatusRequest(TaskStatus status) {
+    /**
+     * Validates the request.
+     * 
+     * @throws IllegalArgumentException If the status is missing
+     */
+    public StatusRequest {
+        if (status == null) {
+            throw new IllegalArgumentException("Task status must not be empty");
+        }
+    }
+}
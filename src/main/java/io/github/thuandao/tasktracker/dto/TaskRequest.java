@@ -0,0 +1,19 @@
+package io.github.thuandao.tasktracker.dto;
+
+/**
+ * Request body to create a task or change its description.
+ * 
+ * @param description The task description; must not be blank
+ */
+public record TaskRequest(String description) {
+    /**
+     * Validates the request.
+     * 
+     * @throws IllegalArgumentException If the description is missing or blank
+     */
+    public TaskRequest {
+        if (description == null || description.isBlank()) {
+            throw new IllegalArgumentException("Task description must not be empty");
+        }
+    }
+}
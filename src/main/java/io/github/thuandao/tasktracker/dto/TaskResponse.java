@@ -0,0 +1,30 @@
+package io.github.thuandao.tasktracker.dto;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A task as returned by the REST API.
+ * 
+ * @param id          The task ID
+ * @param description The task description
+ * @param status      The task status
+ * @param createdAt   When the task was created
+ * @param updatedAt   When the task was last updated
+ */
+public record TaskResponse(long id, String description, TaskStatus status, LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    /**
+     * Creates the response for a task.
+     * 
+     * @param task The task
+     * @return The response
+     */
+    public static TaskResponse from(Task task) {
+        return new TaskResponse(task.getId(), task.getDescription(), task.getStatus(), task.getCreatedAt(),
+                task.getUpdatedAt());
+    }
+}
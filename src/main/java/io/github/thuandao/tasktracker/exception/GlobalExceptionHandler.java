@@ -0,0 +1,134 @@
+package io.github.thuandao.tasktracker.exception;
+
+import io.github.thuandao.tasktracker.dto.ApiResponse;
+import io.github.thuandao.tasktracker.service.TaskNotFoundException;
+import io.github.thuandao.tasktracker.util.LockTimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+import java.io.IOException;
+
+/**
+ * Turns errors of the REST API into {@link ApiResponse} error responses.
+ * Controllers pass the exceptions they catch to
+ * {@link #errorResponseEntity(Exception)}; the handlers below cover errors
+ * raised by Spring before a controller method runs, such as an unreadable
+ * request body.
+ * Internal errors are logged but not described to the client.
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    /**
+     * Creates an error response.
+     * 
+     * @param <T>     The type of the data the request would have returned
+     * @param message The error message
+     * @param status  The HTTP status
+     * @return The response entity
+     */
+    public static <T> ResponseEntity<ApiResponse<T>> errorResponseEntity(String message, HttpStatus status) {
+        return new ResponseEntity<>(ApiResponse.error(message), status);
+    }
+
+    /**
+     * Creates the error response for an exception caught by a controller:
+     * 404 for an unknown task, 400 for other invalid arguments, 503 when
+     * another process keeps the task storage locked and 500 for anything else.
+     * 
+     * @param <T> The type of the data the request would have returned
+     * @param e   The exception
+     * @return The response entity
+     */
+    public static <T> ResponseEntity<ApiResponse<T>> errorResponseEntity(Exception e) {
+        if (e instanceof TaskNotFoundException) {
+            return errorResponseEntity(e.getMessage(), HttpStatus.NOT_FOUND);
+        }
+        if (e instanceof IllegalArgumentException) {
+            return errorResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        if (e instanceof LockTimeoutException) {
+            log.warn(e.getMessage());
+            return errorResponseEntity("The task storage is busy, try again later", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (e instanceof IOException) {
+            log.error("Failed to access the task storage", e);
+            return errorResponseEntity("Failed to access the task storage", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        log.error("Unexpected error", e);
+        return errorResponseEntity("Internal server error", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * Handles a request body that is not valid JSON or fails the validation
+     * of the request record.
+     * 
+     * @param e The exception
+     * @return A 400 response
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleHttpMessageNotReadableException(
+            HttpMessageNotReadableException e) {
+        Throwable cause = e.getMostSpecificCause();
+        String message = cause instanceof IllegalArgumentException ? cause.getMessage() : "Malformed request body";
+        return errorResponseEntity(message, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles a request parameter or path variable of the wrong type, e.g. an
+     * unknown status.
+     * 
+     * @param e The exception
+     * @return A 400 response
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ApiResponse<Object>> handleMethodArgumentTypeMismatchException(
+            MethodArgumentTypeMismatchException e) {
+        return errorResponseEntity("Invalid value for " + e.getName() + ": " + e.getValue(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles a missing required request parameter.
+     * 
+     * @param e The exception
+     * @return A 400 response
+     */
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<ApiResponse<Object>> handleMissingServletRequestParameterException(
+            MissingServletRequestParameterException e) {
+        return errorResponseEntity("Missing parameter: " + e.getParameterName(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles an invalid argument thrown outside of a controller's own
+     * try/catch.
+     * 
+     * @param e The exception
+     * @return A 400 or 404 response
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ApiResponse<Object>> handleIllegalArgumentException(IllegalArgumentException e) {
+        return errorResponseEntity(e);
+    }
+
+    /**
+     * Handles a storage error thrown outside of a controller's own try/catch.
+     * 
+     * @param e The exception
+     * @return A 500 or 503 response
+     */
+    @ExceptionHandler(IOException.class)
+    public ResponseEntity<ApiResponse<Object>> handleIOException(IOException e) {
+        return errorResponseEntity(e);
+    }
+}
@@ -1,51 +1,91 @@
 package io.github.thuandao.tasktracker.model;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
 
 /**
  * Entity class representing a task in the task tracking system.
  * Contains all the required properties for a task as specified in the
  * requirements.
+ * <p>
+ * Services keep millions of tasks in memory, so the fields are stored
+ * compactly: the ID as a primitive, the status as its ordinal and each
+ * timestamp as epoch seconds plus nanoseconds, in the same local time scale
+ * the binary task format uses. This takes about a quarter of the heap of a
+ * boxed ID, an enum reference and two {@link LocalDateTime} objects (each
+ * with its own date and time). The getters and setters still take and
+ * return the usual types, converting on each call.
  */
 public class Task {
+    /**
+     * Marks a missing status or timestamp in the compact fields.
+     */
+    private static final byte NONE = -1;
+
+    /**
+     * The statuses by ordinal, cached to avoid cloning the values array.
+     */
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    /**
+     * Orders tasks by creation time, missing times first. Compares the
+     * compact fields, so sorting does not create any timestamp objects.
+     */
+    public static final Comparator<Task> BY_CREATED_AT = (a, b) -> compareTimestamps(
+            a.createdSecond, a.createdNano, b.createdSecond, b.createdNano);
+
+    /**
+     * Orders tasks by last update time, missing times first. Compares the
+     * compact fields, so sorting does not create any timestamp objects.
+     */
+    public static final Comparator<Task> BY_UPDATED_AT = (a, b) -> compareTimestamps(
+            a.updatedSecond, a.updatedNano, b.updatedSecond, b.updatedNano);
+
     /**
      * Unique identifier for the task.
      * Used to reference tasks for update, delete, and status change operations.
      */
-    private Long id;
+    private long id;
 
     /**
-     * Description of the task provided by the user.
-     * Contains the details of what needs to be done.
+     * Timestamps when the task was created and last updated, as seconds since
+     * 1970-01-01T00:00 in local time, and the nanoseconds within the second
+     * (or {@link #NONE} if the timestamp is missing).
+     * Set automatically when a new task is created or its properties change.
      */
-    private String description;
+    private long createdSecond;
+    private long updatedSecond;
+    private int createdNano;
+    private int updatedNano;
 
     /**
-     * Current status of the task.
-     * Can be TODO, IN_PROGRESS, or DONE.
+     * Description of the task provided by the user.
+     * Contains the details of what needs to be done.
      */
-    private TaskStatus status;
+    private String description;
 
     /**
-     * Timestamp when the task was created.
-     * Set automatically when a new task is created.
+     * Ordinal of the current status (TODO, IN_PROGRESS, or DONE), or
+     * {@link #NONE} if the task has no status.
      */
-    private LocalDateTime createdAt;
+    private byte status;
 
     /**
-     * Timestamp when the task was last updated.
-     * Updated automatically when task properties change.
+     * Whether the task has an ID yet.
      */
-    private LocalDateTime updatedAt;
+    private boolean hasId;
 
     /**
      * Default constructor that initializes timestamps and sets default status to
      * TODO.
      */
     public Task() {
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
-        this.status = TaskStatus.TODO;
+        setCreatedAt(LocalDateTime.now());
+        // A new task has not been updated yet
+        updatedSecond = createdSecond;
+        updatedNano = createdNano;
+        status = (byte) TaskStatus.TODO.ordinal();
     }
 
     /**
@@ -56,17 +96,35 @@ public class Task {
      */
     public Task(Long id, String description) {
         this(); // Call default constructor to initialize timestamps and status
-        this.id = id;
+        setId(id);
         this.description = description;
     }
 
+    /**
+     * Constructor that restores a task with all of its properties, as read back
+     * from storage. Unlike the setters, it does not touch the timestamps.
+     * 
+     * @param id          The unique identifier for the task
+     * @param description The description of the task
+     * @param status      The current status of the task
+     * @param createdAt   The timestamp when the task was created
+     * @param updatedAt   The timestamp when the task was last updated
+     */
+    public Task(Long id, String description, TaskStatus status, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        setId(id);
+        this.description = description;
+        this.status = status != null ? (byte) status.ordinal() : NONE;
+        setCreatedAt(createdAt);
+        setUpdatedAt(updatedAt);
+    }
+
     /**
      * Gets the task's unique identifier.
      * 
      * @return The task ID
      */
     public Long getId() {
-        return id;
+        return hasId ? id : null;
     }
 
     /**
@@ -75,7 +133,8 @@ public class Task {
      * @param id The ID to set
      */
     public void setId(Long id) {
-        this.id = id;
+        this.hasId = id != null;
+        this.id = id != null ? id : 0;
     }
 
     /**
@@ -94,7 +153,7 @@ public class Task {
      */
     public void setDescription(String description) {
         this.description = description;
-        this.updatedAt = LocalDateTime.now(); // Update timestamp when description changes
+        setUpdatedAt(LocalDateTime.now()); // Update timestamp when description changes
     }
 
     /**
@@ -103,7 +162,7 @@ public class Task {
      * @return The task status
      */
     public TaskStatus getStatus() {
-        return status;
+        return status != NONE ? STATUSES[status] : null;
     }
 
     /**
@@ -112,8 +171,8 @@ public class Task {
      * @param status The new status
      */
     public void setStatus(TaskStatus status) {
-        this.status = status;
-        this.updatedAt = LocalDateTime.now(); // Update timestamp when status changes
+        this.status = status != null ? (byte) status.ordinal() : NONE;
+        setUpdatedAt(LocalDateTime.now()); // Update timestamp when status changes
     }
 
     /**
@@ -122,7 +181,7 @@ public class Task {
      * @return The creation timestamp
      */
     public LocalDateTime getCreatedAt() {
-        return createdAt;
+        return toDateTime(createdSecond, createdNano);
     }
 
     /**
@@ -131,17 +190,48 @@ public class Task {
      * @return The last update timestamp
      */
     public LocalDateTime getUpdatedAt() {
-        return updatedAt;
+        return toDateTime(updatedSecond, updatedNano);
     }
 
     /**
-     * Provides a string representation of the task for display in the console.
+     * Provides a single-line string representation of the task with all of its
+     * properties, in the usual {@code Name{field=value}} form.
      * 
      * @return A formatted string with all task details
      */
     @Override
     public String toString() {
-        return String.format("ID: %d%nDescription: %s%nStatus: %s%nCreated: %s%nUpdated: %s%n",
-                id, description, status, createdAt, updatedAt);
+        return "Task{id=" + getId() + ", description=" + description + ", status=" + getStatus()
+                + ", createdAt=" + getCreatedAt() + ", updatedAt=" + getUpdatedAt() + "}";
+    }
+
+    private void setCreatedAt(LocalDateTime createdAt) {
+        createdSecond = createdAt != null ? createdAt.toEpochSecond(ZoneOffset.UTC) : 0;
+        createdNano = createdAt != null ? createdAt.getNano() : NONE;
+    }
+
+    private void setUpdatedAt(LocalDateTime updatedAt) {
+        updatedSecond = updatedAt != null ? updatedAt.toEpochSecond(ZoneOffset.UTC) : 0;
+        updatedNano = updatedAt != null ? updatedAt.getNano() : NONE;
+    }
+
+    /**
+     * Compares two compact timestamps, a missing one being the earliest.
+     */
+    private static int compareTimestamps(long second1, int nano1, long second2, int nano2) {
+        if (nano1 == NONE || nano2 == NONE) {
+            return Boolean.compare(nano1 != NONE, nano2 != NONE);
+        }
+        int bySecond = Long.compare(second1, second2);
+        return bySecond != 0 ? bySecond : Integer.compare(nano1, nano2);
+    }
+
+    /**
+     * Converts a compact timestamp back to a date and time.
+     * 
+     * @return The timestamp, or null if it is missing
+     */
+    private static LocalDateTime toDateTime(long second, int nano) {
+        return nano != NONE ? LocalDateTime.ofEpochSecond(second, nano, ZoneOffset.UTC) : null;
     }
 }
\ No newline at end of file
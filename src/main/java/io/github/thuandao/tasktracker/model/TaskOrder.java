@@ -0,0 +1,41 @@
+package io.github.thuandao.tasktracker.model;
+
+import java.util.Comparator;
+
+/**
+ * Enum representing the properties tasks can be sorted by when listed.
+ * Each order breaks ties by ID, so sorted listings are stable across calls.
+ */
+public enum TaskOrder {
+    /**
+     * Sorts tasks by their ID, which is the order they were added in.
+     */
+    ID(Comparator.comparingLong(Task::getId)),
+
+    /**
+     * Sorts tasks by the time they were created; tasks without a creation
+     * time come first.
+     */
+    CREATED_AT(Task.BY_CREATED_AT.thenComparingLong(Task::getId)),
+
+    /**
+     * Sorts tasks by the time they were last updated; tasks without an
+     * update time come first.
+     */
+    UPDATED_AT(Task.BY_UPDATED_AT.thenComparingLong(Task::getId));
+
+    private final Comparator<Task> comparator;
+
+    TaskOrder(Comparator<Task> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Gets the comparator that sorts tasks in this order, ascending.
+     * 
+     * @return The comparator
+     */
+    public Comparator<Task> comparator() {
+        return comparator;
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.thuandao.tasktracker.service;
+
+import io.github.thuandao.tasktracker.store.TaskChange;
+
+import java.util.List;
+
+/**
+ * Receives the changes committed by a {@link TaskService}.
+ */
+@FunctionalInterface
+public interface TaskChangeListener {
+
+    /**
+     * Called once a batch of changes is durable, in commit order. Runs on the
+     * thread that committed the batch while the next commit waits, so it must
+     * return quickly and never block; hand the changes off to be processed
+     * elsewhere.
+     * 
+     * @param changes The committed changes, in the order they were made; the
+     *                tasks they carry are copies and must not be modified
+     */
+    void tasksChanged(List<TaskChange> changes);
+}
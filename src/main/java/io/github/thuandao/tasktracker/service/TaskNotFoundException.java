@@ -0,0 +1,32 @@
+package io.github.thuandao.tasktracker.service;
+
+/**
+ * Thrown when a task with a requested ID does not exist.
+ * Extends IllegalArgumentException, as an unknown ID is an invalid argument
+ * to the task service.
+ */
+public class TaskNotFoundException extends IllegalArgumentException {
+    /**
+     * The ID that was not found.
+     */
+    private final long id;
+
+    /**
+     * Creates an exception for a missing task.
+     * 
+     * @param id The ID that was not found
+     */
+    public TaskNotFoundException(long id) {
+        super("Task not found with ID: " + id);
+        this.id = id;
+    }
+
+    /**
+     * Gets the ID that was not found.
+     * 
+     * @return The task ID
+     */
+    public long getId() {
+        return id;
+    }
+}
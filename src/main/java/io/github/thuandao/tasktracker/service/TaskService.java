@@ -1,21 +1,81 @@
 package io.github.thuandao.tasktracker.service;
 
 import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskOrder;
 import io.github.thuandao.tasktracker.model.TaskStatus;
-import io.github.thuandao.tasktracker.util.JsonUtil;
+import io.github.thuandao.tasktracker.store.JsonFileTaskStore;
+import io.github.thuandao.tasktracker.store.TaskChange;
+import io.github.thuandao.tasktracker.store.TaskStore;
+import io.github.thuandao.tasktracker.util.InvertedIndex;
+import io.github.thuandao.tasktracker.util.LockTimeoutException;
+import io.github.thuandao.tasktracker.util.ProcessFileLock;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
  * Service class that handles all task-related business logic.
- * Responsible for CRUD operations on tasks and persisting them to a JSON file.
+ * Responsible for CRUD operations on tasks and persisting them through a
+ * {@link TaskStore}, by default a JSON file. The loaded tasks are kept in
+ * memory between calls, indexed by ID, and only loaded again when the store
+ * reports that they were changed elsewhere.
+ * <p>
+ * Mutations are safe to call from several threads. Each change is applied in
+ * memory right away and then committed together with the changes of other
+ * threads that arrived at about the same time (group commit), so a burst of
+ * concurrent writes costs one durable write per batch instead of one per task.
+ * A mutation returns only once its change is durable.
+ * <p>
+ * Within the JVM, adding and deleting tasks change the structure of the task
+ * table and run one at a time, holding the structure lock exclusively. Changes
+ * to a single existing task hold it shared, so they do not wait for readers,
+ * but are serialized on the task table's monitor, which also guards the
+ * status and search indexes they update. Only the in-memory change is
+ * serialized: the commits of concurrent changes are still grouped.
+ * <p>
+ * Across processes, stores that name a lock file are guarded by a
+ * {@link ProcessFileLock}: reloading the tasks takes it shared, and the first
+ * mutation takes it exclusively and reloads the tasks if another process
+ * changed them. The exclusive lock is kept until all changes are committed,
+ * so other processes never write in between the load and the commit. Waiting
+ * for the lock is bounded by the lock timeout, after which the call fails
+ * with a {@link LockTimeoutException} instead of blocking behind a process
+ * that keeps changes uncommitted.
+ * <p>
+ * Full-text search uses an inverted index over the descriptions, built on
+ * the first search and then kept current by each change. Stores that name a
+ * search index file get the index saved next to the tasks, tagged with the
+ * store's checksum, after it is built and after each commit that changes
+ * descriptions; a later process reuses it instead of tokenizing every
+ * description again, as long as the checksum still matches.
+ * <p>
+ * Committed changes are passed to the registered
+ * {@link TaskChangeListener}s, in commit order.
+ * <p>
+ * Given a meter registry, the service times each call and its phases and
+ * counts cache hits and store I/O; see {@link TaskServiceMetrics}.
  */
 @Service
 public class TaskService {
@@ -26,19 +86,133 @@ public class TaskService {
     private static final String TASKS_FILE = "tasks.json";
 
     /**
-     * The path to the tasks file.
+     * The default time a commit waits for other in-flight mutations to join it.
+     */
+    private static final Duration DEFAULT_GROUP_COMMIT_WINDOW = Duration.ofMillis(2);
+
+    /**
+     * The default time to wait for the process lock before giving up.
+     */
+    private static final Duration DEFAULT_LOCK_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * How long a waiting commit sleeps between checks for in-flight mutations.
+     */
+    private static final long PARK_NANOS = 50_000;
+
+    private static final Logger log = LoggerFactory.getLogger(TaskService.class);
+
+    /**
+     * The store the tasks are loaded from and persisted to.
+     */
+    private final TaskStore store;
+
+    /**
+     * The lock shared with other processes using the same files, or null if
+     * the store has no lock file.
+     */
+    private final ProcessFileLock processLock;
+
+    /**
+     * Guards the cached tasks and the fields below. Taken exclusively to load
+     * the tasks, add or delete a task, or swap batches; taken shared, together
+     * with the task table's monitor, to change a single task.
+     */
+    private final ReentrantReadWriteLock structureLock = new ReentrantReadWriteLock();
+
+    /**
+     * Held by the thread committing a batch, so only one commit runs at a time.
+     */
+    private final ReentrantLock commitLock = new ReentrantLock();
+
+    /**
+     * The number of mutations that have started but not yet recorded their
+     * change. A commit waits for these (up to the group commit window) so
+     * their changes go out in the same batch.
+     */
+    private final AtomicInteger mutationsInFlight = new AtomicInteger();
+
+    /**
+     * The listeners told about committed changes.
+     */
+    private final List<TaskChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * How long a commit waits for in-flight mutations to join its batch.
+     */
+    private Duration groupCommitWindow = DEFAULT_GROUP_COMMIT_WINDOW;
+
+    /**
+     * How long to wait for the process lock while another process holds it.
+     */
+    private Duration lockTimeout = DEFAULT_LOCK_TIMEOUT;
+
+    /**
+     * The tasks from the last load or commit, or null if nothing is cached.
+     */
+    private TaskTable cachedTasks;
+
+    /**
+     * The batch new changes are added to.
+     */
+    private Batch openBatch = new Batch();
+
+    /**
+     * Whether a batch is being committed to the store right now.
+     */
+    private boolean committing;
+
+    /**
+     * The exclusive process lock, held from the first mutation until all
+     * changes are committed, or null if not held. While it is null the open
+     * batch is empty and no commit is running.
+     */
+    private ProcessFileLock.Handle processWriteLock;
+
+    /**
+     * Whether mutations leave their changes for {@link #flush()} to commit.
      */
-    private final Path filePath;
+    private volatile boolean commitsDeferred;
 
     /**
-     * Constructor that initializes the service with the default tasks file path.
+     * The meters timing and counting the service's work; no-ops unless a
+     * meter registry is set.
+     */
+    private TaskServiceMetrics metrics = TaskServiceMetrics.disabled();
+
+    /**
+     * Constructor that initializes the service with a JSON file store at the
+     * default tasks file path.
      */
     public TaskService() {
-        this.filePath = getFilePath();
+        this.store = new JsonFileTaskStore(getFilePath());
+        this.processLock = lockFor(store);
     }
 
     /**
-     * Gets the path to the tasks file.
+     * Constructor that initializes the service with the given store.
+     * 
+     * @param store The store to load and persist tasks with
+     */
+    @Autowired
+    public TaskService(TaskStore store) {
+        this.store = store;
+        this.processLock = lockFor(store);
+    }
+
+    /**
+     * Gets the process lock for a store's lock file.
+     * 
+     * @param store The store
+     * @return The lock, or null if the store has no lock file
+     */
+    private static ProcessFileLock lockFor(TaskStore store) {
+        Path lockPath = store.getLockPath();
+        return lockPath != null ? ProcessFileLock.forPath(lockPath) : null;
+    }
+
+    /**
+     * Gets the path to the tasks file used by the default JSON file store.
      * This method can be overridden in tests to use a different file path.
      * 
      * @return The path to the tasks file
@@ -47,6 +221,62 @@ public class TaskService {
         return Paths.get(TASKS_FILE);
     }
 
+    /**
+     * Sets how long a commit waits for other in-flight mutations to join its
+     * batch. A longer window gives bigger batches under concurrent load at the
+     * cost of latency; zero commits whatever has been recorded right away.
+     * 
+     * @param groupCommitWindow The group commit window
+     */
+    @Autowired
+    public void setGroupCommitWindow(
+            @Value("${tasktracker.store.group-commit-window:2ms}") Duration groupCommitWindow) {
+        this.groupCommitWindow = groupCommitWindow;
+    }
+
+    /**
+     * Sets how long a call waits for the process lock while another process
+     * holds it, e.g. a shell with unsaved changes, before failing with a
+     * {@link LockTimeoutException}.
+     * 
+     * @param lockTimeout The lock timeout
+     */
+    @Autowired
+    public void setLockTimeout(@Value("${tasktracker.store.lock-timeout:10s}") Duration lockTimeout) {
+        this.lockTimeout = lockTimeout;
+    }
+
+    /**
+     * Sets the registry to publish the service's metrics to, e.g. the one
+     * Spring Boot Actuator creates. Without a registry nothing is measured.
+     * See {@link TaskServiceMetrics} for the meters.
+     * 
+     * @param registry The meter registry
+     */
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry registry) {
+        this.metrics = new TaskServiceMetrics(registry);
+        TaskServiceMetrics.bind(registry, this, store);
+    }
+
+    /**
+     * Registers a listener for committed changes.
+     * 
+     * @param listener The listener
+     */
+    public void addChangeListener(TaskChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener for committed changes.
+     * 
+     * @param listener The listener
+     */
+    public void removeChangeListener(TaskChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
     /**
      * Adds a new task with the given description.
      * Generates a unique ID for the task and saves it to the file.
@@ -56,22 +286,16 @@ public class TaskService {
      * @throws IOException If there's an error reading from or writing to the file
      */
     public Task addTask(String description) throws IOException {
-        // Load existing tasks
-        List<Task> tasks = loadTasks();
-
-        // Generate a new ID (max existing ID + 1, or 1 if no tasks exist)
-        long nextId = tasks.stream()
-                .mapToLong(Task::getId)
-                .max()
-                .orElse(0) + 1;
-
-        // Create and add the new task
-        Task newTask = new Task(nextId, description);
-        tasks.add(newTask);
+        return mutate(metrics.add, tasks -> {
+            // Let the store pick the ID (by default max existing ID + 1, or 1
+            // if no tasks exist)
+            long nextId = store.nextId(tasks.maxId());
 
-        // Save the updated task list
-        saveTasks(tasks);
-        return newTask;
+            // Create and add the new task
+            Task newTask = new Task(nextId, description);
+            tasks.put(newTask);
+            return TaskChange.added(copyOf(newTask));
+        }).task();
     }
 
     /**
@@ -82,21 +306,17 @@ public class TaskService {
      * @return The updated task
      * @throws IOException              If there's an error reading from or writing
      *                                  to the file
-     * @throws IllegalArgumentException If no task with the given ID exists
+     * @throws TaskNotFoundException    If no task with the given ID exists
      */
     public Task updateTask(long id, String description) throws IOException {
-        // Load existing tasks
-        List<Task> tasks = loadTasks();
-
-        // Find the task with the given ID
-        Task task = findTaskById(tasks, id);
-        if (task != null) {
-            // Update the description and save
-            task.setDescription(description);
-            saveTasks(tasks);
-            return task;
-        }
-        throw new IllegalArgumentException("Task not found with ID: " + id);
+        return mutateTask(metrics.update, tasks -> {
+            // Update the description of the task with the given ID and its search index entries
+            Task task = tasks.updateDescription(id, description);
+            if (task == null) {
+                throw new TaskNotFoundException(id);
+            }
+            return TaskChange.updated(copyOf(task));
+        }).task();
     }
 
     /**
@@ -105,21 +325,16 @@ public class TaskService {
      * @param id The ID of the task to delete
      * @throws IOException              If there's an error reading from or writing
      *                                  to the file
-     * @throws IllegalArgumentException If no task with the given ID exists
+     * @throws TaskNotFoundException    If no task with the given ID exists
      */
     public void deleteTask(long id) throws IOException {
-        // Load existing tasks
-        List<Task> tasks = loadTasks();
-
-        // Find the task with the given ID
-        Task task = findTaskById(tasks, id);
-        if (task != null) {
-            // Remove the task and save
-            tasks.remove(task);
-            saveTasks(tasks);
-        } else {
-            throw new IllegalArgumentException("Task not found with ID: " + id);
-        }
+        mutate(metrics.delete, tasks -> {
+            // Remove the task with the given ID
+            if (tasks.remove(id) == null) {
+                throw new TaskNotFoundException(id);
+            }
+            return TaskChange.deleted(id);
+        });
     }
 
     /**
@@ -130,85 +345,831 @@ public class TaskService {
      * @return The updated task
      * @throws IOException              If there's an error reading from or writing
      *                                  to the file
-     * @throws IllegalArgumentException If no task with the given ID exists
+     * @throws TaskNotFoundException    If no task with the given ID exists
      */
     public Task updateTaskStatus(long id, TaskStatus status) throws IOException {
-        // Load existing tasks
-        List<Task> tasks = loadTasks();
-
-        // Find the task with the given ID
-        Task task = findTaskById(tasks, id);
-        if (task != null) {
-            // Update the status and save
-            task.setStatus(status);
-            saveTasks(tasks);
-            return task;
-        }
-        throw new IllegalArgumentException("Task not found with ID: " + id);
+        return mutateTask(metrics.status, tasks -> {
+            // Update the status of the task with the given ID and its index entry
+            Task task = tasks.updateStatus(id, status);
+            if (task == null) {
+                throw new TaskNotFoundException(id);
+            }
+            return TaskChange.statusChanged(copyOf(task));
+        }).task();
     }
 
     /**
      * Lists all tasks, optionally filtered by status.
      * 
      * @param status The status to filter by, or null to list all tasks
-     * @return A list of tasks matching the filter
+     * @return Copies of the tasks matching the filter
      * @throws IOException If there's an error reading from the file
      */
     public List<Task> listTasks(TaskStatus status) throws IOException {
-        // Load all tasks
-        List<Task> tasks = loadTasks();
+        return read(metrics.list, tasks -> {
+            // If a status filter is provided, read the matching tasks from the status index,
+            // otherwise list all tasks
+            List<Task> matching = status != null ? tasks.withStatus(status) : tasks.toList();
+            // Copied, so callers cannot modify the cached tasks or the status index
+            matching.replaceAll(TaskService::copyOf);
+            return matching;
+        });
+    }
 
-        // If a status filter is provided, filter the tasks
-        if (status != null) {
-            return tasks.stream()
-                    .filter(task -> task.getStatus() == status)
-                    .collect(Collectors.toList());
+    /**
+     * Gets a task by ID. If no tasks are cached, e.g. in a one-off command,
+     * the task is first read on its own from the store, which stores with an
+     * offset index do without loading the other tasks.
+     * 
+     * @param id The ID of the task
+     * @return A copy of the task
+     * @throws IOException           If there's an error reading from the file
+     * @throws TaskNotFoundException If no task with the given ID exists
+     */
+    public Task getTask(long id) throws IOException {
+        Task stored = loadUncachedTask(id);
+        if (stored != null) {
+            return stored;
         }
-        // Otherwise return all tasks
-        return tasks;
+        return read(metrics.get, tasks -> {
+            Task task = tasks.get(id);
+            if (task == null) {
+                throw new TaskNotFoundException(id);
+            }
+            return copyOf(task);
+        });
+    }
+
+    /**
+     * Lists the tasks with an ID above the given one, in ascending ID order,
+     * optionally filtered by status (keyset pagination). To page through all
+     * tasks, pass the ID of the last task of each page to get the next one;
+     * unlike an offset, this stays correct and cheap while tasks are added
+     * and deleted between pages.
+     * 
+     * @param afterId The ID to start after, 0 for the first page
+     * @param status  The status to filter by, or null to list all tasks
+     * @param limit   The maximum number of tasks to return
+     * @return Copies of at most limit tasks
+     * @throws IOException If there's an error reading from the file
+     */
+    public List<Task> listTasksAfter(long afterId, TaskStatus status, int limit) throws IOException {
+        return read(metrics.page, tasks -> {
+            List<Task> page = tasks.page(afterId, status, limit);
+            page.replaceAll(TaskService::copyOf);
+            return page;
+        });
+    }
+
+    /**
+     * Lists the first tasks in the given order, optionally filtered by
+     * status, e.g. the 20 most recently updated tasks. The tasks are found in
+     * one pass with a bounded heap, so only the returned tasks are sorted and
+     * copied however many tasks there are.
+     * 
+     * @param status     The status to filter by, or null to list all tasks
+     * @param order      The property to sort by
+     * @param descending true to list the highest values first, e.g. the most
+     *                   recent tasks
+     * @param limit      The maximum number of tasks to return
+     * @return Copies of at most limit tasks, in order
+     * @throws IOException If there's an error reading from the file
+     */
+    public List<Task> listTasksSorted(TaskStatus status, TaskOrder order, boolean descending, int limit)
+            throws IOException {
+        Comparator<Task> comparator = descending ? order.comparator().reversed() : order.comparator();
+        return read(metrics.sorted, tasks -> {
+            List<Task> top = tasks.top(status, comparator, limit);
+            top.replaceAll(TaskService::copyOf);
+            return top;
+        });
+    }
+
+    /**
+     * Counts the tasks, optionally only those with a given status.
+     * Takes constant time, as the counts per status are kept up to date.
+     * 
+     * @param status The status to count, or null to count all tasks
+     * @return The number of matching tasks
+     * @throws IOException If there's an error reading from the file
+     */
+    public int countTasks(TaskStatus status) throws IOException {
+        return read(metrics.count, tasks -> status != null ? tasks.count(status) : tasks.size());
     }
 
     /**
-     * Loads tasks from the JSON file.
-     * If the file doesn't exist, returns an empty list.
+     * Finds the tasks whose description contains all words of a query.
+     * Words are runs of letters and digits, matched without case, so
+     * "fix login" finds "Fix the login page". The first search builds the
+     * search index, or reads it from the store's search index file; later
+     * searches only look up the posting lists of their words.
      * 
-     * @return A list of tasks loaded from the file
+     * @param query The words to search for
+     * @return Copies of the matching tasks, in ascending ID order; none if the
+     *         query has no words
      * @throws IOException If there's an error reading from the file
      */
-    private List<Task> loadTasks() throws IOException {
-        // If the file doesn't exist, return an empty list
-        if (!Files.exists(filePath)) {
-            return List.of();
+    public List<Task> searchTasks(String query) throws IOException {
+        return read(metrics.search, tasks -> {
+            synchronized (tasks) {
+                if (!tasks.hasSearchIndex()) {
+                    openSearchIndex(tasks);
+                }
+                List<Task> matches = tasks.search(query);
+                matches.replaceAll(TaskService::copyOf);
+                return matches;
+            }
+        });
+    }
+
+    /**
+     * Sets whether commits are deferred. While deferred, mutations only change
+     * the tasks in memory and return right away; their changes are committed
+     * together by the next {@link #flush()}. This lets a batch of commands
+     * load the tasks once and persist them once.
+     * Uncommitted changes keep the store's files locked against other
+     * processes, which give up after the lock timeout, so a deferred session
+     * should flush regularly.
+     * Turning deferral off does not commit anything by itself.
+     * 
+     * @param commitsDeferred true to defer commits until {@link #flush()}
+     */
+    public void setCommitsDeferred(boolean commitsDeferred) {
+        this.commitsDeferred = commitsDeferred;
+    }
+
+    /**
+     * Commits all changes that have not been committed yet, and waits until
+     * they are durable. Does nothing if there are no such changes.
+     * 
+     * @throws IOException If there's an error writing to the store
+     */
+    public void flush() throws IOException {
+        long start = System.nanoTime();
+        try {
+            Batch batch;
+            structureLock.readLock().lock();
+            try {
+                batch = openBatch;
+                if (batch.isEmpty()) {
+                    return;
+                }
+            } finally {
+                structureLock.readLock().unlock();
+            }
+            awaitDurable(batch);
+        } finally {
+            metrics.flush.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Counts the tasks in memory with a status, without loading them, for the
+     * task count gauges.
+     * 
+     * @param status The status to count
+     * @return The number of tasks, or NaN if no tasks are loaded
+     */
+    double countCachedTasks(TaskStatus status) {
+        structureLock.readLock().lock();
+        try {
+            return cachedTasks != null ? cachedTasks.count(status) : Double.NaN;
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a query on the tasks, timing it, and loading the tasks first if
+     * they are not cached or were changed by another process.
+     * 
+     * @param operation The timer of the calling operation
+     * @param query     The query
+     * @return The query result
+     * @throws IOException If there's an error reading from the store
+     */
+    private <T> T read(Timer operation, Query<T> query) throws IOException {
+        long start = System.nanoTime();
+        try {
+            structureLock.readLock().lock();
+            try {
+                if (cachedTasks != null && isCurrent()) {
+                    metrics.cacheGet(false);
+                    return query.run(cachedTasks);
+                }
+            } finally {
+                structureLock.readLock().unlock();
+            }
+            structureLock.writeLock().lock();
+            try {
+                boolean loaded = cachedTasks == null || !isCurrent();
+                if (loaded) {
+                    load();
+                }
+                metrics.cacheGet(loaded);
+                return query.run(cachedTasks);
+            } finally {
+                structureLock.writeLock().unlock();
+            }
+        } finally {
+            operation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Reads a single task from the store if no tasks are cached and no
+     * changes are pending, holding the process lock shared.
+     * 
+     * @param id The ID of the task
+     * @return The task, or null if tasks are cached or the store cannot read
+     *         the task on its own
+     * @throws IOException If there's an error reading from the store
+     */
+    private Task loadUncachedTask(long id) throws IOException {
+        long start = System.nanoTime();
+        Task task;
+        structureLock.readLock().lock();
+        try {
+            if (cachedTasks != null || committing || processWriteLock != null || !openBatch.isEmpty()) {
+                return null;
+            }
+            if (processLock == null) {
+                task = store.loadTask(id);
+            } else {
+                try (ProcessFileLock.Handle ignored = processLock.lockShared(lockTimeout)) {
+                    task = store.loadTask(id);
+                }
+            }
+        } finally {
+            structureLock.readLock().unlock();
+        }
+        if (task != null) {
+            metrics.get.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return task;
+    }
+
+    /**
+     * Checks whether the cached tasks are at least as recent as the store.
+     * While changes are waiting to be committed the store is not consulted:
+     * the cache is ahead of the store, and loading would lose those changes.
+     * Must be called while holding the structure lock.
+     * 
+     * @return true if the cache can be used as it is
+     * @throws IOException If there's an error reading from the store
+     */
+    private boolean isCurrent() throws IOException {
+        return committing || processWriteLock != null || !openBatch.isEmpty() || !store.isModified();
+    }
+
+    /**
+     * Loads the tasks from the store into the cache, holding the process lock
+     * shared unless this service already holds it exclusively.
+     * Must be called while holding the structure lock exclusively.
+     * 
+     * @throws IOException If there's an error reading from the store
+     */
+    private void load() throws IOException {
+        cachedTasks = null;
+        long start = System.nanoTime();
+        if (processLock == null || processWriteLock != null) {
+            cachedTasks = new TaskTable(store.load());
+        } else {
+            try (ProcessFileLock.Handle ignored = processLock.lockShared(lockTimeout)) {
+                cachedTasks = new TaskTable(store.load());
+            }
+        }
+        metrics.load.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Makes the cache safe to change: takes the process lock exclusively if
+     * not held yet, then loads the tasks if they are not cached or another
+     * process changed them before the lock was taken.
+     * Must be called while holding the structure lock exclusively.
+     * 
+     * @return true if the tasks had to be loaded
+     * @throws IOException If there's an error locking or reading the store
+     */
+    private boolean prepareForWrite() throws IOException {
+        if (processLock != null && processWriteLock == null) {
+            processWriteLock = processLock.lockExclusive(lockTimeout);
+            if (cachedTasks != null && store.isModified()) {
+                cachedTasks = null;
+            }
+        }
+        if (cachedTasks == null || !isCurrent()) {
+            load();
+            // Keep a saved search index current, so it can be saved again
+            InvertedIndex searchIndex = readSearchIndex();
+            if (searchIndex != null) {
+                cachedTasks.attachSearchIndex(searchIndex);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the cache may be changed right away, without first
+     * taking the structure lock exclusively.
+     * Must be called while holding the structure lock.
+     * 
+     * @return true if the cache is loaded and safe to change
+     * @throws IOException If there's an error reading from the store
+     */
+    private boolean isWritable() throws IOException {
+        if (cachedTasks == null) {
+            return false;
+        }
+        return processLock != null ? processWriteLock != null : isCurrent();
+    }
+
+    /**
+     * Releases the process lock if no changes are waiting to be committed.
+     * Must be called while holding the structure lock exclusively.
+     */
+    private void releaseIfIdle() {
+        if (processWriteLock == null || committing || !openBatch.isEmpty()) {
+            return;
+        }
+        try {
+            processWriteLock.close();
+        } catch (IOException e) {
+            // The lock goes away with the lock file's channel at the latest
+        }
+        processWriteLock = null;
+    }
+
+    /**
+     * Releases the process lock after a failed mutation, unless other changes
+     * still need it.
+     */
+    private void releaseAfterFailure() {
+        structureLock.writeLock().lock();
+        try {
+            releaseIfIdle();
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a mutation that adds or removes tasks and, unless commits are
+     * deferred, waits until its change is durable.
+     * The mutation runs while holding the structure lock exclusively.
+     * 
+     * @param operation The timer of the calling operation
+     * @param mutation  The mutation to apply
+     * @return The change made by the mutation
+     * @throws IOException If there's an error reading from or writing to the store
+     */
+    private TaskChange mutate(Timer operation, Mutation mutation) throws IOException {
+        long start = System.nanoTime();
+        try {
+            TaskChange change;
+            Batch batch;
+            mutationsInFlight.incrementAndGet();
+            try {
+                structureLock.writeLock().lock();
+                try {
+                    metrics.cacheGet(prepareForWrite());
+                    change = apply(mutation);
+                    batch = openBatch;
+                    batch.add(change);
+                } catch (IOException | RuntimeException e) {
+                    releaseIfIdle();
+                    throw e;
+                } finally {
+                    structureLock.writeLock().unlock();
+                }
+            } finally {
+                mutationsInFlight.decrementAndGet();
+            }
+            return commit(batch, change);
+        } finally {
+            operation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Applies a mutation to a single existing task and, unless commits are
+     * deferred, waits until its change is durable.
+     * The mutation runs while holding the structure lock shared and
+     * synchronized on the task table, which serializes it with other changes
+     * to single tasks and with queries; the change is recorded under the
+     * monitor too, which keeps the changes to one task in order within the
+     * batch.
+     * 
+     * @param operation The timer of the calling operation
+     * @param mutation  The mutation to apply
+     * @return The change made by the mutation
+     * @throws IOException If there's an error reading from or writing to the store
+     */
+    private TaskChange mutateTask(Timer operation, Mutation mutation) throws IOException {
+        long start = System.nanoTime();
+        try {
+            TaskChange change;
+            Batch batch;
+            mutationsInFlight.incrementAndGet();
+            try {
+                Lock lock = lockForTask();
+                try {
+                    synchronized (cachedTasks) {
+                        change = apply(mutation);
+                        batch = openBatch;
+                        batch.add(change);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            } catch (IOException | RuntimeException e) {
+                releaseAfterFailure();
+                throw e;
+            } finally {
+                mutationsInFlight.decrementAndGet();
+            }
+            return commit(batch, change);
+        } finally {
+            operation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Applies a mutation to the cached tasks, timing it as the mutate phase.
+     * 
+     * @param mutation The mutation to apply
+     * @return The change made by the mutation
+     * @throws IOException If there's an error reading from the store
+     */
+    private TaskChange apply(Mutation mutation) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return mutation.apply(cachedTasks);
+        } finally {
+            metrics.mutate.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Takes the structure lock shared, first preparing the cache for writing
+     * if needed; the exclusive lock taken for that is downgraded, so nothing
+     * can undo the preparation in between.
+     * 
+     * @return The held shared lock
+     * @throws IOException If there's an error locking or reading the store
+     */
+    private Lock lockForTask() throws IOException {
+        Lock readLock = structureLock.readLock();
+        readLock.lock();
+        try {
+            if (isWritable()) {
+                metrics.cacheGet(false);
+                return readLock;
+            }
+        } catch (IOException | RuntimeException e) {
+            readLock.unlock();
+            throw e;
+        }
+        readLock.unlock();
+        structureLock.writeLock().lock();
+        try {
+            metrics.cacheGet(prepareForWrite());
+            readLock.lock();
+            return readLock;
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Waits until a recorded change is durable, unless commits are deferred.
+     * 
+     * @param batch  The batch holding the change
+     * @param change The change
+     * @return The change
+     * @throws IOException If the batch could not be committed
+     */
+    private TaskChange commit(Batch batch, TaskChange change) throws IOException {
+        if (!commitsDeferred) {
+            awaitDurable(batch);
+        }
+        return change;
+    }
+
+    /**
+     * Waits until the given batch has been committed.
+     * The first thread to get the commit lock while the batch is still open
+     * becomes the leader: it waits briefly for in-flight mutations to join,
+     * then commits everything recorded so far in one call to the store. The
+     * other threads of the batch find it done once they get the lock.
+     * 
+     * @param batch The batch holding the caller's change
+     * @throws IOException If the batch could not be committed
+     */
+    private void awaitDurable(Batch batch) throws IOException {
+        commitLock.lock();
+        try {
+            if (!batch.done) {
+                awaitInFlightMutations();
+                commitOpenBatch();
+            }
+        } finally {
+            commitLock.unlock();
         }
+        if (batch.failure != null) {
+            throw new IOException("Failed to commit task changes", batch.failure);
+        }
+    }
+
+    /**
+     * Waits up to the group commit window for mutations that have started but
+     * not yet recorded their change.
+     */
+    private void awaitInFlightMutations() {
+        long deadline = System.nanoTime() + groupCommitWindow.toNanos();
+        while (mutationsInFlight.get() > 0 && System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    /**
+     * Commits the open batch. Must be called while holding the commit lock.
+     * If the commit fails the cache is dropped, so the next call loads the
+     * tasks from the store again. Changes recorded during the failed commit
+     * were made on top of the lost ones, so they fail as well.
+     * The process lock is released once no changes are left to commit.
+     * A successful batch is then passed to the change listeners, still under
+     * the commit lock so they see the batches in commit order.
+     */
+    private void commitOpenBatch() {
+        Batch batch;
+        structureLock.writeLock().lock();
+        try {
+            batch = openBatch;
+            openBatch = new Batch();
+            committing = true;
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+        long previousChecksum = store.getChecksum();
+        long start = System.nanoTime();
+        try {
+            store.commit(batch.changes, this::snapshot);
+        } catch (IOException | RuntimeException e) {
+            batch.failure = e;
+        }
+        metrics.commit.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        structureLock.writeLock().lock();
+        try {
+            committing = false;
+            if (batch.failure == null) {
+                if (changesDescriptions(batch.changes)) {
+                    if (openBatch.isEmpty()) {
+                        saveSearchIndex(cachedTasks.searchIndex());
+                    }
+                } else {
+                    // Status changes leave the saved index as it was, only its tag is stale
+                    retagSearchIndex(previousChecksum);
+                }
+            }
+            if (batch.failure != null) {
+                cachedTasks = null;
+                if (!openBatch.isEmpty()) {
+                    openBatch.failure = batch.failure;
+                    openBatch.done = true;
+                    openBatch = new Batch();
+                }
+            }
+            releaseIfIdle();
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+        batch.done = true;
+        if (batch.failure == null) {
+            publish(batch.changes);
+        }
+    }
+
+    /**
+     * Attaches a search index to the tasks: the saved one if it matches them,
+     * otherwise a new one, which is saved if the tasks are all committed.
+     * Must be called while holding the structure lock and synchronized on the
+     * tasks.
+     * 
+     * @param tasks The cached tasks
+     */
+    private void openSearchIndex(TaskTable tasks) {
+        // Mutations change the tasks before their change is recorded
+        boolean committed = !committing && openBatch.isEmpty() && mutationsInFlight.get() == 0;
+        InvertedIndex searchIndex = committed ? readSearchIndex() : null;
+        if (searchIndex != null) {
+            tasks.attachSearchIndex(searchIndex);
+            return;
+        }
+        searchIndex = tasks.buildSearchIndex();
+        if (committed) {
+            saveSearchIndex(searchIndex);
+        }
+    }
+
+    /**
+     * Reads the store's saved search index, if it matches the tasks as last
+     * loaded or committed. An unreadable index is ignored, as it can be
+     * rebuilt from the tasks.
+     * 
+     * @return The index, or null if there is no matching index
+     */
+    private InvertedIndex readSearchIndex() {
+        Path path = store.getSearchIndexPath();
+        long checksum = store.getChecksum();
+        if (path == null || checksum == 0) {
+            return null;
+        }
+        try {
+            return InvertedIndex.read(path, checksum);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Ignoring unreadable search index {}", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Saves a search index matching the tasks as last loaded or committed
+     * next to them, if the store has a search index file. A failure is only
+     * logged, as the index can be rebuilt from the tasks.
+     * 
+     * @param searchIndex The index, or null if none is attached
+     */
+    private void saveSearchIndex(InvertedIndex searchIndex) {
+        Path path = store.getSearchIndexPath();
+        long checksum = store.getChecksum();
+        if (searchIndex == null || path == null || checksum == 0) {
+            return;
+        }
+        try {
+            searchIndex.write(path, checksum);
+        } catch (IOException e) {
+            log.warn("Failed to save search index {}", path, e);
+        }
+    }
+
+    /**
+     * Tags the store's saved search index with the checksum of the tasks as
+     * last committed, if it was tagged with their checksum before the commit
+     * and the commit left the index as it was. A failure is only logged, as
+     * the index can be rebuilt from the tasks.
+     * 
+     * @param previousChecksum The store's checksum before the commit
+     */
+    private void retagSearchIndex(long previousChecksum) {
+        Path path = store.getSearchIndexPath();
+        long checksum = store.getChecksum();
+        if (path == null || previousChecksum == 0 || checksum == 0 || checksum == previousChecksum) {
+            return;
+        }
+        try {
+            InvertedIndex.retag(path, previousChecksum, checksum);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Failed to update search index {}", path, e);
+        }
+    }
 
-        // Read the file content and parse it as JSON
-        String json = Files.readString(filePath);
-        return JsonUtil.fromJson(json);
+    /**
+     * Checks whether any of the changes adds, edits or deletes a task, which
+     * changes the search index.
+     * 
+     * @param changes The changes
+     * @return true if a description was added, changed or removed
+     */
+    private static boolean changesDescriptions(List<TaskChange> changes) {
+        for (TaskChange change : changes) {
+            if (change.type() != TaskChange.Type.STATUS) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * Saves tasks to the JSON file.
+     * Passes committed changes to the change listeners. A failing listener is
+     * logged and does not affect the others.
      * 
-     * @param tasks The list of tasks to save
-     * @throws IOException If there's an error writing to the file
+     * @param changes The committed changes
      */
-    private void saveTasks(List<Task> tasks) throws IOException {
-        // Convert tasks to JSON and write to the file
-        String json = JsonUtil.toJson(tasks);
-        Files.writeString(filePath, json);
+    private void publish(List<TaskChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<TaskChange> committed = Collections.unmodifiableList(changes);
+        for (TaskChangeListener listener : changeListeners) {
+            try {
+                listener.tasksChanged(committed);
+            } catch (RuntimeException e) {
+                log.warn("Task change listener failed", e);
+            }
+        }
     }
 
     /**
-     * Finds a task by its ID in a list of tasks.
+     * Copies the current tasks for stores that write the full state.
      * 
-     * @param tasks The list of tasks to search
-     * @param id    The ID to search for
-     * @return The task with the given ID, or null if not found
+     * @return A copy of all tasks
      */
-    private Task findTaskById(List<Task> tasks, long id) {
-        return tasks.stream()
-                .filter(task -> task.getId() == id)
-                .findFirst()
-                .orElse(null);
+    private List<Task> snapshot() {
+        long start = System.nanoTime();
+        structureLock.writeLock().lock();
+        try {
+            List<Task> tasks = new ArrayList<>(cachedTasks.size());
+            for (Task task : cachedTasks) {
+                tasks.add(copyOf(task));
+            }
+            return tasks;
+        } finally {
+            structureLock.writeLock().unlock();
+            metrics.snapshot.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Copies a task, so stores can write it while the cached task keeps
+     * changing.
+     * 
+     * @param task The task to copy
+     * @return The copy
+     */
+    private static Task copyOf(Task task) {
+        return new Task(task.getId(), task.getDescription(), task.getStatus(),
+                task.getCreatedAt(), task.getUpdatedAt());
+    }
+
+    /**
+     * A change to the in-memory tasks.
+     */
+    @FunctionalInterface
+    private interface Mutation {
+        /**
+         * Applies the change.
+         * 
+         * @param tasks The cached tasks, to be modified in place
+         * @return The change that was made
+         * @throws IOException If there's an error reading from the store
+         */
+        TaskChange apply(TaskTable tasks) throws IOException;
+    }
+
+    /**
+     * A read of the in-memory tasks.
+     * 
+     * @param <T> The result type
+     */
+    @FunctionalInterface
+    private interface Query<T> {
+        /**
+         * Runs the read.
+         * 
+         * @param tasks The cached tasks, not to be modified
+         * @return The result
+         */
+        T run(TaskTable tasks);
+    }
+
+    /**
+     * A group of changes committed to the store together.
+     */
+    private static final class Batch {
+        /**
+         * The changes in the batch, in the order they were recorded. Only
+         * read by the commit once the batch is no longer open.
+         */
+        final List<TaskChange> changes = new ArrayList<>();
+
+        /**
+         * Whether the batch has been committed, successfully or not.
+         */
+        volatile boolean done;
+
+        /**
+         * Why the commit failed, or null if it succeeded.
+         */
+        volatile Exception failure;
+
+        /**
+         * Records a change.
+         * 
+         * @param change The change
+         */
+        synchronized void add(TaskChange change) {
+            changes.add(change);
+        }
+
+        /**
+         * Checks whether no changes have been recorded.
+         * 
+         * @return true if the batch is empty
+         */
+        synchronized boolean isEmpty() {
+            return changes.isEmpty();
+        }
     }
-}
\ No newline at end of file
+}
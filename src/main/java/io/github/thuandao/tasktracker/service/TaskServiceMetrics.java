@@ -0,0 +1,168 @@
+package io.github.thuandao.tasktracker.service;
+
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.store.TaskStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import java.io.IOException;
+
+/**
+ * The meters of a {@link TaskService}. Created with a registry that has no
+ * backing registries, every meter is a no-op, which is what a service without
+ * a meter registry (e.g. in the command-line interface) uses.
+ * <p>
+ * Meters:
+ * <ul>
+ * <li>{@code tasktracker.operation}: time of each service method, tagged
+ * {@code operation}, with a percentile histogram for latency alerts</li>
+ * <li>{@code tasktracker.phase}: time of each phase, tagged {@code phase}:
+ * {@code load} (read and parse), {@code mutate} (change the tasks in
+ * memory), {@code snapshot} (copy the tasks for stores that write them all)
+ * and {@code commit} (serialize and write, including the snapshot). Stores
+ * stream while reading and writing, so parsing is part of loading and
+ * serializing part of committing.</li>
+ * <li>{@code tasktracker.cache.gets}: calls that found the tasks in memory
+ * ({@code result=hit}) or had to load them ({@code result=miss})</li>
+ * <li>{@code tasktracker.tasks}: the tasks in memory, tagged {@code status}</li>
+ * <li>{@code tasktracker.store.size}, {@code tasktracker.store.read}
+ * and {@code tasktracker.store.written}: the size of the store's files
+ * and the bytes it read and wrote</li>
+ * </ul>
+ */
+final class TaskServiceMetrics {
+    final Timer add;
+    final Timer update;
+    final Timer delete;
+    final Timer status;
+    final Timer get;
+    final Timer list;
+    final Timer page;
+    final Timer sorted;
+    final Timer count;
+    final Timer search;
+    final Timer flush;
+
+    final Timer load;
+    final Timer mutate;
+    final Timer snapshot;
+    final Timer commit;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * Creates the meters of a service in the given registry.
+     * 
+     * @param registry The registry
+     */
+    TaskServiceMetrics(MeterRegistry registry) {
+        add = operation(registry, "add");
+        update = operation(registry, "update");
+        delete = operation(registry, "delete");
+        status = operation(registry, "status");
+        get = operation(registry, "get");
+        list = operation(registry, "list");
+        page = operation(registry, "page");
+        sorted = operation(registry, "sorted");
+        count = operation(registry, "count");
+        search = operation(registry, "search");
+        flush = operation(registry, "flush");
+
+        load = phase(registry, "load");
+        mutate = phase(registry, "mutate");
+        snapshot = phase(registry, "snapshot");
+        commit = phase(registry, "commit");
+
+        hits = cacheGets(registry, "hit");
+        misses = cacheGets(registry, "miss");
+    }
+
+    /**
+     * Creates no-op meters, for a service without a meter registry.
+     * 
+     * @return The meters
+     */
+    static TaskServiceMetrics disabled() {
+        return new TaskServiceMetrics(new CompositeMeterRegistry());
+    }
+
+    /**
+     * Registers the gauges and counters that read the state of the service
+     * and its store when the registry is scraped. The registry only keeps weak
+     * references to them.
+     * 
+     * @param registry The registry
+     * @param service  The service whose tasks are counted
+     * @param store    The service's store, whose I/O is measured
+     */
+    static void bind(MeterRegistry registry, TaskService service, TaskStore store) {
+        for (TaskStatus status : TaskStatus.values()) {
+            Gauge.builder("tasktracker.tasks", service, s -> s.countCachedTasks(status))
+                    .description("Tasks held in memory")
+                    .tag("status", status.name().toLowerCase().replace('_', '-'))
+                    .register(registry);
+        }
+        Gauge.builder("tasktracker.store.size", store, TaskServiceMetrics::size)
+                .description("Size of the stored tasks on disk")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("tasktracker.store.read", store, TaskStore::getBytesRead)
+                .description("Bytes read by the task store")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("tasktracker.store.written", store, TaskStore::getBytesWritten)
+                .description("Bytes written by the task store")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Counts a call that found the tasks in memory, or that loaded them.
+     * 
+     * @param loaded true if the call had to load the tasks
+     */
+    void cacheGet(boolean loaded) {
+        (loaded ? misses : hits).increment();
+    }
+
+    private static Timer operation(MeterRegistry registry, String operation) {
+        return Timer.builder("tasktracker.operation")
+                .description("Time of task service calls, including waits for locks and commits")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Timer phase(MeterRegistry registry, String phase) {
+        return Timer.builder("tasktracker.phase")
+                .description("Time of each phase of task service calls")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Counter cacheGets(MeterRegistry registry, String result) {
+        return Counter.builder("tasktracker.cache.gets")
+                .description("Task service calls that found the tasks in memory or loaded them")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Gets the size of a store, or NaN if it cannot tell.
+     */
+    private static double size(TaskStore store) {
+        try {
+            long size = store.getSize();
+            return size >= 0 ? size : Double.NaN;
+        } catch (IOException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,619 @@
+package io.github.thuandao.tasktracker.service;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.util.InvertedIndex;
+import io.github.thuandao.tasktracker.util.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * The in-memory tasks, in insertion order, indexed by ID.
+ * Tasks are kept in an array of slots with a hash index from ID to slot, so
+ * finding, replacing and removing a task by ID takes constant time however
+ * many tasks there are. A removed task leaves an empty slot (a tombstone)
+ * behind, which keeps the order of the other tasks; the slots are compacted
+ * once more than half of them are empty.
+ * <p>
+ * A secondary index keeps, for each status, a bit set of the slots holding
+ * tasks with that status, plus a count. Listing the tasks with one status
+ * visits only the set bits (skipping 64 slots per word otherwise), and the
+ * count per status is available in constant time.
+ * <p>
+ * New tasks normally get an ID above all others, so the slots are usually in
+ * ascending ID order. While they are, a page of tasks after a given ID
+ * (keyset pagination) is found by binary search instead of a scan. Otherwise
+ * the IDs are sorted once, when the first page is needed, and pages are found
+ * by binary search in them until a task is added or removed.
+ * <p>
+ * The first tasks in another order, e.g. the most recently updated ones, are
+ * found in one pass over the matching tasks, keeping only the best ones seen
+ * so far in a bounded heap, without sorting or copying all tasks.
+ * <p>
+ * Once a search index is attached, it is kept current as tasks are added,
+ * removed and described anew, so a full-text search looks up the posting
+ * lists of its words instead of scanning the descriptions.
+ * <p>
+ * The table is not thread-safe, except that status and description changes
+ * and the queries over the indexes synchronize on the table, so they may be
+ * called from several threads while no task is added or removed. The changes
+ * are then serialized by the table's monitor, which guards both the task and
+ * the shared status and search indexes.
+ */
+class TaskTable implements Iterable<Task> {
+    /**
+     * The smallest number of slots allocated.
+     */
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * The tasks by slot, with null for removed tasks.
+     */
+    private Task[] slots;
+
+    /**
+     * The number of slots in use, including tombstones.
+     */
+    private int used;
+
+    /**
+     * The number of tasks.
+     */
+    private int size;
+
+    /**
+     * Maps each task ID to its slot.
+     */
+    private final LongIntHashMap index;
+
+    /**
+     * For each status, the slots holding tasks with that status.
+     */
+    private final EnumMap<TaskStatus, BitSet> slotsByStatus = new EnumMap<>(TaskStatus.class);
+
+    /**
+     * The number of tasks per status, by status ordinal.
+     */
+    private final int[] statusCounts = new int[TaskStatus.values().length];
+
+    /**
+     * The highest task ID, or 0 if unknown after the task holding it was
+     * removed.
+     */
+    private long maxId;
+
+    /**
+     * Whether {@link #maxId} must be recomputed.
+     */
+    private boolean maxIdStale;
+
+    /**
+     * Whether the tasks in the slots are in ascending ID order.
+     */
+    private boolean ordered = true;
+
+    /**
+     * The task IDs in ascending order while the slots are not in ID order, or
+     * null until a page needs them after a task was added or removed.
+     */
+    private long[] sortedIds;
+
+    /**
+     * The full-text index over the descriptions, or null if none is attached.
+     */
+    private InvertedIndex searchIndex;
+
+    /**
+     * Creates a table holding the given tasks, in order. A task with the same
+     * ID as an earlier one replaces it.
+     * 
+     * @param tasks The tasks
+     */
+    TaskTable(List<Task> tasks) {
+        slots = new Task[Math.max(MIN_CAPACITY, tasks.size())];
+        index = new LongIntHashMap(tasks.size());
+        for (TaskStatus status : TaskStatus.values()) {
+            slotsByStatus.put(status, new BitSet());
+        }
+        for (Task task : tasks) {
+            put(task);
+        }
+    }
+
+    /**
+     * Gets a task by ID.
+     * 
+     * @param id The task ID
+     * @return The task, or null if there is no task with the ID
+     */
+    Task get(long id) {
+        int slot = index.get(id);
+        return slot == LongIntHashMap.NO_VALUE ? null : slots[slot];
+    }
+
+    /**
+     * Adds a task at the end, or replaces the task with the same ID in place.
+     * 
+     * @param task The task to add
+     */
+    void put(Task task) {
+        long id = task.getId();
+        int slot = index.get(id);
+        if (slot != LongIntHashMap.NO_VALUE) {
+            unmark(slot, slots[slot].getStatus());
+            unindex(slots[slot]);
+            slots[slot] = task;
+            mark(slot, task.getStatus());
+            index(task);
+            return;
+        }
+        if (ordered && size > 0 && id <= maxId()) {
+            ordered = false;
+        }
+        sortedIds = null;
+        if (used == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+        }
+        slots[used] = task;
+        index.put(id, used);
+        mark(used, task.getStatus());
+        index(task);
+        used++;
+        size++;
+        if (!maxIdStale && id > maxId) {
+            maxId = id;
+        }
+    }
+
+    /**
+     * Removes a task by ID.
+     * 
+     * @param id The task ID
+     * @return The removed task, or null if there was no task with the ID
+     */
+    Task remove(long id) {
+        int slot = index.remove(id);
+        if (slot == LongIntHashMap.NO_VALUE) {
+            return null;
+        }
+        Task task = slots[slot];
+        slots[slot] = null;
+        unmark(slot, task.getStatus());
+        unindex(task);
+        sortedIds = null;
+        size--;
+        if (id == maxId) {
+            maxIdStale = true;
+        }
+        if (used > MIN_CAPACITY && size < used / 2) {
+            compact();
+        }
+        return task;
+    }
+
+    /**
+     * Changes the status of a task, keeping the status index current.
+     * 
+     * @param id     The task ID
+     * @param status The new status
+     * @return The updated task, or null if there is no task with the ID
+     */
+    synchronized Task updateStatus(long id, TaskStatus status) {
+        int slot = index.get(id);
+        if (slot == LongIntHashMap.NO_VALUE) {
+            return null;
+        }
+        Task task = slots[slot];
+        unmark(slot, task.getStatus());
+        task.setStatus(status);
+        mark(slot, status);
+        return task;
+    }
+
+    /**
+     * Changes the description of a task, keeping the search index current.
+     * 
+     * @param id          The task ID
+     * @param description The new description
+     * @return The updated task, or null if there is no task with the ID
+     */
+    synchronized Task updateDescription(long id, String description) {
+        Task task = get(id);
+        if (task == null) {
+            return null;
+        }
+        unindex(task);
+        task.setDescription(description);
+        index(task);
+        return task;
+    }
+
+    /**
+     * Checks whether a search index is attached.
+     * 
+     * @return true if searches can use the index
+     */
+    synchronized boolean hasSearchIndex() {
+        return searchIndex != null;
+    }
+
+    /**
+     * Attaches a search index over the descriptions, which from then on is
+     * kept current with the tasks.
+     * 
+     * @param searchIndex The index, which must match the tasks
+     */
+    synchronized void attachSearchIndex(InvertedIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Builds a search index over the descriptions of the tasks and attaches it.
+     * 
+     * @return The new index
+     */
+    synchronized InvertedIndex buildSearchIndex() {
+        searchIndex = new InvertedIndex();
+        for (Task task : this) {
+            index(task);
+        }
+        return searchIndex;
+    }
+
+    /**
+     * Gets the attached search index. Unless no task can change meanwhile,
+     * callers must synchronize on the table while using it.
+     * 
+     * @return The index, or null if none is attached
+     */
+    synchronized InvertedIndex searchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * Finds the tasks whose description contains all words of a query, using
+     * the attached search index.
+     * 
+     * @param query The query
+     * @return A new list of the matching tasks, in ascending ID order
+     * @throws IllegalStateException If no search index is attached
+     */
+    synchronized List<Task> search(String query) {
+        if (searchIndex == null) {
+            throw new IllegalStateException("No search index attached");
+        }
+        long[] ids = searchIndex.search(query);
+        List<Task> tasks = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            tasks.add(get(id));
+        }
+        return tasks;
+    }
+
+    /**
+     * Lists the tasks with a status, in order.
+     * 
+     * @param status The status
+     * @return A new list of the matching tasks
+     */
+    synchronized List<Task> withStatus(TaskStatus status) {
+        List<Task> tasks = new ArrayList<>(count(status));
+        BitSet matching = slotsByStatus.get(status);
+        for (int slot = matching.nextSetBit(0); slot >= 0; slot = matching.nextSetBit(slot + 1)) {
+            tasks.add(slots[slot]);
+        }
+        return tasks;
+    }
+
+    /**
+     * Gets the number of tasks with a status.
+     * 
+     * @param status The status
+     * @return The number of matching tasks
+     */
+    synchronized int count(TaskStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    /**
+     * Lists the tasks with an ID above the given one, in ascending ID order
+     * (keyset pagination).
+     * Takes logarithmic time to find the first task plus the time to collect
+     * the page. While the slots are not in ID order, the first page after a
+     * task was added or removed also sorts the IDs.
+     * 
+     * @param afterId The ID to start after
+     * @param status  The status to filter by, or null for all tasks
+     * @param limit   The maximum number of tasks to return
+     * @return A new list of at most limit tasks
+     */
+    synchronized List<Task> page(long afterId, TaskStatus status, int limit) {
+        List<Task> page = new ArrayList<>(Math.min(limit, size));
+        if (limit <= 0) {
+            return page;
+        }
+        if (!ordered) {
+            return unorderedPage(afterId, status, limit);
+        }
+        int slot = firstSlotAfter(afterId);
+        if (status != null) {
+            BitSet matching = slotsByStatus.get(status);
+            for (slot = matching.nextSetBit(slot); slot >= 0 && page.size() < limit;
+                    slot = matching.nextSetBit(slot + 1)) {
+                page.add(slots[slot]);
+            }
+            return page;
+        }
+        for (; slot < used && page.size() < limit; slot++) {
+            if (slots[slot] != null) {
+                page.add(slots[slot]);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Lists the first tasks in the given order, optionally filtered by status.
+     * Takes one pass over the matching tasks, keeping the best tasks seen so
+     * far in a heap of at most limit tasks whose root is the worst of them,
+     * so only the limit tasks found are ever sorted.
+     * 
+     * @param status The status to filter by, or null for all tasks
+     * @param order  The order to sort by
+     * @param limit  The maximum number of tasks to return
+     * @return A new list of at most limit tasks, in order
+     */
+    synchronized List<Task> top(TaskStatus status, Comparator<Task> order, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        int matches = status != null ? count(status) : size;
+        PriorityQueue<Task> best = new PriorityQueue<>(Math.max(1, Math.min(limit, matches)), order.reversed());
+        BitSet matching = status != null ? slotsByStatus.get(status) : null;
+        for (int slot = nextSlot(matching, 0); slot >= 0; slot = nextSlot(matching, slot + 1)) {
+            Task task = slots[slot];
+            if (best.size() < limit) {
+                best.add(task);
+            } else if (order.compare(task, best.peek()) < 0) {
+                best.poll();
+                best.add(task);
+            }
+        }
+        List<Task> top = new ArrayList<>(best);
+        top.sort(order);
+        return top;
+    }
+
+    /**
+     * Finds the next slot holding a matching task.
+     * 
+     * @param matching The slots of the matching tasks, or null to match all
+     * @param from     The slot to start at
+     * @return The slot, or -1 if there are no more matching tasks
+     */
+    private int nextSlot(BitSet matching, int from) {
+        if (matching != null) {
+            return matching.nextSetBit(from);
+        }
+        while (from < used && slots[from] == null) {
+            from++;
+        }
+        return from < used ? from : -1;
+    }
+
+    /**
+     * Finds the first slot whose next task has an ID above the given one.
+     * Must only be called while the slots are in ID order.
+     * 
+     * @param afterId The ID to start after
+     * @return The slot to start the page at, or the number of used slots if
+     *         there are no such tasks
+     */
+    private int firstSlotAfter(long afterId) {
+        int low = 0;
+        int high = used;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            // Skip tombstones to the next task
+            int probe = middle;
+            while (probe < high && slots[probe] == null) {
+                probe++;
+            }
+            if (probe == high || slots[probe].getId() > afterId) {
+                high = middle;
+            } else {
+                low = probe + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Collects a page from the sorted IDs, sorting them first if a task was
+     * added or removed since they were last sorted.
+     */
+    private List<Task> unorderedPage(long afterId, TaskStatus status, int limit) {
+        if (sortedIds == null) {
+            sortedIds = new long[size];
+            int i = 0;
+            for (Task task : this) {
+                sortedIds[i++] = task.getId();
+            }
+            Arrays.sort(sortedIds);
+        }
+        int start = Arrays.binarySearch(sortedIds, afterId);
+        start = start >= 0 ? start + 1 : -start - 1;
+        List<Task> page = new ArrayList<>(Math.min(limit, sortedIds.length - start));
+        for (int i = start; i < sortedIds.length && page.size() < limit; i++) {
+            Task task = get(sortedIds[i]);
+            if (status == null || task.getStatus() == status) {
+                page.add(task);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Gets the highest task ID.
+     * Only a removal of the task with the highest ID makes the next call scan
+     * the tasks; otherwise this takes constant time.
+     * 
+     * @return The highest task ID, or 0 if there are no tasks
+     */
+    long maxId() {
+        if (maxIdStale) {
+            maxId = 0;
+            for (int i = 0; i < used; i++) {
+                if (slots[i] != null && slots[i].getId() > maxId) {
+                    maxId = slots[i].getId();
+                }
+            }
+            maxIdStale = false;
+        }
+        return maxId;
+    }
+
+    /**
+     * Gets the number of tasks.
+     * 
+     * @return The number of tasks
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Copies the tasks into a list, in order.
+     * 
+     * @return A new list of the tasks
+     */
+    synchronized List<Task> toList() {
+        List<Task> tasks = new ArrayList<>(size);
+        for (Task task : this) {
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    /**
+     * Iterates over the tasks in order, skipping removed ones.
+     * 
+     * @return An iterator over the tasks
+     */
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private int next = advance(0);
+
+            @Override
+            public boolean hasNext() {
+                return next < used;
+            }
+
+            @Override
+            public Task next() {
+                if (next >= used) {
+                    throw new NoSuchElementException();
+                }
+                Task task = slots[next];
+                next = advance(next + 1);
+                return task;
+            }
+
+            private int advance(int from) {
+                while (from < used && slots[from] == null) {
+                    from++;
+                }
+                return from;
+            }
+        };
+    }
+
+    /**
+     * Moves the tasks to the front of the slots, dropping the tombstones, and
+     * points the index at their new slots. Also checks whether the tasks are
+     * back in ID order.
+     */
+    private void compact() {
+        for (BitSet matching : slotsByStatus.values()) {
+            matching.clear();
+        }
+        int target = 0;
+        long previousId = Long.MIN_VALUE;
+        ordered = true;
+        for (int i = 0; i < used; i++) {
+            Task task = slots[i];
+            if (task != null) {
+                ordered &= task.getId() > previousId;
+                previousId = task.getId();
+                if (target != i) {
+                    slots[target] = task;
+                    index.put(task.getId(), target);
+                }
+                BitSet matching = task.getStatus() != null ? slotsByStatus.get(task.getStatus()) : null;
+                if (matching != null) {
+                    matching.set(target);
+                }
+                target++;
+            }
+        }
+        Arrays.fill(slots, target, used, null);
+        used = target;
+    }
+
+    /**
+     * Adds a slot to the status index.
+     * 
+     * @param slot   The slot
+     * @param status The status of the task in the slot, possibly null
+     */
+    private void mark(int slot, TaskStatus status) {
+        if (status != null) {
+            slotsByStatus.get(status).set(slot);
+            statusCounts[status.ordinal()]++;
+        }
+    }
+
+    /**
+     * Removes a slot from the status index.
+     * 
+     * @param slot   The slot
+     * @param status The status of the task in the slot, possibly null
+     */
+    private void unmark(int slot, TaskStatus status) {
+        if (status != null) {
+            slotsByStatus.get(status).clear(slot);
+            statusCounts[status.ordinal()]--;
+        }
+    }
+
+    /**
+     * Adds a task's description to the search index, if one is attached.
+     * 
+     * @param task The task
+     */
+    private void index(Task task) {
+        if (searchIndex != null) {
+            searchIndex.add(task.getId(), task.getDescription());
+        }
+    }
+
+    /**
+     * Removes a task's description from the search index, if one is attached.
+     * 
+     * @param task The task
+     */
+    private void unindex(Task task) {
+        if (searchIndex != null) {
+            searchIndex.remove(task.getId(), task.getDescription());
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.util.BinaryUtil;
+import io.github.thuandao.tasktracker.util.OffsetIndex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Task store that keeps all tasks in a single file in the compact binary
+ * format of {@link BinaryUtil}, rewritten in full on every commit. It works
+ * like {@link JsonFileTaskStore}, with a smaller file that loads and saves
+ * faster.
+ * <p>
+ * Each save also writes an {@link OffsetIndex}, {@code <tasks file>.offsets},
+ * with the position of every task's record, and a load writes it if it is
+ * missing or out of date. A single task can then be read with two positional
+ * reads, however large the file is ({@link #loadTask}).
+ */
+public class BinaryFileTaskStore extends FileTaskStore {
+    /**
+     * Collects the record offsets of the file being read or written, or null
+     * if the offset index is not rebuilt.
+     */
+    private OffsetIndex.Builder records;
+
+    /**
+     * Creates a store for the given binary file.
+     * 
+     * @param filePath The path to the tasks file
+     */
+    public BinaryFileTaskStore(Path filePath) {
+        super(filePath);
+    }
+
+    /**
+     * Decodes the tasks from the binary content.
+     * 
+     * @param in The file content
+     * @return A list of tasks read from the file
+     * @throws IOException If there's an error reading from the file
+     */
+    @Override
+    protected List<Task> readTasks(InputStream in) throws IOException {
+        records = OffsetIndex.isCurrent(getOffsetIndexPath(), getFilePath()) ? null : new OffsetIndex.Builder();
+        return BinaryUtil.fromBinary(in, records);
+    }
+
+    /**
+     * Writes the tasks in the binary format.
+     * 
+     * @param tasks The tasks to write
+     * @param out   The stream to write to
+     * @throws IOException If there's an error writing to the file
+     */
+    @Override
+    protected void writeTasks(List<Task> tasks, OutputStream out) throws IOException {
+        records = new OffsetIndex.Builder(tasks.size());
+        BinaryUtil.writeBinary(tasks, out, records);
+    }
+
+    /**
+     * Loads the tasks, then writes the offset index if it was out of date.
+     * 
+     * @return A list of tasks loaded from the file
+     * @throws IOException If there's an error reading from the file
+     */
+    @Override
+    public synchronized List<Task> load() throws IOException {
+        records = null;
+        List<Task> tasks = super.load();
+        saveOffsetIndex();
+        return tasks;
+    }
+
+    /**
+     * Rewrites the file, then its offset index.
+     * 
+     * @param changes The changes being committed (not needed by this store)
+     * @param tasks   Supplies all tasks to write
+     * @throws IOException If there's an error writing to the file
+     */
+    @Override
+    public synchronized void commit(List<TaskChange> changes, Supplier<List<Task>> tasks) throws IOException {
+        records = null;
+        super.commit(changes, tasks);
+        saveOffsetIndex();
+    }
+
+    /**
+     * Reads a task through the offset index, with one read of the index and
+     * one of the tasks file.
+     * 
+     * @param id The ID of the task
+     * @return The task, or null if the index is missing, out of date or has no
+     *         task with the ID
+     * @throws IOException If there's an error reading the files
+     */
+    @Override
+    public Task loadTask(long id) throws IOException {
+        return readRecord(getOffsetIndexPath(), getFilePath(), id);
+    }
+
+    /**
+     * Gets the offset index file, {@code <tasks file>.offsets}.
+     * 
+     * @return The path to the offset index
+     */
+    public Path getOffsetIndexPath() {
+        return getOffsetIndexPath(getFilePath());
+    }
+
+    /**
+     * Gets the offset index file of a binary tasks file.
+     * 
+     * @param filePath The tasks file
+     * @return The path to the offset index, {@code <tasks file>.offsets}
+     */
+    static Path getOffsetIndexPath(Path filePath) {
+        return filePath.resolveSibling(filePath.getFileName() + ".offsets");
+    }
+
+    /**
+     * Reads a task's record through an offset index and decodes it.
+     * 
+     * @param indexPath The offset index
+     * @param filePath  The binary tasks file
+     * @param id        The ID of the task
+     * @return The task, or null if the index cannot locate a valid record of it
+     * @throws IOException If there's an error reading the files
+     */
+    static Task readRecord(Path indexPath, Path filePath, long id) throws IOException {
+        ByteBuffer record = OffsetIndex.readRecord(indexPath, filePath, id);
+        if (record == null) {
+            return null;
+        }
+        try {
+            Task task = BinaryUtil.readRecord(record);
+            return task.getId() == id ? task : null;
+        } catch (IllegalArgumentException e) {
+            // The index points elsewhere, e.g. the file was replaced by another program
+            return null;
+        }
+    }
+
+    /**
+     * Writes the offset index of the records collected by the last read or
+     * write, if any. A failure leaves the old index, which no longer matches
+     * the file and is ignored, so it only costs single-task reads their
+     * speed.
+     */
+    private void saveOffsetIndex() {
+        OffsetIndex.Builder built = records;
+        records = null;
+        if (built == null) {
+            return;
+        }
+        try {
+            built.write(getOffsetIndexPath(), getFilePath());
+        } catch (IOException | IllegalArgumentException e) {
+            // Single-task reads fall back to loading all tasks
+        }
+    }
+}
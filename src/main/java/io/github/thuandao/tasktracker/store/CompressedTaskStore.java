@@ -0,0 +1,135 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.util.BinaryUtil;
+import io.github.thuandao.tasktracker.util.BlockCompression;
+import io.github.thuandao.tasktracker.util.JsonUtil;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Task store that keeps all tasks in a single file compressed with the
+ * block-framed Deflate format of {@link BlockCompression}, rewritten in full
+ * on every commit. The tasks inside are in the JSON format of
+ * {@link JsonFileTaskStore} or the binary format of
+ * {@link BinaryFileTaskStore}.
+ * <p>
+ * Loading streams the file through the decompressor a block at a time, so
+ * neither the compressed nor the decompressed file is ever held in memory.
+ * Content that is not compressed, e.g. an existing tasks file the store was
+ * pointed at, is read as it is, and written compressed by the next commit.
+ * The format of the tasks inside is detected when reading, so only writing
+ * follows the configured format.
+ */
+public class CompressedTaskStore extends FileTaskStore {
+    /**
+     * The file name extension that selects this store, e.g. {@code tasks.json.zz}.
+     */
+    public static final String EXTENSION = ".zz";
+
+    /**
+     * The default Deflate level, the fastest: task files are repetitive
+     * enough that higher levels shrink them little for much more CPU time.
+     */
+    public static final int DEFAULT_LEVEL = Deflater.BEST_SPEED;
+
+    /**
+     * Whether to write the tasks in the binary format rather than JSON.
+     */
+    private final boolean binary;
+
+    /**
+     * The Deflate compression level.
+     */
+    private final int level;
+
+    /**
+     * Creates a store for the given compressed file, writing JSON at the
+     * default level.
+     * 
+     * @param filePath The path to the tasks file
+     */
+    public CompressedTaskStore(Path filePath) {
+        this(filePath, false, DEFAULT_LEVEL);
+    }
+
+    /**
+     * Creates a store for the given compressed file.
+     * 
+     * @param filePath The path to the tasks file
+     * @param binary   true to write the tasks in the binary format, false for
+     *                 JSON
+     * @param level    The Deflate compression level, from 1 (fastest) to 9
+     *                 (smallest)
+     * @throws IllegalArgumentException If the level is out of range
+     */
+    public CompressedTaskStore(Path filePath, boolean binary, int level) {
+        super(filePath);
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        this.binary = binary;
+        this.level = level;
+    }
+
+    /**
+     * Checks whether a path has the extension of compressed tasks files.
+     * 
+     * @param path The path
+     * @return true if the file name ends with {@link #EXTENSION}
+     */
+    public static boolean isCompressedPath(Path path) {
+        return path.getFileName() != null && path.getFileName().toString().endsWith(EXTENSION);
+    }
+
+    /**
+     * Decompresses the content, unless it is not compressed, and reads the
+     * tasks in whichever format they are in.
+     * 
+     * @param in The file content
+     * @return A list of tasks read from the file
+     * @throws IOException If there's an error reading from the file
+     */
+    @Override
+    protected List<Task> readTasks(InputStream in) throws IOException {
+        InputStream content = new BufferedInputStream(in, BlockCompression.BLOCK_SIZE);
+        content.mark(BlockCompression.HEADER_SIZE);
+        boolean compressed = BlockCompression.isCompressed(content.readNBytes(BlockCompression.HEADER_SIZE));
+        content.reset();
+        if (compressed) {
+            content = new BufferedInputStream(BlockCompression.decompress(content), 4);
+        }
+        content.mark(4);
+        boolean binaryContent = BinaryUtil.isBinary(content.readNBytes(4));
+        content.reset();
+        return binaryContent
+                ? BinaryUtil.fromBinary(content)
+                : JsonUtil.fromJson(new InputStreamReader(content, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the tasks in the configured format, compressed.
+     * 
+     * @param tasks The tasks to write
+     * @param out   The stream to write to
+     * @throws IOException If there's an error writing to the file
+     */
+    @Override
+    protected void writeTasks(List<Task> tasks, OutputStream out) throws IOException {
+        BlockCompression.CompressingOutputStream compressed = BlockCompression.compress(out, level);
+        if (binary) {
+            BinaryUtil.writeBinary(tasks, compressed);
+        } else {
+            JsonUtil.writeJson(tasks, compressed);
+        }
+        compressed.finish();
+    }
+}
@@ -0,0 +1,294 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.util.FileUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Task store that keeps all tasks in a single file, rewritten in full on every
+ * commit. Subclasses define the file format; this class tracks whether the
+ * file was changed by another process since it was last loaded or written.
+ */
+public abstract class FileTaskStore implements TaskStore {
+    /**
+     * The path to the tasks file.
+     */
+    private final Path filePath;
+
+    /**
+     * Bytes read from and written to the tasks file, for monitoring.
+     */
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    /**
+     * Whether the file state below has been recorded by a load or commit.
+     */
+    private boolean known;
+
+    /**
+     * Size of the tasks file at the last load or commit, or -1 if the file did
+     * not exist.
+     */
+    private long knownSize;
+
+    /**
+     * Last modification time of the tasks file at the last load or commit.
+     */
+    private FileTime knownModifiedTime;
+
+    /**
+     * CRC32C checksum of the tasks file content at the last load or commit.
+     */
+    private long knownChecksum;
+
+    /**
+     * Identity of the tasks file (e.g. its inode) at the last load or commit,
+     * or null if the file system has none. Commits replace the file with a
+     * new one, so a commit by another process is noticed even if it left the
+     * same size and modification time.
+     */
+    private Object knownFileKey;
+
+    /**
+     * Creates a store for the given file.
+     * 
+     * @param filePath The path to the tasks file
+     */
+    protected FileTaskStore(Path filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Gets the path to the tasks file.
+     * 
+     * @return The path to the tasks file
+     */
+    public Path getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Gets the lock file, {@code <tasks file>.lock}. It is separate from the
+     * tasks file, which is replaced on every commit.
+     * 
+     * @return The path to the lock file
+     */
+    @Override
+    public Path getLockPath() {
+        return filePath.resolveSibling(filePath.getFileName() + ".lock");
+    }
+
+    /**
+     * Gets the search index file, {@code <tasks file>.idx}.
+     * 
+     * @return The path to the search index file
+     */
+    @Override
+    public Path getSearchIndexPath() {
+        return filePath.resolveSibling(filePath.getFileName() + ".idx");
+    }
+
+    /**
+     * Gets the CRC32C checksum of the tasks file content as last loaded or
+     * written.
+     * 
+     * @return The checksum, or 0 if the file is not known or doesn't exist
+     */
+    @Override
+    public synchronized long getChecksum() {
+        return known && knownSize != -1 ? knownChecksum : 0;
+    }
+
+    /**
+     * Reads all tasks from the content of the tasks file.
+     * 
+     * @param in The file content; closed by the caller
+     * @return A mutable list of the tasks read
+     * @throws IOException If there's an error reading the content
+     */
+    protected abstract List<Task> readTasks(InputStream in) throws IOException;
+
+    /**
+     * Writes all tasks as the new content of the tasks file.
+     * 
+     * @param tasks The tasks to write
+     * @param out   The stream to write to; must not be closed
+     * @throws IOException If there's an error writing the content
+     */
+    protected abstract void writeTasks(List<Task> tasks, OutputStream out) throws IOException;
+
+    /**
+     * Loads tasks from the file, streaming it straight into the format's reader.
+     * If the file doesn't exist, returns an empty list.
+     * 
+     * @return A list of tasks loaded from the file
+     * @throws IOException If there's an error reading from the file
+     */
+    @Override
+    public synchronized List<Task> load() throws IOException {
+        BasicFileAttributes attributes = readAttributes();
+        if (attributes == null) {
+            remember(null, 0);
+            return new ArrayList<>();
+        }
+
+        CRC32C checksum = new CRC32C();
+        List<Task> tasks;
+        try (InputStream in = new CheckedInputStream(Files.newInputStream(filePath), checksum)) {
+            tasks = readTasks(in);
+        }
+        bytesRead.addAndGet(attributes.size());
+        remember(attributes, checksum.getValue());
+        return tasks;
+    }
+
+    /**
+     * Checks whether the file still matches the last load or commit.
+     * Size, modification time and file identity are compared; when only the
+     * modification time or identity differs (e.g. the file was touched or
+     * replaced with the same content) the content checksum decides. A file
+     * that matches on all three is not read, even right after a commit, so
+     * checking costs no file I/O while nothing changed. Like git's racy-clean
+     * check, this misses an in-place edit that keeps the size within the same
+     * modification time tick; commits always replace the file.
+     * 
+     * @return true if the file has changed
+     * @throws IOException If there's an error reading the file
+     */
+    @Override
+    public synchronized boolean isModified() throws IOException {
+        if (!known) {
+            return true;
+        }
+        BasicFileAttributes attributes = readAttributes();
+        if (attributes == null) {
+            return knownSize != -1;
+        }
+        if (attributes.size() != knownSize) {
+            return true;
+        }
+        if (attributes.lastModifiedTime().equals(knownModifiedTime)
+                && Objects.equals(attributes.fileKey(), knownFileKey)) {
+            return false;
+        }
+        if (checksum() != knownChecksum) {
+            return true;
+        }
+        knownModifiedTime = attributes.lastModifiedTime();
+        knownFileKey = attributes.fileKey();
+        return false;
+    }
+
+    /**
+     * Rewrites the whole file with the given tasks.
+     * The file is replaced atomically, so a crash during the write never leaves
+     * a truncated file behind.
+     * 
+     * @param changes The changes being committed (not needed by this store)
+     * @param tasks   Supplies all tasks to write
+     * @throws IOException If there's an error writing to the file
+     */
+    @Override
+    public synchronized void commit(List<TaskChange> changes, Supplier<List<Task>> tasks) throws IOException {
+        known = false;
+        List<Task> snapshot = tasks.get();
+
+        // Stream the tasks into a temporary file, checksumming them on the way
+        CRC32C checksum = new CRC32C();
+        FileUtil.writeAtomically(filePath, out -> writeTasks(snapshot, new CheckedOutputStream(out, checksum)));
+        BasicFileAttributes attributes = readAttributes();
+        bytesWritten.addAndGet(attributes != null ? attributes.size() : 0);
+        remember(attributes, checksum.getValue());
+    }
+
+    /**
+     * Gets the bytes read from the tasks file, by loads and by checksums.
+     * 
+     * @return The bytes read
+     */
+    @Override
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Gets the bytes written to the tasks file by commits.
+     * 
+     * @return The bytes written
+     */
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Gets the size of the tasks file.
+     * 
+     * @return The size in bytes, or 0 if the file doesn't exist
+     * @throws IOException If there's an error reading the file attributes
+     */
+    @Override
+    public long getSize() throws IOException {
+        BasicFileAttributes attributes = readAttributes();
+        return attributes != null ? attributes.size() : 0;
+    }
+
+    /**
+     * Records the state of the file matching the tasks last loaded or written.
+     * 
+     * @param attributes The file attributes, or null if the file doesn't exist
+     * @param checksum   The CRC32C checksum of the file content
+     */
+    private void remember(BasicFileAttributes attributes, long checksum) {
+        known = true;
+        knownSize = attributes != null ? attributes.size() : -1;
+        knownModifiedTime = attributes != null ? attributes.lastModifiedTime() : null;
+        knownFileKey = attributes != null ? attributes.fileKey() : null;
+        knownChecksum = checksum;
+    }
+
+    /**
+     * Reads the attributes of the tasks file.
+     * 
+     * @return The file attributes, or null if the file doesn't exist
+     * @throws IOException If there's an error reading the attributes
+     */
+    private BasicFileAttributes readAttributes() throws IOException {
+        try {
+            return Files.readAttributes(filePath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Computes the CRC32C checksum of the tasks file content.
+     * 
+     * @return The checksum
+     * @throws IOException If there's an error reading the file
+     */
+    private long checksum() throws IOException {
+        CRC32C checksum = new CRC32C();
+        try (InputStream in = new CheckedInputStream(Files.newInputStream(filePath), checksum)) {
+            bytesRead.addAndGet(in.transferTo(OutputStream.nullOutputStream()));
+        }
+        return checksum.getValue();
+    }
+}
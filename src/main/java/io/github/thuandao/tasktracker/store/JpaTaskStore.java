@@ -0,0 +1,317 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.jdbc.spi.JdbcServices;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.tool.schema.extract.spi.SequenceInformation;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Task store that keeps the tasks in a relational database (PostgreSQL in
+ * production) through JPA, one row per task.
+ * <p>
+ * A commit only writes the rows of the changed tasks, in one transaction.
+ * Changes are first reduced to the last state of each task, then grouped into
+ * inserts, updates and deletes and sent through a stateless Hibernate session,
+ * so with {@code hibernate.jdbc.batch_size} set each group goes out as JDBC
+ * batches instead of one round trip per row.
+ * <p>
+ * New IDs come from the {@value #ID_SEQUENCE} sequence (created on startup if
+ * missing), which advances by
+ * {@value #ID_BLOCK_SIZE}: each value reserves a block of IDs that this store
+ * hands out without asking the database again. Processes sharing the database
+ * thus never pick the same ID, and no process needs to scan for the highest ID.
+ * <p>
+ * Each commit also increments a revision counter ({@link TaskStoreRevision})
+ * in the same transaction. Comparing it with the revision last seen tells
+ * whether another process changed the tasks, at the cost of one primary key
+ * lookup.
+ */
+public class JpaTaskStore implements TaskStore {
+    /**
+     * The sequence new task IDs are drawn from.
+     */
+    static final String ID_SEQUENCE = "task_id_seq";
+
+    /**
+     * The number of IDs reserved by each value of the sequence, which must
+     * match the sequence's increment.
+     */
+    static final int ID_BLOCK_SIZE = 50;
+
+    /**
+     * Opens the sessions to the database.
+     */
+    private final SessionFactory sessionFactory;
+
+    /**
+     * The SQL query that draws the next value of the ID sequence, in the
+     * database's dialect.
+     */
+    private final String nextIdBlockSql;
+
+    /**
+     * Guards the block of reserved IDs. Separate from the store's monitor, so
+     * IDs can be handed out while a commit is running.
+     */
+    private final Object idLock = new Object();
+
+    /**
+     * The next reserved ID to hand out.
+     */
+    private long nextId;
+
+    /**
+     * The first ID after the reserved block.
+     */
+    private long idBlockEnd;
+
+    /**
+     * The revision of the tasks at the last load or commit, or -1 if unknown.
+     */
+    private long knownRevision = -1;
+
+    /**
+     * Creates a store for the database behind an entity manager factory.
+     * 
+     * @param entityManagerFactory The JPA entity manager factory, backed by
+     *                             Hibernate
+     */
+    public JpaTaskStore(EntityManagerFactory entityManagerFactory) {
+        SessionFactoryImplementor factory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.sessionFactory = factory;
+        this.nextIdBlockSql = factory.getJdbcServices().getDialect().getSequenceSupport()
+                .getSequenceNextValString(ID_SEQUENCE);
+        createIdSequenceIfMissing(factory);
+    }
+
+    /**
+     * Creates the ID sequence unless the database had it at startup.
+     * Hibernate only generates the sequences its own ID generators use, and
+     * task IDs are assigned by the task service rather than on insert.
+     * Creating it fails harmlessly if another store created it since startup.
+     */
+    private static void createIdSequenceIfMissing(SessionFactoryImplementor sessionFactory) {
+        JdbcServices jdbcServices = sessionFactory.getJdbcServices();
+        for (SequenceInformation sequence : jdbcServices.getExtractedMetaDataSupport().getSequenceInformationList()) {
+            if (ID_SEQUENCE.equalsIgnoreCase(sequence.getSequenceName().getSequenceName().getText())) {
+                return;
+            }
+        }
+        ConnectionProvider connections = sessionFactory.getServiceRegistry().requireService(ConnectionProvider.class);
+        try {
+            Connection connection = connections.getConnection();
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : jdbcServices.getDialect().getSequenceSupport()
+                        .getCreateSequenceStrings(ID_SEQUENCE, 1, ID_BLOCK_SIZE)) {
+                    statement.execute(sql);
+                }
+            } finally {
+                connections.closeConnection(connection);
+            }
+        } catch (SQLException e) {
+            // Already created; any other problem shows when drawing an ID
+        }
+    }
+
+    /**
+     * Loads all tasks, ordered by ID.
+     * 
+     * @return A list of the stored tasks
+     * @throws IOException If the database cannot be read
+     */
+    @Override
+    public synchronized List<Task> load() throws IOException {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                // Read the revision first: a commit landing in between makes
+                // the tasks newer than the revision, which only causes a reload
+                long revision = readRevision(session);
+                List<TaskEntity> rows = session
+                        .createSelectionQuery("from TaskEntity order by id", TaskEntity.class)
+                        .getResultList();
+                transaction.commit();
+                List<Task> tasks = new ArrayList<>(rows.size());
+                for (TaskEntity row : rows) {
+                    tasks.add(row.toTask());
+                }
+                knownRevision = revision;
+                return tasks;
+            } finally {
+                rollbackIfActive(transaction);
+            }
+        } catch (PersistenceException e) {
+            throw new IOException("Failed to load tasks from the database", e);
+        }
+    }
+
+    /**
+     * Checks whether another process committed since the last load or commit.
+     * 
+     * @return true if the tasks must be loaded again
+     * @throws IOException If the database cannot be read
+     */
+    @Override
+    public synchronized boolean isModified() throws IOException {
+        if (knownRevision < 0) {
+            return true;
+        }
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return readRevision(session) != knownRevision;
+        } catch (PersistenceException e) {
+            throw new IOException("Failed to read the task revision from the database", e);
+        }
+    }
+
+    /**
+     * Writes the changed tasks in one transaction, as batched inserts, updates
+     * and deletes.
+     * 
+     * @param changes The changes to persist, in the order they were made
+     * @param tasks   Not needed by this store
+     * @throws IOException If the database rejects the changes, e.g. because
+     *                     another process deleted a changed task; nothing is
+     *                     written in that case
+     */
+    @Override
+    public synchronized void commit(List<TaskChange> changes, Supplier<List<Task>> tasks) throws IOException {
+        // Keep only the last state of each task, so a task added and changed
+        // in the same batch is inserted once with its final state
+        Map<Long, TaskChange> latest = new LinkedHashMap<>();
+        for (TaskChange change : changes) {
+            TaskChange previous = latest.get(change.id());
+            if (previous != null && previous.type() == TaskChange.Type.ADD) {
+                if (change.type() == TaskChange.Type.DELETE) {
+                    latest.remove(change.id());
+                } else {
+                    latest.put(change.id(), TaskChange.added(change.task()));
+                }
+            } else {
+                latest.put(change.id(), change);
+            }
+        }
+
+        // Group the rows by statement, so consecutive statements batch together
+        List<TaskEntity> inserts = new ArrayList<>();
+        List<TaskEntity> updates = new ArrayList<>();
+        List<TaskEntity> deletes = new ArrayList<>();
+        for (TaskChange change : latest.values()) {
+            switch (change.type()) {
+                case ADD -> inserts.add(TaskEntity.from(change.task()));
+                case DELETE -> deletes.add(new TaskEntity(change.id()));
+                default -> updates.add(TaskEntity.from(change.task()));
+            }
+        }
+
+        long revision = knownRevision;
+        knownRevision = -1;
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction transaction = session.beginTransaction();
+            try {
+                long committed = incrementRevision(session);
+                for (TaskEntity row : inserts) {
+                    session.insert(row);
+                }
+                for (TaskEntity row : updates) {
+                    session.update(row);
+                }
+                for (TaskEntity row : deletes) {
+                    session.delete(row);
+                }
+                transaction.commit();
+                // Another process committed in between if the revision skipped
+                // ahead; leave it unknown, so the tasks are loaded again
+                knownRevision = revision >= 0 && committed == revision + 1 ? committed : -1;
+            } finally {
+                rollbackIfActive(transaction);
+            }
+        } catch (PersistenceException e) {
+            throw new IOException("Failed to commit tasks to the database", e);
+        }
+    }
+
+    /**
+     * Hands out the next ID of the reserved block, reserving a new block from
+     * the sequence when it runs out. IDs up to {@code maxId} are skipped, e.g.
+     * when tasks were imported with their own IDs.
+     * 
+     * @param maxId The highest ID among the loaded tasks
+     * @return A new ID
+     * @throws IOException If the sequence cannot be read
+     */
+    @Override
+    public long nextId(long maxId) throws IOException {
+        synchronized (idLock) {
+            if (nextId <= maxId) {
+                nextId = maxId + 1;
+            }
+            while (nextId >= idBlockEnd) {
+                long blockStart = nextIdBlock();
+                nextId = Math.max(blockStart, maxId + 1);
+                idBlockEnd = blockStart + ID_BLOCK_SIZE;
+            }
+            return nextId++;
+        }
+    }
+
+    /**
+     * Draws the next value of the ID sequence, the first ID of a new block.
+     */
+    private long nextIdBlock() throws IOException {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return session.createNativeQuery(nextIdBlockSql, Long.class).getSingleResult();
+        } catch (PersistenceException e) {
+            throw new IOException("Failed to reserve task IDs from the database", e);
+        }
+    }
+
+    /**
+     * Reads the revision, 0 before the first commit.
+     */
+    private static long readRevision(StatelessSession session) {
+        TaskStoreRevision row = session.get(TaskStoreRevision.class, TaskStoreRevision.ROW_ID);
+        return row != null ? row.getRevision() : 0;
+    }
+
+    /**
+     * Increments the revision within the current transaction, locking its row
+     * until the transaction ends.
+     * 
+     * @return The new revision
+     */
+    private static long incrementRevision(StatelessSession session) {
+        int updated = session
+                .createMutationQuery("update TaskStoreRevision set revision = revision + 1 where id = :id")
+                .setParameter("id", TaskStoreRevision.ROW_ID)
+                .executeUpdate();
+        if (updated == 0) {
+            session.insert(new TaskStoreRevision(1));
+            return 1;
+        }
+        return readRevision(session);
+    }
+
+    private static void rollbackIfActive(Transaction transaction) {
+        if (transaction.isActive()) {
+            transaction.rollback();
+        }
+    }
+}
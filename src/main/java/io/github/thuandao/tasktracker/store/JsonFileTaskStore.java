@@ -0,0 +1,52 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.util.JsonUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Task store that keeps all tasks in a single JSON file, rewritten in full on
+ * every commit. This is the default store.
+ */
+public class JsonFileTaskStore extends FileTaskStore {
+
+    /**
+     * Creates a store for the given JSON file.
+     * 
+     * @param filePath The path to the tasks file
+     */
+    public JsonFileTaskStore(Path filePath) {
+        super(filePath);
+    }
+
+    /**
+     * Parses the tasks from the JSON content.
+     * 
+     * @param in The file content
+     * @return A list of tasks parsed from the file
+     * @throws IOException If there's an error reading from the file
+     */
+    @Override
+    protected List<Task> readTasks(InputStream in) throws IOException {
+        return JsonUtil.fromJson(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the tasks as a JSON array.
+     * 
+     * @param tasks The tasks to write
+     * @param out   The stream to write to
+     * @throws IOException If there's an error writing to the file
+     */
+    @Override
+    protected void writeTasks(List<Task> tasks, OutputStream out) throws IOException {
+        JsonUtil.writeJson(tasks, out);
+    }
+}
@@ -0,0 +1,573 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.util.FileUtil;
+import io.github.thuandao.tasktracker.util.JsonUtil;
+import io.github.thuandao.tasktracker.util.ProcessFileLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Task store that appends every change to a log file instead of rewriting all
+ * tasks, so the cost of a commit depends on the size of the change rather than
+ * the number of tasks.
+ * 
+ * The tasks live in a JSON snapshot file (in the same format as
+ * {@link JsonFileTaskStore}) plus a log next to it ({@code tasks.json.log}).
+ * Loading reads the snapshot and replays the log on top of it. Once the log
+ * passes a size threshold it is rotated and a background thread folds it into
+ * a new snapshot.
+ * 
+ * Each log record is a single line:
+ * {@code <type> <crc32c of payload, 8 hex digits> <payload>}, where the type
+ * is A(dd), U(pdate), S(tatus) or D(elete) and the payload is the task's JSON
+ * object, or its ID for deletes. Records carry the full task state, so
+ * replaying a record twice is harmless. A torn record at the end of the log
+ * (e.g. after a crash mid-append) fails its checksum and is discarded.
+ * 
+ * Several processes may share the files. The task service serializes their
+ * loads and commits through the lock file ({@code tasks.json.lock}); the
+ * compaction takes the same lock while it swaps in the new snapshot, and
+ * skips the swap if another process already compacted the rotated log.
+ */
+public class LogTaskStore implements TaskStore, AutoCloseable {
+    /**
+     * Default log size, in bytes, after which the log is compacted.
+     */
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+
+    /**
+     * How long a compaction waits for the lock file before giving up; the
+     * rotated log is then compacted again by a later load.
+     */
+    static final Duration COMPACTION_LOCK_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Logger log = LoggerFactory.getLogger(LogTaskStore.class);
+
+    /**
+     * Length of the record header: type, space, 8 hex digits, space.
+     */
+    private static final int HEADER_LENGTH = 11;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final Path snapshotPath;
+    private final Path logPath;
+    private final Path compactingPath;
+    private final Path lockPath;
+    private final long compactionThreshold;
+
+    /**
+     * Single background thread that runs compactions.
+     */
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-log-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Guards the snapshot and the rotated log, so that a load never sees a new
+     * snapshot together with the log it was compacted from. Held by loads and
+     * by the end of a compaction, but not by commits, which only touch the
+     * active log.
+     */
+    private final Object filesLock = new Object();
+
+    /**
+     * Guards the files against other processes during compaction.
+     */
+    private final ProcessFileLock processLock;
+
+    /**
+     * Bytes read from and written to the snapshot and the logs, for monitoring.
+     */
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    /**
+     * The active log, opened for appending, or null until first used.
+     */
+    private FileChannel logChannel;
+
+    /**
+     * Length of the valid part of the active log.
+     */
+    private long logSize;
+
+    /**
+     * The running or last compaction, or null if none was started.
+     */
+    private Future<?> compaction;
+
+    /**
+     * Whether the snapshot state below has been recorded by a load.
+     */
+    private boolean known;
+    private long knownSnapshotSize;
+    private FileTime knownSnapshotTime;
+
+    /**
+     * Identity of the active log file when it was opened, so a log rotated by
+     * another process is noticed even if the new log has the same length.
+     */
+    private Object knownLogKey;
+
+    /**
+     * Creates a log store with the default compaction threshold.
+     * 
+     * @param snapshotPath The path to the JSON snapshot file
+     */
+    public LogTaskStore(Path snapshotPath) {
+        this(snapshotPath, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Creates a log store.
+     * 
+     * @param snapshotPath        The path to the JSON snapshot file; the log is
+     *                            kept next to it
+     * @param compactionThreshold Log size, in bytes, after which the log is
+     *                            compacted into a new snapshot
+     */
+    public LogTaskStore(Path snapshotPath, long compactionThreshold) {
+        this.snapshotPath = snapshotPath;
+        this.logPath = sibling(snapshotPath, ".log");
+        this.compactingPath = sibling(snapshotPath, ".log.compacting");
+        this.lockPath = sibling(snapshotPath, ".lock");
+        this.compactionThreshold = compactionThreshold;
+        this.processLock = ProcessFileLock.forPath(lockPath);
+    }
+
+    /**
+     * Gets the lock file, {@code <snapshot>.lock}.
+     * 
+     * @return The path to the lock file
+     */
+    @Override
+    public Path getLockPath() {
+        return lockPath;
+    }
+
+    /**
+     * Gets the bytes read from the snapshot and the logs, by loads and
+     * compactions.
+     * 
+     * @return The bytes read
+     */
+    @Override
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Gets the bytes appended to the log and written to new snapshots.
+     * 
+     * @return The bytes written
+     */
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Gets the combined size of the snapshot and the logs.
+     * 
+     * @return The size in bytes
+     * @throws IOException If there's an error reading the file attributes
+     */
+    @Override
+    public long getSize() throws IOException {
+        long size = 0;
+        for (Path path : new Path[] { snapshotPath, compactingPath, logPath }) {
+            BasicFileAttributes attributes = readAttributes(path);
+            size += attributes != null ? attributes.size() : 0;
+        }
+        return size;
+    }
+
+    /**
+     * Loads the snapshot and replays the log on top of it.
+     * A torn record at the end of the log is cut off. The log is reopened, as
+     * another process may have rotated it since it was opened.
+     * 
+     * @return The current tasks
+     * @throws IOException If there's an error reading the files
+     */
+    @Override
+    public synchronized List<Task> load() throws IOException {
+        Map<Long, Task> tasks = new LinkedHashMap<>();
+        BasicFileAttributes attributes;
+        boolean interrupted;
+        synchronized (filesLock) {
+            attributes = readAttributes(snapshotPath);
+            for (Task task : readSnapshot()) {
+                tasks.put(task.getId(), task);
+            }
+
+            // A rotated log that has not been compacted yet comes before the active log
+            interrupted = Files.exists(compactingPath) && !isCompacting();
+            if (Files.exists(compactingPath)) {
+                bytesRead.addAndGet(replay(compactingPath, tasks));
+            }
+        }
+        long validLength = replay(logPath, tasks);
+        bytesRead.addAndGet(validLength);
+
+        if (logChannel != null) {
+            logChannel.close();
+            logChannel = null;
+        }
+        openLog();
+        if (logChannel.size() > validLength) {
+            logChannel.truncate(validLength);
+        }
+        logSize = validLength;
+        rememberSnapshot(attributes);
+
+        if (interrupted) {
+            compaction = compactor.submit(this::compact);
+        }
+        return new ArrayList<>(tasks.values());
+    }
+
+    /**
+     * Checks whether the snapshot or the log were changed by someone else since
+     * the last load.
+     * 
+     * @return true if the tasks must be loaded again
+     * @throws IOException If there's an error reading the files
+     */
+    @Override
+    public synchronized boolean isModified() throws IOException {
+        if (!known) {
+            return true;
+        }
+        BasicFileAttributes attributes = readAttributes(snapshotPath);
+        long snapshotSize = attributes != null ? attributes.size() : -1;
+        FileTime snapshotTime = attributes != null ? attributes.lastModifiedTime() : null;
+        if (snapshotSize != knownSnapshotSize || !Objects.equals(snapshotTime, knownSnapshotTime)) {
+            return true;
+        }
+        BasicFileAttributes logAttributes = readAttributes(logPath);
+        if (logAttributes == null) {
+            return logSize != 0;
+        }
+        return logAttributes.size() != logSize || !Objects.equals(logAttributes.fileKey(), knownLogKey);
+    }
+
+    /**
+     * Appends the changes to the log and forces them to disk.
+     * Starts a background compaction once the log passes the threshold.
+     * 
+     * @param changes The changes to append
+     * @param tasks   Supplies all tasks (not needed by this store)
+     * @throws IOException If there's an error writing to the log
+     */
+    @Override
+    public synchronized void commit(List<TaskChange> changes, Supplier<List<Task>> tasks) throws IOException {
+        openLog();
+        ByteArrayOutputStream records = new ByteArrayOutputStream(256 * changes.size());
+        for (TaskChange change : changes) {
+            encode(change, records);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(records.toByteArray());
+        while (buffer.hasRemaining()) {
+            logChannel.write(buffer);
+        }
+        logChannel.force(false);
+        logSize += records.size();
+        bytesWritten.addAndGet(records.size());
+
+        if (logSize >= compactionThreshold && !isCompacting()) {
+            startCompaction();
+        }
+    }
+
+    /**
+     * Waits for the background compaction to finish, if one is running.
+     * 
+     * @throws IOException If the compaction failed
+     */
+    void awaitCompaction() throws IOException {
+        Future<?> running;
+        synchronized (this) {
+            running = compaction;
+        }
+        if (running == null) {
+            return;
+        }
+        try {
+            running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for compaction", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Compaction failed", e.getCause());
+        }
+    }
+
+    /**
+     * Waits for a running compaction and closes the log.
+     */
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (logChannel != null) {
+                logChannel.close();
+                logChannel = null;
+            }
+        }
+    }
+
+    /**
+     * Rotates the active log out of the way and schedules its compaction.
+     * A log left over from an interrupted compaction is compacted first.
+     */
+    private void startCompaction() throws IOException {
+        if (!Files.exists(compactingPath)) {
+            logChannel.close();
+            logChannel = null;
+            Files.move(logPath, compactingPath, StandardCopyOption.ATOMIC_MOVE);
+            openLog();
+            logSize = 0;
+        }
+        compaction = compactor.submit(this::compact);
+    }
+
+    /**
+     * Folds the rotated log into a new snapshot. Runs on the background thread
+     * and works from the files alone, so it never touches the tasks held in
+     * memory by the service.
+     */
+    private Void compact() throws IOException {
+        try {
+            BasicFileAttributes base = readAttributes(snapshotPath);
+            Map<Long, Task> tasks = new LinkedHashMap<>();
+            for (Task task : readSnapshot()) {
+                tasks.put(task.getId(), task);
+            }
+            bytesRead.addAndGet(replay(compactingPath, tasks));
+
+            // Loads, in this or another process, must not see the new snapshot
+            // together with the rotated log
+            try (ProcessFileLock.Handle ignored = processLock.lockExclusive(COMPACTION_LOCK_TIMEOUT)) {
+                synchronized (filesLock) {
+                    if (!Files.exists(compactingPath) || !sameFile(base, readAttributes(snapshotPath))) {
+                        // Another process compacted the rotated log first
+                        return null;
+                    }
+                    FileUtil.writeAtomically(snapshotPath, out -> JsonUtil.writeJson(tasks.values(), out));
+                    Files.delete(compactingPath);
+                }
+            }
+            BasicFileAttributes attributes = readAttributes(snapshotPath);
+            bytesWritten.addAndGet(attributes != null ? attributes.size() : 0);
+            synchronized (this) {
+                rememberSnapshot(attributes);
+            }
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // The rotated log stays in place and is compacted again later
+            log.warn("Compaction of {} failed", compactingPath, e);
+            throw e;
+        }
+    }
+
+    private boolean isCompacting() {
+        return compaction != null && !compaction.isDone();
+    }
+
+    private void openLog() throws IOException {
+        if (logChannel == null) {
+            logChannel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            BasicFileAttributes attributes = readAttributes(logPath);
+            knownLogKey = attributes != null ? attributes.fileKey() : null;
+        }
+    }
+
+    private void rememberSnapshot(BasicFileAttributes attributes) {
+        known = true;
+        knownSnapshotSize = attributes != null ? attributes.size() : -1;
+        knownSnapshotTime = attributes != null ? attributes.lastModifiedTime() : null;
+    }
+
+    /**
+     * Reads the tasks from the snapshot file, or none if it doesn't exist.
+     */
+    private List<Task> readSnapshot() throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(snapshotPath), StandardCharsets.UTF_8)) {
+            List<Task> tasks = JsonUtil.fromJson(reader);
+            bytesRead.addAndGet(Files.size(snapshotPath));
+            return tasks;
+        } catch (NoSuchFileException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Applies the records of a log file to the given tasks, in order.
+     * Stops at the first incomplete or corrupt record.
+     * 
+     * @param path  The log file
+     * @param tasks The tasks by ID to apply the records to
+     * @return The length of the valid part of the log
+     * @throws IOException If there's an error reading the log
+     */
+    private static long replay(Path path, Map<Long, Task> tasks) throws IOException {
+        long validLength = 0;
+        byte[] line = new byte[1024];
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 64 * 1024)) {
+            while (true) {
+                // Read one line, without its terminating newline
+                int length = 0;
+                int b;
+                while ((b = in.read()) != -1 && b != '\n') {
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, length * 2);
+                    }
+                    line[length++] = (byte) b;
+                }
+                if (b == -1 || !apply(line, length, tasks)) {
+                    // End of log, or a torn/corrupt record
+                    return validLength;
+                }
+                validLength += length + 1;
+            }
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Applies a single log record.
+     * 
+     * @return false if the record is malformed or fails its checksum
+     */
+    private static boolean apply(byte[] line, int length, Map<Long, Task> tasks) {
+        if (length <= HEADER_LENGTH || line[1] != ' ' || line[HEADER_LENGTH - 1] != ' ') {
+            return false;
+        }
+        long expected = 0;
+        for (int i = 2; i < HEADER_LENGTH - 1; i++) {
+            int digit = Character.digit(line[i], 16);
+            if (digit < 0) {
+                return false;
+            }
+            expected = (expected << 4) | digit;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(line, HEADER_LENGTH, length - HEADER_LENGTH);
+        if (crc.getValue() != expected) {
+            return false;
+        }
+
+        String payload = new String(line, HEADER_LENGTH, length - HEADER_LENGTH, StandardCharsets.UTF_8);
+        try {
+            switch (line[0]) {
+                case 'A', 'U', 'S' -> {
+                    Task task = JsonUtil.taskFromJson(payload);
+                    tasks.put(task.getId(), task);
+                }
+                case 'D' -> tasks.remove(Long.parseLong(payload));
+                default -> {
+                    return false;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Encodes a change as a log record line.
+     */
+    private static void encode(TaskChange change, ByteArrayOutputStream out) {
+        String text = change.type() == TaskChange.Type.DELETE
+                ? Long.toString(change.id())
+                : JsonUtil.toJson(change.task());
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        long value = crc.getValue();
+
+        out.write(switch (change.type()) {
+            case ADD -> 'A';
+            case UPDATE -> 'U';
+            case STATUS -> 'S';
+            case DELETE -> 'D';
+        });
+        out.write(' ');
+        for (int shift = 28; shift >= 0; shift -= 4) {
+            out.write(HEX[(int) (value >>> shift) & 0xF]);
+        }
+        out.write(' ');
+        out.writeBytes(payload);
+        out.write('\n');
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether two reads of a file's attributes saw the same file,
+     * unchanged.
+     */
+    private static boolean sameFile(BasicFileAttributes a, BasicFileAttributes b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.size() == b.size() && a.lastModifiedTime().equals(b.lastModifiedTime())
+                && Objects.equals(a.fileKey(), b.fileKey());
+    }
+
+    private static Path sibling(Path path, String suffix) {
+        return path.resolveSibling(path.getFileName() + suffix);
+    }
+}
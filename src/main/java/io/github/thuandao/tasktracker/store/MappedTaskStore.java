@@ -0,0 +1,376 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.util.BinaryUtil;
+import io.github.thuandao.tasktracker.util.FileUtil;
+import io.github.thuandao.tasktracker.util.LongIntHashMap;
+import io.github.thuandao.tasktracker.util.OffsetIndex;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Task store that memory-maps a file in the binary format of
+ * {@link BinaryUtil} and changes task statuses in place.
+ * <p>
+ * While loading, the store records the offset of each task's record. A
+ * commit that only changes statuses overwrites the status and update time of
+ * each changed record through the mapping, bumps the revision in the header
+ * and forces just those bytes to disk. Its cost does not depend on the
+ * number of tasks. Any other commit (adding, editing or deleting tasks)
+ * rewrites the whole file, like {@link BinaryFileTaskStore}, and maps the new
+ * file.
+ * <p>
+ * Other processes map the same file, so they see in-place changes right away.
+ * Whether the tasks changed since the last load is told by the file's
+ * identity and size (a rewrite replaces the file) and by the revision in the
+ * header (changes in place). The mapping limits the file to 2 GB.
+ * <p>
+ * Like {@link BinaryFileTaskStore}, the store keeps an {@link OffsetIndex}
+ * of the records next to the file, so a single task can be read without
+ * mapping and loading the others ({@link #loadTask}). Changes in place leave
+ * the records where they are, so only rewrites update the index.
+ */
+public class MappedTaskStore implements TaskStore {
+    /**
+     * The path to the tasks file.
+     */
+    private final Path filePath;
+
+    /**
+     * The offset of each task's record in the mapped file.
+     */
+    private final LongIntHashMap offsets = new LongIntHashMap();
+
+    /**
+     * Bytes read from and written to the tasks file, for monitoring.
+     */
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    /**
+     * The whole tasks file, mapped read-write, or null if it doesn't exist.
+     */
+    private MappedByteBuffer mapped;
+
+    /**
+     * Identity of the mapped file, to notice when it was replaced.
+     */
+    private Object knownFileKey;
+
+    /**
+     * The header revision at the last load or commit.
+     */
+    private long knownRevision;
+
+    /**
+     * CRC32C checksum of the file at the last load or rewrite.
+     */
+    private long knownChecksum;
+
+    /**
+     * Whether the mapping and offsets match the tasks last loaded or committed.
+     */
+    private boolean known;
+
+    /**
+     * Creates a store for the given binary file.
+     * 
+     * @param filePath The path to the tasks file
+     */
+    public MappedTaskStore(Path filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Gets the path to the tasks file.
+     * 
+     * @return The path to the tasks file
+     */
+    public Path getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Gets the lock file, {@code <tasks file>.lock}.
+     * 
+     * @return The path to the lock file
+     */
+    @Override
+    public Path getLockPath() {
+        return filePath.resolveSibling(filePath.getFileName() + ".lock");
+    }
+
+    /**
+     * Maps the file and reads all tasks from the mapping, recording the offset
+     * of each record. If the file doesn't exist, returns an empty list.
+     * 
+     * @return A list of tasks read from the file
+     * @throws IOException If there's an error mapping the file
+     */
+    @Override
+    public synchronized List<Task> load() throws IOException {
+        known = false;
+        offsets.clear();
+        if (!map()) {
+            known = true;
+            return new ArrayList<>();
+        }
+        OffsetIndex.Builder records = OffsetIndex.isCurrent(getOffsetIndexPath(), filePath)
+                ? null
+                : new OffsetIndex.Builder();
+        List<Task> tasks = BinaryUtil.fromBinary(mapped, records == null ? this::recordOffset : (id, offset) -> {
+            recordOffset(id, offset);
+            records.record(id, offset);
+        });
+        bytesRead.addAndGet(mapped.capacity());
+        knownRevision = BinaryUtil.getRevision(mapped);
+        knownChecksum = checksum();
+        known = true;
+        saveOffsetIndex(records);
+        return tasks;
+    }
+
+    /**
+     * Checks whether the file was replaced, or changed in place, since the last
+     * load or commit. Costs a file status call and a read from the mapping.
+     * 
+     * @return true if the tasks must be loaded again
+     * @throws IOException If there's an error reading the file attributes
+     */
+    @Override
+    public synchronized boolean isModified() throws IOException {
+        if (!known) {
+            return true;
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return mapped != null;
+        }
+        if (mapped == null || attributes.size() != mapped.capacity()
+                || !Objects.equals(attributes.fileKey(), knownFileKey)) {
+            return true;
+        }
+        return BinaryUtil.getRevision(mapped) != knownRevision;
+    }
+
+    /**
+     * Writes status changes in place, or rewrites the whole file for any other
+     * change.
+     * 
+     * @param changes The changes to persist, in the order they were made
+     * @param tasks   Supplies all tasks, only called to rewrite the file
+     * @throws IOException If there's an error writing to the file
+     */
+    @Override
+    public synchronized void commit(List<TaskChange> changes, Supplier<List<Task>> tasks) throws IOException {
+        if (known && mapped != null && isStatusOnly(changes)) {
+            writeInPlace(changes);
+            return;
+        }
+
+        known = false;
+        List<Task> snapshot = tasks.get();
+        offsets.clear();
+        OffsetIndex.Builder records = new OffsetIndex.Builder(snapshot.size());
+        FileUtil.writeAtomically(filePath, out -> BinaryUtil.writeBinary(snapshot, out, (id, offset) -> {
+            recordOffset(id, offset);
+            records.record(id, offset);
+        }));
+        map();
+        bytesWritten.addAndGet(mapped.capacity());
+        knownRevision = BinaryUtil.getRevision(mapped);
+        knownChecksum = checksum();
+        known = true;
+        saveOffsetIndex(records);
+    }
+
+    /**
+     * Reads a task through the offset index, with one read of the index and
+     * one of the tasks file. Status changes made in place since the index was
+     * written are seen, as they don't move the record.
+     * 
+     * @param id The ID of the task
+     * @return The task, or null if the index is missing, out of date or has no
+     *         task with the ID
+     * @throws IOException If there's an error reading the files
+     */
+    @Override
+    public Task loadTask(long id) throws IOException {
+        return BinaryFileTaskStore.readRecord(getOffsetIndexPath(), filePath, id);
+    }
+
+    /**
+     * Gets the offset index file, {@code <tasks file>.offsets}.
+     * 
+     * @return The path to the offset index
+     */
+    public Path getOffsetIndexPath() {
+        return BinaryFileTaskStore.getOffsetIndexPath(filePath);
+    }
+
+    /**
+     * Gets the search index file, {@code <tasks file>.idx}.
+     * 
+     * @return The path to the search index file
+     */
+    @Override
+    public Path getSearchIndexPath() {
+        return filePath.resolveSibling(filePath.getFileName() + ".idx");
+    }
+
+    /**
+     * Gets the CRC32C checksum of the file at the last load or rewrite.
+     * Status changes written in place keep it, so a search index saved with
+     * it stays valid; another process loading the file afterwards computes a
+     * new checksum, and rebuilds the index once.
+     * 
+     * @return The checksum, or 0 if the file is not known or doesn't exist
+     */
+    @Override
+    public synchronized long getChecksum() {
+        return known && mapped != null ? knownChecksum : 0;
+    }
+
+    /**
+     * Gets the bytes of the file read by loads.
+     * 
+     * @return The bytes read
+     */
+    @Override
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Gets the bytes written to the file, by rewrites and in place.
+     * 
+     * @return The bytes written
+     */
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Gets the size of the tasks file.
+     * 
+     * @return The size in bytes, or 0 if the file doesn't exist
+     * @throws IOException If there's an error reading the file attributes
+     */
+    @Override
+    public long getSize() throws IOException {
+        try {
+            return Files.size(filePath);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Checks whether a commit only changes the status of tasks in the file.
+     */
+    private boolean isStatusOnly(List<TaskChange> changes) {
+        for (TaskChange change : changes) {
+            if (change.type() != TaskChange.Type.STATUS || !offsets.containsKey(change.id())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Overwrites the changed records and the revision through the mapping and
+     * forces the touched bytes to disk.
+     */
+    private void writeInPlace(List<TaskChange> changes) throws IOException {
+        known = false;
+        try {
+            for (TaskChange change : changes) {
+                int offset = offsets.get(change.id());
+                int length = BinaryUtil.writeStatus(mapped, offset, change.task());
+                mapped.force(offset, length);
+                bytesWritten.addAndGet(length);
+            }
+            BinaryUtil.setRevision(mapped, knownRevision + 1);
+            mapped.force(0, BinaryUtil.HEADER_SIZE);
+            bytesWritten.addAndGet(BinaryUtil.HEADER_SIZE);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Tasks file does not match the loaded tasks", e);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        knownRevision++;
+        known = true;
+    }
+
+    /**
+     * Maps the current tasks file.
+     * 
+     * @return false if the file doesn't exist
+     */
+    private boolean map() throws IOException {
+        mapped = null;
+        knownFileKey = null;
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Tasks file too large to map: " + size + " bytes");
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        knownFileKey = Files.readAttributes(filePath, BasicFileAttributes.class).fileKey();
+        return true;
+    }
+
+    /**
+     * Computes the CRC32C checksum of the mapped file.
+     */
+    private long checksum() {
+        CRC32C checksum = new CRC32C();
+        checksum.update(mapped.duplicate().clear());
+        return checksum.getValue();
+    }
+
+    /**
+     * Writes the offset index of the records just read or written. A failure
+     * leaves an index that no longer matches the file and is ignored.
+     */
+    private void saveOffsetIndex(OffsetIndex.Builder records) {
+        if (records == null) {
+            return;
+        }
+        try {
+            records.write(getOffsetIndexPath(), filePath);
+        } catch (IOException | IllegalArgumentException e) {
+            // Single-task reads fall back to loading all tasks
+        }
+    }
+
+    /**
+     * Records where a task's record starts.
+     */
+    private void recordOffset(long id, long offset) throws IOException {
+        if (offset > Integer.MAX_VALUE) {
+            throw new IOException("Tasks file too large to map");
+        }
+        offsets.put(id, (int) offset);
+    }
+}
@@ -0,0 +1,477 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.util.FileUtil;
+import io.github.thuandao.tasktracker.util.JsonUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Task store that splits the tasks into JSON shard files by ID range, so a
+ * commit rewrites only the shards owning the changed tasks instead of every
+ * task.
+ * <p>
+ * The store lives in a directory. Shard {@code n} holds the tasks with IDs
+ * from {@code n * shardSize + 1} to {@code (n + 1) * shardSize}, in the same
+ * JSON format as {@link JsonFileTaskStore}. New tasks get the next ID, so
+ * adding a task writes only the last shard. A small text manifest lists the
+ * shards, each with its file, number of tasks and CRC32C checksum:
+ * 
+ * <pre>
+ * tasktracker-shards 1
+ * shard-size 10000
+ * revision 42
+ * shard 0 shard-0-17.json 10000 1a2b3c4d
+ * shard 1 shard-1-42.json 2718 5e6f7a8b
+ * </pre>
+ * 
+ * A commit reads each shard it touches, applies the changes and writes the
+ * shard to a new file named after the new revision. It then replaces the
+ * manifest atomically and deletes the shard files it replaced. A crash before
+ * the manifest is replaced leaves the old manifest and all files it names
+ * untouched. A commit never needs the other tasks, so the task service's
+ * snapshot of all tasks is not taken.
+ * <p>
+ * Loading reads the shards in ID range order, one file at a time, so the
+ * tasks come back ordered by range without merging. Whether another process
+ * changed the tasks is told by comparing the manifest with the one last read
+ * or written.
+ */
+public class ShardedTaskStore implements TaskStore {
+    /**
+     * Default number of task IDs per shard.
+     */
+    public static final int DEFAULT_SHARD_SIZE = 10_000;
+
+    /**
+     * First line of a manifest, naming its format and version.
+     */
+    private static final String MANIFEST_HEADER = "tasktracker-shards 1";
+
+    /**
+     * The directory holding the manifest and the shards.
+     */
+    private final Path directory;
+
+    /**
+     * The path to the manifest.
+     */
+    private final Path manifestPath;
+
+    /**
+     * The number of task IDs per shard of a new store; an existing store
+     * keeps the size in its manifest.
+     */
+    private final int shardSize;
+
+    /**
+     * Bytes read from and written to the store's files, for monitoring.
+     */
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    /**
+     * The manifest as last read or written, or null if not known yet.
+     */
+    private Manifest known;
+
+    /**
+     * The manifest file content as last read or written; empty if it did not
+     * exist.
+     */
+    private byte[] knownContent;
+
+    /**
+     * Creates a store in the given directory, with shards of
+     * {@link #DEFAULT_SHARD_SIZE} IDs.
+     * 
+     * @param directory The directory to keep the tasks in
+     */
+    public ShardedTaskStore(Path directory) {
+        this(directory, DEFAULT_SHARD_SIZE);
+    }
+
+    /**
+     * Creates a store in the given directory.
+     * 
+     * @param directory The directory to keep the tasks in
+     * @param shardSize The number of task IDs per shard, used if the store is
+     *                  new
+     * @throws IllegalArgumentException If the shard size is not positive
+     */
+    public ShardedTaskStore(Path directory, int shardSize) {
+        if (shardSize <= 0) {
+            throw new IllegalArgumentException("Shard size must be positive: " + shardSize);
+        }
+        this.directory = directory;
+        this.manifestPath = directory.resolve("manifest");
+        this.shardSize = shardSize;
+    }
+
+    /**
+     * Gets the directory holding the tasks.
+     * 
+     * @return The directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the lock file, {@code <directory>.lock}, next to the directory so
+     * it can be locked before the directory exists.
+     * 
+     * @return The path to the lock file
+     */
+    @Override
+    public Path getLockPath() {
+        return directory.resolveSibling(directory.getFileName() + ".lock");
+    }
+
+    /**
+     * Gets the search index file, {@code search.idx} in the store's directory.
+     * 
+     * @return The path to the search index file
+     */
+    @Override
+    public Path getSearchIndexPath() {
+        return directory.resolve("search.idx");
+    }
+
+    /**
+     * Gets the CRC32C checksum of the manifest as last read or written, which
+     * changes with every commit.
+     * 
+     * @return The checksum, or 0 if the manifest is not known or doesn't exist
+     */
+    @Override
+    public synchronized long getChecksum() {
+        if (knownContent == null || knownContent.length == 0) {
+            return 0;
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(knownContent);
+        return checksum.getValue();
+    }
+
+    /**
+     * Reads the manifest, then each shard in ID range order. If the store
+     * doesn't exist yet, returns an empty list.
+     * 
+     * @return A list of tasks read from the shards
+     * @throws IOException If there's an error reading the files, or a shard
+     *                     doesn't match its checksum in the manifest
+     */
+    @Override
+    public synchronized List<Task> load() throws IOException {
+        known = null;
+        byte[] content = readManifestContent();
+        Manifest manifest = Manifest.parse(content, shardSize);
+        List<Task> tasks = new ArrayList<>(manifest.taskCount());
+        for (Shard shard : manifest.shards.values()) {
+            tasks.addAll(readShard(shard));
+        }
+        knownContent = content;
+        known = manifest;
+        return tasks;
+    }
+
+    /**
+     * Checks whether the manifest differs from the one last read or written.
+     * Every commit writes a new manifest, so this tells whether another
+     * process committed since.
+     * 
+     * @return true if the tasks must be loaded again
+     * @throws IOException If there's an error reading the manifest
+     */
+    @Override
+    public synchronized boolean isModified() throws IOException {
+        return known == null || !Arrays.equals(readManifestContent(), knownContent);
+    }
+
+    /**
+     * Rewrites the shards owning the changed tasks, then the manifest.
+     * 
+     * @param changes The changes to persist, in the order they were made
+     * @param tasks   Supplies all tasks; not used, as only the changed shards
+     *                are rewritten
+     * @throws IOException If there's an error reading or writing the files
+     */
+    @Override
+    public synchronized void commit(List<TaskChange> changes, Supplier<List<Task>> tasks) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Manifest current = known;
+        known = null;
+        if (current == null) {
+            current = Manifest.parse(readManifestContent(), shardSize);
+        }
+
+        // Group the changes by the shard owning the task, keeping their order
+        Map<Long, List<TaskChange>> changesByShard = new TreeMap<>();
+        for (TaskChange change : changes) {
+            changesByShard.computeIfAbsent(current.shardOf(change.id()), index -> new ArrayList<>()).add(change);
+        }
+
+        Files.createDirectories(directory);
+        long revision = current.revision + 1;
+        TreeMap<Long, Shard> shards = new TreeMap<>(current.shards);
+        List<Shard> replaced = new ArrayList<>();
+        for (Map.Entry<Long, List<TaskChange>> entry : changesByShard.entrySet()) {
+            long index = entry.getKey();
+            Shard old = shards.get(index);
+            List<Task> shardTasks = apply(old != null ? readShard(old) : List.of(), entry.getValue());
+            if (old != null) {
+                replaced.add(old);
+            }
+            if (shardTasks.isEmpty()) {
+                shards.remove(index);
+            } else {
+                shards.put(index, writeShard(index, revision, shardTasks));
+            }
+        }
+
+        Manifest manifest = new Manifest(current.shardSize, revision, shards);
+        byte[] content = manifest.format().getBytes(StandardCharsets.UTF_8);
+        FileUtil.writeAtomically(manifestPath, out -> out.write(content));
+        bytesWritten.addAndGet(content.length);
+
+        // The new manifest no longer names the replaced files
+        for (Shard shard : replaced) {
+            Files.deleteIfExists(directory.resolve(shard.fileName));
+        }
+        knownContent = content;
+        known = manifest;
+    }
+
+    /**
+     * Gets the bytes read from the manifest and the shards.
+     * 
+     * @return The bytes read
+     */
+    @Override
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Gets the bytes written to the manifest and the shards.
+     * 
+     * @return The bytes written
+     */
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Gets the size of the manifest and the shards it names.
+     * 
+     * @return The size in bytes, or 0 if the store doesn't exist
+     * @throws IOException If there's an error reading the files
+     */
+    @Override
+    public long getSize() throws IOException {
+        byte[] content = readManifestContent();
+        long size = content.length;
+        for (Shard shard : Manifest.parse(content, shardSize).shards.values()) {
+            try {
+                size += Files.size(directory.resolve(shard.fileName));
+            } catch (NoSuchFileException e) {
+                // Replaced by a concurrent commit
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Applies changes to the tasks of a shard.
+     * 
+     * @param tasks   The shard's tasks
+     * @param changes The changes to tasks of the shard, in order
+     * @return The shard's new tasks, in their previous order with new ones
+     *         last
+     */
+    private static List<Task> apply(List<Task> tasks, List<TaskChange> changes) {
+        Map<Long, Task> byId = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            byId.put(task.getId(), task);
+        }
+        for (TaskChange change : changes) {
+            if (change.type() == TaskChange.Type.DELETE) {
+                byId.remove(change.id());
+            } else {
+                byId.put(change.id(), change.task());
+            }
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    /**
+     * Reads a shard, checking it against its checksum in the manifest.
+     */
+    private List<Task> readShard(Shard shard) throws IOException {
+        Path path = directory.resolve(shard.fileName);
+        CRC32C checksum = new CRC32C();
+        List<Task> tasks;
+        try (InputStream in = new CheckedInputStream(Files.newInputStream(path), checksum)) {
+            tasks = JsonUtil.fromJson(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        bytesRead.addAndGet(Files.size(path));
+        if (checksum.getValue() != shard.checksum || tasks.size() != shard.tasks) {
+            throw new IOException("Shard " + shard.fileName + " does not match the manifest");
+        }
+        return tasks;
+    }
+
+    /**
+     * Writes the tasks of a shard to a new file.
+     * 
+     * @return The manifest entry of the new file
+     */
+    private Shard writeShard(long index, long revision, List<Task> tasks) throws IOException {
+        String fileName = "shard-" + index + "-" + revision + ".json";
+        Path path = directory.resolve(fileName);
+        CRC32C checksum = new CRC32C();
+        FileUtil.writeAtomically(path, out -> JsonUtil.writeJson(tasks, new CheckedOutputStream(out, checksum)));
+        bytesWritten.addAndGet(Files.size(path));
+        return new Shard(fileName, tasks.size(), checksum.getValue());
+    }
+
+    /**
+     * Reads the content of the manifest.
+     * 
+     * @return The content, empty if the manifest doesn't exist
+     */
+    private byte[] readManifestContent() throws IOException {
+        try {
+            byte[] content = Files.readAllBytes(manifestPath);
+            bytesRead.addAndGet(content.length);
+            return content;
+        } catch (NoSuchFileException e) {
+            return new byte[0];
+        }
+    }
+
+    /**
+     * An entry of the manifest: a shard file, its number of tasks and the
+     * CRC32C checksum of its content.
+     */
+    private record Shard(String fileName, int tasks, long checksum) {
+    }
+
+    /**
+     * The content of a manifest: the shard size, the number of commits so far
+     * and the shards by index.
+     */
+    private record Manifest(int shardSize, long revision, TreeMap<Long, Shard> shards) {
+
+        /**
+         * Parses the content of a manifest.
+         * 
+         * @param content          The content, empty for a new store
+         * @param defaultShardSize The shard size of a new store
+         * @return The manifest
+         * @throws IOException If the content is not a valid manifest
+         */
+        static Manifest parse(byte[] content, int defaultShardSize) throws IOException {
+            if (content.length == 0) {
+                return new Manifest(defaultShardSize, 0, new TreeMap<>());
+            }
+            try (BufferedReader reader = new BufferedReader(
+                    new StringReader(new String(content, StandardCharsets.UTF_8)))) {
+                if (!MANIFEST_HEADER.equals(reader.readLine())) {
+                    throw new IOException("Not a task shard manifest");
+                }
+                int shardSize = Integer.parseInt(value(reader.readLine(), "shard-size"));
+                long revision = Long.parseLong(value(reader.readLine(), "revision"));
+                TreeMap<Long, Shard> shards = new TreeMap<>();
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    String[] fields = value(line, "shard").split(" ");
+                    if (fields.length != 4) {
+                        throw new IOException("Malformed shard entry: " + line);
+                    }
+                    shards.put(Long.parseLong(fields[0]), new Shard(fields[1], Integer.parseInt(fields[2]),
+                            Long.parseLong(fields[3], 16)));
+                }
+                if (shardSize <= 0) {
+                    throw new IOException("Invalid shard size: " + shardSize);
+                }
+                return new Manifest(shardSize, revision, shards);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed task shard manifest", e);
+            }
+        }
+
+        /**
+         * Gets the value of a {@code <key> <value>} line.
+         */
+        private static String value(String line, String key) throws IOException {
+            if (line == null || !line.startsWith(key + " ")) {
+                throw new IOException("Expected '" + key + "' in task shard manifest");
+            }
+            return line.substring(key.length() + 1);
+        }
+
+        /**
+         * Formats the manifest as it is stored.
+         * 
+         * @return The content of the manifest file
+         */
+        String format() {
+            StringBuilder content = new StringBuilder();
+            content.append(MANIFEST_HEADER).append('\n');
+            content.append("shard-size ").append(shardSize).append('\n');
+            content.append("revision ").append(revision).append('\n');
+            for (Map.Entry<Long, Shard> entry : shards.entrySet()) {
+                Shard shard = entry.getValue();
+                content.append("shard ").append(entry.getKey()).append(' ').append(shard.fileName).append(' ')
+                        .append(shard.tasks).append(' ').append(Long.toHexString(shard.checksum)).append('\n');
+            }
+            return content.toString();
+        }
+
+        /**
+         * Gets the index of the shard owning a task ID.
+         * 
+         * @param id The task ID
+         * @return The shard index
+         */
+        long shardOf(long id) {
+            return Math.floorDiv(id - 1, shardSize);
+        }
+
+        /**
+         * Gets the number of tasks in all shards.
+         * 
+         * @return The number of tasks
+         */
+        int taskCount() {
+            long count = 0;
+            for (Shard shard : shards.values()) {
+                count += shard.tasks;
+            }
+            return (int) Math.min(count, Integer.MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+
+/**
+ * A single change made to the tasks, as handed to a {@link TaskStore}.
+ * Changes other than deletes carry the task itself, so applying a change
+ * always stores the task's full state.
+ * 
+ * @param type The kind of change
+ * @param id   The ID of the changed task
+ * @param task The changed task, or null for a delete
+ */
+public record TaskChange(Type type, long id, Task task) {
+
+    /**
+     * The kinds of changes that can be made to a task.
+     */
+    public enum Type {
+        /**
+         * A new task was added.
+         */
+        ADD,
+
+        /**
+         * A task's description was updated.
+         */
+        UPDATE,
+
+        /**
+         * A task's status was changed.
+         */
+        STATUS,
+
+        /**
+         * A task was deleted.
+         */
+        DELETE
+    }
+
+    /**
+     * Creates a change for a newly added task.
+     * 
+     * @param task The added task
+     * @return The change
+     */
+    public static TaskChange added(Task task) {
+        return new TaskChange(Type.ADD, task.getId(), task);
+    }
+
+    /**
+     * Creates a change for a task whose description was updated.
+     * 
+     * @param task The updated task
+     * @return The change
+     */
+    public static TaskChange updated(Task task) {
+        return new TaskChange(Type.UPDATE, task.getId(), task);
+    }
+
+    /**
+     * Creates a change for a task whose status was changed.
+     * 
+     * @param task The updated task
+     * @return The change
+     */
+    public static TaskChange statusChanged(Task task) {
+        return new TaskChange(Type.STATUS, task.getId(), task);
+    }
+
+    /**
+     * Creates a change for a deleted task.
+     * 
+     * @param id The ID of the deleted task
+     * @return The change
+     */
+    public static TaskChange deleted(long id) {
+        return new TaskChange(Type.DELETE, id, null);
+    }
+}
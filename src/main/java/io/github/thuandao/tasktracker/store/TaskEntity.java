@@ -0,0 +1,79 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Database row of a task, as stored by {@link JpaTaskStore}.
+ * IDs are assigned by the task service before the row is written, so the ID
+ * has no generator; the status is indexed for queries by status. Timestamps
+ * are kept to the precision of the database, the microsecond in PostgreSQL.
+ */
+@Entity
+@Table(name = "tasks", indexes = @Index(name = "idx_tasks_status", columnList = "status"))
+class TaskEntity {
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 4000)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private TaskStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Constructor for JPA.
+     */
+    protected TaskEntity() {
+    }
+
+    /**
+     * Creates a row holding only an ID, enough to delete it.
+     * 
+     * @param id The task ID
+     */
+    TaskEntity(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Creates the row for a task.
+     * 
+     * @param task The task
+     * @return The row with the task's full state
+     */
+    static TaskEntity from(Task task) {
+        TaskEntity entity = new TaskEntity(task.getId());
+        entity.description = task.getDescription();
+        entity.status = task.getStatus();
+        entity.createdAt = task.getCreatedAt();
+        entity.updatedAt = task.getUpdatedAt();
+        return entity;
+    }
+
+    /**
+     * Converts the row back into a task.
+     * 
+     * @return The task
+     */
+    Task toTask() {
+        return new Task(id, description, status, createdAt, updatedAt);
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Storage backend for tasks.
+ * The task service keeps the current tasks in memory; a store is responsible
+ * for loading them and for making each change durable. Stores that rewrite
+ * everything on each change use the full task list, while incremental stores
+ * only need the changes themselves.
+ */
+public interface TaskStore {
+
+    /**
+     * Loads all stored tasks.
+     * 
+     * @return A mutable list of the stored tasks
+     * @throws IOException If there's an error reading from the storage
+     */
+    List<Task> load() throws IOException;
+
+    /**
+     * Reads a single task without loading the others, for stores that keep an
+     * index of where each task is stored. The task service uses it for a
+     * lookup when no tasks are cached, e.g. in a one-off command, and loads
+     * all tasks when this returns null. The default always returns null.
+     * 
+     * @param id The ID of the task
+     * @return The task, or null if it cannot be read on its own, e.g. because
+     *         the index is missing or out of date, or has no task with the ID
+     * @throws IOException If there's an error reading from the storage
+     */
+    default Task loadTask(long id) throws IOException {
+        return null;
+    }
+
+    /**
+     * Checks whether the stored tasks have changed since this store last loaded
+     * or committed them, e.g. because another process wrote to the storage.
+     * 
+     * @return true if the tasks must be loaded again
+     * @throws IOException If there's an error reading from the storage
+     */
+    boolean isModified() throws IOException;
+
+    /**
+     * Persists a set of changes. When this method returns, the changes must be
+     * durable.
+     * 
+     * @param changes The changes to persist, in the order they were made
+     * @param tasks   Supplies a copy of all tasks, with the changes applied;
+     *                only called by stores that need the full state
+     * @throws IOException If there's an error writing to the storage
+     */
+    void commit(List<TaskChange> changes, Supplier<List<Task>> tasks) throws IOException;
+
+    /**
+     * Picks the ID of a new task. The default is the next ID after the highest
+     * one in use; stores shared by several processes without a lock file hand
+     * out IDs from a shared source instead.
+     * Called while the task service holds its locks, possibly while a commit
+     * is running, so it must not wait for a commit to finish.
+     * 
+     * @param maxId The highest ID among the loaded tasks, or 0 if there are none
+     * @return An ID greater than {@code maxId} that no other task has
+     * @throws IOException If there's an error reading from the storage
+     */
+    default long nextId(long maxId) throws IOException {
+        return maxId + 1;
+    }
+
+    /**
+     * Gets the lock file that guards the stored tasks against concurrent
+     * changes by other processes. The task service locks it shared to load
+     * and exclusively from the first change until the commit.
+     * 
+     * @return The lock file, or null if the storage needs no process locking
+     */
+    default Path getLockPath() {
+        return null;
+    }
+
+    /**
+     * Gets the file the task service keeps its search index in, next to the
+     * stored tasks.
+     * 
+     * @return The search index file, or null if the index is not persisted
+     */
+    default Path getSearchIndexPath() {
+        return null;
+    }
+
+    /**
+     * Gets a checksum of the stored tasks as of the last load or commit. The
+     * task service stores it with data derived from the tasks, such as the
+     * search index, to tell whether that data still matches them. Stores may
+     * keep the checksum across changes that only touch task statuses.
+     * 
+     * @return The checksum, or 0 if the store doesn't keep one
+     */
+    default long getChecksum() {
+        return 0;
+    }
+
+    /**
+     * Gets the number of bytes this store has read from its files since it
+     * was created, for monitoring.
+     * 
+     * @return The bytes read, or 0 if the store doesn't count them
+     */
+    default long getBytesRead() {
+        return 0;
+    }
+
+    /**
+     * Gets the number of bytes this store has written to its files since it
+     * was created, for monitoring.
+     * 
+     * @return The bytes written, or 0 if the store doesn't count them
+     */
+    default long getBytesWritten() {
+        return 0;
+    }
+
+    /**
+     * Gets the current size of the stored tasks on disk, for monitoring.
+     * 
+     * @return The size in bytes, or -1 if the store cannot tell
+     * @throws IOException If there's an error reading the file sizes
+     */
+    default long getSize() throws IOException {
+        return -1;
+    }
+}
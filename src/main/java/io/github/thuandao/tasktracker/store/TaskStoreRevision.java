@@ -0,0 +1,50 @@
+package io.github.thuandao.tasktracker.store;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Single database row counting the commits made to the tasks table by
+ * {@link JpaTaskStore}. Each commit increments it in the same transaction as
+ * its changes, so comparing it tells whether another process changed the
+ * tasks, and updating it serializes commits across processes.
+ */
+@Entity
+@Table(name = "task_store_revision")
+class TaskStoreRevision {
+    /**
+     * The ID of the only row.
+     */
+    static final int ROW_ID = 1;
+
+    @Id
+    private Integer id;
+
+    private long revision;
+
+    /**
+     * Constructor for JPA.
+     */
+    protected TaskStoreRevision() {
+    }
+
+    /**
+     * Creates the row.
+     * 
+     * @param revision The first revision
+     */
+    TaskStoreRevision(long revision) {
+        this.id = ROW_ID;
+        this.revision = revision;
+    }
+
+    /**
+     * Gets the number of commits made so far.
+     * 
+     * @return The revision
+     */
+    long getRevision() {
+        return revision;
+    }
+}
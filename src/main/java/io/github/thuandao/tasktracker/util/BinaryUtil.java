@@ -0,0 +1,464 @@
+package io.github.thuandao.tasktracker.util;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Utility class for the compact binary task format, an alternative to the
+ * JSON produced by {@link JsonUtil} that is smaller and needs no parsing.
+ * <p>
+ * A file starts with a header: the magic bytes {@code TSKB}, a format version
+ * (2 bytes), the number of tasks (4 bytes) and a revision (8 bytes) counting
+ * the changes made to the file in place. Each task follows as a record with
+ * fixed-width slots and a length-prefixed description:
+ * <pre>
+ * id           8 bytes
+ * status       1 byte   ordinal of the status, -1 if none
+ * createdAt   12 bytes  seconds since the epoch (8) and nanoseconds (4, -1 if none)
+ * updatedAt   12 bytes  same as createdAt
+ * description  4 bytes  length of the UTF-8 bytes (-1 if none), then the bytes
+ * </pre>
+ * Numbers are big-endian. Timestamps are local date-times, so the epoch
+ * offsets are computed as if they were UTC.
+ * <p>
+ * Because the status and update time sit at fixed offsets within a record, a
+ * status change can be written over the record in place
+ * ({@link #writeStatus}), given the record's offset in the file. A single
+ * record can also be decoded on its own ({@link #readRecord}).
+ */
+public class BinaryUtil {
+    /**
+     * The bytes every binary task file starts with.
+     */
+    private static final byte[] MAGIC = { 'T', 'S', 'K', 'B' };
+
+    /**
+     * The version of the record layout written by this class.
+     */
+    private static final short VERSION = 1;
+
+    /**
+     * The offset of the revision in the header.
+     */
+    private static final int REVISION_OFFSET = MAGIC.length + 2 + 4;
+
+    /**
+     * The size of the header.
+     */
+    public static final int HEADER_SIZE = REVISION_OFFSET + 8;
+
+    /**
+     * The offset of the status within a record.
+     */
+    private static final int STATUS_OFFSET = 8;
+
+    /**
+     * The offset of the update time within a record.
+     */
+    private static final int UPDATED_AT_OFFSET = STATUS_OFFSET + 1 + 12;
+
+    /**
+     * The size of a record without its description bytes.
+     */
+    private static final int FIXED_RECORD_SIZE = 8 + 1 + 12 + 12 + 4;
+
+    /**
+     * Size of the buffer records are written and read through.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    /**
+     * Receives the position of each record as tasks are written or read.
+     */
+    @FunctionalInterface
+    public interface RecordListener {
+        /**
+         * Called for each record.
+         * 
+         * @param id     The ID of the task in the record
+         * @param offset The offset of the record from the start of the data
+         * @throws IOException If the record cannot be handled
+         */
+        void record(long id, long offset) throws IOException;
+    }
+
+    /**
+     * Checks whether some data starts like a binary task file.
+     * 
+     * @param header The first bytes of the data
+     * @return true if the bytes begin with the binary format's magic bytes
+     */
+    public static boolean isBinary(byte[] header) {
+        return header.length >= MAGIC.length && Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    /**
+     * Writes tasks in the binary format to an output stream. The stream is
+     * flushed but not closed.
+     * 
+     * @param tasks The tasks to write
+     * @param out   The stream to write to
+     * @throws IOException If there's an error writing to the stream
+     */
+    public static void writeBinary(Collection<Task> tasks, OutputStream out) throws IOException {
+        writeBinary(tasks, out, null);
+    }
+
+    /**
+     * Writes tasks in the binary format to an output stream, reporting where
+     * each record starts. The stream is flushed but not closed.
+     * 
+     * @param tasks   The tasks to write
+     * @param out     The stream to write to
+     * @param records Told the offset of each record, or null
+     * @throws IOException If there's an error writing to the stream
+     */
+    public static void writeBinary(Collection<Task> tasks, OutputStream out, RecordListener records)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.put(MAGIC).putShort(VERSION).putInt(tasks.size()).putLong(0);
+        long drained = 0;
+        int written = 0;
+        for (Task task : tasks) {
+            byte[] description = task.getDescription() != null
+                    ? task.getDescription().getBytes(StandardCharsets.UTF_8)
+                    : null;
+            int descriptionLength = description != null ? description.length : 0;
+            if (buffer.remaining() < FIXED_RECORD_SIZE + descriptionLength) {
+                drained += drain(buffer, out);
+            }
+            if (records != null) {
+                records.record(task.getId(), drained + buffer.position());
+            }
+            buffer.putLong(task.getId());
+            buffer.put(task.getStatus() != null ? (byte) task.getStatus().ordinal() : -1);
+            putTimestamp(buffer, task.getCreatedAt());
+            putTimestamp(buffer, task.getUpdatedAt());
+            if (description == null) {
+                buffer.putInt(-1);
+            } else if (description.length <= buffer.remaining() - 4) {
+                buffer.putInt(description.length).put(description);
+            } else {
+                // Longer than the buffer: write it straight through
+                buffer.putInt(description.length);
+                drained += drain(buffer, out);
+                out.write(description);
+                drained += description.length;
+            }
+            written++;
+        }
+        if (written != tasks.size()) {
+            throw new IllegalStateException("Tasks changed while being written");
+        }
+        drain(buffer, out);
+        out.flush();
+    }
+
+    /**
+     * Reads tasks in the binary format from an input stream, up to the end of
+     * the stream.
+     * 
+     * @param in The stream to read from
+     * @return A mutable list of the tasks read
+     * @throws IOException              If there's an error reading from the stream
+     * @throws IllegalArgumentException If the data is not a valid binary task file
+     */
+    public static List<Task> fromBinary(InputStream in) throws IOException {
+        return fromBinary(in, null);
+    }
+
+    /**
+     * Reads tasks in the binary format from an input stream, up to the end of
+     * the stream, reporting where each record starts.
+     * 
+     * @param in      The stream to read from
+     * @param records Told the offset of each record, or null
+     * @return A mutable list of the tasks read
+     * @throws IOException              If there's an error reading from the stream
+     * @throws IllegalArgumentException If the data is not a valid binary task file
+     */
+    public static List<Task> fromBinary(InputStream in, RecordListener records) throws IOException {
+        Reader reader = new Reader(in);
+        reader.require(HEADER_SIZE);
+        ByteBuffer buffer = reader.buffer;
+        int count = readHeader(buffer);
+
+        List<Task> tasks = new ArrayList<>(count);
+        StringCache descriptions = new StringCache();
+        for (int i = 0; i < count; i++) {
+            reader.require(FIXED_RECORD_SIZE);
+            long offset = reader.position();
+            long id = buffer.getLong();
+            byte status = buffer.get();
+            LocalDateTime createdAt = getTimestamp(buffer);
+            LocalDateTime updatedAt = getTimestamp(buffer);
+            int length = buffer.getInt();
+            String description = length < 0 ? null : descriptions.get(reader.readString(length));
+            if (records != null) {
+                records.record(id, offset);
+            }
+            tasks.add(new Task(id, description, toStatus(status, id), createdAt, updatedAt));
+        }
+        if (reader.hasMore()) {
+            throw new IllegalArgumentException("Unexpected data after " + count + " tasks");
+        }
+        return tasks;
+    }
+
+    /**
+     * Reads tasks in the binary format from a buffer holding a whole file,
+     * e.g. a memory-mapped one, reporting where each record starts. The
+     * buffer's position is left unchanged.
+     * 
+     * @param data    The file content, from its position to its limit
+     * @param records Told the offset of each record, or null
+     * @return A mutable list of the tasks read
+     * @throws IOException              If a record cannot be handled
+     * @throws IllegalArgumentException If the data is not a valid binary task file
+     */
+    public static List<Task> fromBinary(ByteBuffer data, RecordListener records) throws IOException {
+        ByteBuffer buffer = data.slice();
+        try {
+            int count = readHeader(buffer);
+            List<Task> tasks = new ArrayList<>(count);
+            byte[] bytes = new byte[256];
+            StringCache descriptions = new StringCache();
+            for (int i = 0; i < count; i++) {
+                int offset = buffer.position();
+                long id = buffer.getLong();
+                byte status = buffer.get();
+                LocalDateTime createdAt = getTimestamp(buffer);
+                LocalDateTime updatedAt = getTimestamp(buffer);
+                int length = buffer.getInt();
+                String description = null;
+                if (length >= 0) {
+                    if (length > bytes.length) {
+                        bytes = new byte[Math.max(length, bytes.length * 2)];
+                    }
+                    buffer.get(bytes, 0, length);
+                    description = descriptions.get(new String(bytes, 0, length, StandardCharsets.UTF_8));
+                }
+                if (records != null) {
+                    records.record(id, offset);
+                }
+                tasks.add(new Task(id, description, toStatus(status, id), createdAt, updatedAt));
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Unexpected data after " + count + " tasks");
+            }
+            return tasks;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated binary tasks file");
+        }
+    }
+
+    /**
+     * Decodes a single record, e.g. one read on its own through an
+     * {@link OffsetIndex}.
+     * 
+     * @param record The record, from the buffer's position to its limit
+     * @return The task in the record
+     * @throws IllegalArgumentException If the bytes are not exactly one valid
+     *                                  record
+     */
+    public static Task readRecord(ByteBuffer record) {
+        ByteBuffer buffer = record.slice();
+        try {
+            long id = buffer.getLong();
+            byte status = buffer.get();
+            LocalDateTime createdAt = getTimestamp(buffer);
+            LocalDateTime updatedAt = getTimestamp(buffer);
+            int length = buffer.getInt();
+            String description = null;
+            if (length >= 0) {
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                description = new String(bytes, StandardCharsets.UTF_8);
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Unexpected data after the record of task " + id);
+            }
+            return new Task(id, description, toStatus(status, id), createdAt, updatedAt);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated task record");
+        }
+    }
+
+    /**
+     * Reads the revision of a file, from the header at the start of a buffer.
+     * 
+     * @param data The file content, starting at index 0
+     * @return The number of changes made to the file in place
+     */
+    public static long getRevision(ByteBuffer data) {
+        return data.getLong(REVISION_OFFSET);
+    }
+
+    /**
+     * Sets the revision of a file, in the header at the start of a buffer.
+     * 
+     * @param data     The file content, starting at index 0
+     * @param revision The new revision
+     */
+    public static void setRevision(ByteBuffer data, long revision) {
+        data.putLong(REVISION_OFFSET, revision);
+    }
+
+    /**
+     * Overwrites the status and update time of a record in place.
+     * 
+     * @param data   The file content, starting at index 0
+     * @param offset The offset of the task's record
+     * @param task   The task with its new status and update time
+     * @return The number of bytes from the record's offset that were changed
+     */
+    public static int writeStatus(ByteBuffer data, int offset, Task task) {
+        if (data.getLong(offset) != task.getId()) {
+            throw new IllegalArgumentException("No record of task " + task.getId() + " at offset " + offset);
+        }
+        data.put(offset + STATUS_OFFSET, task.getStatus() != null ? (byte) task.getStatus().ordinal() : -1);
+        putTimestamp(data.slice(offset + UPDATED_AT_OFFSET, 12), task.getUpdatedAt());
+        return UPDATED_AT_OFFSET + 12;
+    }
+
+    /**
+     * Reads and checks the header, leaving the buffer after it.
+     * 
+     * @return The number of tasks
+     */
+    private static int readHeader(ByteBuffer buffer) {
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!isBinary(magic)) {
+            throw new IllegalArgumentException("Not a binary tasks file");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary tasks file version " + version);
+        }
+        int count = buffer.getInt();
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid task count " + count);
+        }
+        buffer.getLong();
+        return count;
+    }
+
+    private static TaskStatus toStatus(byte status, long id) {
+        if (status < -1 || status >= STATUSES.length) {
+            throw new IllegalArgumentException("Invalid status " + status + " of task " + id);
+        }
+        return status < 0 ? null : STATUSES[status];
+    }
+
+    private static void putTimestamp(ByteBuffer buffer, LocalDateTime timestamp) {
+        if (timestamp == null) {
+            buffer.putLong(0).putInt(-1);
+        } else {
+            buffer.putLong(timestamp.toEpochSecond(ZoneOffset.UTC)).putInt(timestamp.getNano());
+        }
+    }
+
+    private static LocalDateTime getTimestamp(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return nanos < 0 ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    /**
+     * Writes out and clears the buffered bytes.
+     * 
+     * @return The number of bytes written
+     */
+    private static int drain(ByteBuffer buffer, OutputStream out) throws IOException {
+        int length = buffer.position();
+        out.write(buffer.array(), 0, length);
+        buffer.clear();
+        return length;
+    }
+
+    /**
+     * Reads the stream through a buffer, refilled as records need it.
+     */
+    private static final class Reader {
+        private final InputStream in;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        private long read;
+
+        Reader(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Makes sure the buffer holds at least the given number of bytes, which
+         * must not be more than its capacity.
+         */
+        void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                int read = in.read(buffer.array(), buffer.position(), buffer.remaining());
+                if (read < 0) {
+                    throw new IllegalArgumentException("Truncated binary tasks file");
+                }
+                buffer.position(buffer.position() + read);
+                this.read += read;
+            }
+            buffer.flip();
+        }
+
+        /**
+         * Gets the offset in the stream of the next byte to be consumed.
+         */
+        long position() {
+            return read - buffer.remaining();
+        }
+
+        /**
+         * Reads a UTF-8 string of the given length in bytes.
+         */
+        String readString(int length) throws IOException {
+            if (length <= buffer.capacity()) {
+                require(length);
+                String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+                return value;
+            }
+            byte[] bytes = new byte[length];
+            int copied = buffer.remaining();
+            buffer.get(bytes, 0, copied);
+            if (in.readNBytes(bytes, copied, length - copied) != length - copied) {
+                throw new IllegalArgumentException("Truncated binary tasks file");
+            }
+            read += length - copied;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Checks whether any bytes are left.
+         */
+        boolean hasMore() throws IOException {
+            if (buffer.hasRemaining()) {
+                return true;
+            }
+            return in.read() >= 0;
+        }
+    }
+}
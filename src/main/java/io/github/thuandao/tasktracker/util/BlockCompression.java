@@ -0,0 +1,324 @@
+package io.github.thuandao.tasktracker.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Utility class for a block-framed Deflate format, used to store task files
+ * compressed.
+ * <p>
+ * The data is cut into blocks of up to {@link #BLOCK_SIZE} bytes, each
+ * compressed on its own with a raw {@link Deflater}, so a reader only ever
+ * holds one block and streams the rest. A block that doesn't shrink is
+ * stored as it is. A stream starts with the magic bytes {@code TTDZ} and a
+ * format version (2 bytes); each block follows as
+ * <pre>
+ * length            4 bytes  uncompressed length, 0 for the end of the data
+ * compressed length 4 bytes  equal to the length if stored uncompressed
+ * checksum          4 bytes  CRC32C of the uncompressed bytes
+ * data              the compressed (or stored) bytes
+ * </pre>
+ * Numbers are big-endian. Malformed data is reported with an
+ * {@link IllegalArgumentException}, like the other task file formats.
+ */
+public class BlockCompression {
+    /**
+     * The bytes every compressed stream starts with.
+     */
+    private static final byte[] MAGIC = { 'T', 'T', 'D', 'Z' };
+
+    /**
+     * The version of the framing written by this class.
+     */
+    private static final short VERSION = 1;
+
+    /**
+     * The size of the stream header.
+     */
+    public static final int HEADER_SIZE = MAGIC.length + 2;
+
+    /**
+     * The uncompressed size of a full block.
+     */
+    public static final int BLOCK_SIZE = 256 * 1024;
+
+    /**
+     * The size of a block's frame before its data.
+     */
+    private static final int FRAME_SIZE = 12;
+
+    /**
+     * Checks whether some data starts like a compressed stream.
+     * 
+     * @param header The first bytes of the data
+     * @return true if the bytes begin with the compressed format's magic bytes
+     */
+    public static boolean isCompressed(byte[] header) {
+        return header.length >= MAGIC.length && Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    /**
+     * Creates a stream that compresses what is written to it into another
+     * stream. {@link CompressingOutputStream#finish()} must be called to
+     * write the last block and the end of the data.
+     * 
+     * @param out   The stream to write the compressed data to
+     * @param level The Deflate compression level, from 1 (fastest) to 9
+     *              (smallest)
+     * @return The compressing stream
+     * @throws IOException If there's an error writing the header
+     */
+    public static CompressingOutputStream compress(OutputStream out, int level) throws IOException {
+        return new CompressingOutputStream(out, level);
+    }
+
+    /**
+     * Creates a stream that reads the data decompressed from a compressed
+     * stream, one block at a time.
+     * 
+     * @param in The compressed stream, positioned at its header
+     * @return The decompressing stream
+     * @throws IOException              If there's an error reading the header
+     * @throws IllegalArgumentException If the data is not a compressed stream
+     */
+    public static InputStream decompress(InputStream in) throws IOException {
+        return new DecompressingInputStream(in);
+    }
+
+    /**
+     * Compresses written bytes into blocks. Closing it finishes the data and
+     * closes the underlying stream.
+     */
+    public static final class CompressingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final Deflater deflater;
+        private final CRC32C checksum = new CRC32C();
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private byte[] compressed = new byte[FRAME_SIZE + BLOCK_SIZE + BLOCK_SIZE / 8];
+        private int length;
+        private boolean finished;
+
+        private CompressingOutputStream(OutputStream out, int level) throws IOException {
+            if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+                throw new IllegalArgumentException("Invalid compression level: " + level);
+            }
+            this.out = out;
+            this.deflater = new Deflater(level, true);
+            out.write(ByteBuffer.allocate(HEADER_SIZE).put(MAGIC).putShort(VERSION).array());
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (length == block.length) {
+                writeBlock();
+            }
+            block[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int count) throws IOException {
+            while (count > 0) {
+                if (length == block.length) {
+                    writeBlock();
+                }
+                int copied = Math.min(count, block.length - length);
+                System.arraycopy(bytes, offset, block, length, copied);
+                length += copied;
+                offset += copied;
+                count -= copied;
+            }
+        }
+
+        /**
+         * Writes the last block and the end of the data, and flushes the
+         * underlying stream without closing it.
+         * 
+         * @throws IOException If there's an error writing
+         */
+        public void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            if (length > 0) {
+                writeBlock();
+            }
+            out.write(new byte[4]);
+            out.flush();
+            deflater.end();
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+            } finally {
+                out.close();
+            }
+        }
+
+        /**
+         * Compresses the buffered block and writes it with its frame, or
+         * writes it stored if it doesn't shrink.
+         */
+        private void writeBlock() throws IOException {
+            deflater.reset();
+            deflater.setInput(block, 0, length);
+            deflater.finish();
+            int size = FRAME_SIZE;
+            while (!deflater.finished() && size - FRAME_SIZE < length) {
+                if (size == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                size += deflater.deflate(compressed, size, compressed.length - size);
+            }
+            int compressedLength = size - FRAME_SIZE;
+            boolean stored = !deflater.finished() || compressedLength >= length;
+            checksum.reset();
+            checksum.update(block, 0, length);
+            ByteBuffer.wrap(compressed, 0, FRAME_SIZE).putInt(length).putInt(stored ? length : compressedLength)
+                    .putInt((int) checksum.getValue());
+            if (stored) {
+                out.write(compressed, 0, FRAME_SIZE);
+                out.write(block, 0, length);
+            } else {
+                out.write(compressed, 0, size);
+            }
+            length = 0;
+        }
+    }
+
+    /**
+     * Reads the blocks of a compressed stream, decompressing one at a time.
+     * Closing it closes the underlying stream.
+     */
+    private static final class DecompressingInputStream extends InputStream {
+        private final InputStream in;
+        private final Inflater inflater = new Inflater(true);
+        private final CRC32C checksum = new CRC32C();
+        private final byte[] frame = new byte[FRAME_SIZE];
+        private final byte[] compressed = new byte[BLOCK_SIZE];
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private int position;
+        private int limit;
+        private boolean ended;
+
+        DecompressingInputStream(InputStream in) throws IOException {
+            this.in = in;
+            byte[] header = in.readNBytes(HEADER_SIZE);
+            if (header.length < HEADER_SIZE || !isCompressed(header)) {
+                throw new IllegalArgumentException("Not a compressed tasks file");
+            }
+            short version = ByteBuffer.wrap(header, MAGIC.length, 2).getShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported compressed tasks file version " + version);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == limit && !readBlock()) {
+                return -1;
+            }
+            return block[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int count) throws IOException {
+            if (count == 0) {
+                return 0;
+            }
+            if (position == limit && !readBlock()) {
+                return -1;
+            }
+            int copied = Math.min(count, limit - position);
+            System.arraycopy(block, position, bytes, offset, copied);
+            position += copied;
+            return copied;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            in.close();
+        }
+
+        /**
+         * Reads and decompresses the next block.
+         * 
+         * @return false at the end of the data
+         */
+        private boolean readBlock() throws IOException {
+            if (ended) {
+                return false;
+            }
+            if (in.readNBytes(frame, 0, 4) != 4) {
+                throw new IllegalArgumentException("Truncated compressed tasks file");
+            }
+            ByteBuffer header = ByteBuffer.wrap(frame);
+            int length = header.getInt();
+            if (length == 0) {
+                ended = true;
+                if (in.read() >= 0) {
+                    throw new IllegalArgumentException("Unexpected data after the end of the compressed tasks");
+                }
+                return false;
+            }
+            if (in.readNBytes(frame, 4, FRAME_SIZE - 4) != FRAME_SIZE - 4) {
+                throw new IllegalArgumentException("Truncated compressed tasks file");
+            }
+            int compressedLength = header.getInt();
+            int expectedChecksum = header.getInt();
+            if (length < 0 || length > BLOCK_SIZE || compressedLength <= 0 || compressedLength > length) {
+                throw new IllegalArgumentException("Malformed block in compressed tasks file");
+            }
+            if (compressedLength == length) {
+                readFully(block, length);
+            } else {
+                readFully(compressed, compressedLength);
+                inflate(compressedLength, length);
+            }
+            checksum.reset();
+            checksum.update(block, 0, length);
+            if ((int) checksum.getValue() != expectedChecksum) {
+                throw new IllegalArgumentException("Checksum mismatch in compressed tasks file");
+            }
+            position = 0;
+            limit = length;
+            return true;
+        }
+
+        private void inflate(int compressedLength, int length) {
+            inflater.reset();
+            inflater.setInput(compressed, 0, compressedLength);
+            try {
+                int inflated = 0;
+                while (inflated < length && !inflater.finished()) {
+                    int n = inflater.inflate(block, inflated, length - inflated);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    inflated += n;
+                }
+                if (inflated != length || !inflater.finished()) {
+                    throw new IllegalArgumentException("Malformed block in compressed tasks file");
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalArgumentException("Malformed block in compressed tasks file", e);
+            }
+        }
+
+        private void readFully(byte[] buffer, int length) throws IOException {
+            if (in.readNBytes(buffer, 0, length) != length) {
+                throw new IllegalArgumentException("Truncated compressed tasks file");
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.thuandao.tasktracker.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Utility class for crash-safe file writes.
+ */
+public class FileUtil {
+
+    /**
+     * Writes the content of a file through an output stream.
+     */
+    @FunctionalInterface
+    public interface Content {
+        /**
+         * Writes the content to the given stream. The stream must not be closed.
+         * 
+         * @param out The stream to write to
+         * @throws IOException If there's an error writing
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Replaces a file atomically.
+     * The content is written to a temporary file in the same directory, forced
+     * to disk and then renamed over the target, so a crash at any point leaves
+     * either the old or the new file, never a truncated one. The new file keeps
+     * the POSIX permissions of the file it replaces; a file that did not exist
+     * gets the default permissions of a newly created file.
+     * 
+     * @param target  The file to replace
+     * @param content Writes the new content
+     * @throws IOException If there's an error writing or renaming the file
+     */
+    public static void writeAtomically(Path target, Content content) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Path temp = createTempFile(directory, target);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                OutputStream out = Channels.newOutputStream(channel);
+                content.writeTo(out);
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        syncDirectory(directory);
+    }
+
+    /**
+     * Creates an empty temporary file next to the target, with the target's
+     * permissions if it exists. Unlike {@link Files#createTempFile}, which
+     * makes the file readable by its owner only, the file is created with the
+     * default permissions, so replacing the target never narrows who can read it.
+     * 
+     * @param directory The directory of the target
+     * @param target    The file to be replaced
+     * @return The temporary file
+     * @throws IOException If there's an error creating the file
+     */
+    private static Path createTempFile(Path directory, Path target) throws IOException {
+        String prefix = target.getFileName() + ".";
+        while (true) {
+            Path temp = directory.resolve(prefix + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                Files.createFile(temp);
+            } catch (FileAlreadyExistsException e) {
+                continue;
+            }
+            try {
+                if (Files.exists(target)
+                        && Files.getFileAttributeView(target, PosixFileAttributeView.class) != null) {
+                    Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+                }
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            return temp;
+        }
+    }
+
+    /**
+     * Forces a directory entry change (such as a rename) to disk.
+     * Not every platform allows opening a directory; there the rename is left
+     * to the file system.
+     * 
+     * @param directory The directory to sync
+     */
+    public static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened or synced on this platform
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package io.github.thuandao.tasktracker.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Full-text index from the words of texts to the IDs they belong to.
+ * Texts are split into tokens, runs of letters and digits compared without
+ * case. Each token maps to a posting list: a sorted array of primitive IDs,
+ * so a search only looks at the lists of its own tokens and intersects them,
+ * without scanning the texts.
+ * <p>
+ * IDs are usually added in ascending order, which appends to the lists;
+ * other additions and removals shift the entries after the ID.
+ * <p>
+ * The index can be written to a file, tagged with a value telling which data
+ * it was built from (e.g. a checksum of the tasks file), and read back only if
+ * the tag still matches. If the data changes without changing the index, the
+ * tag can be replaced on its own. Posting lists are stored as variable-length
+ * deltas, typically one or two bytes per entry.
+ * <p>
+ * The index is not thread-safe.
+ */
+public class InvertedIndex {
+    /**
+     * Magic number at the start of an index file, "TTIX".
+     */
+    private static final int MAGIC = 0x54544958;
+
+    /**
+     * Version of the file format.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Offset of the tag in an index file, after the magic number and the
+     * format version, which takes one byte.
+     */
+    private static final int TAG_OFFSET = 5;
+
+    /**
+     * Size of the buffer files are written through.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The posting list of each token.
+     */
+    private final Map<String, Postings> postings;
+
+    /**
+     * Creates an empty index.
+     */
+    public InvertedIndex() {
+        postings = new HashMap<>();
+    }
+
+    /**
+     * Creates an empty index sized for the given number of tokens.
+     */
+    private InvertedIndex(int expectedTokens) {
+        postings = HashMap.newHashMap(expectedTokens);
+    }
+
+    /**
+     * Splits a text into its distinct tokens, lower-cased, in order of first
+     * appearance.
+     * 
+     * @param text The text, possibly null
+     * @return The tokens
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int c = text.codePointAt(i);
+            i += Character.charCount(c);
+            if (Character.isLetterOrDigit(c)) {
+                token.appendCodePoint(Character.toLowerCase(c));
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Adds the tokens of a text under an ID.
+     * 
+     * @param id   The ID
+     * @param text The text, possibly null
+     */
+    public void add(long id, String text) {
+        for (String token : tokenize(text)) {
+            postings.computeIfAbsent(token, t -> new Postings()).add(id);
+        }
+    }
+
+    /**
+     * Removes the tokens of a text from an ID. The text must be the one added
+     * under the ID.
+     * 
+     * @param id   The ID
+     * @param text The text, possibly null
+     */
+    public void remove(long id, String text) {
+        for (String token : tokenize(text)) {
+            Postings list = postings.get(token);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    /**
+     * Finds the IDs whose text contains all tokens of a query.
+     * 
+     * @param query The query
+     * @return The matching IDs in ascending order; none if the query has no
+     *         tokens
+     */
+    public long[] search(String query) {
+        List<Postings> lists = new ArrayList<>();
+        for (String token : tokenize(query)) {
+            Postings list = postings.get(token);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        if (lists.isEmpty()) {
+            return new long[0];
+        }
+
+        // Intersect starting from the shortest list, so each step can only shrink;
+        // the matches are sorted, so each lookup starts where the last one ended
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        Postings shortest = lists.get(0);
+        long[] matches = Arrays.copyOf(shortest.ids, shortest.size);
+        int count = matches.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            Postings list = lists.get(i);
+            int kept = 0;
+            int from = 0;
+            for (int j = 0; j < count && from < list.size; j++) {
+                int at = Arrays.binarySearch(list.ids, from, list.size, matches[j]);
+                if (at >= 0) {
+                    matches[kept++] = matches[j];
+                    from = at + 1;
+                } else {
+                    from = -at - 1;
+                }
+            }
+            count = kept;
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /**
+     * Gets the number of distinct tokens.
+     * 
+     * @return The number of tokens
+     */
+    public int tokenCount() {
+        return postings.size();
+    }
+
+    /**
+     * Writes the index to a file, replacing it atomically.
+     * 
+     * @param path The file to write
+     * @param tag  The value to store with the index
+     * @throws IOException If there's an error writing the file
+     */
+    public void write(Path path, long tag) throws IOException {
+        FileUtil.writeAtomically(path, out -> {
+            Encoder encoder = new Encoder(out);
+            encoder.writeInt(MAGIC);
+            encoder.writeVarLong(FORMAT_VERSION);
+            encoder.writeLong(tag);
+            encoder.writeVarLong(postings.size());
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                byte[] token = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                encoder.writeVarLong(token.length);
+                encoder.write(token);
+                Postings list = entry.getValue();
+                encoder.writeVarLong(list.size);
+                long previous = 0;
+                for (int i = 0; i < list.size; i++) {
+                    encoder.writeVarLong(list.ids[i] - previous);
+                    previous = list.ids[i];
+                }
+            }
+            encoder.flush();
+        });
+    }
+
+    /**
+     * Reads an index written by {@link #write(Path, long)}, if it was written
+     * with the given tag.
+     * 
+     * @param path The file to read
+     * @param tag  The value the index must have been stored with
+     * @return The index, or null if the file doesn't exist or has another tag
+     * @throws IOException              If there's an error reading the file
+     * @throws IllegalArgumentException If the file is not a valid index
+     */
+    public static InvertedIndex read(Path path, long tag) throws IOException {
+        byte[] data;
+        try {
+            data = Files.readAllBytes(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        Decoder decoder = new Decoder(data);
+        if (decoder.readInt() != MAGIC || decoder.readVarLong() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Not a search index file");
+        }
+        if (decoder.readLong() != tag) {
+            return null;
+        }
+        int tokens = decoder.readCount();
+        InvertedIndex index = new InvertedIndex(tokens);
+        for (int i = 0; i < tokens; i++) {
+            String token = decoder.readString(decoder.readCount());
+            Postings list = new Postings(decoder.readCount());
+            long id = 0;
+            for (int j = 0; j < list.ids.length; j++) {
+                id += decoder.readVarLong();
+                list.ids[j] = id;
+            }
+            list.size = list.ids.length;
+            index.postings.put(token, list);
+        }
+        if (decoder.position != data.length) {
+            throw new IllegalArgumentException("Unexpected data at the end of the search index");
+        }
+        return index;
+    }
+
+    /**
+     * Replaces the tag of an index written by {@link #write(Path, long)} in
+     * place, if it still has the expected tag, without rewriting the posting
+     * lists. For data that changed in a way that leaves the index as it was.
+     * 
+     * @param path   The index file
+     * @param oldTag The value the index must have been stored with
+     * @param newTag The value to store instead
+     * @return true if the tag was replaced, false if the file doesn't exist
+     *         or has another tag
+     * @throws IOException              If there's an error reading or writing
+     *                                  the file
+     * @throws IllegalArgumentException If the file is not a valid index
+     */
+    public static boolean retag(Path path, long oldTag, long newTag) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        try (channel) {
+            ByteBuffer header = ByteBuffer.allocate(TAG_OFFSET + Long.BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IllegalArgumentException("Truncated search index");
+                }
+            }
+            if (header.getInt(0) != MAGIC || header.get(4) != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Not a search index file");
+            }
+            if (header.getLong(TAG_OFFSET) != oldTag) {
+                return false;
+            }
+            ByteBuffer tag = ByteBuffer.allocate(Long.BYTES).putLong(0, newTag);
+            while (tag.hasRemaining()) {
+                channel.write(tag, TAG_OFFSET + tag.position());
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The sorted IDs of one token.
+     */
+    private static final class Postings {
+        long[] ids;
+        int size;
+
+        Postings() {
+            this(4);
+        }
+
+        Postings(int capacity) {
+            ids = new long[capacity];
+        }
+
+        void add(long id) {
+            int at = size;
+            if (size > 0 && ids[size - 1] >= id) {
+                at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return;
+                }
+                at = -at - 1;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+    }
+
+    /**
+     * Writes fixed and variable-length numbers through a buffer.
+     */
+    private static final class Encoder {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+
+        Encoder(OutputStream out) {
+            this.out = out;
+        }
+
+        void writeInt(int value) throws IOException {
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                writeByte(value >>> shift);
+            }
+        }
+
+        void writeLong(long value) throws IOException {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        /**
+         * Writes an unsigned number seven bits at a time, low bits first.
+         */
+        void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void write(byte[] bytes) throws IOException {
+            for (byte b : bytes) {
+                writeByte(b);
+            }
+        }
+
+        void writeByte(int b) throws IOException {
+            if (position == buffer.length) {
+                flush();
+            }
+            buffer[position++] = (byte) b;
+        }
+
+        void flush() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    /**
+     * Reads the numbers written by {@link Encoder} from a byte array.
+     */
+    private static final class Decoder {
+        private final byte[] data;
+        private int position;
+
+        Decoder(byte[] data) {
+            this.data = data;
+        }
+
+        int readInt() {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                value = value << 8 | readByte();
+            }
+            return value;
+        }
+
+        long readLong() {
+            return (long) readInt() << 32 | readInt() & 0xFFFFFFFFL;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed number in the search index");
+        }
+
+        /**
+         * Reads a count, which must fit in the rest of the data.
+         */
+        int readCount() {
+            long count = readVarLong();
+            if (count < 0 || count > data.length - position) {
+                throw new IllegalArgumentException("Malformed count in the search index");
+            }
+            return (int) count;
+        }
+
+        String readString(int length) {
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        int readByte() {
+            if (position == data.length) {
+                throw new IllegalArgumentException("Truncated search index");
+            }
+            return data[position++] & 0xFF;
+        }
+    }
+}
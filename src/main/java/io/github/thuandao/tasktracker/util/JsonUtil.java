@@ -3,12 +3,20 @@ package io.github.thuandao.tasktracker.util;
 import io.github.thuandao.tasktracker.model.Task;
 import io.github.thuandao.tasktracker.model.TaskStatus;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Utility class for JSON serialization and deserialization.
@@ -29,15 +37,13 @@ public class JsonUtil {
      * @return A formatted JSON array string representing the tasks
      */
     public static String toJson(List<Task> tasks) {
-        StringBuilder json = new StringBuilder("[\n");
-        for (int i = 0; i < tasks.size(); i++) {
-            json.append("  ").append(toJson(tasks.get(i)));
-            if (i < tasks.size() - 1) {
-                json.append(",");
-            }
-            json.append("\n");
+        StringWriter json = new StringWriter();
+        try {
+            writeJson(tasks, json);
+        } catch (IOException e) {
+            // A StringWriter never fails to write
+            throw new UncheckedIOException(e);
         }
-        json.append("]");
         return json.toString();
     }
 
@@ -48,120 +54,790 @@ public class JsonUtil {
      * @return A JSON object string representing the task
      */
     public static String toJson(Task task) {
-        return String.format(
-                "{\"id\": %d, \"description\": \"%s\", \"status\": \"%s\", \"createdAt\": \"%s\", \"updatedAt\": \"%s\"}",
-                task.getId(),
-                escapeJson(task.getDescription()), // Escape special characters in description
-                task.getStatus(),
-                task.getCreatedAt().format(formatter), // Format dates as ISO strings
-                task.getUpdatedAt().format(formatter));
+        StringWriter json = new StringWriter();
+        try {
+            Serializer serializer = new Serializer(json);
+            serializer.writeTask(task);
+            serializer.flush();
+        } catch (IOException e) {
+            // A StringWriter never fails to write
+            throw new UncheckedIOException(e);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Streams a list of tasks as a JSON array to an output stream, encoded as
+     * UTF-8. Tasks are written one at a time through a fixed-size buffer, so
+     * memory use does not grow with the number of tasks. The stream is flushed
+     * but not closed.
+     * 
+     * @param tasks The tasks to write
+     * @param out   The stream to write the JSON to
+     * @throws IOException If there's an error writing to the stream
+     */
+    public static void writeJson(Iterable<Task> tasks, OutputStream out) throws IOException {
+        writeJson(tasks, new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Streams a list of tasks as a JSON array to a writer. The writer is
+     * flushed but not closed.
+     * 
+     * @param tasks  The tasks to write
+     * @param writer The writer to write the JSON to
+     * @throws IOException If there's an error writing to the writer
+     */
+    public static void writeJson(Iterable<Task> tasks, Writer writer) throws IOException {
+        Serializer serializer = new Serializer(writer);
+        serializer.write('[');
+        serializer.write('\n');
+        boolean first = true;
+        for (Task task : tasks) {
+            if (!first) {
+                serializer.write(',');
+                serializer.write('\n');
+            }
+            serializer.write(' ');
+            serializer.write(' ');
+            serializer.writeTask(task);
+            first = false;
+        }
+        if (!first) {
+            serializer.write('\n');
+        }
+        serializer.write(']');
+        serializer.flush();
+    }
+
+    /**
+     * Streams tasks as newline-delimited JSON (NDJSON): one JSON object per
+     * task, each on its own line. The writer is flushed but not closed.
+     * 
+     * @param tasks  The tasks to write
+     * @param writer The writer to write the lines to
+     * @throws IOException If there's an error writing to the writer
+     */
+    public static void writeJsonLines(Iterable<Task> tasks, Writer writer) throws IOException {
+        Serializer serializer = new Serializer(writer);
+        for (Task task : tasks) {
+            serializer.writeTask(task);
+            serializer.write('\n');
+        }
+        serializer.flush();
     }
 
     /**
      * Parses a JSON string into a list of Task objects.
-     * Uses regex patterns to extract task data from the JSON.
      * 
      * @param json The JSON string to parse
      * @return A list of Task objects parsed from the JSON
+     * @throws IllegalArgumentException If the JSON is malformed
      */
     public static List<Task> fromJson(String json) {
-        List<Task> tasks = new ArrayList<>();
-
         // Handle empty or null JSON
-        if (json == null || json.trim().isEmpty() || json.trim().equals("[]")) {
-            return tasks;
+        if (json == null || json.isBlank()) {
+            return new ArrayList<>();
         }
 
-        // Use regex to find all JSON objects in the string
-        Pattern taskPattern = Pattern.compile("\\{[^}]+\\}");
-        Matcher matcher = taskPattern.matcher(json);
-
-        // Parse each JSON object into a Task
-        while (matcher.find()) {
-            String taskJson = matcher.group();
-            tasks.add(parseTask(taskJson));
+        try {
+            return fromJson(new StringReader(json));
+        } catch (IOException e) {
+            // A StringReader never fails to read
+            throw new UncheckedIOException(e);
         }
+    }
 
-        return tasks;
+    /**
+     * Parses a JSON array of tasks straight from a reader.
+     * The input is scanned once, character by character, and each task is
+     * created directly from its fields without extracting intermediate
+     * substrings. The reader is not closed.
+     * 
+     * @param reader The reader to parse the JSON from
+     * @return A list of Task objects parsed from the JSON
+     * @throws IOException              If there's an error reading from the reader
+     * @throws IllegalArgumentException If the JSON is malformed
+     */
+    public static List<Task> fromJson(Reader reader) throws IOException {
+        return new Parser(reader).parseTasks();
     }
 
     /**
-     * Parses a single JSON object string into a Task object.
-     * Uses regex patterns to extract each field from the JSON.
+     * Parses a single JSON task object, as produced by {@link #toJson(Task)}.
      * 
      * @param json The JSON object string to parse
-     * @return A Task object with properties set from the JSON
+     * @return The parsed task
+     * @throws IllegalArgumentException If the JSON is malformed
      */
-    private static Task parseTask(String json) {
-        Task task = new Task();
+    public static Task taskFromJson(String json) {
+        try {
+            return new Parser(new StringReader(json)).parseSingleTask();
+        } catch (IOException e) {
+            // A StringReader never fails to read
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Buffered writer for task JSON. Escaping, numbers and timestamps are
+     * written straight into a reusable char buffer instead of going through
+     * String.format and intermediate strings.
+     */
+    private static final class Serializer {
+        /**
+         * Size of the write buffer, in characters.
+         */
+        private static final int BUFFER_SIZE = 16 * 1024;
+
+        /**
+         * Hex digits used for unicode escapes.
+         */
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private final Writer writer;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int position;
+
+        /**
+         * Scratch buffer reused when a timestamp has to go through the formatter.
+         */
+        private final StringBuilder scratch = new StringBuilder(32);
 
-        // Parse ID using regex
-        Pattern idPattern = Pattern.compile("\"id\":\\s*(\\d+)");
-        Matcher idMatcher = idPattern.matcher(json);
-        if (idMatcher.find()) {
-            task.setId(Long.parseLong(idMatcher.group(1)));
+        Serializer(Writer writer) {
+            this.writer = writer;
         }
 
-        // Parse description using regex
-        Pattern descPattern = Pattern.compile("\"description\":\\s*\"([^\"]*)\"");
-        Matcher descMatcher = descPattern.matcher(json);
-        if (descMatcher.find()) {
-            task.setDescription(unescapeJson(descMatcher.group(1)));
+        /**
+         * Writes a single task as a JSON object, in the same layout the previous
+         * String.format based implementation produced.
+         */
+        void writeTask(Task task) throws IOException {
+            write("{\"id\": ");
+            if (task.getId() == null) {
+                write("null");
+            } else {
+                writeLong(task.getId());
+            }
+            write(", \"description\": \"");
+            writeEscaped(task.getDescription());
+            write("\", \"status\": ");
+            if (task.getStatus() == null) {
+                write("null");
+            } else {
+                write('"');
+                write(task.getStatus().name());
+                write('"');
+            }
+            write(", \"createdAt\": ");
+            writeDateTime(task.getCreatedAt());
+            write(", \"updatedAt\": ");
+            writeDateTime(task.getUpdatedAt());
+            write('}');
         }
 
-        // Parse status using regex
-        Pattern statusPattern = Pattern.compile("\"status\":\\s*\"([^\"]*)\"");
-        Matcher statusMatcher = statusPattern.matcher(json);
-        if (statusMatcher.find()) {
-            task.setStatus(TaskStatus.valueOf(statusMatcher.group(1)));
+        /**
+         * Writes a string with JSON escaping. A null string is written as empty.
+         */
+        private void writeEscaped(String text) throws IOException {
+            if (text == null) {
+                return;
+            }
+            int length = text.length();
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '"' -> write('\\', '"');
+                    case '\\' -> write('\\', '\\');
+                    case '\n' -> write('\\', 'n');
+                    case '\r' -> write('\\', 'r');
+                    case '\t' -> write('\\', 't');
+                    default -> {
+                        if (c < 0x20) {
+                            // Remaining control characters are not allowed raw in JSON strings
+                            write('\\', 'u');
+                            write('0', '0');
+                            write(HEX[c >> 4], HEX[c & 0xF]);
+                        } else {
+                            write(c);
+                        }
+                    }
+                }
+            }
         }
 
-        // Parse dates using regex
-        Pattern datePattern = Pattern.compile("\"(createdAt|updatedAt)\":\\s*\"([^\"]*)\"");
-        Matcher dateMatcher = datePattern.matcher(json);
-        while (dateMatcher.find()) {
-            LocalDateTime dateTime = LocalDateTime.parse(dateMatcher.group(2), formatter);
-            // If we found createdAt, recreate the task to set both createdAt and proper
-            // defaults
-            if (dateMatcher.group(1).equals("createdAt")) {
-                task = new Task(task.getId(), task.getDescription());
+        /**
+         * Writes the decimal digits of a number without creating a string.
+         */
+        private void writeLong(long value) throws IOException {
+            if (value == Long.MIN_VALUE) {
+                write(Long.toString(value));
+                return;
+            }
+            if (value < 0) {
+                write('-');
+                value = -value;
             }
+            ensureCapacity(19);
+            int digits = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            int end = position + digits;
+            for (int i = end - 1; i >= position; i--) {
+                buffer[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            position = end;
         }
 
-        return task;
-    }
+        /**
+         * Writes a quoted ISO-8601 local date-time, or null. Four-digit years are
+         * formatted by hand into the buffer with exactly the output of
+         * {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}; other years go through
+         * the cached formatter.
+         */
+        private void writeDateTime(LocalDateTime dateTime) throws IOException {
+            if (dateTime == null) {
+                write("null");
+                return;
+            }
+            write('"');
+            int year = dateTime.getYear();
+            if (year >= 0 && year <= 9999) {
+                ensureCapacity(29);
+                writeDigits(year, 4);
+                buffer[position++] = '-';
+                writeDigits(dateTime.getMonthValue(), 2);
+                buffer[position++] = '-';
+                writeDigits(dateTime.getDayOfMonth(), 2);
+                buffer[position++] = 'T';
+                writeDigits(dateTime.getHour(), 2);
+                buffer[position++] = ':';
+                writeDigits(dateTime.getMinute(), 2);
+                buffer[position++] = ':';
+                writeDigits(dateTime.getSecond(), 2);
+                int nano = dateTime.getNano();
+                if (nano > 0) {
+                    // Fraction of second with trailing zeros removed
+                    int digits = 9;
+                    while (nano % 10 == 0) {
+                        nano /= 10;
+                        digits--;
+                    }
+                    buffer[position++] = '.';
+                    writeDigits(nano, digits);
+                }
+            } else {
+                scratch.setLength(0);
+                formatter.formatTo(dateTime, scratch);
+                write(scratch);
+            }
+            write('"');
+        }
 
-    /**
-     * Escapes special characters in a string for JSON compatibility.
-     * Handles quotes, newlines, carriage returns, and tabs.
-     * 
-     * @param text The text to escape
-     * @return The escaped text
-     */
-    private static String escapeJson(String text) {
-        if (text == null) {
-            return "";
-        }
-        return text.replace("\"", "\\\"") // Escape double quotes
-                .replace("\n", "\\n") // Escape newlines
-                .replace("\r", "\\r") // Escape carriage returns
-                .replace("\t", "\\t"); // Escape tabs
+        /**
+         * Writes a non-negative number zero-padded to a fixed width. The caller
+         * must have ensured capacity.
+         */
+        private void writeDigits(int value, int width) {
+            for (int i = position + width - 1; i >= position; i--) {
+                buffer[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            position += width;
+        }
+
+        private void write(CharSequence text) throws IOException {
+            int length = text.length();
+            for (int i = 0; i < length; i++) {
+                write(text.charAt(i));
+            }
+        }
+
+        void write(char c) throws IOException {
+            if (position == buffer.length) {
+                flushBuffer();
+            }
+            buffer[position++] = c;
+        }
+
+        private void write(char first, char second) throws IOException {
+            ensureCapacity(2);
+            buffer[position++] = first;
+            buffer[position++] = second;
+        }
+
+        private void ensureCapacity(int length) throws IOException {
+            if (buffer.length - position < length) {
+                flushBuffer();
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            writer.write(buffer, 0, position);
+            position = 0;
+        }
+
+        /**
+         * Writes out any buffered characters and flushes the underlying writer.
+         */
+        void flush() throws IOException {
+            flushBuffer();
+            writer.flush();
+        }
     }
 
     /**
-     * Unescapes special characters in a JSON string.
-     * Reverses the escaping done by escapeJson.
-     * 
-     * @param text The JSON text to unescape
-     * @return The unescaped text
+     * Single-pass scanner that reads a JSON array of task objects from a reader.
+     * Keeps its own read buffer and reuses one scratch buffer for strings, so
+     * the only strings it allocates are the task descriptions themselves, one
+     * per distinct description when descriptions repeat.
      */
-    private static String unescapeJson(String text) {
-        if (text == null) {
-            return "";
-        }
-        return text.replace("\\\"", "\"") // Unescape double quotes
-                .replace("\\n", "\n") // Unescape newlines
-                .replace("\\r", "\r") // Unescape carriage returns
-                .replace("\\t", "\t"); // Unescape tabs
+    private static final class Parser {
+        /**
+         * Size of the read buffer, in characters.
+         */
+        private static final int BUFFER_SIZE = 16 * 1024;
+
+        /**
+         * The task statuses, cached to avoid cloning the values array per task.
+         */
+        private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private final StringBuilder scratch = new StringBuilder(64);
+
+        /**
+         * Shares one string between tasks with the same description.
+         */
+        private final StringCache descriptions = new StringCache();
+        private int position;
+        private int limit;
+
+        /**
+         * Number of characters consumed before the current buffer, used for error
+         * messages.
+         */
+        private long consumed;
+
+        Parser(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Parses the whole input as an array of task objects.
+         * Empty input is treated as an empty array.
+         * 
+         * @return The parsed tasks
+         * @throws IOException If there's an error reading from the reader
+         */
+        List<Task> parseTasks() throws IOException {
+            List<Task> tasks = new ArrayList<>();
+            if (skipWhitespace() == -1) {
+                return tasks;
+            }
+            expect('[');
+            if (skipWhitespace() == ']') {
+                position++;
+            } else {
+                while (true) {
+                    tasks.add(parseTask());
+                    int next = skipWhitespace();
+                    position++;
+                    if (next == ']') {
+                        break;
+                    }
+                    if (next != ',') {
+                        throw error("Expected ',' or ']' after task");
+                    }
+                }
+            }
+            if (skipWhitespace() != -1) {
+                throw error("Unexpected content after task array");
+            }
+            return tasks;
+        }
+
+        /**
+         * Parses the whole input as a single task object.
+         * 
+         * @return The parsed task
+         * @throws IOException If there's an error reading from the reader
+         */
+        Task parseSingleTask() throws IOException {
+            Task task = parseTask();
+            if (skipWhitespace() != -1) {
+                throw error("Unexpected content after task");
+            }
+            return task;
+        }
+
+        /**
+         * Parses a single task object. Unknown fields are skipped, missing
+         * timestamps default to the current time and a missing status defaults to
+         * TODO.
+         */
+        private Task parseTask() throws IOException {
+            Long id = null;
+            String description = null;
+            TaskStatus status = TaskStatus.TODO;
+            LocalDateTime createdAt = null;
+            LocalDateTime updatedAt = null;
+
+            skipWhitespace();
+            expect('{');
+            if (skipWhitespace() == '}') {
+                position++;
+            } else {
+                while (true) {
+                    skipWhitespace();
+                    expect('"');
+                    readString();
+                    skipWhitespace();
+                    expect(':');
+
+                    if (isScratch("id")) {
+                        id = readNullableLong();
+                    } else if (isScratch("description")) {
+                        description = readNullableString() ? descriptions.get(scratch) : null;
+                    } else if (isScratch("status")) {
+                        if (readNullableString()) {
+                            status = toStatus();
+                        }
+                    } else if (isScratch("createdAt")) {
+                        createdAt = readNullableString() ? toDateTime() : null;
+                    } else if (isScratch("updatedAt")) {
+                        updatedAt = readNullableString() ? toDateTime() : null;
+                    } else {
+                        skipValue();
+                    }
+
+                    int next = skipWhitespace();
+                    position++;
+                    if (next == '}') {
+                        break;
+                    }
+                    if (next != ',') {
+                        throw error("Expected ',' or '}' in task");
+                    }
+                }
+            }
+
+            if (createdAt == null) {
+                createdAt = LocalDateTime.now();
+            }
+            if (updatedAt == null) {
+                updatedAt = createdAt;
+            }
+            return new Task(id, description, status, createdAt, updatedAt);
+        }
+
+        /**
+         * Reads a whole number or a null literal.
+         */
+        private Long readNullableLong() throws IOException {
+            int c = skipWhitespace();
+            if (c == 'n') {
+                expectLiteral("null");
+                return null;
+            }
+            boolean negative = c == '-';
+            if (negative) {
+                position++;
+                c = peek();
+            }
+            if (c < '0' || c > '9') {
+                throw error("Expected a number");
+            }
+            long value = 0;
+            while (c >= '0' && c <= '9') {
+                value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+                position++;
+                c = peek();
+            }
+            return negative ? -value : value;
+        }
+
+        /**
+         * Reads a string or a null literal into the scratch buffer.
+         * 
+         * @return true if a string was read, false for null
+         */
+        private boolean readNullableString() throws IOException {
+            if (skipWhitespace() == 'n') {
+                expectLiteral("null");
+                return false;
+            }
+            expect('"');
+            readString();
+            return true;
+        }
+
+        /**
+         * Reads the rest of a string whose opening quote has already been consumed
+         * into the scratch buffer, decoding escape sequences along the way.
+         * Unknown escapes are kept verbatim so that files written before
+         * backslashes were escaped still load.
+         */
+        private void readString() throws IOException {
+            scratch.setLength(0);
+            while (true) {
+                // Copy runs of plain characters in bulk
+                int start = position;
+                while (position < limit) {
+                    char c = buffer[position];
+                    if (c == '"' || c == '\\') {
+                        break;
+                    }
+                    position++;
+                }
+                scratch.append(buffer, start, position - start);
+                if (position == limit) {
+                    if (!fill()) {
+                        throw error("Unterminated string");
+                    }
+                    continue;
+                }
+
+                if (buffer[position++] == '"') {
+                    return;
+                }
+                int escaped = read();
+                switch (escaped) {
+                    case '"', '\\', '/' -> scratch.append((char) escaped);
+                    case 'n' -> scratch.append('\n');
+                    case 'r' -> scratch.append('\r');
+                    case 't' -> scratch.append('\t');
+                    case 'b' -> scratch.append('\b');
+                    case 'f' -> scratch.append('\f');
+                    case 'u' -> scratch.append(readHexChar());
+                    case -1 -> throw error("Unterminated string");
+                    default -> scratch.append('\\').append((char) escaped);
+                }
+            }
+        }
+
+        /**
+         * Reads the four hex digits of a unicode escape.
+         */
+        private char readHexChar() throws IOException {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(read(), 16);
+                if (digit < 0) {
+                    throw error("Invalid unicode escape");
+                }
+                value = (value << 4) | digit;
+            }
+            return (char) value;
+        }
+
+        /**
+         * Skips over the value of a field this parser does not know about.
+         */
+        private void skipValue() throws IOException {
+            int c = skipWhitespace();
+            switch (c) {
+                case '"' -> {
+                    position++;
+                    readString();
+                }
+                case '{', '[' -> skipContainer();
+                case -1 -> throw error("Expected a value");
+                default -> {
+                    // Numbers and literals run until the next delimiter
+                    while (c != -1 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+                        position++;
+                        c = peek();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Skips a nested object or array, honouring strings that contain brackets.
+         */
+        private void skipContainer() throws IOException {
+            int depth = 0;
+            do {
+                switch (read()) {
+                    case '{', '[' -> depth++;
+                    case '}', ']' -> depth--;
+                    case '"' -> readString();
+                    case -1 -> throw error("Unterminated value");
+                    default -> {
+                        // Any other character inside the container is ignored
+                    }
+                }
+            } while (depth > 0);
+        }
+
+        /**
+         * Maps the status name in the scratch buffer to its enum constant.
+         */
+        private TaskStatus toStatus() {
+            for (TaskStatus status : STATUSES) {
+                if (isScratch(status.name())) {
+                    return status;
+                }
+            }
+            throw error("Unknown task status: " + scratch);
+        }
+
+        /**
+         * Converts the ISO-8601 local date-time in the scratch buffer, as written by
+         * the serializer. The usual {@code yyyy-MM-ddTHH:mm:ss.SSS}
+         * shape is decoded by hand; anything else goes through the formatter.
+         */
+        private LocalDateTime toDateTime() {
+            int length = scratch.length();
+            if (length >= 19 && length != 20 && length <= 29 && scratch.charAt(4) == '-'
+                    && scratch.charAt(7) == '-' && scratch.charAt(10) == 'T' && scratch.charAt(13) == ':'
+                    && scratch.charAt(16) == ':' && (length == 19 || scratch.charAt(19) == '.')) {
+                int year = digits(0, 4);
+                int month = digits(5, 7);
+                int day = digits(8, 10);
+                int hour = digits(11, 13);
+                int minute = digits(14, 16);
+                int second = digits(17, 19);
+                int nano = length == 19 ? 0 : digits(20, length);
+                if (year >= 0 && month >= 0 && day >= 0 && hour >= 0 && minute >= 0 && second >= 0 && nano >= 0) {
+                    // Scale the fraction up to nanoseconds
+                    for (int i = length - 20; i < 9; i++) {
+                        nano *= 10;
+                    }
+                    try {
+                        return LocalDateTime.of(year, month, day, hour, minute, second, length == 19 ? 0 : nano);
+                    } catch (DateTimeException e) {
+                        throw error("Invalid timestamp: " + scratch);
+                    }
+                }
+            }
+            try {
+                return LocalDateTime.parse(scratch, formatter);
+            } catch (DateTimeException e) {
+                throw error("Invalid timestamp: " + scratch);
+            }
+        }
+
+        /**
+         * Parses the decimal digits in the scratch buffer between the given indexes.
+         * 
+         * @return The value, or -1 if a non-digit is found
+         */
+        private int digits(int from, int to) {
+            int value = 0;
+            for (int i = from; i < to; i++) {
+                char c = scratch.charAt(i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                value = value * 10 + (c - '0');
+            }
+            return value;
+        }
+
+        /**
+         * Checks whether the scratch buffer holds exactly the given text.
+         */
+        private boolean isScratch(String text) {
+            int length = text.length();
+            if (scratch.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (scratch.charAt(i) != text.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Skips whitespace and returns the next character without consuming it.
+         * 
+         * @return The next non-whitespace character, or -1 at end of input
+         */
+        private int skipWhitespace() throws IOException {
+            while (true) {
+                while (position < limit) {
+                    char c = buffer[position];
+                    if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                        return c;
+                    }
+                    position++;
+                }
+                if (!fill()) {
+                    return -1;
+                }
+            }
+        }
+
+        /**
+         * Consumes the given character or fails.
+         */
+        private void expect(char expected) throws IOException {
+            if (read() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        /**
+         * Consumes the given literal or fails.
+         */
+        private void expectLiteral(String literal) throws IOException {
+            for (int i = 0; i < literal.length(); i++) {
+                if (read() != literal.charAt(i)) {
+                    throw error("Expected " + literal);
+                }
+            }
+        }
+
+        /**
+         * Returns the next character without consuming it.
+         */
+        private int peek() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position];
+        }
+
+        /**
+         * Consumes and returns the next character.
+         */
+        private int read() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position++];
+        }
+
+        /**
+         * Refills the buffer from the reader.
+         * 
+         * @return false at end of input
+         */
+        private boolean fill() throws IOException {
+            consumed += limit;
+            position = 0;
+            limit = 0;
+            int read;
+            do {
+                read = reader.read(buffer, 0, buffer.length);
+            } while (read == 0);
+            if (read < 0) {
+                return false;
+            }
+            limit = read;
+            return true;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(
+                    "Malformed tasks JSON at character " + (consumed + position) + ": " + message);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package io.github.thuandao.tasktracker.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Thrown when a {@link ProcessFileLock} could not be taken within its
+ * timeout, because another thread or process kept holding it: the task store
+ * is busy.
+ */
+public class LockTimeoutException extends IOException {
+    /**
+     * Creates an exception for a lock that was not taken in time.
+     * 
+     * @param path    The lock file
+     * @param timeout How long the lock was waited for
+     */
+    public LockTimeoutException(Path path, Duration timeout) {
+        super("Task store is busy: " + path.getFileName() + " stayed locked for more than "
+                + timeout.toMillis() + " ms");
+    }
+}
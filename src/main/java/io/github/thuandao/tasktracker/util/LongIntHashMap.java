@@ -0,0 +1,238 @@
+package io.github.thuandao.tasktracker.util;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from primitive long keys to non-negative int values.
+ * Uses open addressing with linear probing over plain arrays, so lookups
+ * neither box the key nor follow pointers to entry objects. Removal shifts
+ * the following entries of the probe run back instead of leaving tombstones,
+ * so lookups stay short however many keys were removed.
+ */
+public class LongIntHashMap {
+    /**
+     * Value returned for keys that are not in the map.
+     */
+    public static final int NO_VALUE = -1;
+
+    /**
+     * The smallest table size.
+     */
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * The keys, by slot.
+     */
+    private long[] keys;
+
+    /**
+     * The values, by slot; {@link #NO_VALUE} marks an empty slot.
+     */
+    private int[] values;
+
+    /**
+     * The number of keys in the map.
+     */
+    private int size;
+
+    /**
+     * The size at which the table is doubled (75% load).
+     */
+    private int resizeAt;
+
+    /**
+     * Creates an empty map.
+     */
+    public LongIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map sized for the given number of keys.
+     * 
+     * @param expectedSize The number of keys the map should hold without resizing
+     */
+    public LongIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Gets the value for a key.
+     * 
+     * @param key The key to look up
+     * @return The value, or {@link #NO_VALUE} if the key is not in the map
+     */
+    public int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            int value = values[slot];
+            if (value == NO_VALUE || keys[slot] == key) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the map contains a key.
+     * 
+     * @param key The key to look for
+     * @return true if the key is in the map
+     */
+    public boolean containsKey(long key) {
+        return get(key) != NO_VALUE;
+    }
+
+    /**
+     * Associates a value with a key, replacing any previous value.
+     * 
+     * @param key   The key
+     * @param value The value, which must not be negative
+     * @return The previous value, or {@link #NO_VALUE} if there was none
+     * @throws IllegalArgumentException If the value is negative
+     */
+    public int put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (values[slot] != NO_VALUE) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Removes a key from the map.
+     * 
+     * @param key The key to remove
+     * @return The removed value, or {@link #NO_VALUE} if the key was not in the map
+     */
+    public int remove(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (values[slot] != NO_VALUE) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                shiftBack(slot, mask);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Gets the number of keys in the map.
+     * 
+     * @return The number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all keys, keeping the current table size.
+     */
+    public void clear() {
+        Arrays.fill(values, NO_VALUE);
+        size = 0;
+    }
+
+    /**
+     * Empties a slot and moves later entries of the same probe run into the
+     * gap where their own home slot allows it, so no probe run is cut short.
+     * 
+     * @param gap  The slot to empty
+     * @param mask The table mask
+     */
+    private void shiftBack(int gap, int mask) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == NO_VALUE) {
+                break;
+            }
+            int home = slot(keys[slot], mask);
+            // Move the entry only if the gap lies on its probe path from home
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        values[gap] = NO_VALUE;
+    }
+
+    /**
+     * Moves all entries into a table of the given size.
+     * 
+     * @param capacity The new table size, a power of two
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != NO_VALUE) {
+                int slot = slot(oldKeys[i], mask);
+                while (values[slot] != NO_VALUE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Allocates empty tables of the given size.
+     * 
+     * @param capacity The table size, a power of two
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NO_VALUE);
+        resizeAt = (int) (capacity * 3L / 4);
+    }
+
+    /**
+     * Computes the home slot of a key. Task IDs are sequential, so the key is
+     * scrambled (Fibonacci hashing) to spread neighbouring IDs over the table.
+     * 
+     * @param key  The key
+     * @param mask The table mask
+     * @return The home slot
+     */
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Computes the table size for an expected number of keys.
+     * 
+     * @param expectedSize The expected number of keys
+     * @return A power of two large enough to hold the keys below 75% load
+     */
+    private static int tableSizeFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) expectedSize * 4 / 3 + 1);
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException("Map too large: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+}
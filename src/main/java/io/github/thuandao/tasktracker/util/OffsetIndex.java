@@ -0,0 +1,425 @@
+package io.github.thuandao.tasktracker.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+
+/**
+ * Sidecar index from the IDs of the records in a data file to the offset and
+ * length of each record, so one record can be read with a positional read of
+ * the index and one of the data file, without reading the rest.
+ * <p>
+ * The index is built from the record offsets reported while the data file is
+ * written or read, in file order, and saved next to it. It records the data
+ * file's identity (its file key, e.g. device and inode) and size. Data files
+ * are replaced on rewrite, so an index written for an earlier file no longer
+ * matches and is ignored; changes in place that leave every record where it
+ * is keep the index valid. Without file keys on the platform no index is
+ * written.
+ * <p>
+ * When the IDs are dense, as IDs handed out one after another are, the
+ * entries form a table indexed by ID and a lookup is a single read. Sparse
+ * IDs are stored as a list sorted by ID and binary searched.
+ * <pre>
+ * header  magic "TTOF" (4), version (2), layout (1), data file size (8),
+ *         entry count (4), first ID (8), key length (2), key (UTF-8)
+ * table   per ID from the first: offset (8, -1 if no record), length (4)
+ * list    per record, by ID: ID (8), offset (8), length (4)
+ * </pre>
+ * Numbers are big-endian.
+ */
+public class OffsetIndex implements Closeable {
+    /**
+     * Magic number at the start of an index file, "TTOF".
+     */
+    private static final int MAGIC = 0x54544F46;
+
+    /**
+     * Version of the file format.
+     */
+    private static final short FORMAT_VERSION = 1;
+
+    /**
+     * Layouts of the entries.
+     */
+    private static final byte TABLE = 0;
+    private static final byte LIST = 1;
+
+    /**
+     * The size of the header without the key.
+     */
+    private static final int FIXED_HEADER_SIZE = 4 + 2 + 1 + 8 + 4 + 8 + 2;
+
+    private static final int TABLE_ENTRY_SIZE = 8 + 4;
+    private static final int LIST_ENTRY_SIZE = 8 + 8 + 4;
+
+    /**
+     * Size of the buffer files are written through.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The position and length of a record in the data file.
+     * 
+     * @param offset The offset of the record's first byte
+     * @param length The length of the record in bytes
+     */
+    public record Location(long offset, int length) {
+    }
+
+    private final FileChannel channel;
+    private final byte layout;
+    private final long dataSize;
+    private final int count;
+    private final long firstId;
+    private final long entriesStart;
+
+    private OffsetIndex(FileChannel channel, byte layout, long dataSize, int count, long firstId,
+            long entriesStart) {
+        this.channel = channel;
+        this.layout = layout;
+        this.dataSize = dataSize;
+        this.count = count;
+        this.firstId = firstId;
+        this.entriesStart = entriesStart;
+    }
+
+    /**
+     * Opens an index if it matches the current data file. Only the header is
+     * read.
+     * 
+     * @param path     The index file
+     * @param dataPath The data file it indexes
+     * @return The index, or null if either file doesn't exist, or the index is
+     *         not valid or was written for another data file
+     * @throws IOException If there's an error reading the files
+     */
+    public static OffsetIndex open(Path path, Path dataPath) throws IOException {
+        String key = fileKey(dataPath);
+        if (key == null) {
+            return null;
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        OffsetIndex index = null;
+        try {
+            index = readHeader(channel, key, Files.size(dataPath));
+            return index;
+        } finally {
+            if (index == null) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Checks whether an index exists that matches the current data file.
+     * 
+     * @param path     The index file
+     * @param dataPath The data file it indexes
+     * @return true if the index can be used
+     * @throws IOException If there's an error reading the files
+     */
+    public static boolean isCurrent(Path path, Path dataPath) throws IOException {
+        try (OffsetIndex index = open(path, dataPath)) {
+            return index != null;
+        }
+    }
+
+    /**
+     * Reads one record of a data file through its index.
+     * 
+     * @param path     The index file
+     * @param dataPath The data file
+     * @param id       The ID of the record
+     * @return The record's bytes, or null if there is no matching index or it
+     *         has no record with the ID
+     * @throws IOException If there's an error reading the files
+     */
+    public static ByteBuffer readRecord(Path path, Path dataPath, long id) throws IOException {
+        try (OffsetIndex index = open(path, dataPath)) {
+            Location location = index != null ? index.find(id) : null;
+            if (location == null) {
+                return null;
+            }
+            try (FileChannel data = FileChannel.open(dataPath, StandardOpenOption.READ)) {
+                ByteBuffer record = ByteBuffer.allocate(location.length());
+                if (data.size() != index.dataSize || !readFully(data, record, location.offset())) {
+                    return null;
+                }
+                return record.flip();
+            }
+        }
+    }
+
+    /**
+     * Finds the record with the given ID.
+     * 
+     * @param id The ID
+     * @return The location of the record, or null if there is none
+     * @throws IOException If there's an error reading the index
+     */
+    public Location find(long id) throws IOException {
+        if (layout == TABLE) {
+            if (id < firstId || id - firstId >= count) {
+                return null;
+            }
+            ByteBuffer entry = readEntry(entriesStart + (id - firstId) * TABLE_ENTRY_SIZE, TABLE_ENTRY_SIZE);
+            return toLocation(entry.getLong(), entry.getInt());
+        }
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            ByteBuffer entry = readEntry(entriesStart + (long) middle * LIST_ENTRY_SIZE, LIST_ENTRY_SIZE);
+            long entryId = entry.getLong();
+            if (entryId < id) {
+                low = middle + 1;
+            } else if (entryId > id) {
+                high = middle - 1;
+            } else {
+                return toLocation(entry.getLong(), entry.getInt());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Closes the index file.
+     * 
+     * @throws IOException If there's an error closing the file
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads and checks the header, including the size of the entries.
+     * 
+     * @return The index, or null if the header doesn't match
+     */
+    private static OffsetIndex readHeader(FileChannel channel, String key, long dataSize) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FIXED_HEADER_SIZE);
+        if (!readFully(channel, header, 0)) {
+            return null;
+        }
+        header.flip();
+        if (header.getInt() != MAGIC || header.getShort() != FORMAT_VERSION) {
+            return null;
+        }
+        byte layout = header.get();
+        long indexedSize = header.getLong();
+        int count = header.getInt();
+        long firstId = header.getLong();
+        ByteBuffer indexedKey = ByteBuffer.allocate(Short.toUnsignedInt(header.getShort()));
+        if ((layout != TABLE && layout != LIST) || count < 0 || indexedSize != dataSize
+                || !readFully(channel, indexedKey, FIXED_HEADER_SIZE)
+                || !key.equals(new String(indexedKey.array(), StandardCharsets.UTF_8))) {
+            return null;
+        }
+        long entriesStart = FIXED_HEADER_SIZE + indexedKey.capacity();
+        long entrySize = layout == TABLE ? TABLE_ENTRY_SIZE : LIST_ENTRY_SIZE;
+        if (channel.size() != entriesStart + count * entrySize) {
+            return null;
+        }
+        return new OffsetIndex(channel, layout, dataSize, count, firstId, entriesStart);
+    }
+
+    private ByteBuffer readEntry(long position, int size) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(size);
+        if (!readFully(channel, entry, position)) {
+            throw new IOException("Offset index truncated while in use");
+        }
+        return entry.flip();
+    }
+
+    private Location toLocation(long offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > dataSize) {
+            return null;
+        }
+        return new Location(offset, length);
+    }
+
+    /**
+     * Fills a buffer from a file, starting at the given position.
+     * 
+     * @return false if the file ended first
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return false;
+            }
+            position += read;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the file key of a data file as a string.
+     * 
+     * @return The key, or null if the file doesn't exist or the platform has
+     *         no file keys
+     */
+    private static String fileKey(Path dataPath) throws IOException {
+        try {
+            Object key = Files.readAttributes(dataPath, BasicFileAttributes.class).fileKey();
+            return key != null ? key.toString() : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Collects the offsets of the records as a data file is written or read,
+     * then writes the index for it.
+     */
+    public static final class Builder implements BinaryUtil.RecordListener {
+        private long[] ids;
+        private long[] offsets;
+        private int size;
+
+        /**
+         * Creates a builder.
+         */
+        public Builder() {
+            this(1024);
+        }
+
+        /**
+         * Creates a builder sized for the given number of records.
+         * 
+         * @param expected The expected number of records
+         */
+        public Builder(int expected) {
+            ids = new long[Math.max(expected, 16)];
+            offsets = new long[ids.length];
+        }
+
+        /**
+         * Records where a record starts. Records must be reported in file
+         * order, as each one is taken to end where the next one starts.
+         * 
+         * @param id     The ID of the record
+         * @param offset The offset of the record in the data file
+         */
+        @Override
+        public void record(long id, long offset) {
+            if (size > 0 && offset <= offsets[size - 1]) {
+                throw new IllegalArgumentException("Records must be reported in file order");
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            ids[size] = id;
+            offsets[size] = offset;
+            size++;
+        }
+
+        /**
+         * Writes the index of the records reported so far, replacing the index
+         * file atomically. The last record is taken to end at the end of the
+         * data file.
+         * 
+         * @param path     The index file
+         * @param dataPath The data file, as written or read
+         * @return false if no index was written, as the platform has no file
+         *         keys
+         * @throws IOException If there's an error reading the data file's
+         *                     attributes or writing the index
+         */
+        public boolean write(Path path, Path dataPath) throws IOException {
+            String key = fileKey(dataPath);
+            if (key == null) {
+                return false;
+            }
+            long dataSize = Files.size(dataPath);
+            int[] lengths = new int[size];
+            for (int i = 0; i < size; i++) {
+                long end = i + 1 < size ? offsets[i + 1] : dataSize;
+                if (end - offsets[i] > Integer.MAX_VALUE || end > dataSize) {
+                    throw new IllegalArgumentException("Record of ID " + ids[i] + " does not fit the data file");
+                }
+                lengths[i] = (int) (end - offsets[i]);
+            }
+
+            long minId = Long.MAX_VALUE;
+            long maxId = Long.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                minId = Math.min(minId, ids[i]);
+                maxId = Math.max(maxId, ids[i]);
+            }
+            long range = size > 0 ? maxId - minId + 1 : 0;
+            boolean table = range >= 0 && range <= 2L * size && range <= Integer.MAX_VALUE;
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            long firstId = size > 0 ? minId : 0;
+
+            FileUtil.writeAtomically(path, out -> {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                buffer.putInt(MAGIC).putShort(FORMAT_VERSION).put(table ? TABLE : LIST).putLong(dataSize)
+                        .putInt(table ? (int) range : size).putLong(firstId)
+                        .putShort((short) keyBytes.length).put(keyBytes);
+                if (table) {
+                    writeTable(buffer, out, lengths, firstId, (int) range);
+                } else {
+                    writeList(buffer, out, lengths);
+                }
+                drain(buffer, out);
+            });
+            return true;
+        }
+
+        private void writeTable(ByteBuffer buffer, OutputStream out, int[] lengths, long firstId, int range)
+                throws IOException {
+            long[] tableOffsets = new long[range];
+            int[] tableLengths = new int[range];
+            Arrays.fill(tableOffsets, -1);
+            for (int i = 0; i < size; i++) {
+                int slot = (int) (ids[i] - firstId);
+                tableOffsets[slot] = offsets[i];
+                tableLengths[slot] = lengths[i];
+            }
+            for (int slot = 0; slot < range; slot++) {
+                if (buffer.remaining() < TABLE_ENTRY_SIZE) {
+                    drain(buffer, out);
+                }
+                buffer.putLong(tableOffsets[slot]).putInt(tableLengths[slot]);
+            }
+        }
+
+        private void writeList(ByteBuffer buffer, OutputStream out, int[] lengths) throws IOException {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(ids[a], ids[b]));
+            for (int i : order) {
+                if (buffer.remaining() < LIST_ENTRY_SIZE) {
+                    drain(buffer, out);
+                }
+                buffer.putLong(ids[i]).putLong(offsets[i]).putInt(lengths[i]);
+            }
+        }
+
+        private static void drain(ByteBuffer buffer, OutputStream out) throws IOException {
+            out.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package io.github.thuandao.tasktracker.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read/write lock shared by all threads and processes working on the same
+ * files, backed by {@link FileChannel#lock} on a lock file.
+ * <p>
+ * File locks are held by the whole JVM, and the JVM refuses a second lock on
+ * a file it already locked, so all users of a lock file within one JVM share
+ * a single instance ({@link #forPath}). Threads of one JVM are coordinated by
+ * that instance; the file lock is taken by the first holder and released by
+ * the last one. Handles are not tied to a thread: a lock may be released by
+ * a different thread than the one that took it.
+ * <p>
+ * The lock file itself is never written or replaced, so it can be locked
+ * while the data files next to it are swapped by atomic renames.
+ * <p>
+ * Locking can be given a timeout, after which a {@link LockTimeoutException}
+ * is thrown; {@link FileChannel#lock} has none, so the file lock is then
+ * polled with {@link FileChannel#tryLock}. The file lock is waited for outside
+ * the instance's monitor, so a thread waiting without a timeout never holds
+ * up the timeouts of other threads.
+ */
+public final class ProcessFileLock {
+    /**
+     * The lock of each lock file used in this JVM.
+     */
+    private static final Map<Path, ProcessFileLock> LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * The longest pause between two attempts to take a file lock held by
+     * another process.
+     */
+    private static final long MAX_POLL_MILLIS = 50;
+
+    /**
+     * A held lock.
+     */
+    public interface Handle extends Closeable {
+        /**
+         * Releases the lock. Releasing a handle more than once has no effect.
+         * 
+         * @throws IOException If the file lock cannot be released
+         */
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * The lock file.
+     */
+    private final Path path;
+
+    /**
+     * The open lock file, or null until first locked.
+     */
+    private FileChannel channel;
+
+    /**
+     * The file lock held on behalf of this JVM, or null if none.
+     */
+    private FileLock fileLock;
+
+    /**
+     * The number of shared holders in this JVM.
+     */
+    private int readers;
+
+    /**
+     * Whether a thread of this JVM holds the lock exclusively.
+     */
+    private boolean writing;
+
+    /**
+     * The number of threads waiting for the exclusive lock; new shared holders
+     * wait for them, so writers are not starved by a stream of readers.
+     */
+    private int waitingWriters;
+
+    /**
+     * Whether a thread of this JVM is taking the file lock. It waits for the
+     * file lock outside the monitor, and other threads wait until it is done.
+     */
+    private boolean acquiring;
+
+    /**
+     * Creates a lock for a lock file.
+     * 
+     * @param path The lock file
+     */
+    private ProcessFileLock(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Gets the lock for a lock file, shared by the whole JVM.
+     * 
+     * @param path The lock file; created on first use
+     * @return The lock
+     */
+    public static ProcessFileLock forPath(Path path) {
+        return LOCKS.computeIfAbsent(path.toAbsolutePath().normalize(), ProcessFileLock::new);
+    }
+
+    /**
+     * Gets the lock file.
+     * 
+     * @return The lock file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Takes the lock shared, waiting for exclusive holders in this and other
+     * processes.
+     * 
+     * @return A handle that releases the lock
+     * @throws IOException If the lock file cannot be locked, or the thread is
+     *                     interrupted while waiting
+     */
+    public Handle lockShared() throws IOException {
+        return lockShared(null);
+    }
+
+    /**
+     * Takes the lock shared, waiting up to a timeout for exclusive holders in
+     * this and other processes.
+     * 
+     * @param timeout How long to wait, or null to wait as long as it takes
+     * @return A handle that releases the lock
+     * @throws LockTimeoutException If the lock is still held exclusively
+     *                              after the timeout
+     * @throws IOException          If the lock file cannot be locked, or the
+     *                              thread is interrupted while waiting
+     */
+    public Handle lockShared(Duration timeout) throws IOException {
+        long deadline = deadline(timeout);
+        synchronized (this) {
+            while (writing || waitingWriters > 0 || acquiring) {
+                await(deadline, timeout);
+            }
+            if (readers > 0) {
+                // The file lock is already held shared on behalf of this JVM
+                readers++;
+                return new Once(this::unlockShared);
+            }
+            acquiring = true;
+        }
+        // The file lock is waited for outside the monitor, so that other
+        // threads of this JVM still time out while another process holds it
+        FileLock lock = null;
+        try {
+            lock = lockFile(true, deadline, timeout);
+        } finally {
+            acquired(lock, true);
+        }
+        return new Once(this::unlockShared);
+    }
+
+    /**
+     * Takes the lock exclusively, waiting for all other holders in this and
+     * other processes.
+     * 
+     * @return A handle that releases the lock
+     * @throws IOException If the lock file cannot be locked, or the thread is
+     *                     interrupted while waiting
+     */
+    public Handle lockExclusive() throws IOException {
+        return lockExclusive(null);
+    }
+
+    /**
+     * Takes the lock exclusively, waiting up to a timeout for all other
+     * holders in this and other processes.
+     * 
+     * @param timeout How long to wait, or null to wait as long as it takes
+     * @return A handle that releases the lock
+     * @throws LockTimeoutException If the lock is still held by others after
+     *                              the timeout
+     * @throws IOException          If the lock file cannot be locked, or the
+     *                              thread is interrupted while waiting
+     */
+    public Handle lockExclusive(Duration timeout) throws IOException {
+        long deadline = deadline(timeout);
+        synchronized (this) {
+            waitingWriters++;
+            try {
+                while (writing || readers > 0 || acquiring) {
+                    await(deadline, timeout);
+                }
+                acquiring = true;
+            } finally {
+                waitingWriters--;
+                notifyAll();
+            }
+        }
+        // The file lock is waited for outside the monitor, so that other
+        // threads of this JVM still time out while another process holds it
+        FileLock lock = null;
+        try {
+            lock = lockFile(false, deadline, timeout);
+        } finally {
+            acquired(lock, false);
+        }
+        return new Once(this::unlockExclusive);
+    }
+
+    /**
+     * Records the outcome of taking the file lock and wakes the threads that
+     * waited for it.
+     * 
+     * @param lock   The file lock, or null if it could not be taken
+     * @param shared Whether the lock was taken shared
+     */
+    private synchronized void acquired(FileLock lock, boolean shared) {
+        acquiring = false;
+        if (lock != null) {
+            fileLock = lock;
+            if (shared) {
+                readers++;
+            } else {
+                writing = true;
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Releases a shared hold, and the file lock with the last one.
+     */
+    private synchronized void unlockShared() throws IOException {
+        try {
+            if (--readers == 0) {
+                releaseFileLock();
+            }
+        } finally {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Releases the exclusive hold and the file lock.
+     */
+    private synchronized void unlockExclusive() throws IOException {
+        try {
+            writing = false;
+            releaseFileLock();
+        } finally {
+            notifyAll();
+        }
+    }
+
+    private void releaseFileLock() throws IOException {
+        FileLock held = fileLock;
+        fileLock = null;
+        if (held != null && held.isValid()) {
+            held.release();
+        }
+    }
+
+    /**
+     * Opens the lock file, once. It stays open for the life of the JVM, as
+     * closing it would drop every lock held through it.
+     */
+    private synchronized FileChannel channel() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+        return channel;
+    }
+
+    /**
+     * Takes the file lock, polling for it until the deadline if a timeout is
+     * given. Called without the monitor held, by the only thread of this JVM
+     * that is taking the file lock, while no thread of this JVM holds it.
+     */
+    private FileLock lockFile(boolean shared, long deadline, Duration timeout) throws IOException {
+        if (timeout == null) {
+            return channel().lock(0, Long.MAX_VALUE, shared);
+        }
+        long pause = 1;
+        while (true) {
+            FileLock lock = channel().tryLock(0, Long.MAX_VALUE, shared);
+            if (lock != null) {
+                return lock;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new LockTimeoutException(path, timeout);
+            }
+            try {
+                Thread.sleep(Math.min(pause, Math.max(1, remaining / 1_000_000)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for " + path);
+            }
+            pause = Math.min(pause * 2, MAX_POLL_MILLIS);
+        }
+    }
+
+    /**
+     * Waits to be notified of a released hold, until the deadline if a
+     * timeout is given.
+     */
+    private void await(long deadline, Duration timeout) throws IOException {
+        try {
+            if (timeout == null) {
+                wait();
+                return;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new LockTimeoutException(path, timeout);
+            }
+            wait(Math.max(1, remaining / 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + path);
+        }
+    }
+
+    private static long deadline(Duration timeout) {
+        return timeout != null ? System.nanoTime() + timeout.toNanos() : 0;
+    }
+
+    /**
+     * Handle that runs its release action only once.
+     */
+    private static final class Once implements Handle {
+        private final Handle release;
+        private boolean released;
+
+        Once(Handle release) {
+            this.release = release;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (!released) {
+                released = true;
+                release.close();
+            }
+        }
+    }
+}
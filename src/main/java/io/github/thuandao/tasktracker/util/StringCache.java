@@ -0,0 +1,76 @@
+package io.github.thuandao.tasktracker.util;
+
+/**
+ * Bounded cache that deduplicates strings while tasks are read, so that
+ * tasks with the same description share one string.
+ * <p>
+ * The cache is direct-mapped: each string goes to the one slot its hash
+ * selects and replaces whatever was there. Lookups are a hash, an array read
+ * and a comparison; the cache never grows beyond its slots, and unlike
+ * {@link String#intern()} it keeps nothing alive once it is dropped. Strings
+ * that collide just aren't shared. Long strings, which rarely repeat, are not
+ * cached.
+ */
+public class StringCache {
+    /**
+     * The default number of slots.
+     */
+    public static final int DEFAULT_SLOTS = 4096;
+
+    /**
+     * Strings longer than this are returned without being cached.
+     */
+    static final int MAX_LENGTH = 256;
+
+    /**
+     * The cached strings, by slot; null marks an empty slot.
+     */
+    private final String[] slots;
+
+    /**
+     * Creates a cache with {@link #DEFAULT_SLOTS} slots.
+     */
+    public StringCache() {
+        this(DEFAULT_SLOTS);
+    }
+
+    /**
+     * Creates a cache with the given number of slots.
+     * 
+     * @param slots The number of slots, rounded up to a power of two
+     * @throws IllegalArgumentException If the number of slots is not positive or over 2^30
+     */
+    public StringCache(int slots) {
+        if (slots <= 0 || slots > 1 << 30) {
+            throw new IllegalArgumentException("Invalid number of slots: " + slots);
+        }
+        this.slots = new String[slots == 1 ? 1 : Integer.highestOneBit(slots - 1) << 1];
+    }
+
+    /**
+     * Gets a string with the given characters, the cached one if there is one.
+     * Only creates a string if the characters are not cached, so a parser can
+     * pass its scratch buffer.
+     * 
+     * @param chars The characters
+     * @return A string equal to the characters
+     */
+    public String get(CharSequence chars) {
+        int length = chars.length();
+        if (length > MAX_LENGTH) {
+            return chars.toString();
+        }
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars.charAt(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (slots.length - 1);
+        String cached = slots[slot];
+        if (cached != null && cached.contentEquals(chars)) {
+            return cached;
+        }
+        String value = chars.toString();
+        slots[slot] = value;
+        return value;
+    }
+}
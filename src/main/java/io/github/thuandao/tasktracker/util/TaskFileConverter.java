@@ -0,0 +1,81 @@
+package io.github.thuandao.tasktracker.util;
+
+import io.github.thuandao.tasktracker.model.Task;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Utility class that migrates task files between the JSON format of
+ * {@link JsonUtil} and the binary format of {@link BinaryUtil}.
+ */
+public class TaskFileConverter {
+
+    /**
+     * The formats a tasks file can be in.
+     */
+    public enum Format {
+        /**
+         * The JSON array written by {@link JsonUtil}.
+         */
+        JSON,
+
+        /**
+         * The binary records written by {@link BinaryUtil}.
+         */
+        BINARY
+    }
+
+    /**
+     * The outcome of a conversion.
+     * 
+     * @param from  The format of the source file
+     * @param to    The format written to the target file
+     * @param tasks The number of tasks converted
+     */
+    public record Conversion(Format from, Format to, int tasks) {
+    }
+
+    /**
+     * Converts a tasks file to the other format: a JSON file to binary, or a
+     * binary file to JSON. The format of the source is detected from its first
+     * bytes. The target is replaced atomically.
+     * 
+     * @param source The file to read
+     * @param target The file to write; may not be the source
+     * @return What was converted
+     * @throws IOException              If there's an error reading or writing
+     * @throws IllegalArgumentException If the source is malformed, or is the
+     *                                  target
+     */
+    public static Conversion convert(Path source, Path target) throws IOException {
+        if (Files.exists(target) && Files.isSameFile(source, target)) {
+            throw new IllegalArgumentException("Source and target must be different files");
+        }
+        Format from;
+        List<Task> tasks;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(source))) {
+            in.mark(4);
+            from = BinaryUtil.isBinary(in.readNBytes(4)) ? Format.BINARY : Format.JSON;
+            in.reset();
+            tasks = from == Format.BINARY
+                    ? BinaryUtil.fromBinary(in)
+                    : JsonUtil.fromJson(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+        Format to = from == Format.BINARY ? Format.JSON : Format.BINARY;
+        FileUtil.writeAtomically(target, out -> {
+            if (to == Format.BINARY) {
+                BinaryUtil.writeBinary(tasks, out);
+            } else {
+                JsonUtil.writeJson(tasks, out);
+            }
+        });
+        return new Conversion(from, to, tasks.size());
+    }
+}
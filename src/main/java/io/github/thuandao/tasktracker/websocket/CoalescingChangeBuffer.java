@@ -0,0 +1,130 @@
+package io.github.thuandao.tasktracker.websocket;
+
+import io.github.thuandao.tasktracker.store.TaskChange;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Bounded buffer of the task changes waiting to be sent to one subscriber.
+ * Changes are keyed by task ID, so repeated changes to the same task while
+ * the subscriber is busy collapse into one that carries the latest state.
+ * The buffer thus grows with the number of distinct tasks changed, not with
+ * the number of changes; if even that passes the capacity, the buffered
+ * changes are dropped and the subscriber is told to reload all tasks.
+ * <p>
+ * The buffer also tracks whether a drain is pending, so that exactly one
+ * sender works on a subscriber at a time.
+ */
+class CoalescingChangeBuffer {
+    /**
+     * The maximum number of distinct tasks buffered.
+     */
+    private final int capacity;
+
+    /**
+     * The pending changes by task ID, in the order each task first changed.
+     */
+    private LinkedHashMap<Long, TaskChange> pending = new LinkedHashMap<>();
+
+    /**
+     * Whether changes were dropped since the last drain.
+     */
+    private boolean overflowed;
+
+    /**
+     * Whether a drain has been requested and not yet found the buffer empty.
+     */
+    private boolean draining;
+
+    /**
+     * Creates a buffer.
+     * 
+     * @param capacity The maximum number of distinct tasks buffered
+     */
+    CoalescingChangeBuffer(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a change, merging it with a pending change to the same task:
+     * a change to a task the subscriber has not been told about yet stays an
+     * addition, an addition followed by a delete cancels out, and otherwise
+     * the later change replaces the earlier one. Never blocks.
+     * 
+     * @param change The change
+     * @return true if the caller must start a drain
+     */
+    synchronized boolean offer(TaskChange change) {
+        if (!overflowed) {
+            TaskChange earlier = pending.get(change.id());
+            if (earlier == null && pending.size() == capacity) {
+                // The subscriber is too far behind: it reloads everything instead
+                pending.clear();
+                overflowed = true;
+            } else {
+                merge(earlier, change);
+            }
+        }
+        if (draining) {
+            return false;
+        }
+        draining = true;
+        return true;
+    }
+
+    /**
+     * Takes the pending changes. When there are none, the drain ends and the
+     * next offer starts a new one.
+     * 
+     * @return The changes, an overflow marker, or null if there is nothing to
+     *         send
+     */
+    synchronized Drained drain() {
+        if (overflowed) {
+            overflowed = false;
+            return new Drained(List.of(), true);
+        }
+        if (pending.isEmpty()) {
+            draining = false;
+            return null;
+        }
+        List<TaskChange> changes = new ArrayList<>(pending.values());
+        pending = new LinkedHashMap<>();
+        return new Drained(changes, false);
+    }
+
+    /**
+     * Gets the number of distinct tasks with pending changes.
+     * 
+     * @return The number of buffered changes
+     */
+    synchronized int size() {
+        return pending.size();
+    }
+
+    private void merge(TaskChange earlier, TaskChange change) {
+        if (earlier == null) {
+            pending.put(change.id(), change);
+        } else if (earlier.type() == TaskChange.Type.ADD) {
+            if (change.type() == TaskChange.Type.DELETE) {
+                pending.remove(change.id());
+            } else {
+                pending.put(change.id(), TaskChange.added(change.task()));
+            }
+        } else {
+            pending.put(change.id(), change);
+        }
+    }
+
+    /**
+     * The result of a drain.
+     * 
+     * @param changes  The changes to send
+     * @param overflow Whether changes were dropped and the subscriber must
+     *                 reload all tasks
+     */
+    record Drained(List<TaskChange> changes, boolean overflow) {
+    }
+}
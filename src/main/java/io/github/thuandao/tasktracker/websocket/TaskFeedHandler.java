@@ -0,0 +1,182 @@
+package io.github.thuandao.tasktracker.websocket;
+
+import io.github.thuandao.tasktracker.service.TaskChangeListener;
+import io.github.thuandao.tasktracker.service.TaskService;
+import io.github.thuandao.tasktracker.store.TaskChange;
+import io.github.thuandao.tasktracker.util.JsonUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * WebSocket endpoint that pushes the changes committed by the task service
+ * to every connected client, so dashboards need not poll.
+ * <p>
+ * Each client gets a {@link CoalescingChangeBuffer}. Committing threads only
+ * add to the buffers and return; sender threads drain them and send
+ * everything pending as one message. A slow client therefore neither holds
+ * up writers nor builds a backlog: while it is busy, further changes to the
+ * same task collapse into one, and a client that falls behind on too many
+ * tasks is told to reload.
+ * <p>
+ * Messages are JSON objects: {@code {"type": "changes", "changes": [...]}}
+ * with one entry {@code {"type": "ADD|UPDATE|STATUS|DELETE", "id": ..., "task": {...}}}
+ * per changed task ({@code task} is null for deletes), or
+ * {@code {"type": "resync"}} when the client must reload all tasks. Messages
+ * from clients are ignored.
+ */
+public class TaskFeedHandler extends TextWebSocketHandler implements TaskChangeListener, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(TaskFeedHandler.class);
+
+    /**
+     * The service whose changes are pushed.
+     */
+    private final TaskService taskService;
+
+    /**
+     * The maximum number of distinct tasks buffered per client.
+     */
+    private final int bufferCapacity;
+
+    /**
+     * The connected clients by session ID.
+     */
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Threads that send the buffered changes; a client is served by at most
+     * one of them at a time.
+     */
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "task-feed-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates the handler and starts listening to the service's changes.
+     * 
+     * @param taskService    The service whose changes are pushed
+     * @param bufferCapacity The maximum number of distinct tasks buffered per
+     *                       client
+     */
+    public TaskFeedHandler(TaskService taskService, int bufferCapacity) {
+        this.taskService = taskService;
+        this.bufferCapacity = bufferCapacity;
+        taskService.addChangeListener(this);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        subscribers.put(session.getId(), new Subscriber(session, new CoalescingChangeBuffer(bufferCapacity)));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        subscribers.remove(session.getId());
+    }
+
+    /**
+     * Adds committed changes to every client's buffer and starts a sender for
+     * the clients that have none running.
+     * 
+     * @param changes The committed changes
+     */
+    @Override
+    public void tasksChanged(List<TaskChange> changes) {
+        for (Subscriber subscriber : subscribers.values()) {
+            boolean startDrain = false;
+            for (TaskChange change : changes) {
+                startDrain |= subscriber.buffer().offer(change);
+            }
+            if (startDrain) {
+                try {
+                    senders.execute(() -> drain(subscriber));
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops listening to the service and stops the senders.
+     */
+    @Override
+    public void destroy() {
+        taskService.removeChangeListener(this);
+        senders.shutdownNow();
+    }
+
+    /**
+     * Sends a client's buffered changes until its buffer is empty. A client
+     * that cannot be written to is disconnected.
+     * 
+     * @param subscriber The client
+     */
+    private void drain(Subscriber subscriber) {
+        CoalescingChangeBuffer.Drained drained;
+        while ((drained = subscriber.buffer().drain()) != null) {
+            try {
+                subscriber.session().sendMessage(new TextMessage(toMessage(drained)));
+            } catch (IOException | RuntimeException e) {
+                log.debug("Dropping task feed client {}", subscriber.session().getId(), e);
+                subscribers.remove(subscriber.session().getId());
+                try {
+                    subscriber.session().close(CloseStatus.SERVER_ERROR);
+                } catch (IOException closeFailure) {
+                    // Already gone
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Encodes a drain as a feed message.
+     * 
+     * @param drained The drained changes
+     * @return The JSON message
+     */
+    static String toMessage(CoalescingChangeBuffer.Drained drained) {
+        if (drained.overflow()) {
+            return "{\"type\": \"resync\"}";
+        }
+        StringBuilder message = new StringBuilder(128 * drained.changes().size() + 32);
+        message.append("{\"type\": \"changes\", \"changes\": [");
+        boolean first = true;
+        for (TaskChange change : drained.changes()) {
+            if (!first) {
+                message.append(", ");
+            }
+            message.append("{\"type\": \"").append(change.type().name())
+                    .append("\", \"id\": ").append(change.id())
+                    .append(", \"task\": ").append(change.task() != null ? JsonUtil.toJson(change.task()) : "null")
+                    .append('}');
+            first = false;
+        }
+        return message.append("]}").toString();
+    }
+
+    /**
+     * A connected client and its buffer.
+     * 
+     * @param session The client's session
+     * @param buffer  The changes waiting to be sent to it
+     */
+    private record Subscriber(WebSocketSession session, CoalescingChangeBuffer buffer) {
+    }
+}
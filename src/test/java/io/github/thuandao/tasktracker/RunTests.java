@@ -2,7 +2,14 @@ package io.github.thuandao.tasktracker;
 
 import io.github.thuandao.tasktracker.model.TaskTest;
 import io.github.thuandao.tasktracker.service.TaskServiceTest;
+import io.github.thuandao.tasktracker.service.TaskTableTest;
+import io.github.thuandao.tasktracker.util.BinaryUtilTest;
+import io.github.thuandao.tasktracker.util.BlockCompressionTest;
+import io.github.thuandao.tasktracker.util.InvertedIndexTest;
 import io.github.thuandao.tasktracker.util.JsonUtilTest;
+import io.github.thuandao.tasktracker.util.LongIntHashMapTest;
+import io.github.thuandao.tasktracker.util.StringCacheTest;
+import io.github.thuandao.tasktracker.websocket.CoalescingChangeBufferTest;
 
 /**
  * Simple test runner class to manually run all tests.
@@ -23,6 +30,8 @@ public class RunTests {
             taskTest.testSetDescription_UpdatesTimestamp();
             taskTest.testSetStatus_UpdatesTimestamp();
             taskTest.testToString();
+            taskTest.testTimestampsAndNullsRoundTrip();
+            taskTest.testTimestampComparators();
             System.out.println("All Task model tests passed!");
         } catch (Exception e) {
             System.err.println("Task model tests failed: " + e.getMessage());
@@ -39,12 +48,115 @@ public class RunTests {
             jsonUtilTest.testFromJson_EmptyArray();
             jsonUtilTest.testFromJson_NullOrEmpty();
             jsonUtilTest.testJsonEscaping();
+            jsonUtilTest.testFromJson_PreservesTimestampsAndStatus();
+            jsonUtilTest.testFromJson_RepeatedDescriptionsAreShared();
+            jsonUtilTest.testFromJson_QuotesAndBracesInDescription();
+            jsonUtilTest.testFromJson_UnicodeEscapesAndUnknownFields();
+            jsonUtilTest.testFromJson_Malformed();
+            jsonUtilTest.testWriteJson_MatchesToJson();
+            jsonUtilTest.testWriteJsonLines_WritesOneObjectPerLine();
+            jsonUtilTest.testToJson_TimestampsMatchIsoFormatter();
+            jsonUtilTest.testToJson_EscapesControlCharactersAndUnicode();
             System.out.println("All JsonUtil tests passed!");
         } catch (Exception e) {
             System.err.println("JsonUtil tests failed: " + e.getMessage());
             e.printStackTrace();
         }
 
+        // Run BinaryUtil tests
+        System.out.println("\n=== Running BinaryUtil tests ===");
+        BinaryUtilTest binaryUtilTest = new BinaryUtilTest();
+        try {
+            binaryUtilTest.testRoundTrip();
+            binaryUtilTest.testMalformedData_IsRejected();
+            binaryUtilTest.testReadRecord_DecodesOneRecordAtItsOffset();
+            binaryUtilTest.testSizeComparedToJson();
+            System.out.println("All BinaryUtil tests passed!");
+        } catch (Exception e) {
+            System.err.println("BinaryUtil tests failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        // Run LongIntHashMap tests
+        System.out.println("\n=== Running LongIntHashMap tests ===");
+        LongIntHashMapTest longIntHashMapTest = new LongIntHashMapTest();
+        try {
+            longIntHashMapTest.testPutGetRemove();
+            longIntHashMapTest.testNegativeValueIsRejected();
+            longIntHashMapTest.testMatchesHashMapUnderRandomOperations();
+            System.out.println("All LongIntHashMap tests passed!");
+        } catch (Exception e) {
+            System.err.println("LongIntHashMap tests failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        // Run StringCache tests
+        System.out.println("\n=== Running StringCache tests ===");
+        StringCacheTest stringCacheTest = new StringCacheTest();
+        try {
+            stringCacheTest.testEqualCharactersShareOneString();
+            stringCacheTest.testCollisionsAndLongStringsAreStillCorrect();
+            System.out.println("All StringCache tests passed!");
+        } catch (Exception e) {
+            System.err.println("StringCache tests failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        // Run InvertedIndex tests
+        System.out.println("\n=== Running InvertedIndex tests ===");
+        InvertedIndexTest invertedIndexTest = new InvertedIndexTest();
+        try {
+            invertedIndexTest.testTokenize();
+            invertedIndexTest.testSearchIntersectsWordsAndFollowsChanges();
+            System.out.println("All InvertedIndex tests passed!");
+        } catch (Exception e) {
+            System.err.println("InvertedIndex tests failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        // Run BlockCompression tests
+        System.out.println("\n=== Running BlockCompression tests ===");
+        BlockCompressionTest blockCompressionTest = new BlockCompressionTest();
+        try {
+            blockCompressionTest.testRoundTrip();
+            blockCompressionTest.testMalformedData_IsRejected();
+            System.out.println("All BlockCompression tests passed!");
+        } catch (Exception e) {
+            System.err.println("BlockCompression tests failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        // Run TaskTable tests
+        System.out.println("\n=== Running TaskTable tests ===");
+        TaskTableTest taskTableTest = new TaskTableTest();
+        try {
+            taskTableTest.testGetPutRemoveKeepOrder();
+            taskTableTest.testMaxIdFollowsRemovals();
+            taskTableTest.testCompactionKeepsIndexValid();
+            taskTableTest.testStatusIndexFollowsChanges();
+            taskTableTest.testPageFollowsIdOrderWithTombstones();
+            taskTableTest.testPageOfUnorderedTasksIsSortedById();
+            taskTableTest.testTopFindsFirstTasksInOrder();
+            taskTableTest.testSearchIndexFollowsChanges();
+            System.out.println("All TaskTable tests passed!");
+        } catch (Exception e) {
+            System.err.println("TaskTable tests failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        // Run CoalescingChangeBuffer tests
+        System.out.println("\n=== Running CoalescingChangeBuffer tests ===");
+        CoalescingChangeBufferTest coalescingChangeBufferTest = new CoalescingChangeBufferTest();
+        try {
+            coalescingChangeBufferTest.testRepeatedChangesToATaskCoalesce();
+            coalescingChangeBufferTest.testOnlyTheFirstOfferStartsADrain();
+            coalescingChangeBufferTest.testOverflowAsksForResync();
+            System.out.println("All CoalescingChangeBuffer tests passed!");
+        } catch (Exception e) {
+            System.err.println("CoalescingChangeBuffer tests failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+
         // Run TaskService tests
         System.out.println("\n=== Running TaskService tests ===");
         TaskServiceTest taskServiceTest = new TaskServiceTest();
@@ -58,6 +170,15 @@ public class RunTests {
             taskServiceTest.testDeleteNonExistentTask();
             taskServiceTest.testUpdateTaskStatus();
             taskServiceTest.testListTasksWithStatusFilter();
+            taskServiceTest.testCountTasks();
+            taskServiceTest.testDeferredCommits_AreWrittenOnFlush();
+            taskServiceTest.testListTasks_ReusesCacheWhileFileIsUnchanged();
+            taskServiceTest.testListTasks_ReloadsWhenFileChangesOnDisk();
+            taskServiceTest.testListTasks_ReturnsCopyOfCache();
+            taskServiceTest.testGetTaskAndListTasksAfter();
+            taskServiceTest.testConcurrentAdds_AreGroupCommitted();
+            taskServiceTest.testFailedCommit_IsReportedAndReloaded();
+            taskServiceTest.testChangeListeners_GetCommittedChangesOnly();
             System.out.println("All TaskService tests passed!");
         } catch (Exception e) {
             System.err.println("TaskService tests failed: " + e.getMessage());
@@ -77,11 +198,21 @@ public class RunTests {
             taskCliRunnerTest.testListCommand();
             taskCliRunnerTest.testListWithStatusFilter();
             taskCliRunnerTest.testNoTasksFound();
+            taskCliRunnerTest.testListWithOffsetAndLimit_PagesThroughTheService();
+            taskCliRunnerTest.testListAsNdjson();
+            taskCliRunnerTest.testListAsTsv_EscapesDescriptions();
+            taskCliRunnerTest.testListAsTsv_WritesMissingFieldsEmpty();
+            taskCliRunnerTest.testListWithInvalidOptions();
+            taskCliRunnerTest.testListSorted_AsksServiceForTopTasks();
+            taskCliRunnerTest.testListSorted_WithInvalidOptions();
+            taskCliRunnerTest.testSearchCommand();
+            taskCliRunnerTest.testSearchCommand_NoMatches();
             taskCliRunnerTest.testInvalidCommand();
             taskCliRunnerTest.testMissingArguments();
             taskCliRunnerTest.testTaskNotFound();
             taskCliRunnerTest.testInvalidTaskId();
             taskCliRunnerTest.testFileIOError();
+            taskCliRunnerTest.testSplitCommandLine();
             taskCliRunnerTest.restoreStreams();
             System.out.println("All TaskCliRunner tests passed!");
         } catch (Exception e) {
@@ -1,27 +1,50 @@
 package io.github.thuandao.tasktracker;
 
 import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskOrder;
 import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.service.TaskNotFoundException;
 import io.github.thuandao.tasktracker.service.TaskService;
+import io.github.thuandao.tasktracker.store.BinaryFileTaskStore;
+import io.github.thuandao.tasktracker.store.JsonFileTaskStore;
+import io.github.thuandao.tasktracker.util.JsonUtil;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -125,13 +148,13 @@ public class TaskCliRunnerTest {
         List<Task> tasks = new ArrayList<>();
         tasks.add(new Task(1L, "Task 1"));
         tasks.add(new Task(2L, "Task 2"));
-        when(taskService.listTasks(null)).thenReturn(tasks);
+        stubPages(tasks, null);
 
         // When
         taskCliRunner.run("list");
 
         // Then
-        verify(taskService).listTasks(null);
+        verify(taskService).listTasksAfter(eq(0L), eq(null), anyInt());
         String output = outContent.toString();
         assertTrue(output.contains("Tasks:"));
         assertTrue(output.contains("Task 1"));
@@ -145,13 +168,13 @@ public class TaskCliRunnerTest {
         Task task = new Task(1L, "Done Task");
         task.setStatus(TaskStatus.DONE);
         tasks.add(task);
-        when(taskService.listTasks(TaskStatus.DONE)).thenReturn(tasks);
+        stubPages(tasks, TaskStatus.DONE);
 
         // When
         taskCliRunner.run("list", "done");
 
         // Then
-        verify(taskService).listTasks(TaskStatus.DONE);
+        verify(taskService).listTasksAfter(eq(0L), eq(TaskStatus.DONE), anyInt());
         String output = outContent.toString();
         assertTrue(output.contains("Tasks (done):"));
         assertTrue(output.contains("Done Task"));
@@ -160,7 +183,7 @@ public class TaskCliRunnerTest {
     @Test
     public void testNoTasksFound() throws IOException {
         // Given
-        when(taskService.listTasks(any())).thenReturn(new ArrayList<>());
+        when(taskService.listTasksAfter(anyLong(), any(), anyInt())).thenReturn(new ArrayList<>());
 
         // When
         taskCliRunner.run("list");
@@ -169,6 +192,166 @@ public class TaskCliRunnerTest {
         assertTrue(outContent.toString().contains("No tasks found"));
     }
 
+    @Test
+    public void testListWithOffsetAndLimit_PagesThroughTheService() throws IOException {
+        // Given more tasks than the list command reads at a time
+        List<Task> tasks = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            tasks.add(new Task(id, "Task " + id));
+        }
+        stubPages(tasks, null);
+
+        // When
+        taskCliRunner.run("list", "--format", "ndjson", "--offset", "1500", "--limit", "1000");
+
+        // Then the lines are tasks 1501 to 2500, in order
+        String[] lines = outContent.toString().split("\n");
+        assertEquals(1000, lines.length);
+        assertEquals(1501, JsonUtil.taskFromJson(lines[0]).getId());
+        assertEquals(2500, JsonUtil.taskFromJson(lines[999]).getId());
+    }
+
+    @Test
+    public void testListAsNdjson() throws IOException {
+        // Given
+        Task task = new Task(1L, "Say \"hi\"");
+        stubPages(List.of(task), null);
+
+        // When
+        taskCliRunner.run("list", "--format", "ndjson");
+
+        // Then the output is just the task's JSON line
+        assertEquals(JsonUtil.toJson(task) + "\n", outContent.toString());
+    }
+
+    @Test
+    public void testListAsTsv_EscapesDescriptions() throws IOException {
+        // Given
+        Task task = new Task(7L, "Line one\nTab\there \\ done");
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        stubPages(List.of(task), TaskStatus.IN_PROGRESS);
+
+        // When
+        taskCliRunner.run("list", "in-progress", "--format", "tsv");
+
+        // Then
+        String[] lines = outContent.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("id\tstatus\tdescription\tcreatedAt\tupdatedAt", lines[0]);
+        assertEquals("7\tin-progress\tLine one\\nTab\\there \\\\ done\t" + task.getCreatedAt() + "\t"
+                + task.getUpdatedAt(), lines[1]);
+    }
+
+    @Test
+    public void testListAsTsv_WritesMissingFieldsEmpty() throws IOException {
+        // Given a task restored without description, status or timestamps
+        Task task = new Task(8L, null, null, null, null);
+        stubPages(List.of(task), null);
+
+        // When
+        taskCliRunner.run("list", "--format", "tsv");
+
+        // Then
+        String[] lines = outContent.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("8\t\t\t\t", lines[1]);
+    }
+
+    @Test
+    public void testListWithInvalidOptions() {
+        // When
+        taskCliRunner.run("list", "--format", "xml");
+        taskCliRunner.run("list", "--limit", "-1");
+        taskCliRunner.run("list", "--offset");
+        taskCliRunner.run("list", "todo", "done");
+
+        // Then
+        String output = outContent.toString();
+        assertTrue(output.contains("Error: Invalid format. Use 'text', 'ndjson', or 'tsv'"));
+        assertTrue(output.contains("Error: '--limit' must be a non-negative number"));
+        assertTrue(output.contains("Error: '--offset' requires a value"));
+        assertTrue(output.contains("Error: 'list' command takes at most one status filter"));
+    }
+
+    @Test
+    public void testListSorted_AsksServiceForTopTasks() throws IOException {
+        // Given
+        when(taskService.listTasksSorted(null, TaskOrder.UPDATED_AT, true, 3))
+                .thenReturn(List.of(new Task(7L, "Newest"), new Task(3L, "Older"), new Task(5L, "Oldest")));
+        when(taskService.listTasksSorted(TaskStatus.TODO, TaskOrder.CREATED_AT, false, 20))
+                .thenReturn(List.of());
+
+        // When
+        taskCliRunner.run("list", "--sort", "updatedAt", "--offset", "1", "--limit", "2", "--format", "ndjson");
+        taskCliRunner.run("list", "todo", "--sort", "createdAt", "--order", "asc", "--limit", "20");
+
+        // Then the newest task is skipped and paging is not used
+        String[] lines = outContent.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(3L, JsonUtil.taskFromJson(lines[0]).getId());
+        assertEquals(5L, JsonUtil.taskFromJson(lines[1]).getId());
+        assertEquals("No tasks found", lines[2].trim());
+        verify(taskService, never()).listTasksAfter(anyLong(), any(), anyInt());
+    }
+
+    @Test
+    public void testListSorted_WithInvalidOptions() {
+        // When
+        taskCliRunner.run("list", "--sort", "priority");
+        taskCliRunner.run("list", "--order", "up");
+
+        // Then
+        String output = outContent.toString();
+        assertTrue(output.contains("Error: Invalid sort key. Use 'id', 'createdAt', or 'updatedAt'"));
+        assertTrue(output.contains("Error: Invalid order. Use 'asc' or 'desc'"));
+    }
+
+    @Test
+    public void testShowCommand() throws IOException {
+        // Given
+        when(taskService.getTask(2L)).thenReturn(new Task(2L, "Fix the login page"));
+        when(taskService.getTask(9L)).thenThrow(new TaskNotFoundException(9L));
+
+        // When
+        taskCliRunner.run("show", "2");
+        taskCliRunner.run("show", "9");
+        taskCliRunner.run("show");
+
+        // Then
+        String output = outContent.toString();
+        assertTrue(output.contains("Task{id=2, description=Fix the login page"));
+        assertTrue(output.contains("Error: Task not found with ID: 9"));
+        assertTrue(output.contains("Error: 'show' command requires an ID"));
+    }
+
+    @Test
+    public void testSearchCommand() throws IOException {
+        // Given
+        when(taskService.searchTasks("fix login")).thenReturn(List.of(new Task(2L, "Fix the login page")));
+
+        // When
+        taskCliRunner.run("search", "fix", "login");
+        taskCliRunner.run("search");
+
+        // Then
+        String output = outContent.toString();
+        assertTrue(output.contains("Tasks matching 'fix login':"));
+        assertTrue(output.contains("description=Fix the login page"));
+        assertTrue(output.contains("Error: 'search' command requires at least one word"));
+    }
+
+    @Test
+    public void testSearchCommand_NoMatches() throws IOException {
+        // Given
+        when(taskService.searchTasks("deploy")).thenReturn(List.of());
+
+        // When
+        taskCliRunner.run("search", "deploy");
+
+        // Then
+        assertTrue(outContent.toString().contains("No tasks found"));
+    }
+
     @Test
     public void testInvalidCommand() {
         // When
@@ -222,4 +405,217 @@ public class TaskCliRunnerTest {
         // Then
         assertTrue(outContent.toString().contains("Error: Failed to access tasks file"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBatchCommand(@TempDir Path tempDir) throws IOException {
+        // Given
+        Path batchFile = tempDir.resolve("commands.txt");
+        Files.writeString(batchFile, String.join("\n",
+                "# Import",
+                "add \"First task\"",
+                "",
+                "add 'Second task'",
+                "mark-done 1",
+                "delete abc",
+                "frobnicate 2"));
+        when(taskService.addTask("First task")).thenReturn(new Task(1L, "First task"));
+        when(taskService.addTask("Second task")).thenReturn(new Task(2L, "Second task"));
+
+        // When
+        taskCliRunner.run("batch", batchFile.toString());
+
+        // Then all commands ran with a single flush at the end
+        InOrder inOrder = inOrder(taskService);
+        inOrder.verify(taskService).setCommitsDeferred(true);
+        inOrder.verify(taskService).addTask("First task");
+        inOrder.verify(taskService).addTask("Second task");
+        inOrder.verify(taskService).updateTaskStatus(1L, TaskStatus.DONE);
+        inOrder.verify(taskService).flush();
+        inOrder.verify(taskService).setCommitsDeferred(false);
+        String output = outContent.toString();
+        assertTrue(output.contains("2: Task added successfully (ID: 1)"));
+        assertTrue(output.contains("4: Task added successfully (ID: 2)"));
+        assertTrue(output.contains("5: Task 1 marked as done"));
+        assertTrue(output.contains("6: Error: Invalid task ID format"));
+        assertTrue(output.contains("7: Error: Unknown command 'frobnicate'"));
+        assertFalse(output.contains("Usage:"));
+        assertTrue(output.contains("Batch complete: 3 succeeded, 2 failed"));
+    }
+
+    @Test
+    public void testConvertCommand(@TempDir Path tempDir) throws IOException {
+        // Given
+        Path json = tempDir.resolve("tasks.json");
+        Path binary = tempDir.resolve("tasks.bin");
+        new JsonFileTaskStore(json).commit(List.of(), () -> List.of(new Task(1L, "First task")));
+
+        // When
+        taskCliRunner.run("convert", json.toString(), binary.toString());
+        taskCliRunner.run("convert", json.toString());
+
+        // Then
+        assertTrue(outContent.toString().contains("Converted 1 tasks from json to binary (" + binary + ")"));
+        assertTrue(outContent.toString().contains("Error: 'convert' command requires a source and a target file"));
+        assertEquals("First task", new BinaryFileTaskStore(binary).load().get(0).getDescription());
+    }
+
+    @Test
+    public void testBatchCommandReadsStandardInput() throws IOException {
+        // When
+        runWithInput("delete 3\n", "batch");
+
+        // Then
+        verify(taskService).deleteTask(3L);
+        verify(taskService).flush();
+        assertTrue(outContent.toString().contains("1: Task 3 deleted successfully"));
+    }
+
+    @Test
+    public void testBatchCommandReportsFailedSave(@TempDir Path tempDir) throws IOException {
+        // Given
+        Path batchFile = tempDir.resolve("commands.txt");
+        Files.writeString(batchFile, "delete 1\n");
+        doThrow(new IOException("Disk full")).when(taskService).flush();
+
+        // When
+        taskCliRunner.run("batch", batchFile.toString());
+
+        // Then
+        String output = outContent.toString();
+        assertTrue(output.contains("Error: Failed to access tasks file - Disk full"));
+        assertFalse(output.contains("Batch complete"));
+        verify(taskService).setCommitsDeferred(false);
+    }
+
+    @Test
+    public void testSplitCommandLine() {
+        // When & Then
+        assertArrayEquals(new String[] { "add", "Buy milk" }, TaskCliRunner.splitCommandLine("add \"Buy milk\""));
+        assertArrayEquals(new String[] { "update", "1", "It's \"done\"" },
+                TaskCliRunner.splitCommandLine("update  1 \"It's \\\"done\\\"\""));
+        assertArrayEquals(new String[] { "add", "" }, TaskCliRunner.splitCommandLine("add ''"));
+        assertArrayEquals(new String[] { "list" }, TaskCliRunner.splitCommandLine("  list  "));
+        assertThrows(IllegalArgumentException.class, () -> TaskCliRunner.splitCommandLine("add \"oops"));
+    }
+
+    @Test
+    public void testBatchImport_SavesAllTasks(@TempDir Path tempDir) throws IOException {
+        // Given a real service and 1,000 add commands
+        Path tasksFile = tempDir.resolve("tasks.json");
+        TaskService service = new TaskService(new JsonFileTaskStore(tasksFile));
+        TaskCliRunner runner = new TaskCliRunner(service);
+        int count = 1_000;
+        StringBuilder commands = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            commands.append("add \"Imported task ").append(i).append("\"\n");
+        }
+        Path batchFile = tempDir.resolve("import.txt");
+        Files.writeString(batchFile, commands);
+
+        // When
+        runner.run("batch", batchFile.toString());
+
+        // Then
+        assertTrue(outContent.toString().contains("Batch complete: " + count + " succeeded, 0 failed"));
+        List<Task> tasks = new JsonFileTaskStore(tasksFile).load();
+        assertEquals(count, tasks.size());
+        assertEquals("Imported task " + count, tasks.get(count - 1).getDescription());
+    }
+
+    @Test
+    public void testShellCommand() throws IOException {
+        // Given
+        taskCliRunner.setShellFlushPolicy(TaskCliRunner.FlushPolicy.ON_EXIT);
+        when(taskService.addTask("Shell task")).thenReturn(new Task(1L, "Shell task"));
+        stubPages(List.of(new Task(1L, "Shell task")), null);
+
+        // When
+        runWithInput("add \"Shell task\"\nlist\nbatch\nflush\nexit\nadd ignored\n", "shell");
+
+        // Then commands are saved by the flush command and again on exit
+        InOrder inOrder = inOrder(taskService);
+        inOrder.verify(taskService).setCommitsDeferred(true);
+        inOrder.verify(taskService).addTask("Shell task");
+        inOrder.verify(taskService).listTasksAfter(eq(0L), eq(null), anyInt());
+        inOrder.verify(taskService, times(2)).flush();
+        inOrder.verify(taskService).setCommitsDeferred(false);
+        verify(taskService, never()).addTask("ignored");
+        String output = outContent.toString();
+        assertTrue(output.contains("task-cli> Task added successfully (ID: 1)"));
+        assertTrue(output.contains("Error: 'batch' cannot be run inside the shell"));
+        assertTrue(output.contains("Changes saved"));
+    }
+
+    @Test
+    public void testShellCommandWithAlwaysFlushPolicy() throws IOException {
+        // Given
+        taskCliRunner.setShellFlushPolicy(TaskCliRunner.FlushPolicy.ALWAYS);
+
+        // When the input ends without an exit command
+        runWithInput("delete 1\n", "shell");
+
+        // Then every command is committed as it runs
+        verify(taskService, times(2)).setCommitsDeferred(false);
+        verify(taskService, never()).setCommitsDeferred(true);
+        verify(taskService).deleteTask(1L);
+    }
+
+    @Test
+    public void testShellCommandWithIntervalFlushPolicy(@TempDir Path tempDir) throws Exception {
+        // Given a real service, saving every 20 ms
+        Path tasksFile = tempDir.resolve("tasks.json");
+        TaskService service = new TaskService(new JsonFileTaskStore(tasksFile));
+        TaskCliRunner runner = new TaskCliRunner(service);
+        runner.setShellFlushPolicy(TaskCliRunner.FlushPolicy.INTERVAL);
+        runner.setShellFlushInterval(Duration.ofMillis(20));
+        PipedOutputStream input = new PipedOutputStream();
+        InputStream originalIn = System.in;
+        System.setIn(new PipedInputStream(input));
+        Thread shell = new Thread(() -> runner.run("shell"));
+
+        try {
+            // When a command is entered and the shell stays open
+            shell.start();
+            input.write("add \"Saved in the background\"\n".getBytes(StandardCharsets.UTF_8));
+            input.flush();
+
+            // Then the change reaches the file without leaving the shell
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (!Files.exists(tasksFile) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, new JsonFileTaskStore(tasksFile).load().size());
+            input.write("exit\n".getBytes(StandardCharsets.UTF_8));
+            input.close();
+            shell.join(5_000);
+        } finally {
+            System.setIn(originalIn);
+        }
+        assertFalse(shell.isAlive());
+    }
+
+    /**
+     * Runs the CLI with the given text as standard input.
+     */
+    private void runWithInput(String input, String... args) {
+        InputStream originalIn = System.in;
+        System.setIn(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+        try {
+            taskCliRunner.run(args);
+        } finally {
+            System.setIn(originalIn);
+        }
+    }
+
+    /**
+     * Makes the mocked service return the given tasks a page at a time, like
+     * {@link TaskService#listTasksAfter}.
+     */
+    private void stubPages(List<Task> tasks, TaskStatus status) throws IOException {
+        when(taskService.listTasksAfter(anyLong(), eq(status), anyInt())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int limit = invocation.getArgument(2);
+            return tasks.stream().filter(task -> task.getId() > afterId).limit(limit).toList();
+        });
+    }
+}
@@ -10,6 +10,7 @@ import org.junit.platform.suite.api.Suite;
 @SelectPackages({
         "io.github.thuandao.tasktracker.model",
         "io.github.thuandao.tasktracker.service",
+        "io.github.thuandao.tasktracker.store",
         "io.github.thuandao.tasktracker.util",
         "io.github.thuandao.tasktracker"
 })
@@ -0,0 +1,149 @@
+package io.github.thuandao.tasktracker.controller;
+
+import io.github.thuandao.tasktracker.exception.GlobalExceptionHandler;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.service.TaskService;
+import io.github.thuandao.tasktracker.store.JsonFileTaskStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for the TaskController class.
+ * Runs the controller in a standalone MockMvc with a task service on a
+ * temporary file.
+ */
+public class TaskControllerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TaskService taskService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        taskService = new TaskService(new JsonFileTaskStore(tempDir.resolve("tasks.json")));
+        TaskController controller = new TaskController();
+        ReflectionTestUtils.setField(controller, "taskService", taskService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    public void testCreateGetUpdateDelete() throws Exception {
+        // When
+        mockMvc.perform(post("/api/tasks").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\": \"Buy groceries\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.result").value("SUCCESS"))
+                .andExpect(jsonPath("$.data.id").value(1))
+                .andExpect(jsonPath("$.data.status").value("TODO"));
+        mockMvc.perform(put("/api/tasks/1").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\": \"Buy groceries and cook dinner\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/api/tasks/1/status").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\": \"DONE\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.status").value("DONE"));
+
+        // Then
+        mockMvc.perform(get("/api/tasks/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.description").value("Buy groceries and cook dinner"))
+                .andExpect(jsonPath("$.data.status").value("DONE"));
+        mockMvc.perform(delete("/api/tasks/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value("SUCCESS"));
+        assertEquals(0, taskService.countTasks(null));
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        // Then
+        mockMvc.perform(get("/api/tasks/42"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.result").value("ERROR"))
+                .andExpect(jsonPath("$.message").value("Task not found with ID: 42"));
+        mockMvc.perform(post("/api/tasks").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\": \"  \"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Task description must not be empty"));
+        mockMvc.perform(post("/api/tasks").contentType(MediaType.APPLICATION_JSON).content("{"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.result").value("ERROR"));
+        mockMvc.perform(get("/api/tasks").param("status", "SOMEDAY"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/tasks").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testListTasks_PagesByKeyset() throws Exception {
+        // Given more tasks than fit in one chunk, every third one done
+        int count = TaskController.CHUNK_SIZE * 2 + 10;
+        taskService.setCommitsDeferred(true);
+        for (int i = 1; i <= count; i++) {
+            taskService.addTask("Task " + i);
+            if (i % 3 == 0) {
+                taskService.updateTaskStatus(i, TaskStatus.DONE);
+            }
+        }
+        taskService.flush();
+
+        // When paging through all tasks, 300 at a time
+        long afterId = 0;
+        int pages = 0;
+        int seen = 0;
+        while (true) {
+            MvcResult result = mockMvc.perform(get("/api/tasks").param("afterId", Long.toString(afterId))
+                    .param("limit", "300"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String body = mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.result").value("SUCCESS"))
+                    .andExpect(jsonPath("$.data.tasks[0].id").value(afterId + 1))
+                    .andReturn().getResponse().getContentAsString();
+            pages++;
+            int tasks = body.split("\"id\"").length - 1;
+            seen += tasks;
+            if (body.endsWith("\"nextAfterId\":null}}")) {
+                break;
+            }
+            afterId += tasks;
+            assertTrue(body.endsWith("\"nextAfterId\":" + afterId + "}}"), body);
+        }
+
+        // Then
+        assertEquals(2, pages);
+        assertEquals(count, seen);
+
+        // And a status filter pages through the matching tasks only
+        MvcResult done = mockMvc.perform(get("/api/tasks").param("status", "DONE").param("afterId", "3")
+                .param("limit", "2"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(done))
+                .andExpect(jsonPath("$.data.tasks.length()").value(2))
+                .andExpect(jsonPath("$.data.tasks[0].id").value(6))
+                .andExpect(jsonPath("$.data.tasks[1].id").value(9))
+                .andExpect(jsonPath("$.data.nextAfterId").value(9));
+        MvcResult empty = mockMvc.perform(get("/api/tasks").param("afterId", Integer.toString(count))).andReturn();
+        mockMvc.perform(asyncDispatch(empty))
+                .andExpect(jsonPath("$.data.tasks.length()").value(0))
+                .andExpect(jsonPath("$.data.nextAfterId").value(nullValue()));
+    }
+}
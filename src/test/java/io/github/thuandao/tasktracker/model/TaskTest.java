@@ -90,4 +90,43 @@ public class TaskTest {
         assertTrue(result.contains("createdAt="));
         assertTrue(result.contains("updatedAt="));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTimestampsAndNullsRoundTrip() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 123456789);
+        LocalDateTime updatedAt = LocalDateTime.of(2025, 3, 1, 8, 30);
+
+        // When
+        Task task = new Task(null, null, null, createdAt, updatedAt);
+        Task copy = new Task(7L, "Copy", TaskStatus.DONE, null, null);
+
+        // Then
+        assertNull(task.getId());
+        assertNull(task.getDescription());
+        assertNull(task.getStatus());
+        assertEquals(createdAt, task.getCreatedAt());
+        assertEquals(updatedAt, task.getUpdatedAt());
+        assertEquals(7L, copy.getId());
+        assertEquals(TaskStatus.DONE, copy.getStatus());
+        assertNull(copy.getCreatedAt());
+        assertNull(copy.getUpdatedAt());
+    }
+
+    @Test
+    public void testTimestampComparators() {
+        // Given
+        LocalDateTime time = LocalDateTime.of(2025, 3, 1, 8, 30);
+        Task older = new Task(1L, "A", TaskStatus.TODO, time, time);
+        Task newer = new Task(2L, "B", TaskStatus.TODO, time, time.plusNanos(1));
+        Task missing = new Task(3L, "C", TaskStatus.TODO, null, null);
+
+        // Then
+        assertTrue(Task.BY_UPDATED_AT.compare(older, newer) < 0);
+        assertTrue(Task.BY_UPDATED_AT.compare(newer, older) > 0);
+        assertTrue(Task.BY_UPDATED_AT.compare(missing, older) < 0);
+        assertEquals(0, Task.BY_CREATED_AT.compare(older, newer));
+        assertEquals(0, Task.BY_CREATED_AT.compare(missing, new Task(4L, "D", null, null, null)));
+        assertTrue(TaskOrder.CREATED_AT.comparator().compare(older, newer) < 0);
+    }
+}
@@ -0,0 +1,184 @@
+package io.github.thuandao.tasktracker.service;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.store.JsonFileTaskStore;
+import io.github.thuandao.tasktracker.store.LogTaskStore;
+import io.github.thuandao.tasktracker.store.TaskStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress tests for TaskService with many concurrent writers: threads of one
+ * service, several services on the same files (each with its own cache, like
+ * separate processes) and separate JVMs.
+ */
+public class TaskServiceConcurrencyTest {
+
+    private static final int SERVICES = 2;
+    private static final int THREADS_PER_SERVICE = 6;
+    private static final int TASKS_PER_THREAD = 15;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testConcurrentWriters_JsonStore_LoseNoUpdates() throws Exception {
+        // Given
+        Path file = tempDir.resolve("tasks.json");
+
+        // When
+        runWriters(() -> new JsonFileTaskStore(file));
+
+        // Then
+        assertAllWritesKept(new JsonFileTaskStore(file).load());
+    }
+
+    @Test
+    public void testConcurrentWriters_LogStore_LoseNoUpdates() throws Exception {
+        // Given a small threshold, so the services rotate and compact the log
+        // under each other's feet
+        Path file = tempDir.resolve("tasks.json");
+        List<LogTaskStore> stores = new ArrayList<>();
+
+        // When
+        runWriters(() -> {
+            LogTaskStore store = new LogTaskStore(file, 8 * 1024);
+            stores.add(store);
+            return store;
+        });
+        for (LogTaskStore store : stores) {
+            store.close();
+        }
+
+        // Then
+        try (LogTaskStore store = new LogTaskStore(file)) {
+            assertAllWritesKept(store.load());
+        }
+    }
+
+    @Test
+    public void testConcurrentProcesses_HandOutUniqueIds() throws Exception {
+        // Given
+        Path file = tempDir.resolve("tasks.json");
+        int processes = 3;
+        int addsPerProcess = 40;
+        String java = ProcessHandle.current().info().command().orElse("java");
+
+        // When several JVMs and this one add tasks to the same file at once
+        List<Process> children = new ArrayList<>();
+        for (int i = 0; i < processes; i++) {
+            children.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    TaskServiceConcurrencyTest.class.getName(), file.toString(), "child-" + i,
+                    Integer.toString(addsPerProcess))
+                    .inheritIO()
+                    .start());
+        }
+        addTasks(new TaskService(new JsonFileTaskStore(file)), "parent", addsPerProcess);
+        for (Process child : children) {
+            assertTrue(child.waitFor(2, TimeUnit.MINUTES), "child process timed out");
+            assertEquals(0, child.exitValue());
+        }
+
+        // Then
+        List<Task> tasks = new JsonFileTaskStore(file).load();
+        assertEquals((processes + 1) * addsPerProcess, tasks.size());
+        Set<Long> ids = new HashSet<>();
+        for (Task task : tasks) {
+            assertTrue(ids.add(task.getId()), "duplicate ID " + task.getId());
+        }
+    }
+
+    /**
+     * Adds tasks from a separate JVM, for the multi-process test.
+     * 
+     * @param args The tasks file, a description prefix and the number of tasks
+     */
+    public static void main(String[] args) throws IOException {
+        addTasks(new TaskService(new JsonFileTaskStore(Path.of(args[0]))), args[1], Integer.parseInt(args[2]));
+    }
+
+    private static void addTasks(TaskService service, String prefix, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            service.addTask(prefix + " " + i);
+        }
+    }
+
+    /**
+     * Runs several services on the same files, each with several threads that
+     * add tasks and then change the status and description of their own tasks
+     * while the others keep writing.
+     */
+    private void runWriters(StoreFactory stores) throws Exception {
+        List<TaskService> services = new ArrayList<>();
+        for (int i = 0; i < SERVICES; i++) {
+            services.add(new TaskService(stores.create()));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(SERVICES * THREADS_PER_SERVICE);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<Long, String> owners = new ConcurrentHashMap<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int s = 0; s < SERVICES; s++) {
+            TaskService service = services.get(s);
+            for (int t = 0; t < THREADS_PER_SERVICE; t++) {
+                String writer = "writer " + s + "-" + t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Long> ids = new ArrayList<>();
+                    for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                        Task task = service.addTask(writer + " task " + i);
+                        assertNull(owners.put(task.getId(), writer), "duplicate ID " + task.getId());
+                        ids.add(task.getId());
+                    }
+                    for (long id : ids) {
+                        service.updateTaskStatus(id, TaskStatus.IN_PROGRESS);
+                        service.updateTask(id, writer + " done");
+                        service.updateTaskStatus(id, TaskStatus.DONE);
+                    }
+                    return null;
+                }));
+            }
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // Every service sees the same tasks as the files
+        for (TaskService service : services) {
+            assertAllWritesKept(service.listTasks(null));
+        }
+    }
+
+    private static void assertAllWritesKept(List<Task> tasks) {
+        assertEquals(SERVICES * THREADS_PER_SERVICE * TASKS_PER_THREAD, tasks.size());
+        Set<Long> ids = new HashSet<>();
+        for (Task task : tasks) {
+            assertTrue(ids.add(task.getId()), "duplicate ID " + task.getId());
+            assertEquals(TaskStatus.DONE, task.getStatus(), "lost status update of " + task.getId());
+            assertTrue(task.getDescription().endsWith(" done"), "lost update of " + task.getId());
+        }
+    }
+
+    @FunctionalInterface
+    private interface StoreFactory {
+        TaskStore create() throws IOException;
+    }
+}
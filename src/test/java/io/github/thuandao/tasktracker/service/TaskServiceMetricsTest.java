@@ -0,0 +1,110 @@
+package io.github.thuandao.tasktracker.service;
+
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.store.JsonFileTaskStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the meters a TaskService publishes through
+ * TaskServiceMetrics.
+ */
+public class TaskServiceMetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path tasksFilePath;
+    private MeterRegistry registry;
+    private TaskService taskService;
+
+    @BeforeEach
+    public void setUp() {
+        tasksFilePath = tempDir.resolve("tasks.json");
+        registry = new SimpleMeterRegistry();
+        taskService = new TaskService(new JsonFileTaskStore(tasksFilePath));
+        taskService.setMeterRegistry(registry);
+    }
+
+    @Test
+    public void testOperationsAndPhasesAreTimed() throws IOException {
+        // When
+        long id = taskService.addTask("Task 1").getId();
+        taskService.updateTaskStatus(id, TaskStatus.DONE);
+        taskService.getTask(id);
+        taskService.listTasks(null);
+
+        // Then
+        assertEquals(1, timerCount("tasktracker.operation", "operation", "add"));
+        assertEquals(1, timerCount("tasktracker.operation", "operation", "status"));
+        assertEquals(1, timerCount("tasktracker.operation", "operation", "get"));
+        assertEquals(1, timerCount("tasktracker.operation", "operation", "list"));
+        assertEquals(1, timerCount("tasktracker.phase", "phase", "load"));
+        assertEquals(2, timerCount("tasktracker.phase", "phase", "mutate"));
+        assertEquals(2, timerCount("tasktracker.phase", "phase", "commit"));
+        assertEquals(2, timerCount("tasktracker.phase", "phase", "snapshot"));
+    }
+
+    @Test
+    public void testCacheHitsAndMisses() throws IOException {
+        // Given
+        taskService.addTask("Task 1");
+
+        // When the tasks are read from memory, then changed by another process
+        taskService.listTasks(null);
+        taskService.countTasks(null);
+        new TaskService(new JsonFileTaskStore(tasksFilePath)).addTask("Task 2");
+        taskService.listTasks(null);
+
+        // Then the first load and the reload are misses
+        assertEquals(2, registry.get("tasktracker.cache.gets").tag("result", "hit").counter().count());
+        assertEquals(2, registry.get("tasktracker.cache.gets").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    public void testGaugesAndStoreCounters() throws IOException {
+        // Given
+        long id = taskService.addTask("Task 1").getId();
+        taskService.addTask("Task 2");
+        taskService.updateTaskStatus(id, TaskStatus.IN_PROGRESS);
+
+        // When
+        new TaskService(new JsonFileTaskStore(tasksFilePath)).addTask("Task 3");
+        taskService.listTasks(null);
+
+        // Then
+        assertEquals(2, registry.get("tasktracker.tasks").tag("status", "todo").gauge().value());
+        assertEquals(1, registry.get("tasktracker.tasks").tag("status", "in-progress").gauge().value());
+        long size = Files.size(tasksFilePath);
+        assertEquals(size, registry.get("tasktracker.store.size").gauge().value());
+        // The reload reads the whole file, after checksums of the recently written file
+        assertTrue(registry.get("tasktracker.store.read").functionCounter().count() >= size);
+        assertTrue(registry.get("tasktracker.store.written").functionCounter().count() > 0);
+    }
+
+    @Test
+    public void testServiceWithoutRegistryMeasuresNothing() throws IOException {
+        // Given
+        TaskService unmeasured = new TaskService(new JsonFileTaskStore(tempDir.resolve("other.json")));
+
+        // When
+        unmeasured.addTask("Task 1");
+
+        // Then
+        assertEquals(0, timerCount("tasktracker.operation", "operation", "add"));
+        assertEquals(1, unmeasured.countTasks(null));
+    }
+
+    private long timerCount(String name, String tag, String value) {
+        return registry.get(name).tag(tag, value).timer().count();
+    }
+}
@@ -1,7 +1,16 @@
 package io.github.thuandao.tasktracker.service;
 
 import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskOrder;
 import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.store.BinaryFileTaskStore;
+import io.github.thuandao.tasktracker.store.JsonFileTaskStore;
+import io.github.thuandao.tasktracker.store.TaskChange;
+import io.github.thuandao.tasktracker.store.TaskStore;
+import io.github.thuandao.tasktracker.util.InvertedIndex;
+import io.github.thuandao.tasktracker.util.LockTimeoutException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -9,7 +18,18 @@ import org.junit.jupiter.api.io.TempDir;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -174,4 +194,414 @@ public class TaskServiceTest {
         assertEquals(1, doneTasks.size());
         assertEquals("Done Task", doneTasks.get(0).getDescription());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testListTasksWithStatusFilter_ReturnsCopies() throws IOException {
+        // Given
+        taskService.addTask("Todo Task");
+
+        // When a caller changes a listed task
+        taskService.listTasks(TaskStatus.TODO).get(0).setStatus(TaskStatus.DONE);
+
+        // Then neither the task nor the status index changed
+        assertEquals(TaskStatus.TODO, taskService.getTask(1).getStatus());
+        assertEquals(1, taskService.listTasks(TaskStatus.TODO).size());
+        assertTrue(taskService.listTasks(TaskStatus.DONE).isEmpty());
+    }
+
+    @Test
+    public void testCountTasks() throws IOException {
+        // Given
+        Task first = taskService.addTask("Task 1");
+        Task second = taskService.addTask("Task 2");
+        taskService.addTask("Task 3");
+        taskService.updateTaskStatus(first.getId(), TaskStatus.DONE);
+        taskService.updateTaskStatus(second.getId(), TaskStatus.DONE);
+        taskService.deleteTask(second.getId());
+
+        // When & Then
+        assertEquals(2, taskService.countTasks(null));
+        assertEquals(1, taskService.countTasks(TaskStatus.TODO));
+        assertEquals(0, taskService.countTasks(TaskStatus.IN_PROGRESS));
+        assertEquals(1, taskService.countTasks(TaskStatus.DONE));
+    }
+
+    @Test
+    public void testDeferredCommits_AreWrittenOnFlush() throws IOException {
+        // Given
+        taskService.setCommitsDeferred(true);
+
+        // When
+        Task task = taskService.addTask("Task 1");
+        taskService.addTask("Task 2");
+        taskService.updateTaskStatus(task.getId(), TaskStatus.DONE);
+
+        // Then nothing is written until the flush
+        assertFalse(Files.exists(tasksFilePath));
+        assertEquals(2, taskService.listTasks(null).size());
+        taskService.flush();
+        List<Task> stored = new JsonFileTaskStore(tasksFilePath).load();
+        assertEquals(2, stored.size());
+        assertEquals(TaskStatus.DONE, stored.get(0).getStatus());
+    }
+
+    @Test
+    public void testLockedStore_FailsAfterLockTimeout() throws IOException {
+        // Given a deferred session holding changes, and another service on
+        // the same file that waits 100 ms for the lock
+        taskService.setCommitsDeferred(true);
+        taskService.addTask("Task 1");
+        TaskService other = new TaskService(new JsonFileTaskStore(tasksFilePath));
+        other.setLockTimeout(Duration.ofMillis(100));
+
+        // When & Then the other service gives up instead of waiting for the flush
+        assertThrows(LockTimeoutException.class, () -> other.addTask("Task 2"));
+        assertThrows(LockTimeoutException.class, () -> other.listTasks(null));
+        taskService.flush();
+        assertEquals(1, other.listTasks(null).size());
+        assertEquals(2, other.addTask("Task 2").getId());
+    }
+
+    @Test
+    public void testListTasks_ReusesCacheWhileFileIsUnchanged() throws IOException {
+        // Given
+        MeterRegistry registry = new SimpleMeterRegistry();
+        taskService.setMeterRegistry(registry);
+        taskService.addTask("Cached Task");
+        taskService.listTasks(null);
+        double misses = registry.get("tasktracker.cache.gets").tag("result", "miss").counter().count();
+
+        // When the file is only touched, its content checksum still matches
+        Files.setLastModifiedTime(tasksFilePath,
+                FileTime.fromMillis(Files.getLastModifiedTime(tasksFilePath).toMillis() + 10_000));
+        taskService.listTasks(null);
+
+        // Then the tasks are not parsed again
+        assertEquals(misses, registry.get("tasktracker.cache.gets").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    public void testListTasks_ReloadsWhenFileChangesOnDisk() throws IOException {
+        // Given
+        taskService.addTask("Original");
+        assertEquals("Original", taskService.listTasks(null).get(0).getDescription());
+
+        // When another process rewrites the file with content of the same size
+        String json = Files.readString(tasksFilePath).replace("Original", "Modified");
+        Files.writeString(tasksFilePath, json);
+        Files.setLastModifiedTime(tasksFilePath,
+                FileTime.fromMillis(Files.getLastModifiedTime(tasksFilePath).toMillis() + 10_000));
+
+        // Then the change is picked up
+        assertEquals("Modified", taskService.listTasks(null).get(0).getDescription());
+
+        // When the file is deleted
+        Files.delete(tasksFilePath);
+
+        // Then the service sees no tasks
+        assertTrue(taskService.listTasks(null).isEmpty());
+    }
+
+    @Test
+    public void testListTasks_ReturnsCopyOfCache() throws IOException {
+        // Given
+        taskService.addTask("Task");
+
+        // When
+        taskService.listTasks(null).clear();
+        taskService.listTasks(null).get(0).setDescription("Changed by the caller");
+
+        // Then
+        List<Task> tasks = taskService.listTasks(null);
+        assertEquals(1, tasks.size());
+        assertEquals("Task", tasks.get(0).getDescription());
+    }
+
+    @Test
+    public void testGetTaskAndListTasksAfter() throws IOException {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            taskService.addTask("Task " + i);
+        }
+        taskService.updateTaskStatus(4, TaskStatus.DONE);
+        taskService.deleteTask(2);
+
+        // When
+        List<Task> page = taskService.listTasksAfter(1, null, 2);
+        page.get(0).setDescription("Changed by the caller");
+
+        // Then
+        assertEquals(List.of(3L, 4L), page.stream().map(Task::getId).toList());
+        assertEquals("Task 3", taskService.getTask(3).getDescription());
+        assertEquals(List.of(4L), taskService.listTasksAfter(0, TaskStatus.DONE, 10).stream().map(Task::getId).toList());
+        assertThrows(TaskNotFoundException.class, () -> taskService.getTask(2));
+    }
+
+    @Test
+    public void testConcurrentAdds_AreGroupCommitted() throws Exception {
+        // Given a store whose commits are slow, like a disk sync
+        CountingStore store = new CountingStore(new JsonFileTaskStore(tasksFilePath));
+        TaskService service = new TaskService(store);
+        int threads = 8;
+        int addsPerThread = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        List<Future<Task>> futures = new ArrayList<>();
+        for (int i = 0; i < threads * addsPerThread; i++) {
+            String description = "Task " + i;
+            futures.add(executor.submit(() -> service.addTask(description)));
+        }
+        Set<Long> ids = new HashSet<>();
+        for (Future<Task> future : futures) {
+            ids.add(future.get().getId());
+        }
+        executor.shutdown();
+
+        // Then every add got its own ID and is on disk, in fewer commits
+        assertEquals(threads * addsPerThread, ids.size());
+        assertEquals(threads * addsPerThread,
+                new JsonFileTaskStore(tasksFilePath).load().size());
+        assertTrue(store.commits.get() < threads * addsPerThread,
+                store.commits.get() + " commits");
+    }
+
+    @Test
+    public void testFailedCommit_IsReportedAndReloaded() throws IOException {
+        // Given
+        taskService.addTask("Kept");
+        CountingStore store = new CountingStore(new JsonFileTaskStore(tasksFilePath));
+        TaskService service = new TaskService(store);
+        store.failing = true;
+
+        // When
+        assertThrows(IOException.class, () -> service.addTask("Lost"));
+        store.failing = false;
+
+        // Then the failed change is not kept in memory
+        List<Task> tasks = service.listTasks(null);
+        assertEquals(1, tasks.size());
+        assertEquals("Kept", tasks.get(0).getDescription());
+    }
+
+    @Test
+    public void testChangeListeners_GetCommittedChangesOnly() throws IOException {
+        // Given
+        CountingStore store = new CountingStore(new JsonFileTaskStore(tasksFilePath));
+        TaskService service = new TaskService(store);
+        List<TaskChange> received = new ArrayList<>();
+        service.addChangeListener(received::addAll);
+        service.addChangeListener(changes -> {
+            throw new IllegalStateException("Broken listener");
+        });
+
+        // When
+        service.addTask("First");
+        service.updateTaskStatus(1, TaskStatus.DONE);
+        store.failing = true;
+        assertThrows(IOException.class, () -> service.addTask("Lost"));
+        store.failing = false;
+        service.deleteTask(1);
+
+        // Then
+        assertEquals(List.of(TaskChange.Type.ADD, TaskChange.Type.STATUS, TaskChange.Type.DELETE),
+                received.stream().map(TaskChange::type).toList());
+        assertEquals(TaskStatus.DONE, received.get(1).task().getStatus());
+    }
+
+    @Test
+    public void testListTasksSorted() throws IOException {
+        // Given tasks whose last update is in a different order than their IDs
+        taskService.addTask("First");
+        taskService.addTask("Second");
+        taskService.addTask("Third");
+        sleepPastClockTick();
+        taskService.updateTaskStatus(2, TaskStatus.DONE);
+        sleepPastClockTick();
+        taskService.updateTask(1, "First, edited");
+
+        // When
+        List<Task> recent = taskService.listTasksSorted(null, TaskOrder.UPDATED_AT, true, 2);
+        List<Task> oldestTodo = taskService.listTasksSorted(TaskStatus.TODO, TaskOrder.UPDATED_AT, false, 10);
+        List<Task> byIdDescending = taskService.listTasksSorted(null, TaskOrder.ID, true, 10);
+
+        // Then
+        assertEquals(List.of(1L, 2L), recent.stream().map(Task::getId).toList());
+        assertEquals(List.of(3L, 1L), oldestTodo.stream().map(Task::getId).toList());
+        assertEquals(List.of(3L, 2L, 1L), byIdDescending.stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void testGetTask_ReadsOneTaskThroughOffsetIndex() throws IOException {
+        // Given tasks saved in the binary format
+        Path binaryPath = tempDir.resolve("tasks.bin");
+        TaskService writer = new TaskService(new BinaryFileTaskStore(binaryPath));
+        writer.addTask("First");
+        writer.addTask("Second");
+        writer.addTask("Third");
+        writer.updateTaskStatus(2, TaskStatus.IN_PROGRESS);
+
+        // When another service shows one task
+        BinaryFileTaskStore store = new BinaryFileTaskStore(binaryPath);
+        TaskService reader = new TaskService(store);
+        Task task = reader.getTask(2);
+
+        // Then only that task was read
+        assertEquals("Second", task.getDescription());
+        assertEquals(TaskStatus.IN_PROGRESS, task.getStatus());
+        assertEquals(0, store.getBytesRead());
+
+        // And an unknown ID falls back to loading all tasks
+        assertThrows(TaskNotFoundException.class, () -> reader.getTask(9));
+        assertTrue(store.getBytesRead() > 0);
+    }
+
+    @Test
+    public void testGetTask_RebuildsMissingOffsetIndexOnLoad() throws IOException {
+        // Given a binary file without an offset index, e.g. after a conversion
+        Path binaryPath = tempDir.resolve("tasks.bin");
+        new TaskService(new BinaryFileTaskStore(binaryPath)).addTask("First");
+        BinaryFileTaskStore store = new BinaryFileTaskStore(binaryPath);
+        Files.delete(store.getOffsetIndexPath());
+
+        // When
+        assertEquals("First", new TaskService(store).getTask(1).getDescription());
+
+        // Then the load wrote the index for the next lookup
+        assertTrue(Files.exists(store.getOffsetIndexPath()));
+        BinaryFileTaskStore next = new BinaryFileTaskStore(binaryPath);
+        assertEquals("First", new TaskService(next).getTask(1).getDescription());
+        assertEquals(0, next.getBytesRead());
+    }
+
+    @Test
+    public void testSearchTasks_MatchesAllWordsAndFollowsChanges() throws IOException {
+        // Given
+        taskService.addTask("Fix the login page");
+        taskService.addTask("Write login tests");
+        taskService.addTask("Fix the build");
+
+        // When
+        List<Task> before = taskService.searchTasks("fix LOGIN");
+        taskService.updateTask(2, "Fix login tests");
+        taskService.deleteTask(1);
+        List<Task> after = taskService.searchTasks("login fix");
+
+        // Then
+        assertEquals(List.of(1L), before.stream().map(Task::getId).toList());
+        assertEquals(List.of(2L), after.stream().map(Task::getId).toList());
+        assertTrue(taskService.searchTasks("deploy").isEmpty());
+        assertTrue(taskService.searchTasks("").isEmpty());
+    }
+
+    @Test
+    public void testSearchIndex_IsSavedAndKeptCurrentByCommits() throws IOException {
+        // Given
+        Path indexPath = tempDir.resolve("tasks.json.idx");
+        taskService.addTask("Fix the login page");
+        taskService.searchTasks("login");
+
+        // When another service adds a task, it updates the saved index
+        new TaskService(new JsonFileTaskStore(tasksFilePath)).addTask("Check login logs");
+
+        // Then the saved index matches the tasks file
+        JsonFileTaskStore store = new JsonFileTaskStore(tasksFilePath);
+        store.load();
+        InvertedIndex saved = InvertedIndex.read(indexPath, store.getChecksum());
+        assertNotNull(saved);
+        assertArrayEquals(new long[] {1L, 2L}, saved.search("login"));
+        assertEquals(2, taskService.searchTasks("login").size());
+    }
+
+    @Test
+    public void testSearchIndex_StaysCurrentAfterStatusChange() throws IOException {
+        // Given
+        Path indexPath = tempDir.resolve("tasks.json.idx");
+        taskService.addTask("Fix the login page");
+        taskService.searchTasks("login");
+        byte[] before = Files.readAllBytes(indexPath);
+
+        // When only a status changes
+        taskService.updateTaskStatus(1, TaskStatus.DONE);
+
+        // Then the saved index is tagged with the new tasks file, and only
+        // its tag changed
+        JsonFileTaskStore store = new JsonFileTaskStore(tasksFilePath);
+        store.load();
+        InvertedIndex saved = InvertedIndex.read(indexPath, store.getChecksum());
+        assertNotNull(saved);
+        assertArrayEquals(new long[] {1L}, saved.search("login"));
+        byte[] after = Files.readAllBytes(indexPath);
+        assertEquals(before.length, after.length);
+        assertArrayEquals(Arrays.copyOfRange(before, 13, before.length), Arrays.copyOfRange(after, 13, after.length));
+    }
+
+    @Test
+    public void testSearchIndex_IsRebuiltIfUnreadable() throws IOException {
+        // Given
+        taskService.addTask("Fix the login page");
+        taskService.searchTasks("login");
+        Files.writeString(tempDir.resolve("tasks.json.idx"), "garbage");
+
+        // When
+        List<Task> found = new TaskService(new JsonFileTaskStore(tasksFilePath)).searchTasks("page");
+
+        // Then
+        assertEquals(List.of(1L), found.stream().map(Task::getId).toList());
+    }
+
+    /**
+     * Waits long enough for the clock to move on, so later updates get later
+     * timestamps.
+     */
+    private static void sleepPastClockTick() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Store that counts commits, makes each one take a while and can be told
+     * to fail.
+     */
+    private static class CountingStore implements TaskStore {
+        private final TaskStore delegate;
+        private final AtomicInteger commits = new AtomicInteger();
+        private volatile boolean failing;
+
+        CountingStore(TaskStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<Task> load() throws IOException {
+            return delegate.load();
+        }
+
+        @Override
+        public boolean isModified() throws IOException {
+            return delegate.isModified();
+        }
+
+        @Override
+        public Path getLockPath() {
+            return delegate.getLockPath();
+        }
+
+        @Override
+        public void commit(List<TaskChange> changes, Supplier<List<Task>> tasks) throws IOException {
+            if (failing) {
+                throw new IOException("Disk full");
+            }
+            commits.incrementAndGet();
+            delegate.commit(changes, tasks);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
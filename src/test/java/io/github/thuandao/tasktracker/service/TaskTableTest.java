@@ -0,0 +1,227 @@
+package io.github.thuandao.tasktracker.service;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskOrder;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TaskTable class.
+ */
+public class TaskTableTest {
+
+    @Test
+    public void testGetPutRemoveKeepOrder() {
+        // Given
+        TaskTable table = new TaskTable(List.of(new Task(1L, "A"), new Task(2L, "B"), new Task(3L, "C")));
+
+        // When
+        Task removed = table.remove(2L);
+        table.put(new Task(4L, "D"));
+        table.put(new Task(1L, "A, replaced"));
+
+        // Then
+        assertEquals("B", removed.getDescription());
+        assertNull(table.get(2L));
+        assertNull(table.remove(2L));
+        assertEquals("A, replaced", table.get(1L).getDescription());
+        assertEquals(List.of("A, replaced", "C", "D"),
+                table.toList().stream().map(Task::getDescription).toList());
+        assertEquals(3, table.size());
+    }
+
+    @Test
+    public void testMaxIdFollowsRemovals() {
+        // Given
+        TaskTable table = new TaskTable(List.of(new Task(5L, "A"), new Task(9L, "B"), new Task(7L, "C")));
+
+        // Then
+        assertEquals(9L, table.maxId());
+        table.remove(9L);
+        assertEquals(7L, table.maxId());
+        table.remove(5L);
+        table.remove(7L);
+        assertEquals(0L, table.maxId());
+        assertEquals(0, table.size());
+        assertFalse(table.iterator().hasNext());
+    }
+
+    @Test
+    public void testCompactionKeepsIndexValid() {
+        // Given
+        List<Task> tasks = new ArrayList<>();
+        for (long id = 1; id <= 1_000; id++) {
+            tasks.add(new Task(id, "Task " + id));
+        }
+        TaskTable table = new TaskTable(tasks);
+
+        // When most tasks are removed, which compacts the slots
+        for (long id = 1; id <= 1_000; id++) {
+            if (id % 10 != 0) {
+                table.remove(id);
+            }
+        }
+
+        // Then the remaining tasks are still found and in order
+        assertEquals(100, table.size());
+        for (long id = 10; id <= 1_000; id += 10) {
+            assertEquals("Task " + id, table.get(id).getDescription());
+        }
+        List<Task> remaining = table.toList();
+        assertEquals(10L, remaining.get(0).getId());
+        assertEquals(1_000L, remaining.get(99).getId());
+    }
+
+    @Test
+    public void testStatusIndexFollowsChanges() {
+        // Given
+        List<Task> tasks = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            tasks.add(new Task(id, "Task " + id));
+        }
+        TaskTable table = new TaskTable(tasks);
+
+        // When every third task is done, and most of the others are removed
+        for (long id = 3; id <= 100; id += 3) {
+            table.updateStatus(id, TaskStatus.DONE);
+        }
+        for (long id = 1; id <= 100; id++) {
+            if (id % 3 != 0 && id % 10 != 0) {
+                table.remove(id);
+            }
+        }
+        Task replaced = new Task(30L, "Task 30, in progress");
+        replaced.setStatus(TaskStatus.IN_PROGRESS);
+        table.put(replaced);
+
+        // Then the listings and counts match a full scan, in order
+        for (TaskStatus status : TaskStatus.values()) {
+            List<Task> expected = table.toList().stream().filter(task -> task.getStatus() == status).toList();
+            assertEquals(expected, table.withStatus(status));
+            assertEquals(expected.size(), table.count(status));
+        }
+        assertEquals(List.of(10L, 20L, 40L, 50L, 70L, 80L, 100L),
+                table.withStatus(TaskStatus.TODO).stream().map(Task::getId).toList());
+        assertEquals(1, table.count(TaskStatus.IN_PROGRESS));
+        assertNull(table.updateStatus(1L, TaskStatus.DONE));
+    }
+
+    @Test
+    public void testPageFollowsIdOrderWithTombstones() {
+        // Given
+        List<Task> tasks = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            tasks.add(new Task(id, "Task " + id));
+        }
+        TaskTable table = new TaskTable(tasks);
+        for (long id = 1; id <= 100; id++) {
+            if (id % 4 == 0) {
+                table.updateStatus(id, TaskStatus.DONE);
+            } else if (id % 3 == 0) {
+                table.remove(id);
+            }
+        }
+
+        // Then every page matches a full scan
+        for (TaskStatus status : new TaskStatus[] {null, TaskStatus.DONE}) {
+            for (long afterId = 0; afterId <= 101; afterId += 7) {
+                long after = afterId;
+                List<Task> expected = table.toList().stream()
+                        .filter(task -> task.getId() > after && (status == null || task.getStatus() == status))
+                        .limit(5)
+                        .toList();
+                assertEquals(expected, table.page(afterId, status, 5));
+            }
+        }
+        assertEquals(List.of(), table.page(0, null, 0));
+    }
+
+    @Test
+    public void testPageOfUnorderedTasksIsSortedById() {
+        // Given tasks loaded out of ID order, e.g. from a hand-edited file
+        TaskTable table = new TaskTable(List.of(new Task(5L, "E"), new Task(2L, "B"), new Task(9L, "I"),
+                new Task(1L, "A"), new Task(7L, "G")));
+
+        // When
+        List<Task> first = table.page(0, null, 2);
+        List<Task> second = table.page(2, null, 2);
+        List<Task> last = table.page(5, null, 10);
+
+        // Then
+        assertEquals(List.of(1L, 2L), first.stream().map(Task::getId).toList());
+        assertEquals(List.of(5L, 7L), second.stream().map(Task::getId).toList());
+        assertEquals(List.of(7L, 9L), last.stream().map(Task::getId).toList());
+
+        // When tasks are added, removed and changed between pages
+        table.put(new Task(3L, "C"));
+        table.remove(9L);
+        table.updateStatus(5L, TaskStatus.DONE);
+
+        // Then the pages follow
+        assertEquals(List.of(1L, 2L, 3L, 5L, 7L), table.page(0, null, 10).stream().map(Task::getId).toList());
+        assertEquals(List.of(5L), table.page(2, TaskStatus.DONE, 10).stream().map(Task::getId).toList());
+    }
+
+    @Test
+    public void testTopFindsFirstTasksInOrder() {
+        // Given tasks updated at shuffled times, some of them done
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<Task> tasks = new ArrayList<>();
+        List<Integer> minutes = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            minutes.add(i);
+        }
+        Collections.shuffle(minutes, new Random(7));
+        for (int i = 0; i < minutes.size(); i++) {
+            TaskStatus status = i % 3 == 0 ? TaskStatus.DONE : TaskStatus.TODO;
+            LocalDateTime updatedAt = start.plusMinutes(minutes.get(i));
+            tasks.add(new Task(i + 1L, "Task " + (i + 1), status, start, updatedAt));
+        }
+        TaskTable table = new TaskTable(tasks);
+        Comparator<Task> newestFirst = TaskOrder.UPDATED_AT.comparator().reversed();
+
+        // When
+        List<Task> recent = table.top(null, newestFirst, 5);
+        List<Task> recentDone = table.top(TaskStatus.DONE, newestFirst, 3);
+        List<Task> highestIds = table.top(null, TaskOrder.ID.comparator().reversed(), 2);
+
+        // Then
+        List<Task> expected = new ArrayList<>(tasks);
+        expected.sort(newestFirst);
+        assertEquals(expected.subList(0, 5), recent);
+        assertEquals(expected.stream().filter(task -> task.getStatus() == TaskStatus.DONE).limit(3).toList(),
+                recentDone);
+        assertEquals(List.of(1_000L, 999L), highestIds.stream().map(Task::getId).toList());
+        assertTrue(table.top(null, newestFirst, 0).isEmpty());
+        assertEquals(1_000, table.top(null, newestFirst, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    public void testSearchIndexFollowsChanges() {
+        // Given
+        TaskTable table = new TaskTable(List.of(new Task(1L, "Fix login"), new Task(2L, "Write docs")));
+        table.buildSearchIndex();
+
+        // When
+        table.put(new Task(3L, "Fix docs"));
+        table.updateDescription(2L, "Review docs");
+        table.remove(1L);
+        table.put(new Task(3L, "Fix the docs again"));
+
+        // Then
+        assertEquals(List.of(3L), table.search("fix").stream().map(Task::getId).toList());
+        assertEquals(List.of(2L, 3L), table.search("docs").stream().map(Task::getId).toList());
+        assertTrue(table.search("write").isEmpty());
+        assertTrue(table.search("login").isEmpty());
+        assertNull(table.updateDescription(1L, "Gone"));
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.service.TaskService;
+import io.github.thuandao.tasktracker.util.BlockCompression;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CompressedTaskStore class.
+ */
+public class CompressedTaskStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testTasksRoundTripCompressed() throws IOException {
+        for (boolean binary : new boolean[] { false, true }) {
+            // Given
+            Path filePath = tempDir.resolve(binary ? "tasks.bin.zz" : "tasks.json.zz");
+            TaskService taskService = new TaskService(new CompressedTaskStore(filePath, binary, 1));
+
+            // When
+            taskService.addTask("First");
+            taskService.addTask("Second");
+            taskService.updateTaskStatus(2, TaskStatus.DONE);
+
+            // Then the file is compressed, and another store reads it back
+            try (InputStream in = Files.newInputStream(filePath)) {
+                assertTrue(BlockCompression.isCompressed(in.readNBytes(4)));
+            }
+            List<Task> tasks = new CompressedTaskStore(filePath).load();
+            assertEquals(2, tasks.size());
+            assertEquals("Second", tasks.get(1).getDescription());
+            assertEquals(TaskStatus.DONE, tasks.get(1).getStatus());
+        }
+    }
+
+    @Test
+    public void testPlainFile_IsReadAndThenCompressed() throws IOException {
+        // Given an existing JSON file of repetitive tasks
+        Path filePath = tempDir.resolve("tasks.json");
+        List<Task> tasks = new ArrayList<>();
+        for (long id = 1; id <= 10_000; id++) {
+            tasks.add(new Task(id, "Task number " + id));
+        }
+        new JsonFileTaskStore(filePath).commit(List.of(), () -> tasks);
+        long plainSize = Files.size(filePath);
+        TaskService taskService = new TaskService(new CompressedTaskStore(filePath));
+
+        // When
+        assertEquals("Task number 5000", taskService.getTask(5000).getDescription());
+        taskService.addTask("New task");
+
+        // Then the rewritten file holds the same tasks, much smaller
+        assertTrue(Files.size(filePath) * 5 < plainSize, "compressed " + plainSize + " to " + Files.size(filePath));
+        try (InputStream in = Files.newInputStream(filePath)) {
+            assertTrue(BlockCompression.isCompressed(in.readNBytes(4)));
+        }
+        assertEquals(10_001, new CompressedTaskStore(filePath).load().size());
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.service.TaskService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the JpaTaskStore class, against an in-memory H2 database
+ * standing in for PostgreSQL. The store manages its own transactions, so the
+ * tests run outside of the usual test transaction.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JpaTaskStoreTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    public void setUp() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.beginTransaction();
+            session.createMutationQuery("delete from TaskEntity").executeUpdate();
+            session.getTransaction().commit();
+        }
+    }
+
+    @Test
+    public void testChangesAreStoredAndLoaded() throws IOException {
+        // Given
+        TaskService taskService = new TaskService(new JpaTaskStore(entityManagerFactory));
+        Task first = taskService.addTask("First");
+        Task second = taskService.addTask("Second");
+
+        // When
+        taskService.updateTask(first.getId(), "First, updated");
+        taskService.updateTaskStatus(first.getId(), TaskStatus.DONE);
+        taskService.deleteTask(second.getId());
+
+        // Then a fresh store loads the same state
+        List<Task> tasks = new JpaTaskStore(entityManagerFactory).load();
+        assertEquals(1, tasks.size());
+        assertEquals(first.getId(), tasks.get(0).getId());
+        assertEquals("First, updated", tasks.get(0).getDescription());
+        assertEquals(TaskStatus.DONE, tasks.get(0).getStatus());
+        // Timestamps are kept to the microsecond, like in PostgreSQL
+        assertTrue(Duration.between(first.getCreatedAt(), tasks.get(0).getCreatedAt()).abs().toNanos() < 1_000);
+    }
+
+    @Test
+    public void testStoresSharingTheDatabase_HandOutUniqueIdsAndSeeEachOthersChanges() throws IOException {
+        // Given two services with their own stores, like two processes
+        TaskService one = new TaskService(new JpaTaskStore(entityManagerFactory));
+        TaskService other = new TaskService(new JpaTaskStore(entityManagerFactory));
+
+        // When they add tasks in turns
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 60; i++) {
+            assertTrue(ids.add(one.addTask("One " + i).getId()));
+            assertTrue(ids.add(other.addTask("Other " + i).getId()));
+        }
+
+        // Then each service sees all tasks, including the other's latest change
+        assertEquals(120, one.listTasks(null).size());
+        other.updateTaskStatus(one.listTasks(null).get(0).getId(), TaskStatus.IN_PROGRESS);
+        assertEquals(TaskStatus.IN_PROGRESS, one.listTasks(null).get(0).getStatus());
+    }
+
+    @Test
+    public void testCommit_SendsRowsInBatches() throws IOException {
+        // Given
+        JpaTaskStore store = new JpaTaskStore(entityManagerFactory);
+        store.load();
+        List<TaskChange> changes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            changes.add(TaskChange.added(new Task(store.nextId(0), "Task " + i)));
+        }
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        // When
+        store.commit(changes, List::of);
+
+        // Then the 200 inserts need a handful of statements, not one each
+        assertTrue(statistics.getPrepareStatementCount() < 20,
+                "prepared " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(200, store.load().size());
+    }
+
+    @Test
+    public void testCommit_CoalescesChangesToATask() throws IOException {
+        // Given
+        JpaTaskStore store = new JpaTaskStore(entityManagerFactory);
+        store.load();
+        Task kept = new Task(store.nextId(0), "Kept");
+        Task dropped = new Task(store.nextId(0), "Dropped");
+        Task done = new Task(kept.getId(), "Kept, done", TaskStatus.DONE, kept.getCreatedAt(),
+                kept.getUpdatedAt());
+
+        // When a task is added and changed, and another added and deleted, in one commit
+        store.commit(List.of(TaskChange.added(kept), TaskChange.added(dropped), TaskChange.statusChanged(done),
+                TaskChange.deleted(dropped.getId())), List::of);
+
+        // Then only the final state is stored
+        List<Task> tasks = store.load();
+        assertEquals(1, tasks.size());
+        assertEquals("Kept, done", tasks.get(0).getDescription());
+        assertEquals(TaskStatus.DONE, tasks.get(0).getStatus());
+        assertFalse(store.isModified());
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for the JsonFileTaskStore class.
+ * Uses a temporary directory for file operations to avoid affecting the real
+ * file system.
+ */
+public class JsonFileTaskStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path filePath;
+    private JsonFileTaskStore store;
+
+    @BeforeEach
+    public void setUp() {
+        filePath = tempDir.resolve("tasks.json");
+        store = new JsonFileTaskStore(filePath);
+    }
+
+    @Test
+    public void testCommitReplacesFileAndLeavesNoTempFile() throws IOException {
+        // Given
+        Task task = new Task(1L, "Task 1");
+
+        // When
+        store.commit(List.of(TaskChange.added(task)), () -> List.of(task));
+
+        // Then
+        assertEquals(1, new JsonFileTaskStore(filePath).load().size());
+        assertFalse(store.isModified());
+        assertEquals(List.of(filePath), listFiles());
+    }
+
+    @Test
+    public void testIsModified_ReadsNothingRightAfterCommit() throws IOException {
+        // Given
+        Task task = new Task(1L, "Task 1");
+        store.commit(List.of(TaskChange.added(task)), () -> List.of(task));
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            assertFalse(store.isModified());
+        }
+
+        // Then
+        assertEquals(0, store.getBytesRead());
+    }
+
+    @Test
+    public void testIsModified_NoticesFileReplacedWithSameSizeAndTime() throws IOException {
+        // Given
+        Task task = new Task(1L, "Task 1");
+        store.commit(List.of(TaskChange.added(task)), () -> List.of(task));
+
+        // When another process replaces the file with content of the same
+        // size, within the same modification time tick
+        Path replacement = tempDir.resolve("tasks.json.new");
+        Files.writeString(replacement, Files.readString(filePath).replace("Task 1", "Task 2"));
+        Files.setLastModifiedTime(replacement, Files.getLastModifiedTime(filePath));
+        Files.move(replacement, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        // Then
+        assertTrue(store.isModified());
+    }
+
+    @Test
+    public void testCommitKeepsFilePermissions() throws IOException {
+        assumeTrue(Files.getFileAttributeView(tempDir, PosixFileAttributeView.class) != null);
+
+        // Given a new file, and then the file shared with the group
+        Task task = new Task(1L, "Task 1");
+        store.commit(List.of(TaskChange.added(task)), () -> List.of(task));
+        Path plain = Files.createFile(tempDir.resolve("plain"));
+        assertEquals(Files.getPosixFilePermissions(plain), Files.getPosixFilePermissions(filePath));
+        Set<PosixFilePermission> shared = PosixFilePermissions.fromString("rw-rw-r--");
+        Files.setPosixFilePermissions(filePath, shared);
+
+        // When
+        store.commit(List.of(TaskChange.added(task)), () -> List.of(task));
+
+        // Then
+        assertEquals(shared, Files.getPosixFilePermissions(filePath));
+    }
+
+    @Test
+    public void testFailedCommitKeepsPreviousFile() throws IOException {
+        // Given
+        Task task = new Task(1L, "Task 1");
+        store.commit(List.of(TaskChange.added(task)), () -> List.of(task));
+        String before = Files.readString(filePath);
+
+        // When the write fails halfway through the tasks
+        List<Task> failing = new AbstractList<>() {
+            @Override
+            public Task get(int index) {
+                if (index == 1) {
+                    throw new IllegalStateException("Simulated crash");
+                }
+                return new Task(index + 1L, "Task " + (index + 1));
+            }
+
+            @Override
+            public int size() {
+                return 3;
+            }
+        };
+        assertThrows(IllegalStateException.class,
+                () -> store.commit(List.of(TaskChange.added(task)), () -> failing));
+
+        // Then the old file is untouched and the temporary file is gone
+        assertEquals(before, Files.readString(filePath));
+        assertEquals(List.of(filePath), listFiles());
+        assertEquals(1, store.load().size());
+    }
+
+    /**
+     * Lists the files in the temporary directory.
+     */
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.toList();
+        }
+    }
+}
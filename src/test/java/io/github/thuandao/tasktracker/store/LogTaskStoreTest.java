@@ -0,0 +1,139 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.service.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LogTaskStore class.
+ * Drives the store through a TaskService and reopens it to check that the
+ * snapshot and log replay back to the same tasks.
+ */
+public class LogTaskStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path snapshotPath;
+    private Path logPath;
+    private LogTaskStore store;
+    private TaskService taskService;
+
+    @BeforeEach
+    public void setUp() {
+        snapshotPath = tempDir.resolve("tasks.json");
+        logPath = tempDir.resolve("tasks.json.log");
+        store = new LogTaskStore(snapshotPath);
+        taskService = new TaskService(store);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    public void testChangesAreAppendedAndReplayed() throws IOException {
+        // Given
+        Task first = taskService.addTask("First");
+        Task second = taskService.addTask("Second");
+        taskService.updateTask(first.getId(), "First, updated");
+        taskService.updateTaskStatus(first.getId(), TaskStatus.DONE);
+        taskService.deleteTask(second.getId());
+
+        // Then only the log was written, one line per change
+        assertFalse(Files.exists(snapshotPath));
+        assertEquals(5, Files.readAllLines(logPath).size());
+
+        // When the store is reopened
+        List<Task> tasks = reopen().listTasks(null);
+
+        // Then the log replays to the same state
+        assertEquals(1, tasks.size());
+        assertEquals("First, updated", tasks.get(0).getDescription());
+        assertEquals(TaskStatus.DONE, tasks.get(0).getStatus());
+        assertEquals(first.getCreatedAt(), tasks.get(0).getCreatedAt());
+    }
+
+    @Test
+    public void testWriteCostDoesNotDependOnTaskCount() throws IOException {
+        // Given
+        for (int i = 0; i < 200; i++) {
+            taskService.addTask("Task " + i);
+        }
+        long before = Files.size(logPath);
+
+        // When
+        taskService.updateTaskStatus(100, TaskStatus.IN_PROGRESS);
+
+        // Then a single small record was appended
+        long appended = Files.size(logPath) - before;
+        assertTrue(appended < 200, "appended " + appended + " bytes");
+    }
+
+    @Test
+    public void testTornRecordIsDiscarded() throws IOException {
+        // Given
+        taskService.addTask("Kept");
+        Files.writeString(logPath, "A 0badf00d {\"id\": 2, \"descr", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        // When
+        TaskService reopened = reopen();
+        List<Task> tasks = reopened.listTasks(null);
+
+        // Then the torn record is ignored and cut off before the next append
+        assertEquals(1, tasks.size());
+        reopened.addTask("Next");
+        assertEquals(List.of("Kept", "Next"),
+                reopen().listTasks(null).stream().map(Task::getDescription).toList());
+    }
+
+    @Test
+    public void testCompactionFoldsLogIntoSnapshot() throws IOException {
+        // Given a store that compacts after a few records
+        store.close();
+        store = new LogTaskStore(snapshotPath, 500);
+        taskService = new TaskService(store);
+
+        // When
+        for (int i = 1; i <= 20; i++) {
+            taskService.addTask("Task " + i);
+        }
+        taskService.deleteTask(3);
+        store.awaitCompaction();
+        // Changes made while that compaction ran are picked up by the next one
+        taskService.addTask("Task 21");
+        store.awaitCompaction();
+
+        // Then the snapshot holds the compacted tasks and the log stays small
+        assertTrue(Files.exists(snapshotPath));
+        assertFalse(Files.exists(tempDir.resolve("tasks.json.log.compacting")));
+        assertTrue(Files.size(logPath) < 500);
+        List<Task> tasks = reopen().listTasks(null);
+        assertEquals(20, tasks.size());
+        assertTrue(tasks.stream().noneMatch(task -> task.getId() == 3));
+    }
+
+    /**
+     * Closes the current store and opens a new service on the same files.
+     */
+    private TaskService reopen() throws IOException {
+        store.close();
+        store = new LogTaskStore(snapshotPath);
+        return new TaskService(store);
+    }
+}
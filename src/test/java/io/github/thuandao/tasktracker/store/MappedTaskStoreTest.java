@@ -0,0 +1,166 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.service.TaskService;
+import io.github.thuandao.tasktracker.util.BinaryUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the MappedTaskStore class.
+ */
+public class MappedTaskStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path filePath;
+    private TaskService taskService;
+
+    @BeforeEach
+    public void setUp() {
+        filePath = tempDir.resolve("tasks.bin");
+        taskService = new TaskService(new MappedTaskStore(filePath));
+    }
+
+    @Test
+    public void testStatusChange_IsWrittenInPlace() throws IOException {
+        // Given
+        taskService.addTask("First");
+        taskService.addTask("Second");
+        taskService.addTask("Third");
+        Object fileKey = Files.readAttributes(filePath, BasicFileAttributes.class).fileKey();
+        byte[] before = Files.readAllBytes(filePath);
+
+        // When
+        taskService.updateTaskStatus(2, TaskStatus.DONE);
+
+        // Then the same file was changed, only in the header and the second record
+        byte[] after = Files.readAllBytes(filePath);
+        assertEquals(fileKey, Files.readAttributes(filePath, BasicFileAttributes.class).fileKey());
+        assertEquals(before.length, after.length);
+        List<Integer> changed = new ArrayList<>();
+        for (int i = 0; i < before.length; i++) {
+            if (before[i] != after[i]) {
+                changed.add(i);
+            }
+        }
+        int secondRecord = 18 + 37 + "First".length();
+        assertTrue(changed.stream().allMatch(i -> i < 18 || (i >= secondRecord && i < secondRecord + 33)),
+                "changed bytes " + changed);
+
+        // And the change reads back like any other
+        List<Task> tasks = new MappedTaskStore(filePath).load();
+        assertEquals(TaskStatus.DONE, tasks.get(1).getStatus());
+        assertEquals(TaskStatus.TODO, tasks.get(2).getStatus());
+        assertEquals("Third", tasks.get(2).getDescription());
+    }
+
+    @Test
+    public void testLoadTask_ReadsOneRecordThroughOffsetIndex() throws IOException {
+        // Given
+        taskService.addTask("First");
+        taskService.addTask("Second");
+        taskService.updateTaskStatus(2, TaskStatus.DONE);
+        MappedTaskStore other = new MappedTaskStore(filePath);
+
+        // When
+        Task task = other.loadTask(2);
+
+        // Then the change in place is seen without loading the file
+        assertEquals("Second", task.getDescription());
+        assertEquals(TaskStatus.DONE, task.getStatus());
+        assertNull(other.loadTask(3));
+        assertEquals(0, other.getBytesRead());
+
+        // When the file is rewritten
+        taskService.updateTask(1, "First, updated");
+
+        // Then
+        assertEquals("First, updated", other.loadTask(1).getDescription());
+    }
+
+    @Test
+    public void testOtherStores_SeeChangesInPlaceAndRewrites() throws IOException {
+        // Given a second store on the same file, as in another process
+        taskService.addTask("First");
+        MappedTaskStore other = new MappedTaskStore(filePath);
+        other.load();
+        assertFalse(other.isModified());
+
+        // When the status is changed in place
+        taskService.updateTaskStatus(1, TaskStatus.IN_PROGRESS);
+
+        // Then
+        assertTrue(other.isModified());
+        assertEquals(TaskStatus.IN_PROGRESS, other.load().get(0).getStatus());
+        assertFalse(other.isModified());
+
+        // When the file is rewritten
+        taskService.updateTask(1, "First, updated");
+
+        // Then
+        assertTrue(other.isModified());
+        assertEquals("First, updated", other.load().get(0).getDescription());
+    }
+
+    @Test
+    public void testAddUpdateAndDelete_AreStored() throws IOException {
+        // Given
+        taskService.addTask("First");
+        taskService.addTask("Second");
+
+        // When
+        taskService.updateTask(1, "First, updated");
+        taskService.deleteTask(2);
+        taskService.updateTaskStatus(1, TaskStatus.DONE);
+        Task added = taskService.addTask("Third");
+
+        // Then
+        List<Task> tasks = new MappedTaskStore(filePath).load();
+        assertEquals(2, tasks.size());
+        assertEquals("First, updated", tasks.get(0).getDescription());
+        assertEquals(TaskStatus.DONE, tasks.get(0).getStatus());
+        assertEquals(added.getId(), tasks.get(1).getId());
+    }
+
+    @Test
+    public void testStatusChange_WritesRecordAndHeaderOnly() throws IOException {
+        // Given 10k tasks in a mapped file
+        int count = 10_000;
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            tasks.add(new Task((long) i, "Task number " + i));
+        }
+        new BinaryFileTaskStore(filePath).commit(List.of(), () -> tasks);
+        MappedTaskStore store = new MappedTaskStore(filePath);
+        TaskService mapping = new TaskService(store);
+        mapping.listTasks(null);
+        long fileSize = Files.size(filePath);
+        long writtenBefore = store.getBytesWritten();
+
+        // When 20 tasks are marked done, one commit each
+        for (long id = 1; id <= 20; id++) {
+            mapping.updateTaskStatus(id * 500, TaskStatus.DONE);
+        }
+
+        // Then each commit wrote at most one record and the header, not the file
+        long written = store.getBytesWritten() - writtenBefore;
+        assertTrue(written > 0);
+        assertTrue(written <= 20 * (37 + BinaryUtil.HEADER_SIZE), written + " bytes written");
+        assertEquals(fileSize, Files.size(filePath));
+        assertEquals(20, new MappedTaskStore(filePath).load().stream()
+                .filter(task -> task.getStatus() == TaskStatus.DONE).count());
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.thuandao.tasktracker.store;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ShardedTaskStore class.
+ */
+public class ShardedTaskStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path directory;
+    private ShardedTaskStore store;
+    private TaskService taskService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = tempDir.resolve("tasks");
+        store = new ShardedTaskStore(directory, 10);
+        taskService = new TaskService(store);
+        taskService.setCommitsDeferred(true);
+        for (int i = 1; i <= 25; i++) {
+            taskService.addTask("Task " + i);
+        }
+        taskService.flush();
+        taskService.setCommitsDeferred(false);
+    }
+
+    @Test
+    public void testTasksAreSplitByIdRangeAndLoadedInOrder() throws IOException {
+        // When
+        List<Task> loaded = new ShardedTaskStore(directory, 1_000).load();
+
+        // Then the existing store keeps its shard size
+        assertEquals(List.of("manifest", "shard-0-1.json", "shard-1-1.json", "shard-2-1.json"), files());
+        assertEquals(25, loaded.size());
+        for (int i = 0; i < loaded.size(); i++) {
+            assertEquals(i + 1L, loaded.get(i).getId());
+        }
+    }
+
+    @Test
+    public void testCommit_RewritesOnlyTheOwningShard() throws IOException {
+        // Given
+        long written = store.getBytesWritten();
+
+        // When
+        taskService.updateTaskStatus(5, TaskStatus.DONE);
+        taskService.addTask("Task 26");
+
+        // Then
+        assertEquals(List.of("manifest", "shard-0-2.json", "shard-1-1.json", "shard-2-3.json"), files());
+        assertTrue(store.getBytesWritten() - written < Files.size(directory.resolve("shard-1-1.json")) * 3);
+        List<Task> loaded = new ShardedTaskStore(directory).load();
+        assertEquals(26, loaded.size());
+        assertEquals(TaskStatus.DONE, loaded.get(4).getStatus());
+        assertEquals("Task 26", loaded.get(25).getDescription());
+    }
+
+    @Test
+    public void testChangesByOtherProcesses_AreNoticed() throws IOException {
+        // Given
+        TaskService other = new TaskService(new ShardedTaskStore(directory));
+
+        // When another service empties the second shard
+        for (long id = 11; id <= 20; id++) {
+            other.deleteTask(id);
+        }
+
+        // Then
+        assertTrue(store.isModified());
+        assertEquals(15, taskService.countTasks(null));
+        assertFalse(store.isModified());
+        assertFalse(files().stream().anyMatch(name -> name.startsWith("shard-1-")));
+    }
+
+    @Test
+    public void testCorruptShard_IsReported() throws IOException {
+        // Given
+        Files.writeString(directory.resolve("shard-1-1.json"), "[]");
+
+        // Then
+        IOException e = assertThrows(IOException.class, () -> new ShardedTaskStore(directory).load());
+        assertTrue(e.getMessage().contains("shard-1-1.json"));
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.map(path -> path.getFileName().toString())
+                    .sorted()
+                    .toList();
+        }
+    }
+}
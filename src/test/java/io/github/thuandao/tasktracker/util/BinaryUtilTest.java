@@ -0,0 +1,123 @@
+package io.github.thuandao.tasktracker.util;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BinaryUtil class.
+ */
+public class BinaryUtilTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        // Given tasks with non-ASCII, empty, very long and missing values
+        LocalDateTime created = LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_456_789);
+        List<Task> tasks = List.of(
+                new Task(1L, "Buy groceries", TaskStatus.TODO, created, created),
+                new Task(2L, "Café \"naïve\" 日本語 🚀", TaskStatus.IN_PROGRESS, created,
+                        created.plusDays(1)),
+                new Task(3L, "", TaskStatus.DONE, LocalDateTime.of(1900, 1, 1, 0, 0), created),
+                new Task(4L, "x".repeat(200_000), TaskStatus.DONE, created, created),
+                new Task(5L, null, null, null, null));
+
+        // When read from a stream, and from a buffer
+        byte[] binary = toBinary(tasks);
+        List<Task> read = BinaryUtil.fromBinary(new ByteArrayInputStream(binary));
+        List<Long> offsets = new ArrayList<>();
+        List<Task> fromBuffer = BinaryUtil.fromBinary(ByteBuffer.wrap(binary), (id, offset) -> offsets.add(offset));
+
+        // Then
+        assertEquals(tasks.size(), read.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toString(), read.get(i).toString());
+            assertEquals(tasks.get(i).toString(), fromBuffer.get(i).toString());
+        }
+        assertEquals(BinaryUtil.HEADER_SIZE, offsets.get(0));
+        assertEquals(BinaryUtil.HEADER_SIZE + 37 + "Buy groceries".length(), offsets.get(1));
+    }
+
+    @Test
+    public void testMalformedData_IsRejected() throws IOException {
+        // Given
+        byte[] valid = toBinary(List.of(new Task(1L, "Task")));
+
+        // Then
+        assertTrue(BinaryUtil.isBinary(valid));
+        assertFalse(BinaryUtil.isBinary("[]".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryUtil.fromBinary(new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8))));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryUtil.fromBinary(new ByteArrayInputStream(Arrays.copyOf(valid, valid.length - 1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryUtil.fromBinary(new ByteArrayInputStream(Arrays.copyOf(valid, valid.length + 1))));
+    }
+
+    @Test
+    public void testReadRecord_DecodesOneRecordAtItsOffset() throws IOException {
+        // Given
+        LocalDateTime created = LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_456_789);
+        List<Task> tasks = List.of(
+                new Task(1L, "Buy groceries", TaskStatus.TODO, created, created),
+                new Task(2L, "Café 日本語", TaskStatus.DONE, created, created.plusDays(1)),
+                new Task(3L, null, null, null, null));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Long> written = new ArrayList<>();
+        BinaryUtil.writeBinary(tasks, out, (id, offset) -> written.add(offset));
+        byte[] binary = out.toByteArray();
+
+        // When the offsets are reported while reading a stream, too
+        List<Long> read = new ArrayList<>();
+        BinaryUtil.fromBinary(new ByteArrayInputStream(binary), (id, offset) -> read.add(offset));
+
+        // Then
+        assertEquals(written, read);
+        for (int i = 0; i < tasks.size(); i++) {
+            int end = i + 1 < tasks.size() ? written.get(i + 1).intValue() : binary.length;
+            ByteBuffer record = ByteBuffer.wrap(binary, written.get(i).intValue(), end - written.get(i).intValue());
+            assertEquals(tasks.get(i).toString(), BinaryUtil.readRecord(record).toString());
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryUtil.readRecord(ByteBuffer.wrap(binary, written.get(0).intValue(), 20)));
+        assertThrows(IllegalArgumentException.class,
+                () -> BinaryUtil.readRecord(ByteBuffer.wrap(binary, written.get(0).intValue(),
+                        written.get(2).intValue() - written.get(0).intValue())));
+    }
+
+    @Test
+    public void testSizeComparedToJson() throws IOException {
+        // Given
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 1_000; i++) {
+            tasks.add(new Task((long) i, "Task number " + i));
+        }
+
+        // When
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        JsonUtil.writeJson(tasks, json);
+        byte[] binary = toBinary(tasks);
+
+        // Then the binary file is less than half the size and reads back the same
+        assertTrue(binary.length * 2 < json.size(), binary.length + " vs " + json.size());
+        List<Task> fromBinary = BinaryUtil.fromBinary(new ByteArrayInputStream(binary));
+        assertEquals(tasks.get(999).toString(), fromBinary.get(999).toString());
+    }
+
+    private static byte[] toBinary(List<Task> tasks) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryUtil.writeBinary(tasks, out);
+        return out.toByteArray();
+    }
+}
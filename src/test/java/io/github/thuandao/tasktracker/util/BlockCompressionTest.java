@@ -0,0 +1,84 @@
+package io.github.thuandao.tasktracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BlockCompression class.
+ */
+public class BlockCompressionTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        // Given repetitive text spanning several blocks, random bytes that
+        // don't compress, and no data at all
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; text.length() < 3 * BlockCompression.BLOCK_SIZE; i++) {
+            text.append("{\"id\": ").append(i).append(", \"description\": \"Task number ").append(i).append("\"}\n");
+        }
+        byte[] repetitive = text.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] random = new byte[BlockCompression.BLOCK_SIZE + 1000];
+        new Random(42).nextBytes(random);
+
+        for (byte[] data : new byte[][] { repetitive, random, new byte[0] }) {
+            // When
+            byte[] compressed = compress(data);
+
+            // Then
+            assertTrue(BlockCompression.isCompressed(compressed));
+            assertArrayEquals(data, decompress(compressed));
+            if (data == repetitive) {
+                assertTrue(compressed.length * 4 < data.length, "compressed to " + compressed.length);
+            } else if (data == random) {
+                assertTrue(compressed.length < data.length + 100, "stored as " + compressed.length);
+            }
+        }
+
+        // And a single byte at a time reads the same
+        try (InputStream in = BlockCompression.decompress(new ByteArrayInputStream(compress(repetitive)))) {
+            for (byte b : repetitive) {
+                assertEquals(b & 0xFF, in.read());
+            }
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    public void testMalformedData_IsRejected() throws IOException {
+        // Given
+        byte[] valid = compress("Task number 1, Task number 2".repeat(100).getBytes(StandardCharsets.UTF_8));
+        byte[] corrupt = valid.clone();
+        corrupt[corrupt.length / 2] ^= 0x55;
+
+        // Then
+        assertFalse(BlockCompression.isCompressed("[]".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IllegalArgumentException.class, () -> decompress("[]".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IllegalArgumentException.class, () -> decompress(corrupt));
+        assertThrows(IllegalArgumentException.class, () -> decompress(Arrays.copyOf(valid, valid.length - 1)));
+        assertThrows(IllegalArgumentException.class, () -> decompress(Arrays.copyOf(valid, valid.length + 1)));
+        assertThrows(IllegalArgumentException.class, () -> BlockCompression.compress(new ByteArrayOutputStream(), 0));
+    }
+
+    private static byte[] compress(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BlockCompression.CompressingOutputStream compressing = BlockCompression.compress(out, 1);
+        compressing.write(data);
+        compressing.finish();
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] compressed) throws IOException {
+        try (InputStream in = BlockCompression.decompress(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+}
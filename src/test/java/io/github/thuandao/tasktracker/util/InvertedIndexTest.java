@@ -0,0 +1,112 @@
+package io.github.thuandao.tasktracker.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the InvertedIndex class.
+ */
+public class InvertedIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testTokenize() {
+        // When
+        Set<String> tokens = InvertedIndex.tokenize("Fix the LOGIN page, then fix log-in #42 (Größe)");
+
+        // Then
+        assertEquals(List.of("fix", "the", "login", "page", "then", "log", "in", "42", "größe"), List.copyOf(tokens));
+        assertTrue(InvertedIndex.tokenize(null).isEmpty());
+        assertTrue(InvertedIndex.tokenize(" -- ").isEmpty());
+    }
+
+    @Test
+    public void testSearchIntersectsWordsAndFollowsChanges() {
+        // Given
+        InvertedIndex index = new InvertedIndex();
+        index.add(1L, "Fix the login page");
+        index.add(3L, "Write login tests");
+        index.add(2L, "Fix the build");
+
+        // When
+        index.remove(3L, "Write login tests");
+        index.add(3L, "Fix login tests");
+
+        // Then
+        assertArrayEquals(new long[] {1L, 3L}, index.search("fix LOGIN"));
+        assertArrayEquals(new long[] {1L, 2L, 3L}, index.search("fix"));
+        assertArrayEquals(new long[0], index.search("fix deploy"));
+        assertArrayEquals(new long[0], index.search("write"));
+        assertArrayEquals(new long[0], index.search("!!"));
+        assertEquals(6, index.tokenCount());
+    }
+
+    @Test
+    public void testWriteAndRead_OnlyWithMatchingTag() throws IOException {
+        // Given
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 1; id <= 1_000; id++) {
+            index.add(id, "Task " + id + (id % 2 == 0 ? " even" : " odd"));
+        }
+        Path path = tempDir.resolve("tasks.json.idx");
+
+        // When
+        index.write(path, 42L);
+        InvertedIndex read = InvertedIndex.read(path, 42L);
+
+        // Then
+        assertNotNull(read);
+        assertEquals(index.tokenCount(), read.tokenCount());
+        assertEquals(500, read.search("even").length);
+        assertArrayEquals(new long[] {500L}, read.search("task 500"));
+        assertNull(InvertedIndex.read(path, 43L));
+        assertNull(InvertedIndex.read(tempDir.resolve("missing.idx"), 42L));
+    }
+
+    @Test
+    public void testRetag_OnlyWithMatchingTag() throws IOException {
+        // Given
+        InvertedIndex index = new InvertedIndex();
+        index.add(1L, "Some words");
+        Path path = tempDir.resolve("tasks.json.idx");
+        index.write(path, 42L);
+
+        // When & Then
+        assertFalse(InvertedIndex.retag(path, 41L, 43L));
+        assertTrue(InvertedIndex.retag(path, 42L, 43L));
+        assertNull(InvertedIndex.read(path, 42L));
+        assertArrayEquals(new long[] {1L}, InvertedIndex.read(path, 43L).search("words"));
+        assertFalse(InvertedIndex.retag(tempDir.resolve("missing.idx"), 42L, 43L));
+        Files.writeString(path, "[]");
+        assertThrows(IllegalArgumentException.class, () -> InvertedIndex.retag(path, 43L, 44L));
+    }
+
+    @Test
+    public void testRead_RejectsMalformedFile() throws IOException {
+        // Given
+        Path path = tempDir.resolve("tasks.json.idx");
+        InvertedIndex index = new InvertedIndex();
+        index.add(1L, "Some words");
+        index.write(path, 7L);
+        byte[] data = Files.readAllBytes(path);
+
+        // When
+        Files.write(path, Arrays.copyOf(data, data.length - 1));
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> InvertedIndex.read(path, 7L));
+        Files.writeString(path, "[]");
+        assertThrows(IllegalArgumentException.class, () -> InvertedIndex.read(path, 7L));
+    }
+}
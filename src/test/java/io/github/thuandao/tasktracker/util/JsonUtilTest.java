@@ -3,7 +3,17 @@ package io.github.thuandao.tasktracker.util;
 import io.github.thuandao.tasktracker.model.Task;
 import io.github.thuandao.tasktracker.model.TaskStatus;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -114,4 +124,167 @@ public class JsonUtilTest {
         assertEquals(1, tasks.size());
         assertEquals("Task with \"quotes\" and \nnewlines", tasks.get(0).getDescription());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFromJson_PreservesTimestampsAndStatus() {
+        // Given
+        String json = "[{\"id\": 7, \"description\": \"Task\", \"status\": \"DONE\", "
+                + "\"createdAt\": \"2023-01-01T12:00:00\", \"updatedAt\": \"2023-01-02T08:30:15.123456\"}]";
+
+        // When
+        List<Task> tasks = JsonUtil.fromJson(json);
+
+        // Then
+        Task task = tasks.get(0);
+        assertEquals(7L, task.getId());
+        assertEquals(TaskStatus.DONE, task.getStatus());
+        assertEquals(LocalDateTime.of(2023, 1, 1, 12, 0, 0), task.getCreatedAt());
+        assertEquals(LocalDateTime.of(2023, 1, 2, 8, 30, 15, 123_456_000), task.getUpdatedAt());
+    }
+
+    @Test
+    public void testFromJson_RepeatedDescriptionsAreShared() {
+        // Given
+        String json = JsonUtil.toJson(List.of(new Task(1L, "Same"), new Task(2L, "Same"), new Task(3L, "Other")));
+
+        // When
+        List<Task> tasks = JsonUtil.fromJson(json);
+
+        // Then
+        assertSame(tasks.get(0).getDescription(), tasks.get(1).getDescription());
+        assertEquals("Other", tasks.get(2).getDescription());
+    }
+
+    @Test
+    public void testFromJson_QuotesAndBracesInDescription() {
+        // Given
+        Task task = new Task(1L, "Fix {\"braces\"} and [brackets], C:\\temp\\new");
+
+        // When
+        List<Task> tasks = JsonUtil.fromJson(JsonUtil.toJson(List.of(task, new Task(2L, "}{"))));
+
+        // Then
+        assertEquals(2, tasks.size());
+        assertEquals("Fix {\"braces\"} and [brackets], C:\\temp\\new", tasks.get(0).getDescription());
+        assertEquals("}{", tasks.get(1).getDescription());
+        assertEquals(task.getCreatedAt(), tasks.get(0).getCreatedAt());
+        assertEquals(task.getUpdatedAt(), tasks.get(0).getUpdatedAt());
+    }
+
+    @Test
+    public void testFromJson_UnicodeEscapesAndUnknownFields() {
+        // Given
+        String json = "[{\"id\": 1, \"tags\": [\"a]\", {\"b\": \"}\"}], \"priority\": 3, "
+                + "\"description\": \"caf\\u00e9\", \"archived\": false}]";
+
+        // When
+        List<Task> tasks = JsonUtil.fromJson(json);
+
+        // Then
+        assertEquals(1, tasks.size());
+        assertEquals("caf\u00e9", tasks.get(0).getDescription());
+        assertEquals(TaskStatus.TODO, tasks.get(0).getStatus());
+    }
+
+    @Test
+    public void testFromJson_Malformed() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> JsonUtil.fromJson("[{\"id\": 1"));
+        assertThrows(IllegalArgumentException.class, () -> JsonUtil.fromJson("[{\"id\": 1} {\"id\": 2}]"));
+        assertThrows(IllegalArgumentException.class, () -> JsonUtil.fromJson("[{\"status\": \"LATER\"}]"));
+    }
+
+    @Test
+    public void testFromJson_ReaderMatchesString(@TempDir Path tempDir) throws IOException {
+        // Given
+        List<Task> generated = new ArrayList<>();
+        for (int i = 1; i <= 1000; i++) {
+            generated.add(new Task((long) i, "Generated task number " + i + " with some \"quoted\" text"));
+        }
+        Path file = tempDir.resolve("tasks.json");
+        Files.writeString(file, JsonUtil.toJson(generated));
+
+        // When
+        List<Task> tasks;
+        try (Reader reader = Files.newBufferedReader(file)) {
+            tasks = JsonUtil.fromJson(reader);
+        }
+
+        // Then
+        assertEquals(generated.size(), tasks.size());
+        assertEquals(JsonUtil.fromJson(Files.readString(file)).size(), tasks.size());
+        Task last = tasks.get(tasks.size() - 1);
+        assertEquals(generated.get(generated.size() - 1).getDescription(), last.getDescription());
+        assertEquals(generated.get(generated.size() - 1).getCreatedAt(), last.getCreatedAt());
+    }
+
+    @Test
+    public void testWriteJson_MatchesToJson() throws IOException {
+        // Given
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Task(1L, "Task 1"));
+        tasks.add(new Task(-42L, "Task \"2\""));
+        tasks.add(new Task(Long.MAX_VALUE, null));
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonUtil.writeJson(tasks, out);
+
+        // Then
+        assertEquals(JsonUtil.toJson(tasks), out.toString(StandardCharsets.UTF_8));
+        assertEquals("[\n]", JsonUtil.toJson(List.of()));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("\"id\": -42"));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("\"id\": " + Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testWriteJsonLines_WritesOneObjectPerLine() throws IOException {
+        // Given
+        List<Task> tasks = List.of(new Task(1L, "Line\nbreak"), new Task(2L, "Task 2"));
+
+        // When
+        StringWriter out = new StringWriter();
+        JsonUtil.writeJsonLines(tasks, out);
+
+        // Then
+        assertEquals(JsonUtil.toJson(tasks.get(0)) + "\n" + JsonUtil.toJson(tasks.get(1)) + "\n", out.toString());
+        assertEquals("Line\nbreak", JsonUtil.taskFromJson(out.toString().split("\n")[0]).getDescription());
+    }
+
+    @Test
+    public void testToJson_TimestampsMatchIsoFormatter() {
+        // Given
+        LocalDateTime[] timestamps = {
+                LocalDateTime.of(2023, 1, 1, 0, 0, 0),
+                LocalDateTime.of(2023, 12, 31, 23, 59, 59, 100_000_000),
+                LocalDateTime.of(999, 5, 6, 7, 8, 9, 123_456_789),
+                LocalDateTime.of(2024, 2, 29, 12, 30, 0, 1_000),
+                LocalDateTime.of(12345, 1, 1, 0, 0, 0, 10)
+        };
+
+        for (LocalDateTime timestamp : timestamps) {
+            // When
+            Task task = new Task(1L, "Task", TaskStatus.TODO, timestamp, timestamp);
+            String json = JsonUtil.toJson(task);
+
+            // Then
+            assertTrue(json.contains("\"createdAt\": \"" + timestamp.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "\""),
+                    json);
+            assertEquals(timestamp, JsonUtil.fromJson("[" + json + "]").get(0).getCreatedAt());
+        }
+    }
+
+    @Test
+    public void testToJson_EscapesControlCharactersAndUnicode() {
+        // Given
+        String description = "tab\there \\ back \u0001 bell and caf\u00e9 \uD83D\uDE00";
+        Task task = new Task(1L, description);
+
+        // When
+        String json = JsonUtil.toJson(task);
+
+        // Then
+        assertTrue(json.contains("\\u0001"));
+        assertEquals(description, JsonUtil.fromJson("[" + json + "]").get(0).getDescription());
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.thuandao.tasktracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LongIntHashMap class.
+ */
+public class LongIntHashMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        // Given
+        LongIntHashMap map = new LongIntHashMap();
+
+        // When
+        assertEquals(LongIntHashMap.NO_VALUE, map.put(1L, 10));
+        assertEquals(LongIntHashMap.NO_VALUE, map.put(0L, 0));
+        assertEquals(LongIntHashMap.NO_VALUE, map.put(-5L, 50));
+        assertEquals(10, map.put(1L, 11));
+
+        // Then
+        assertEquals(3, map.size());
+        assertEquals(11, map.get(1L));
+        assertEquals(0, map.get(0L));
+        assertEquals(50, map.get(-5L));
+        assertEquals(LongIntHashMap.NO_VALUE, map.get(2L));
+        assertEquals(11, map.remove(1L));
+        assertEquals(LongIntHashMap.NO_VALUE, map.remove(1L));
+        assertFalse(map.containsKey(1L));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testNegativeValueIsRejected() {
+        // Given
+        LongIntHashMap map = new LongIntHashMap();
+
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () -> map.put(1L, -1));
+    }
+
+    @Test
+    public void testMatchesHashMapUnderRandomOperations() {
+        // Given a small key range, so probe runs collide and removals shift entries back
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? LongIntHashMap.NO_VALUE : removed, map.remove(key));
+            } else {
+                Integer previous = expected.put(key, i);
+                assertEquals(previous == null ? LongIntHashMap.NO_VALUE : previous, map.put(key, i));
+            }
+        }
+
+        // Then
+        assertEquals(expected.size(), map.size());
+        for (long key = -1_000; key < 1_000; key++) {
+            Integer value = expected.get(key);
+            assertEquals(value == null ? LongIntHashMap.NO_VALUE : value, map.get(key));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.thuandao.tasktracker.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the OffsetIndex class.
+ */
+public class OffsetIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testFind_DenseIds() throws IOException {
+        // Given records 1 to 3 and 5, as after deleting task 4
+        Path data = writeData("aaa", "bb", "cccc", "d");
+        Path indexPath = tempDir.resolve("data.offsets");
+        OffsetIndex.Builder builder = new OffsetIndex.Builder();
+        builder.record(1, 0);
+        builder.record(2, 3);
+        builder.record(3, 5);
+        builder.record(5, 9);
+
+        // When
+        assertTrue(builder.write(indexPath, data));
+
+        // Then
+        try (OffsetIndex index = OffsetIndex.open(indexPath, data)) {
+            assertEquals(new OffsetIndex.Location(0, 3), index.find(1));
+            assertEquals(new OffsetIndex.Location(5, 4), index.find(3));
+            assertEquals(new OffsetIndex.Location(9, 1), index.find(5));
+            assertNull(index.find(4));
+            assertNull(index.find(0));
+            assertNull(index.find(6));
+        }
+        assertEquals("cccc", new String(OffsetIndex.readRecord(indexPath, data, 3).array(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testFind_SparseIdsOutOfOrder() throws IOException {
+        // Given IDs far apart, not written in ID order
+        Path data = writeData("one", "two", "three");
+        Path indexPath = tempDir.resolve("data.offsets");
+        OffsetIndex.Builder builder = new OffsetIndex.Builder();
+        builder.record(5_000_000, 0);
+        builder.record(7, 3);
+        builder.record(1_000, 6);
+
+        // When
+        builder.write(indexPath, data);
+
+        // Then the index holds one entry per record, not per ID
+        assertTrue(Files.size(indexPath) < 200);
+        try (OffsetIndex index = OffsetIndex.open(indexPath, data)) {
+            assertEquals(new OffsetIndex.Location(3, 3), index.find(7));
+            assertEquals(new OffsetIndex.Location(6, 5), index.find(1_000));
+            assertEquals(new OffsetIndex.Location(0, 3), index.find(5_000_000));
+            assertNull(index.find(8));
+        }
+        assertThrows(IllegalArgumentException.class, () -> builder.record(8, 1));
+    }
+
+    @Test
+    public void testIndexOfReplacedDataFile_IsIgnored() throws IOException {
+        // Given
+        Path data = writeData("aaa", "bb");
+        Path indexPath = tempDir.resolve("data.offsets");
+        OffsetIndex.Builder builder = new OffsetIndex.Builder();
+        builder.record(1, 0);
+        builder.record(2, 3);
+        builder.write(indexPath, data);
+        assertTrue(OffsetIndex.isCurrent(indexPath, data));
+
+        // When the data file is replaced by one of the same size
+        FileUtil.writeAtomically(data, out -> out.write("xxxyy".getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        assertFalse(OffsetIndex.isCurrent(indexPath, data));
+        assertNull(OffsetIndex.readRecord(indexPath, data, 1));
+
+        // And a missing or malformed index is ignored too
+        assertNull(OffsetIndex.open(tempDir.resolve("missing.offsets"), data));
+        Files.writeString(indexPath, "not an index");
+        assertNull(OffsetIndex.open(indexPath, data));
+    }
+
+    private Path writeData(String... records) throws IOException {
+        Path data = tempDir.resolve("data");
+        Files.writeString(data, String.join("", records));
+        return data;
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.thuandao.tasktracker.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ProcessFileLock class.
+ */
+public class ProcessFileLockTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testSamePathSharesOneLock() {
+        // Given
+        Path path = tempDir.resolve("tasks.json.lock");
+
+        // Then
+        assertSame(ProcessFileLock.forPath(path), ProcessFileLock.forPath(tempDir.resolve("./tasks.json.lock")));
+        assertNotSame(ProcessFileLock.forPath(path), ProcessFileLock.forPath(tempDir.resolve("other.lock")));
+    }
+
+    @Test
+    public void testExclusiveWaitsForSharedHolders() throws Exception {
+        // Given two shared holders
+        ProcessFileLock lock = ProcessFileLock.forPath(tempDir.resolve("tasks.json.lock"));
+        ProcessFileLock.Handle first = lock.lockShared();
+        ProcessFileLock.Handle second = lock.lockShared();
+
+        // When another thread asks for the lock exclusively
+        CompletableFuture<ProcessFileLock.Handle> exclusive = CompletableFuture.supplyAsync(() -> {
+            try {
+                return lock.lockExclusive();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Then it gets it only once both shared holds are released,
+        // releasing a handle twice has no effect
+        first.close();
+        first.close();
+        assertThrows(TimeoutException.class, () -> exclusive.get(200, TimeUnit.MILLISECONDS));
+        second.close();
+        ProcessFileLock.Handle handle = exclusive.get(10, TimeUnit.SECONDS);
+        handle.close();
+        lock.lockShared().close();
+    }
+
+    @Test
+    public void testTimedLockGivesUpWhileHeld() throws Exception {
+        // Given
+        ProcessFileLock lock = ProcessFileLock.forPath(tempDir.resolve("tasks.json.lock"));
+        ProcessFileLock.Handle exclusive = lock.lockExclusive();
+
+        // When & Then both kinds of lock give up after the timeout
+        assertThrows(LockTimeoutException.class, () -> lock.lockShared(Duration.ofMillis(50)));
+        assertThrows(LockTimeoutException.class, () -> lock.lockExclusive(Duration.ofMillis(50)));
+
+        // And succeed once the lock is released
+        exclusive.close();
+        lock.lockExclusive(Duration.ofMillis(50)).close();
+        lock.lockShared(Duration.ofMillis(50)).close();
+    }
+
+    @Test
+    public void testTimedLockGivesUpWhileAnotherThreadWaitsForProcess() throws Exception {
+        // Given another process holding the lock file
+        Path path = tempDir.resolve("tasks.json.lock");
+        ProcessFileLock lock = ProcessFileLock.forPath(path);
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process child = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                ProcessFileLockTest.class.getName(), path.toString())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            BufferedReader output = new BufferedReader(
+                    new InputStreamReader(child.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("locked", output.readLine());
+
+            // When a thread of this JVM waits for it without a timeout
+            CompletableFuture<ProcessFileLock.Handle> untimed = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return lock.lockExclusive();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            // Then timed locks of other threads still give up
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                assertThrows(LockTimeoutException.class, () -> lock.lockShared(Duration.ofMillis(100)));
+                assertThrows(LockTimeoutException.class, () -> lock.lockExclusive(Duration.ofMillis(100)));
+            });
+
+            // And the untimed lock is taken once the process lets go
+            child.getOutputStream().close();
+            assertTrue(child.waitFor(1, TimeUnit.MINUTES), "child process timed out");
+            untimed.get(1, TimeUnit.MINUTES).close();
+            lock.lockShared(Duration.ofSeconds(10)).close();
+        } finally {
+            child.destroy();
+        }
+    }
+
+    /**
+     * Holds a lock file from a separate JVM until its standard input is
+     * closed, for the multi-process test.
+     * 
+     * @param args The lock file
+     */
+    public static void main(String[] args) throws IOException {
+        try (ProcessFileLock.Handle ignored = ProcessFileLock.forPath(Path.of(args[0])).lockExclusive()) {
+            System.out.println("locked");
+            System.out.flush();
+            System.in.read();
+        }
+    }
+}
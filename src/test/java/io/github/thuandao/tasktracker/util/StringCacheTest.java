@@ -0,0 +1,48 @@
+package io.github.thuandao.tasktracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the StringCache class.
+ */
+public class StringCacheTest {
+
+    @Test
+    public void testEqualCharactersShareOneString() {
+        // Given
+        StringCache cache = new StringCache();
+        StringBuilder scratch = new StringBuilder("Buy milk");
+
+        // When
+        String first = cache.get(scratch);
+        scratch.setLength(0);
+        scratch.append("Buy milk");
+        String second = cache.get(scratch);
+
+        // Then
+        assertEquals("Buy milk", first);
+        assertSame(first, second);
+        assertNotSame(first, cache.get("Buy bread"));
+    }
+
+    @Test
+    public void testCollisionsAndLongStringsAreStillCorrect() {
+        // Given a single slot, which every string collides on
+        StringCache cache = new StringCache(1);
+        String longString = "x".repeat(StringCache.MAX_LENGTH + 1);
+
+        // When
+        String a = cache.get("a");
+        String b = cache.get("b");
+
+        // Then
+        assertEquals("a", a);
+        assertEquals("b", b);
+        assertEquals("a", cache.get("a"));
+        assertEquals(longString, cache.get(new StringBuilder(longString)));
+        assertNotSame(cache.get(new StringBuilder(longString)), cache.get(new StringBuilder(longString)));
+        assertThrows(IllegalArgumentException.class, () -> new StringCache(0));
+    }
+}
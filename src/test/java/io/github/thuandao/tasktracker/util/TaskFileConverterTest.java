@@ -0,0 +1,49 @@
+package io.github.thuandao.tasktracker.util;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.store.BinaryFileTaskStore;
+import io.github.thuandao.tasktracker.store.JsonFileTaskStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TaskFileConverter class.
+ */
+public class TaskFileConverterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testConvertJsonToBinaryAndBack() throws IOException {
+        // Given a JSON tasks file
+        Path json = tempDir.resolve("tasks.json");
+        Path binary = tempDir.resolve("tasks.bin");
+        Path back = tempDir.resolve("tasks-back.json");
+        Task task = new Task(7L, "Write report");
+        task.setStatus(TaskStatus.IN_PROGRESS);
+        new JsonFileTaskStore(json).commit(List.of(), () -> List.of(task, new Task(9L, "Review")));
+
+        // When
+        TaskFileConverter.Conversion toBinary = TaskFileConverter.convert(json, binary);
+        TaskFileConverter.Conversion toJson = TaskFileConverter.convert(binary, back);
+
+        // Then
+        assertEquals(new TaskFileConverter.Conversion(TaskFileConverter.Format.JSON,
+                TaskFileConverter.Format.BINARY, 2), toBinary);
+        assertEquals(new TaskFileConverter.Conversion(TaskFileConverter.Format.BINARY,
+                TaskFileConverter.Format.JSON, 2), toJson);
+        List<Task> converted = new BinaryFileTaskStore(binary).load();
+        assertEquals(task.toString(), converted.get(0).toString());
+        assertEquals(Files.readString(json), Files.readString(back));
+        assertThrows(IllegalArgumentException.class, () -> TaskFileConverter.convert(json, json));
+    }
+}
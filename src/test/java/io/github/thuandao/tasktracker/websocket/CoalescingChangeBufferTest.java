@@ -0,0 +1,74 @@
+package io.github.thuandao.tasktracker.websocket;
+
+import io.github.thuandao.tasktracker.model.Task;
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.store.TaskChange;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CoalescingChangeBuffer class.
+ */
+public class CoalescingChangeBufferTest {
+
+    @Test
+    public void testRepeatedChangesToATaskCoalesce() {
+        // Given
+        CoalescingChangeBuffer buffer = new CoalescingChangeBuffer(10);
+        Task first = new Task(1L, "First");
+        Task done = new Task(1L, "First");
+        done.setStatus(TaskStatus.DONE);
+
+        // When
+        buffer.offer(TaskChange.updated(new Task(2L, "Second")));
+        buffer.offer(TaskChange.added(first));
+        buffer.offer(TaskChange.statusChanged(done));
+        buffer.offer(TaskChange.added(new Task(3L, "Third")));
+        buffer.offer(TaskChange.deleted(3L));
+        buffer.offer(TaskChange.deleted(2L));
+
+        // Then an added task stays added with its latest state, an added and
+        // deleted task is never sent, and the latest change wins otherwise
+        List<TaskChange> changes = buffer.drain().changes();
+        assertEquals(2, changes.size());
+        assertEquals(TaskChange.deleted(2L), changes.get(0));
+        assertEquals(TaskChange.Type.ADD, changes.get(1).type());
+        assertEquals(TaskStatus.DONE, changes.get(1).task().getStatus());
+    }
+
+    @Test
+    public void testOnlyTheFirstOfferStartsADrain() {
+        // Given
+        CoalescingChangeBuffer buffer = new CoalescingChangeBuffer(10);
+
+        // Then
+        assertTrue(buffer.offer(TaskChange.deleted(1L)));
+        assertFalse(buffer.offer(TaskChange.deleted(2L)));
+        assertEquals(2, buffer.drain().changes().size());
+        assertFalse(buffer.offer(TaskChange.deleted(3L)));
+        assertEquals(1, buffer.drain().changes().size());
+        assertNull(buffer.drain());
+        assertTrue(buffer.offer(TaskChange.deleted(4L)));
+    }
+
+    @Test
+    public void testOverflowAsksForResync() {
+        // Given
+        CoalescingChangeBuffer buffer = new CoalescingChangeBuffer(3);
+
+        // When more distinct tasks change than fit
+        for (long id = 1; id <= 5; id++) {
+            buffer.offer(TaskChange.deleted(id));
+        }
+
+        // Then the changes are dropped for a resync, after which changes flow again
+        CoalescingChangeBuffer.Drained drained = buffer.drain();
+        assertTrue(drained.overflow());
+        assertEquals(0, buffer.size());
+        buffer.offer(TaskChange.deleted(6L));
+        assertEquals(List.of(TaskChange.deleted(6L)), buffer.drain().changes());
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.thuandao.tasktracker.websocket;
+
+import io.github.thuandao.tasktracker.model.TaskStatus;
+import io.github.thuandao.tasktracker.service.TaskService;
+import io.github.thuandao.tasktracker.store.JsonFileTaskStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the TaskFeedHandler class.
+ * Uses mock WebSocket sessions that record the messages sent to them.
+ */
+public class TaskFeedHandlerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TaskService taskService;
+    private TaskFeedHandler handler;
+
+    @BeforeEach
+    public void setUp() {
+        taskService = new TaskService(new JsonFileTaskStore(tempDir.resolve("tasks.json")));
+        handler = new TaskFeedHandler(taskService, 16);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        handler.destroy();
+    }
+
+    @Test
+    public void testCommittedChangesArePushed() throws Exception {
+        // Given
+        BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        WebSocketSession session = session("a", messages, null);
+        handler.afterConnectionEstablished(session);
+
+        // When
+        taskService.addTask("Buy groceries");
+        String added = messages.poll(10, TimeUnit.SECONDS);
+        taskService.deleteTask(1);
+        String deleted = messages.poll(10, TimeUnit.SECONDS);
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+        taskService.addTask("Not pushed");
+
+        // Then
+        assertTrue(added.startsWith("{\"type\": \"changes\", \"changes\": [{\"type\": \"ADD\", \"id\": 1, \"task\": {"),
+                added);
+        assertTrue(added.contains("\"description\": \"Buy groceries\""), added);
+        assertEquals("{\"type\": \"changes\", \"changes\": [{\"type\": \"DELETE\", \"id\": 1, \"task\": null}]}", deleted);
+        assertNull(messages.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testSlowClientGetsCoalescedChangesWithoutStallingWriters() throws Exception {
+        // Given a client whose sends block until released, and a fast one
+        for (int i = 1; i <= 3; i++) {
+            taskService.addTask("Task " + i);
+        }
+        BlockingQueue<String> slowMessages = new LinkedBlockingQueue<>();
+        CountDownLatch release = new CountDownLatch(1);
+        handler.afterConnectionEstablished(session("slow", slowMessages, release));
+        BlockingQueue<String> fastMessages = new LinkedBlockingQueue<>();
+        handler.afterConnectionEstablished(session("fast", fastMessages, null));
+
+        // When many updates to the same tasks are made while the slow client is stuck
+        for (int i = 0; i < 300; i++) {
+            taskService.updateTaskStatus(i % 3 + 1, i % 2 == 0 ? TaskStatus.IN_PROGRESS : TaskStatus.DONE);
+        }
+        int fastMessagesWhileStuck = fastMessages.size();
+        release.countDown();
+
+        // Then the fast client kept getting changes, and the slow one gets a
+        // few messages that end with the latest state of each task
+        assertTrue(fastMessagesWhileStuck > 2, fastMessagesWhileStuck + " messages");
+        StringBuilder received = new StringBuilder();
+        int slowCount = 0;
+        String message;
+        while ((message = slowMessages.poll(500, TimeUnit.MILLISECONDS)) != null) {
+            received.append(message);
+            slowCount++;
+        }
+        assertTrue(slowCount >= 1 && slowCount <= 2, slowCount + " messages");
+        assertEquals(TaskStatus.DONE, lastStatus(received.toString(), 1));
+        assertEquals(TaskStatus.IN_PROGRESS, lastStatus(received.toString(), 2));
+        assertEquals(TaskStatus.DONE, lastStatus(received.toString(), 3));
+    }
+
+    @Test
+    public void testClientTooFarBehindIsToldToResync() throws Exception {
+        // Given a stuck client
+        BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        CountDownLatch release = new CountDownLatch(1);
+        handler.afterConnectionEstablished(session("a", messages, release));
+
+        // When more distinct tasks change than its buffer holds
+        taskService.setCommitsDeferred(true);
+        for (int i = 0; i < 100; i++) {
+            taskService.addTask("Task " + i);
+        }
+        taskService.flush();
+        release.countDown();
+
+        // Then it is told to reload, after at most the changes taken before it got stuck
+        String message = messages.poll(10, TimeUnit.SECONDS);
+        if (message.startsWith("{\"type\": \"changes\"")) {
+            message = messages.poll(10, TimeUnit.SECONDS);
+        }
+        assertEquals("{\"type\": \"resync\"}", message);
+    }
+
+    /**
+     * Creates a mock session that records the text of the messages sent to
+     * it. If a latch is given, sends wait for it first.
+     */
+    private static WebSocketSession session(String id, BlockingQueue<String> messages, CountDownLatch release)
+            throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        doAnswer(invocation -> {
+            if (release != null) {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            WebSocketMessage<?> message = invocation.getArgument(0);
+            messages.add(((TextMessage) message).getPayload());
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+
+    /**
+     * Finds the last status pushed for a task.
+     */
+    private static TaskStatus lastStatus(String messages, long id) {
+        String prefix = "\"id\": " + id + ", \"description\": \"Task " + id + "\", \"status\": \"";
+        int start = messages.lastIndexOf(prefix) + prefix.length();
+        return TaskStatus.valueOf(messages.substring(start, messages.indexOf('"', start)));
+    }
+}
@@ -1,2 +1,2 @@
 @echo off
-java -jar target/tasktracker-0.0.1-SNAPSHOT.jar %* 
\ No newline at end of file
+java -Dspring.profiles.active=cli -jar "%~dp0target\tasktracker-0.0.1-SNAPSHOT.war" %*
\ No newline at end of file
@@ -1,2 +1,19 @@
 #!/bin/bash
-java -jar target/tasktracker-0.0.1-SNAPSHOT.jar "$@" 
\ No newline at end of file
+# Runs the task tracker CLI with the fast-start "cli" profile.
+# When build-cds.sh has been run, the AOT-processed classes and the AppCDS
+# archive in target/cli are used; otherwise the packaged war is run as is.
+ROOT="$(cd "$(dirname "$0")" && pwd)"
+CLI="$ROOT/target/cli"
+JAVA_OPTS=(-Dspring.profiles.active=cli)
+
+# Single commands finish before the optimizing compiler would pay off
+case "${1:-}" in
+    batch|shell) ;;
+    *) JAVA_OPTS+=(-XX:TieredStopAtLevel=1) ;;
+esac
+
+if [ -f "$CLI/tasktracker.jsa" ]; then
+    exec java "${JAVA_OPTS[@]}" -Dspring.aot.enabled=true -XX:SharedArchiveFile="$CLI/tasktracker.jsa" \
+        -cp "$(cat "$CLI/classpath")" io.github.thuandao.tasktracker.TasktrackerApplication "$@"
+fi
+exec java "${JAVA_OPTS[@]}" -jar "$ROOT/target/tasktracker-0.0.1-SNAPSHOT.war" "$@"